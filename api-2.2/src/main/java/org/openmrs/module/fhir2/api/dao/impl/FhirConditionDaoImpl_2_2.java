@@ -11,7 +11,6 @@ package org.openmrs.module.fhir2.api.dao.impl;
 
 import static org.hibernate.criterion.Restrictions.eq;
 
-import java.util.Collection;
 import java.util.Date;
 import java.util.Optional;
 
@@ -29,6 +28,7 @@ import org.openmrs.Condition;
 import org.openmrs.ConditionClinicalStatus;
 import org.openmrs.annotation.OpenmrsProfile;
 import org.openmrs.module.fhir2.api.dao.FhirConditionDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Primary;
@@ -65,28 +65,33 @@ public class FhirConditionDaoImpl_2_2 extends BaseDaoImpl implements FhirConditi
 	}
 	
 	@Override
-	public Collection<Condition> searchForConditions(ReferenceAndListParam patientParam, ReferenceAndListParam subjectParam,
+	public SearchQuery<Condition> searchForConditions(ReferenceAndListParam patientParam, ReferenceAndListParam subjectParam,
 	        TokenAndListParam code, TokenAndListParam clinicalStatus, DateRangeParam onsetDate, QuantityParam onsetAge,
 	        DateRangeParam recordedData, SortSpec sort) {
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Condition.class);
+		SearchQuery<Condition> searchQuery = toSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Condition.class);
+			
+			handlePatientReference(criteria, patientParam);
+			if (patientParam == null) {
+				handlePatientReference(criteria, subjectParam);
+			}
+			handleDateRange("onsetDate", onsetDate).ifPresent(criteria::add);
+			// TODO: Handle onsetAge as well.
+			handleDateRange("dateCreated", recordedData).ifPresent(criteria::add);
+			handleAndListParam(clinicalStatus,
+			    tokenParam -> Optional.of(eq("clinicalStatus", convertStatus(tokenParam.getValue())))).ifPresent(criteria::add);
+			if (code != null) {
+				criteria.createAlias("condition.coded", "cd");
+				handleCodeableConcept(criteria, code, "cd", "map", "term").ifPresent(criteria::add);
+			}
+			
+			handleSort(criteria, sort);
+			
+			return criteria;
+		});
 		
-		handlePatientReference(criteria, patientParam);
-		if (patientParam == null) {
-			handlePatientReference(criteria, subjectParam);
-		}
-		handleDateRange("onsetDate", onsetDate).ifPresent(criteria::add);
-		// TODO: Handle onsetAge as well.
-		handleDateRange("dateCreated", recordedData).ifPresent(criteria::add);
-		handleAndListParam(clinicalStatus,
-		    tokenParam -> Optional.of(eq("clinicalStatus", convertStatus(tokenParam.getValue())))).ifPresent(criteria::add);
-		if (code != null) {
-			criteria.createAlias("condition.coded", "cd");
-			handleCodeableConcept(criteria, code, "cd", "map", "term").ifPresent(criteria::add);
-		}
-		
-		handleSort(criteria, sort);
-		
-		return criteria.list();
+		return toCachedSearchQuery(Condition.class, searchQuery, patientParam, subjectParam, code, clinicalStatus, onsetDate,
+		    onsetAge, recordedData, sort);
 	}
 	
 	@Override
@@ -9,11 +9,9 @@
  */
 package org.openmrs.module.fhir2.api.impl;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
-
 import ca.uhn.fhir.rest.annotation.Sort;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
@@ -24,6 +22,7 @@ import org.hl7.fhir.r4.model.Condition;
 import org.openmrs.annotation.OpenmrsProfile;
 import org.openmrs.module.fhir2.api.FhirConditionService;
 import org.openmrs.module.fhir2.api.dao.impl.FhirConditionDaoImpl_2_2;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 import org.openmrs.module.fhir2.api.translators.impl.ConditionTranslatorImpl_2_2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
@@ -50,11 +49,11 @@ public class FhirConditionServiceImpl_2_2 implements FhirConditionService {
 	}
 	
 	@Override
-	public Collection<Condition> searchConditions(ReferenceAndListParam patientParam, ReferenceAndListParam subjectParam,
+	public IBundleProvider searchConditions(ReferenceAndListParam patientParam, ReferenceAndListParam subjectParam,
 	        TokenAndListParam code, TokenAndListParam clinicalStatus, DateRangeParam onsetDate, QuantityParam onsetAge,
 	        DateRangeParam recordedDate, @Sort SortSpec sort) {
-		return dao.searchForConditions(patientParam, subjectParam, code, clinicalStatus, onsetDate, onsetAge, recordedDate,
-		    sort).stream().map(conditionTranslator::toFhirResource).collect(Collectors.toList());
+		return new SearchQueryBundleProvider<>(dao.searchForConditions(patientParam, subjectParam, code, clinicalStatus,
+		    onsetDate, onsetAge, recordedDate, sort), conditionTranslator::toFhirResource);
 	}
 	
 	@Override
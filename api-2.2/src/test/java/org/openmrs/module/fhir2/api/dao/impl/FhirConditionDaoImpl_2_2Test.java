@@ -122,7 +122,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		ReferenceParam patientReference = new ReferenceParam("", PATIENT_UUID);
 		ReferenceAndListParam patientList = new ReferenceAndListParam();
 		patientList.addValue(new ReferenceOrListParam().add(patientReference));
-		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -135,7 +136,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		ReferenceParam patientReference = new ReferenceParam(Patient.SP_GIVEN, PATIENT_GIVEN_NAME);
 		ReferenceAndListParam patientList = new ReferenceAndListParam();
 		patientList.addValue(new ReferenceOrListParam().add(patientReference));
-		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -151,7 +153,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		ReferenceParam patientReference = new ReferenceParam(Patient.SP_GIVEN, PATIENT_NOT_FOUND_NAME);
 		ReferenceAndListParam patientList = new ReferenceAndListParam();
 		patientList.addValue(new ReferenceOrListParam().add(patientReference));
-		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, empty());
@@ -163,7 +166,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		ReferenceParam patientReference2 = new ReferenceParam(Patient.SP_GIVEN, ANOTHER_GIVEN_NAME);
 		ReferenceAndListParam patientList = new ReferenceAndListParam();
 		patientList.addValue(new ReferenceOrListParam().add(patientReference1).add(patientReference2));
-		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, empty());
@@ -174,7 +178,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		ReferenceParam patientReference = new ReferenceParam(Patient.SP_FAMILY, PATIENT_FAMILY_NAME);
 		ReferenceAndListParam patientList = new ReferenceAndListParam();
 		patientList.addValue(new ReferenceOrListParam().add(patientReference));
-		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -187,7 +192,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		ReferenceParam patientReference = new ReferenceParam(Patient.SP_NAME, PATIENT_PARTIAL_NAME);
 		ReferenceAndListParam patientList = new ReferenceAndListParam();
 		patientList.addValue(new ReferenceOrListParam().add(patientReference));
-		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(patientList, null, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -201,7 +207,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		ReferenceParam subjectReference = new ReferenceParam(Patient.SP_NAME, PATIENT_PARTIAL_NAME);
 		ReferenceAndListParam subjectList = new ReferenceAndListParam();
 		subjectList.addValue(new ReferenceOrListParam().add(subjectReference));
-		Collection<Condition> results = dao.searchForConditions(null, subjectList, null, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, subjectList, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -219,7 +226,7 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		ReferenceAndListParam subjectList = new ReferenceAndListParam();
 		subjectList.addValue(new ReferenceOrListParam().add(subjectReference));
 		Collection<Condition> results = dao.searchForConditions(patientList, subjectList, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -232,7 +239,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		String testDate = "2017-01-12";
 		
 		DateRangeParam onsetDate = new DateRangeParam(new DateParam("eq" + testDate));
-		Collection<Condition> results = dao.searchForConditions(null, null, null, null, onsetDate, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, null, null, onsetDate, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -247,7 +255,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		String actualDate = "2020-03-05";
 		
 		DateRangeParam onsetDate = new DateRangeParam(new DateParam(startDate), new DateParam(endDate));
-		Collection<Condition> results = dao.searchForConditions(null, null, null, null, onsetDate, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, null, null, onsetDate, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -261,7 +270,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		String actualDate = "2017-01-12";
 		
 		DateRangeParam onsetDate = new DateRangeParam(new DateParam("lt" + testDate));
-		Collection<Condition> results = dao.searchForConditions(null, null, null, null, onsetDate, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, null, null, onsetDate, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -274,7 +284,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		String testDate = "2016-01-12";
 		
 		DateRangeParam recordedDate = new DateRangeParam(new DateParam("eq" + testDate));
-		Collection<Condition> results = dao.searchForConditions(null, null, null, null, null, null, recordedDate, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, null, null, null, null, recordedDate,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -286,7 +297,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 	public void searchForPatients_shouldReturnConditionByClinicalStatusActive() {
 		TokenAndListParam listParam = new TokenAndListParam();
 		listParam.addValue(new TokenOrListParam().add(new TokenParam("active")));
-		Collection<Condition> results = dao.searchForConditions(null, null, null, listParam, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, null, listParam, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -298,7 +310,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 	public void searchForPatients_shouldReturnConditionByClinicalStatusInactive() {
 		TokenAndListParam listParam = new TokenAndListParam();
 		listParam.addValue(new TokenOrListParam().add(new TokenParam("inactive")));
-		Collection<Condition> results = dao.searchForConditions(null, null, null, listParam, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, null, listParam, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -310,7 +323,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 	public void searchForPatients_shouldReturnConditionByClinicalStatusAll() {
 		TokenAndListParam listParam = new TokenAndListParam();
 		listParam.addValue(new TokenOrListParam().add(new TokenParam("active")).add(new TokenParam("inactive")));
-		Collection<Condition> results = dao.searchForConditions(null, null, null, listParam, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, null, listParam, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -321,7 +335,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 	public void searchForPatients_shouldReturnConditionByCode() {
 		TokenAndListParam listParam = new TokenAndListParam();
 		listParam.addValue(new TokenOrListParam().add(new TokenParam("http://made_up_concepts.info/sct", "CD41003"))); // for concept_id=5497
-		Collection<Condition> results = dao.searchForConditions(null, null, listParam, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, listParam, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -335,7 +350,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 		// Adding codes concept_id=5497 and concept_id=5089.
 		listParam.addValue(new TokenOrListParam().add(new TokenParam("http://made_up_concepts.info/sct", "CD41003"))
 		        .add(new TokenParam("http://made_up_concepts.info/sct", "WGT234")));
-		Collection<Condition> results = dao.searchForConditions(null, null, listParam, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, listParam, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -346,7 +362,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 	public void searchForPatients_shouldReturnConditionByCodeAndNoSystem() {
 		TokenAndListParam listParam = new TokenAndListParam();
 		listParam.addValue(new TokenOrListParam().add(new TokenParam("5497")));
-		Collection<Condition> results = dao.searchForConditions(null, null, listParam, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, listParam, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -358,7 +375,8 @@ public class FhirConditionDaoImpl_2_2Test extends BaseModuleContextSensitiveTest
 	public void searchForPatients_shouldReturnMultipleConditionsByCodeListAndNoSystem() {
 		TokenAndListParam listParam = new TokenAndListParam();
 		listParam.addValue(new TokenOrListParam().add(new TokenParam("5497")).add(new TokenParam("5089")));
-		Collection<Condition> results = dao.searchForConditions(null, null, listParam, null, null, null, null, null);
+		Collection<Condition> results = dao.searchForConditions(null, null, listParam, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -13,12 +13,14 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.List;
 
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
@@ -27,6 +29,7 @@ import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Patient;
 import org.junit.Before;
 import org.junit.Test;
@@ -35,6 +38,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.Condition;
 import org.openmrs.module.fhir2.api.dao.impl.FhirConditionDaoImpl_2_2;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.module.fhir2.api.translators.impl.ConditionTranslatorImpl_2_2;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -47,6 +51,9 @@ public class FhirConditionServiceImpl_2_2Test {
 	@Mock
 	private FhirConditionDaoImpl_2_2 dao;
 	
+	@Mock
+	private SearchQuery<Condition> searchQuery;
+	
 	@Mock
 	private ConditionTranslatorImpl_2_2 conditionTranslator;
 	
@@ -118,13 +125,19 @@ public class FhirConditionServiceImpl_2_2Test {
 		        .setUpperBound("upper record date");
 		SortSpec sort = new SortSpec("sort param");
 		when(dao.searchForConditions(patientReference, subjectReference, codeList, clinicalList, onsetDate, onsetAge,
-		    recordDate, sort)).thenReturn(Arrays.asList(openmrsCondition));
+		    recordDate, sort)).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Arrays.asList(openmrsCondition));
 		when(conditionTranslator.toFhirResource(openmrsCondition)).thenReturn(fhirCondition);
 		
-		Collection<org.hl7.fhir.r4.model.Condition> result = conditionService.searchConditions(patientReference,
-		    subjectReference, codeList, clinicalList, onsetDate, onsetAge, recordDate, sort);
+		IBundleProvider result = conditionService.searchConditions(patientReference, subjectReference, codeList,
+		    clinicalList, onsetDate, onsetAge, recordDate, sort);
+		List<IBaseResource> resultList = get(result);
 		assertThat(result, notNullValue());
-		assertThat(result.size(), equalTo(1));
-		assertThat(result, equalTo(Arrays.asList(fhirCondition)));
+		assertThat(resultList.size(), equalTo(1));
+		assertThat(resultList, equalTo(Arrays.asList(fhirCondition)));
+	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
 	}
 }
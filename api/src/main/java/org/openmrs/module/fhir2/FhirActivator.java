@@ -9,7 +9,9 @@
  */
 package org.openmrs.module.fhir2;
 
+import org.openmrs.api.context.Context;
 import org.openmrs.module.BaseModuleActivator;
+import org.openmrs.module.fhir2.api.impl.FhirGlobalPropertyCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,11 +25,22 @@ public class FhirActivator extends BaseModuleActivator {
 	
 	@Override
 	public void started() {
+		// global properties are only cached while changes to them can be seen
+		for (FhirGlobalPropertyCache globalPropertyCache : Context.getRegisteredComponents(FhirGlobalPropertyCache.class)) {
+			Context.getAdministrationService().addGlobalPropertyListener(globalPropertyCache);
+			globalPropertyCache.setEnabled(true);
+		}
+		
 		log.info("Started FHIR");
 	}
 	
 	@Override
 	public void stopped() {
+		for (FhirGlobalPropertyCache globalPropertyCache : Context.getRegisteredComponents(FhirGlobalPropertyCache.class)) {
+			globalPropertyCache.setEnabled(false);
+			Context.getAdministrationService().removeGlobalPropertyListener(globalPropertyCache);
+		}
+		
 		log.info("Shutdown FHIR");
 	}
 	
@@ -91,6 +91,28 @@ public class FhirConstants {
 	
 	public static final String OPENMRS_FHIR_MAXIMUM_PAGE_SIZE = "fhir2.paging.maximum";
 	
+	public static final String OPENMRS_FHIR_PAGING_TIMEOUT = "fhir2.paging.timeout";
+	
+	public static final String OPENMRS_FHIR_PAGING_STORE = "fhir2.paging.store";
+	
+	public static final String OPENMRS_FHIR_PAGING_MEMORY_LIMIT = "fhir2.paging.memoryLimit";
+	
+	public static final String OPENMRS_FHIR_SEARCH_CACHE_TTL = "fhir2.searchCache.ttl";
+	
+	public static final String OPENMRS_FHIR_SEARCH_CACHE_MAXIMUM_SIZE = "fhir2.searchCache.maximumSize";
+	
+	public static final String OPENMRS_FHIR_CONCEPT_CACHE_MAXIMUM_SIZE = "fhir2.conceptCache.maximumSize";
+	
+	public static final String OPENMRS_FHIR_PROVENANCE_MODE = "fhir2.provenance.mode";
+	
+	public static final String OPENMRS_FHIR_NAME_TOKEN_SEARCH = "fhir2.search.nameTokens";
+	
+	public static final String OPENMRS_FHIR_CASE_INSENSITIVE_COLLATION = "fhir2.search.caseInsensitiveCollation";
+	
+	public static final String PRIVILEGE_BULK_EXPORT = "Export FHIR Bulk Data";
+	
+	public static final String INCLUDE_VOIDED_SEARCH_PARAM = "includeVoided";
+	
 	public static final String ENCOUNTER = "Encounter";
 	
 	public static final String OBSERVATION = "Observation";
@@ -113,6 +135,10 @@ public class FhirConstants {
 	
 	public static final String MEDICATION = "Medication";
 	
+	public static final String ALLERGY_INTOLERANCE = "AllergyIntolerance";
+	
+	public static final String CONDITION = "Condition";
+	
 	public static final String DIAGNOSTIC_REPORT_CATEGORY_LAB = "LAB";
 	
 	public static String PERSON_ATTRIBUTE_TYPE_PROPERTY = "fhir2.personAttributeTypeUuid";
@@ -0,0 +1,71 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import java.util.Date;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.openmrs.BaseOpenmrsObject;
+
+/**
+ * A search which a client is paging through. The ordered ids of the matching objects are stored, in
+ * {@link FhirPagedSearchResult}s, along with the types needed to translate them, so that any server
+ * can load a page of the results on request and every page comes from the same snapshot of the
+ * results. The {@code _include} and {@code _revinclude} values of the search are kept, separated by
+ * commas, so that every page carries the same included resources as the first, and every page leaves
+ * out the total if the first did, e.g. for {@code _total=none}.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "fhir_paged_search")
+public class FhirPagedSearch extends BaseOpenmrsObject {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.AUTO)
+	@Column(name = "paged_search_id")
+	private Integer id;
+	
+	@Column(name = "resource_type", nullable = false)
+	private String resourceType;
+	
+	@Column(name = "entity_name", nullable = false)
+	private String entityName;
+	
+	@Column(name = "includes", length = 1024)
+	private String includes;
+	
+	@Column(name = "rev_includes", length = 1024)
+	private String revIncludes;
+	
+	@Column(name = "total", nullable = false)
+	private Integer total;
+	
+	@Column(name = "include_total", nullable = false)
+	private boolean includeTotal = true;
+	
+	@Column(name = "date_created", nullable = false)
+	private Date dateCreated;
+	
+	@Column(name = "expires", nullable = false)
+	private Date expires;
+}
@@ -0,0 +1,61 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.openmrs.PersonName;
+
+/**
+ * A single normalized token from one part of a {@link PersonName}, e.g. the {@code givenName}.
+ * Searches on names look up the matching tokens through an index on this table rather than scanning
+ * every name.
+ *
+ * @see org.openmrs.module.fhir2.api.util.PersonNameTokenizer
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "fhir_person_name_token")
+public class FhirPersonNameToken {
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.AUTO)
+	@Column(name = "person_name_token_id")
+	private Integer id;
+	
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "person_name_id", nullable = false)
+	@OnDelete(action = OnDeleteAction.CASCADE)
+	private PersonName personName;
+	
+	/**
+	 * The property of the name the token was taken from, e.g. {@code givenName}
+	 */
+	@Column(name = "name_part", nullable = false, length = 50)
+	private String namePart;
+	
+	@Column(name = "token", nullable = false)
+	private String token;
+}
@@ -0,0 +1,58 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openmrs.Person;
+
+/**
+ * The keys used to sort people by their preferred name. Each is derived from the preferred, unvoided
+ * name of the person, case-folded and without accents, so that sorting people by name is a single
+ * indexed lookup per person rather than a search for their preferred name. Every person has a row;
+ * the keys of a person without any unvoided names are null.
+ * <p/>
+ * The rows are written by the {@link org.openmrs.module.fhir2.api.search.PersonNameTokenInterceptor},
+ * never through Hibernate, so the association to the person is read-only. It allows searches to be
+ * ordered by a sort key by starting from this table, as {@link Person} has no association to it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "fhir_person_sort_key")
+public class FhirPersonSortKey {
+	
+	@Id
+	@Column(name = "person_id")
+	private Integer personId;
+	
+	@OneToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "person_id", insertable = false, updatable = false)
+	private Person person;
+	
+	@Column(name = "name_key")
+	private String nameKey;
+	
+	@Column(name = "given_key", length = 50)
+	private String givenKey;
+	
+	@Column(name = "family_key", length = 50)
+	private String familyKey;
+}
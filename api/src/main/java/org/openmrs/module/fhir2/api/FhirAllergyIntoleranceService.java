@@ -11,8 +11,7 @@ package org.openmrs.module.fhir2.api;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
-
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
@@ -22,7 +21,7 @@ public interface FhirAllergyIntoleranceService {
 	
 	AllergyIntolerance getAllergyIntoleranceByUuid(@NotNull String uuid);
 	
-	Collection<AllergyIntolerance> searchForAllergies(ReferenceAndListParam patientReference, TokenOrListParam category,
+	IBundleProvider searchForAllergies(ReferenceAndListParam patientReference, TokenOrListParam category,
 	        TokenAndListParam allergen, TokenOrListParam severity, TokenAndListParam manifestationCode,
 	        TokenOrListParam clinicalStatus);
 }
@@ -0,0 +1,75 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api;
+
+import javax.validation.constraints.NotNull;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Set;
+
+import org.openmrs.module.fhir2.api.export.BulkExportJob;
+
+public interface FhirBulkExportService {
+	
+	/**
+	 * @return the FHIR resource types which can be exported
+	 */
+	Set<String> getExportableResourceTypes();
+	
+	/**
+	 * Starts exporting the resources of every patient in the background. This requires the
+	 * {@link org.openmrs.module.fhir2.FhirConstants#PRIVILEGE_BULK_EXPORT} privilege.
+	 *
+	 * @param resourceTypes the resource types to export
+	 * @param since if not null, only resources created or changed since this time are exported
+	 * @param request the url of the request which started the export
+	 * @return the export
+	 * @throws org.openmrs.api.APIAuthenticationException if the user cannot start exports
+	 */
+	BulkExportJob startExport(@NotNull Collection<String> resourceTypes, Date since, String request);
+	
+	/**
+	 * Starts exporting the resources of the members of a group in the background. This requires the
+	 * {@link org.openmrs.module.fhir2.FhirConstants#PRIVILEGE_BULK_EXPORT} privilege.
+	 *
+	 * @param groupUuid the uuid of the cohort backing the group
+	 * @param resourceTypes the resource types to export
+	 * @param since if not null, only resources created or changed since this time are exported
+	 * @param request the url of the request which started the export
+	 * @return the export or null if there is no such group
+	 * @throws org.openmrs.api.APIAuthenticationException if the user cannot start exports
+	 */
+	BulkExportJob startExport(@NotNull String groupUuid, @NotNull Collection<String> resourceTypes, Date since,
+	        String request);
+	
+	/**
+	 * @param jobId the id of the export
+	 * @return the export or null if there is no such export or it was started by another user
+	 */
+	BulkExportJob getExport(@NotNull String jobId);
+	
+	/**
+	 * Cancels an export, deleting any files it has written
+	 *
+	 * @param jobId the id of the export
+	 * @return the export or null if there is no such export or it was started by another user
+	 */
+	BulkExportJob cancelExport(@NotNull String jobId);
+	
+	/**
+	 * @param jobId the id of the export
+	 * @param fileName the name of a file written by the export
+	 * @return the file or null if there is no such completed export, it was started by another user or
+	 *         it did not write that file
+	 */
+	File getExportFile(@NotNull String jobId, @NotNull String fileName);
+}
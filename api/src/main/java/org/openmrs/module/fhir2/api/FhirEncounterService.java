@@ -11,8 +11,10 @@ package org.openmrs.module.fhir2.api;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
+import java.util.Set;
 
+import ca.uhn.fhir.model.api.Include;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import org.hl7.fhir.r4.model.Encounter;
@@ -21,6 +23,7 @@ public interface FhirEncounterService {
 	
 	Encounter getEncounterByUuid(@NotNull String uuid);
 	
-	Collection<Encounter> searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
-	        ReferenceAndListParam participant, ReferenceAndListParam subject);
+	IBundleProvider searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
+	        ReferenceAndListParam participant, ReferenceAndListParam subject, Set<Include> includes,
+	        Set<Include> revIncludes, boolean includeVoided);
 }
@@ -11,9 +11,8 @@ package org.openmrs.module.fhir2.api;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
-
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceOrListParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
@@ -23,7 +22,7 @@ public interface FhirLocationService {
 	
 	Location getLocationByUuid(@NotNull String uuid);
 	
-	Collection<Location> searchForLocations(StringOrListParam name, StringOrListParam city, StringOrListParam country,
+	IBundleProvider searchForLocations(StringOrListParam name, StringOrListParam city, StringOrListParam country,
 	        StringOrListParam postalCode, StringOrListParam state, TokenOrListParam tag, ReferenceOrListParam parent,
 	        SortSpec sort);
 }
@@ -11,8 +11,7 @@ package org.openmrs.module.fhir2.api;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
-
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import org.hl7.fhir.r4.model.Medication;
@@ -25,6 +24,6 @@ public interface FhirMedicationService {
 	
 	Medication updateMedication(@NotNull Medication medication, String uuid);
 	
-	Collection<Medication> searchForMedications(TokenAndListParam code, TokenAndListParam dosageForm,
+	IBundleProvider searchForMedications(TokenAndListParam code, TokenAndListParam dosageForm,
 	        TokenOrListParam ingredientCode, TokenOrListParam status);
 }
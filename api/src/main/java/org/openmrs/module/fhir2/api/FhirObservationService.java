@@ -11,9 +11,11 @@ package org.openmrs.module.fhir2.api;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
+import java.util.Set;
 
+import ca.uhn.fhir.model.api.Include;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityAndListParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
@@ -26,8 +28,8 @@ public interface FhirObservationService {
 	
 	Observation getObservationByUuid(@NotNull String uuid);
 	
-	Collection<Observation> searchForObservations(ReferenceAndListParam encounterReference,
+	IBundleProvider searchForObservations(ReferenceAndListParam encounterReference,
 	        ReferenceAndListParam patientReference, ReferenceParam hasMemberReference, TokenAndListParam valueConcept,
 	        DateRangeParam valueDateParam, QuantityAndListParam valueQuantityParam, StringAndListParam valueStringParam,
-	        DateRangeParam date, TokenAndListParam code, SortSpec sort);
+	        DateRangeParam date, TokenAndListParam code, SortSpec sort, Set<Include> includes, boolean includeVoided);
 }
@@ -0,0 +1,66 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.Set;
+
+import ca.uhn.fhir.model.api.Include;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.openmrs.module.fhir2.FhirPagedSearch;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+
+/**
+ * Stores the results of searches which clients page through, so that the pages can be loaded on
+ * request by any server sharing the same database.
+ */
+public interface FhirPagedSearchService {
+	
+	/**
+	 * Runs the query of a search and saves the ids of its results, in order, so that each page of the
+	 * results can be loaded later. The search expires after the number of minutes set by
+	 * {@link org.openmrs.module.fhir2.FhirConstants#OPENMRS_FHIR_PAGING_TIMEOUT}.
+	 *
+	 * @param resourceType the type of FHIR resource searched for
+	 * @param searchQuery the query run by the search
+	 * @param includeTotal whether the total number of results is returned with each page, which is not
+	 *            the case for {@code _total=none}
+	 * @param includes the values of the {@code _include} parameter of the search, which may be null
+	 * @param revIncludes the values of the {@code _revinclude} parameter of the search, which may be null
+	 * @return the saved search or null if the search cannot be stored
+	 */
+	FhirPagedSearch savePagedSearch(@NotNull String resourceType, @NotNull SearchQuery<?> searchQuery,
+	        boolean includeTotal, Set<Include> includes, Set<Include> revIncludes);
+	
+	/**
+	 * @param uuid the uuid of the search
+	 * @return the search or null if the search does not exist or has expired
+	 */
+	FhirPagedSearch getPagedSearchByUuid(@NotNull String uuid);
+	
+	/**
+	 * Loads a page of the results stored with a search
+	 *
+	 * @param search the search
+	 * @param fromIndex the (0-based) index of the first result to return
+	 * @param toIndex the index after the last result to return
+	 * @return the requested page of results, translated into FHIR resources and followed by the
+	 *         resources they include, or null if the results can no longer be translated, e.g. because
+	 *         the module has been upgraded since the search was saved
+	 */
+	List<IBaseResource> getResources(@NotNull FhirPagedSearch search, int fromIndex, int toIndex);
+	
+	/**
+	 * Deletes all searches which have expired
+	 */
+	void purgeExpiredPagedSearches();
+}
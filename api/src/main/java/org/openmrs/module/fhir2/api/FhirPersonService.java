@@ -9,9 +9,8 @@
  */
 package org.openmrs.module.fhir2.api;
 
-import java.util.Collection;
-
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
@@ -21,8 +20,8 @@ public interface FhirPersonService {
 	
 	Person getPersonByUuid(String uuid);
 	
-	Collection<Person> searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
+	IBundleProvider searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
 	        StringOrListParam city, StringOrListParam state, StringOrListParam postalCode, StringOrListParam country,
-	        SortSpec sort);
+	        SortSpec sort, boolean includeVoided);
 	
 }
@@ -0,0 +1,38 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api;
+
+import java.util.List;
+
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import org.hl7.fhir.r4.model.Provenance;
+
+public interface FhirProvenanceService {
+	
+	/**
+	 * Returns the provenance of the referenced resource, i.e. a {@link Provenance} recording its
+	 * creation and, if it has since been changed, one recording its last change
+	 *
+	 * @param target a reference to the resource; where the reference has no resource type, every type
+	 *            which has provenance is tried in turn
+	 * @return the provenance of the target, or an empty list if no such resource exists
+	 */
+	List<Provenance> searchForProvenance(ReferenceParam target);
+	
+	/**
+	 * Returns a single {@link Provenance} returned by {@link #searchForProvenance(ReferenceParam)}.
+	 * Their ids are the uuid of their target followed by {@code -create} or {@code -update}.
+	 *
+	 * @param id the id of the provenance
+	 * @return the provenance with the given id, or null if its target doesn't exist or has no such
+	 *         provenance
+	 */
+	Provenance getProvenanceById(String id);
+}
@@ -12,6 +12,7 @@ package org.openmrs.module.fhir2.api;
 import java.util.Collection;
 
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import org.hl7.fhir.r4.model.DomainResource;
@@ -62,8 +63,8 @@ public interface FhirTaskService {
 	 * @param ownerReference
 	 * @param status
 	 * @param sort
-	 * @return the collection of Tasks that match the search parameters
+	 * @return a bundle provider for the Tasks that match the search parameters
 	 */
-	Collection<Task> searchForTasks(ReferenceParam basedOnReference, ReferenceParam ownerReference, TokenOrListParam status,
+	IBundleProvider searchForTasks(ReferenceParam basedOnReference, ReferenceParam ownerReference, TokenOrListParam status,
 	        SortSpec sort);
 }
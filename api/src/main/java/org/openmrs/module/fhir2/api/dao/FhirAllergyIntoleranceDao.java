@@ -11,18 +11,17 @@ package org.openmrs.module.fhir2.api.dao;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
-
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import org.openmrs.Allergy;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirAllergyIntoleranceDao {
 	
 	Allergy getAllergyIntoleranceByUuid(@NotNull String uuid);
 	
-	Collection<Allergy> searchForAllergies(ReferenceAndListParam patientReference, TokenOrListParam category,
+	SearchQuery<Allergy> searchForAllergies(ReferenceAndListParam patientReference, TokenOrListParam category,
 	        TokenAndListParam allergen, TokenOrListParam severity, TokenAndListParam manifestationCode,
 	        TokenOrListParam clinicalStatus);
 }
@@ -0,0 +1,50 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+
+public interface FhirBulkExportDao {
+	
+	/**
+	 * Returns a page of the ids of every (non-voided) patient, in ascending order
+	 *
+	 * @param afterPatientId only ids greater than this are returned, or null to return the first page
+	 * @param maxResults the maximum number of ids to return
+	 * @return the ids of the patients
+	 */
+	List<Integer> getPatientIds(Integer afterPatientId, int maxResults);
+	
+	/**
+	 * Creates a query for the (non-voided) objects of the given type which belong to any of the given
+	 * patients, ordered by primary key
+	 *
+	 * @param entityName the name of the OpenMRS type to export, e.g. {@code "org.openmrs.Obs"}
+	 * @param patientProperty the property of that type referring to the patient or null if the type is
+	 *            the patient itself
+	 * @param patientIds the ids of the patients to export objects for
+	 * @param since if not null, only objects created or changed since this time are returned
+	 * @return a query for the objects to export
+	 */
+	SearchQuery<Object> searchForExport(@NotNull String entityName, String patientProperty,
+	        @NotNull Collection<Integer> patientIds, Date since);
+	
+	/**
+	 * Clears the current session, so that the objects loaded for an exported batch of patients can be
+	 * garbage collected
+	 */
+	void clearSession();
+}
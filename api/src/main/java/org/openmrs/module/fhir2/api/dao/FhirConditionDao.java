@@ -11,13 +11,12 @@ package org.openmrs.module.fhir2.api.dao;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
-
 import ca.uhn.fhir.rest.api.SortSpec;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirConditionDao<T> {
 	
@@ -25,7 +24,7 @@ public interface FhirConditionDao<T> {
 	
 	T saveCondition(@NotNull T condition);
 	
-	Collection<T> searchForConditions(ReferenceAndListParam patientParam, ReferenceAndListParam subjectParam,
+	SearchQuery<T> searchForConditions(ReferenceAndListParam patientParam, ReferenceAndListParam subjectParam,
 	        TokenAndListParam code, TokenAndListParam clinicalStatus, DateRangeParam onsetDate, QuantityParam onsetAge,
 	        DateRangeParam recordedDate, SortSpec sort);
 }
@@ -12,15 +12,26 @@ package org.openmrs.module.fhir2.api.dao;
 import javax.validation.constraints.NotNull;
 
 import java.util.Collection;
+import java.util.List;
 
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import org.openmrs.Encounter;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirEncounterDao {
 	
 	Encounter getEncounterByUuid(@NotNull String uuid);
 	
-	Collection<Encounter> searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
+	List<Encounter> getEncountersByUuids(@NotNull Collection<String> uuids);
+	
+	SearchQuery<Encounter> searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
 	        ReferenceAndListParam participant, ReferenceAndListParam subject);
+	
+	/**
+	 * Like {@link #searchForEncounters}, which only matches unvoided encounters, but voided encounters
+	 * are matched too if {@code includeVoided} is true
+	 */
+	SearchQuery<Encounter> searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
+	        ReferenceAndListParam participant, ReferenceAndListParam subject, boolean includeVoided);
 }
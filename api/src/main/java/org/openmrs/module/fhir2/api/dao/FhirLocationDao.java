@@ -20,12 +20,15 @@ import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import org.openmrs.Location;
 import org.openmrs.LocationAttribute;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirLocationDao {
 	
 	Location getLocationByUuid(@NotNull String uuid);
 	
-	Collection<Location> searchForLocations(StringOrListParam name, StringOrListParam city, StringOrListParam country,
+	List<Location> getLocationsByUuids(@NotNull Collection<String> uuids);
+	
+	SearchQuery<Location> searchForLocations(StringOrListParam name, StringOrListParam city, StringOrListParam country,
 	        StringOrListParam postalCode, StringOrListParam state, TokenOrListParam tag, ReferenceOrListParam parent,
 	        SortSpec sort);
 	
@@ -11,11 +11,10 @@ package org.openmrs.module.fhir2.api.dao;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
-
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import org.openmrs.Drug;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirMedicationDao {
 	
@@ -23,6 +22,6 @@ public interface FhirMedicationDao {
 	
 	Drug saveMedication(@NotNull Drug drug);
 	
-	Collection<Drug> searchForMedications(TokenAndListParam code, TokenAndListParam dosageForm,
+	SearchQuery<Drug> searchForMedications(TokenAndListParam code, TokenAndListParam dosageForm,
 	        TokenOrListParam ingredientCode, TokenOrListParam status);
 }
@@ -12,6 +12,7 @@ package org.openmrs.module.fhir2.api.dao;
 import javax.validation.constraints.NotNull;
 
 import java.util.Collection;
+import java.util.List;
 
 import ca.uhn.fhir.rest.api.SortSpec;
 import ca.uhn.fhir.rest.param.DateRangeParam;
@@ -21,14 +22,26 @@ import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.StringAndListParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import org.openmrs.Obs;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirObservationDao {
 	
 	Obs getObsByUuid(@NotNull String uuid);
 	
-	Collection<Obs> searchForObservations(ReferenceAndListParam encounterReference, ReferenceAndListParam patientReference,
+	List<Obs> getObsByEncounterUuids(@NotNull Collection<String> encounterUuids);
+	
+	SearchQuery<Obs> searchForObservations(ReferenceAndListParam encounterReference, ReferenceAndListParam patientReference,
 	        ReferenceParam hasMemberReference, TokenAndListParam valueConcept, DateRangeParam valueDateParam,
 	        QuantityAndListParam valueQuantityParam, StringAndListParam valueStringParam, DateRangeParam date,
 	        
 	        TokenAndListParam code, SortSpec sort);
+	
+	/**
+	 * Like {@link #searchForObservations}, which only matches unvoided observations, but voided
+	 * observations are matched too if {@code includeVoided} is true
+	 */
+	SearchQuery<Obs> searchForObservations(ReferenceAndListParam encounterReference, ReferenceAndListParam patientReference,
+	        ReferenceParam hasMemberReference, TokenAndListParam valueConcept, DateRangeParam valueDateParam,
+	        QuantityAndListParam valueQuantityParam, StringAndListParam valueStringParam, DateRangeParam date,
+	        TokenAndListParam code, SortSpec sort, boolean includeVoided);
 }
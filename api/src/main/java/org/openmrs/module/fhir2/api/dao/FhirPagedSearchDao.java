@@ -0,0 +1,46 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.Date;
+import java.util.List;
+
+import org.openmrs.module.fhir2.FhirPagedSearch;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+
+public interface FhirPagedSearchDao {
+	
+	FhirPagedSearch getPagedSearchByUuid(@NotNull String uuid);
+	
+	/**
+	 * Saves a search along with the ordered ids of every result matched by the query it runs. The
+	 * total of the search is set to the number of results stored.
+	 *
+	 * @param search the search to save
+	 * @param searchQuery the query run by the search
+	 * @return the saved search or null if the results of the query cannot be stored, e.g. because it
+	 *         was not created by a DAO
+	 */
+	FhirPagedSearch savePagedSearch(@NotNull FhirPagedSearch search, @NotNull SearchQuery<?> searchQuery);
+	
+	/**
+	 * Loads a single page of the results stored with a search
+	 *
+	 * @param search the search
+	 * @param firstResult the (0-based) index of the first result to return
+	 * @param maxResults the maximum number of results to return
+	 * @return the stored results, skipping any which no longer exist
+	 */
+	List<?> getResults(@NotNull FhirPagedSearch search, int firstResult, int maxResults);
+	
+	int deletePagedSearchesExpiredBefore(@NotNull Date date);
+}
@@ -12,6 +12,7 @@ package org.openmrs.module.fhir2.api.dao;
 import javax.validation.constraints.NotNull;
 
 import java.util.Collection;
+import java.util.List;
 
 import ca.uhn.fhir.rest.api.SortSpec;
 import ca.uhn.fhir.rest.param.DateRangeParam;
@@ -19,6 +20,7 @@ import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifierType;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirPatientDao {
 	
@@ -26,9 +28,11 @@ public interface FhirPatientDao {
 	
 	Patient getPatientByUuid(@NotNull String uuid);
 	
+	List<Patient> getPatientsByUuids(@NotNull Collection<String> uuids);
+	
 	PatientIdentifierType getPatientIdentifierTypeByNameOrUuid(String name, String uuid);
 	
-	Collection<Patient> searchForPatients(StringOrListParam name, StringOrListParam given, StringOrListParam family,
+	SearchQuery<Patient> searchForPatients(StringOrListParam name, StringOrListParam given, StringOrListParam family,
 	        TokenOrListParam identifier, TokenOrListParam gender, DateRangeParam birthDate, DateRangeParam deathDate,
 	        TokenOrListParam deceased, StringOrListParam city, StringOrListParam state, StringOrListParam postalCode,
 	        StringOrListParam country, SortSpec sort);
@@ -11,7 +11,6 @@ package org.openmrs.module.fhir2.api.dao;
 
 import javax.validation.constraints.NotNull;
 
-import java.util.Collection;
 import java.util.List;
 
 import ca.uhn.fhir.rest.api.SortSpec;
@@ -20,6 +19,7 @@ import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import org.openmrs.Person;
 import org.openmrs.PersonAttribute;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirPersonDao {
 	
@@ -28,8 +28,16 @@ public interface FhirPersonDao {
 	List<PersonAttribute> getActiveAttributesByPersonAndAttributeTypeUuid(@NotNull Person person,
 	        @NotNull String personAttributeTypeUuid);
 	
-	Collection<Person> searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
+	SearchQuery<Person> searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
 	        StringOrListParam city, StringOrListParam state, StringOrListParam postalCode, StringOrListParam country,
 	        SortSpec sort);
 	
+	/**
+	 * Like {@link #searchForPeople}, which only matches unvoided people, but voided people are matched
+	 * too if {@code includeVoided} is true
+	 */
+	SearchQuery<Person> searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
+	        StringOrListParam city, StringOrListParam state, StringOrListParam postalCode, StringOrListParam country,
+	        SortSpec sort, boolean includeVoided);
+	
 }
@@ -0,0 +1,34 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.Collection;
+
+import org.openmrs.PersonName;
+
+public interface FhirPersonNameTokenDao {
+	
+	/**
+	 * Replaces the tokens of the given names with their current tokens. Voided names have no tokens.
+	 *
+	 * @param names the names to update the tokens of, which must already have been saved
+	 */
+	void saveNameTokens(@NotNull Collection<PersonName> names);
+	
+	/**
+	 * Replaces the sort keys of the given people with keys derived from their current preferred name.
+	 * People without any unvoided names have no sort keys.
+	 *
+	 * @param personIds the ids of the people to update the sort keys of
+	 */
+	void saveSortKeys(@NotNull Collection<Integer> personIds);
+}
@@ -21,6 +21,8 @@ public interface FhirPractitionerDao {
 	
 	Provider getProviderByUuid(@NotNull String uuid);
 	
+	List<Provider> getProvidersByUuids(@NotNull Collection<String> uuids);
+	
 	Collection<Provider> findProviderByName(@NotNull String name);
 	
 	Collection<Provider> findProviderByIdentifier(@NotNull String identifier);
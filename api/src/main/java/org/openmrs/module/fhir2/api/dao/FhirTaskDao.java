@@ -18,6 +18,7 @@ import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import org.hl7.fhir.r4.model.DomainResource;
 import org.openmrs.module.fhir2.FhirTask;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public interface FhirTaskDao {
 	
@@ -27,6 +28,6 @@ public interface FhirTaskDao {
 	
 	public Collection<FhirTask> getTasksByBasedOnUuid(Class<? extends DomainResource> resourceType, String uuid);
 	
-	public Collection<FhirTask> searchForTasks(ReferenceParam basedOnReference, ReferenceParam ownerReference,
+	public SearchQuery<FhirTask> searchForTasks(ReferenceParam basedOnReference, ReferenceParam ownerReference,
 	        TokenOrListParam status, SortSpec sort);
 }
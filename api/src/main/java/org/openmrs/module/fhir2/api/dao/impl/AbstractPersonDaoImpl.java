@@ -25,8 +25,11 @@ import static org.hl7.fhir.r4.model.Person.SP_NAME;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import ca.uhn.fhir.rest.api.SortOrderEnum;
+import ca.uhn.fhir.rest.api.SortSpec;
 import org.hibernate.Criteria;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Order;
@@ -34,6 +37,8 @@ import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Subqueries;
 import org.hibernate.sql.JoinType;
 import org.openmrs.PersonName;
+import org.openmrs.module.fhir2.FhirPersonSortKey;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 
 public abstract class AbstractPersonDaoImpl extends BaseDaoImpl {
 	
@@ -44,6 +49,49 @@ public abstract class AbstractPersonDaoImpl extends BaseDaoImpl {
 	 */
 	protected abstract String getSqlAlias();
 	
+	/**
+	 * Like {@link #toSearchQuery(Supplier)}, but where the search is sorted only by name, given or
+	 * family and the names are indexed, people are ordered by their {@link FhirPersonSortKey} by a
+	 * {@link PersonSortKeySearchQuery} rather than by their preferred name. The criteria should be
+	 * sorted with {@link #handleSort(Criteria, SortSpec)}, which leaves it unordered in that case.
+	 *
+	 * @param criteriaSupplier a function which creates and fully configures the criteria to run
+	 * @param sort the sort of the search
+	 * @param <T> the type of object returned by the criteria
+	 * @return a {@link SearchQuery} that will run the criteria
+	 */
+	protected <T> SearchQuery<T> toPersonSearchQuery(Supplier<Criteria> criteriaSupplier, SortSpec sort) {
+		return toPersonSearchQuery(criteriaSupplier, sort, false);
+	}
+	
+	/**
+	 * Like {@link #toPersonSearchQuery(Supplier, SortSpec)}, but voided people can be included
+	 *
+	 * @param criteriaSupplier a function which creates and fully configures the criteria to run
+	 * @param sort the sort of the search
+	 * @param includeVoided whether to match voided people as well as unvoided ones
+	 * @param <T> the type of object returned by the criteria
+	 * @return a {@link SearchQuery} that will run the criteria
+	 */
+	protected <T> SearchQuery<T> toPersonSearchQuery(Supplier<Criteria> criteriaSupplier, SortSpec sort,
+	        boolean includeVoided) {
+		String sortKeyProperty = getSortKeyProperty(sort);
+		if (sortKeyProperty == null) {
+			return toSearchQuery(criteriaSupplier, includeVoided);
+		}
+		
+		return new PersonSortKeySearchQuery<>(withVoided(criteriaSupplier, includeVoided), sortKeyProperty,
+		        sort.getOrder() != SortOrderEnum.DESC, this::getFetchPaths);
+	}
+	
+	@Override
+	protected void handleSort(Criteria criteria, SortSpec sort) {
+		// people sorted by a sort key are ordered by the PersonSortKeySearchQuery instead
+		if (getSortKeyProperty(sort) == null) {
+			super.handleSort(criteria, sort);
+		}
+	}
+	
 	@Override
 	protected Collection<Order> paramToProps(SortState sortState) {
 		String param = sortState.getParameter();
@@ -104,6 +152,27 @@ public abstract class AbstractPersonDaoImpl extends BaseDaoImpl {
 		return super.paramToProps(sortState);
 	}
 	
+	/**
+	 * @return the property of {@link FhirPersonSortKey} to order by, or null if the sort isn't by a
+	 *         single name parameter or names aren't indexed
+	 */
+	private String getSortKeyProperty(SortSpec sort) {
+		if (sort == null || sort.getChain() != null || sort.getParamName() == null || !isPersonNameTokenSearchEnabled()) {
+			return null;
+		}
+		
+		switch (sort.getParamName().toLowerCase()) {
+			case SP_NAME:
+				return "nameKey";
+			case SP_GIVEN:
+				return "givenKey";
+			case SP_FAMILY:
+				return "familyKey";
+			default:
+				return null;
+		}
+	}
+	
 	@Override
 	protected String paramToProp(String param) {
 		switch (param) {
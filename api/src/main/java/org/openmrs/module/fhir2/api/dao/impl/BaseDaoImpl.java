@@ -13,17 +13,21 @@ import static org.hibernate.criterion.Projections.property;
 import static org.hibernate.criterion.Restrictions.and;
 import static org.hibernate.criterion.Restrictions.between;
 import static org.hibernate.criterion.Restrictions.eq;
+import static org.hibernate.criterion.Restrictions.eqProperty;
 import static org.hibernate.criterion.Restrictions.ge;
 import static org.hibernate.criterion.Restrictions.gt;
-import static org.hibernate.criterion.Restrictions.ilike;
 import static org.hibernate.criterion.Restrictions.in;
 import static org.hibernate.criterion.Restrictions.isNull;
 import static org.hibernate.criterion.Restrictions.le;
+import static org.hibernate.criterion.Restrictions.like;
 import static org.hibernate.criterion.Restrictions.lt;
 import static org.hibernate.criterion.Restrictions.ne;
 import static org.hibernate.criterion.Restrictions.not;
 import static org.hibernate.criterion.Restrictions.or;
+import static org.hibernate.criterion.Restrictions.sqlRestriction;
+import static org.hibernate.criterion.Subqueries.exists;
 import static org.hibernate.criterion.Subqueries.propertyEq;
+import static org.hibernate.criterion.Subqueries.propertyIn;
 
 import javax.validation.constraints.NotNull;
 
@@ -36,11 +40,13 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -62,25 +68,46 @@ import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.hibernate.Criteria;
+import org.hibernate.NonUniqueResultException;
+import org.hibernate.criterion.CriteriaSpecification;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.internal.CriteriaImpl;
-import org.hibernate.sql.JoinType;
+import org.hibernate.metadata.ClassMetadata;
 import org.hl7.fhir.exceptions.FHIRException;
 import org.hl7.fhir.r4.model.Location;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.Practitioner;
 import org.hl7.fhir.r4.model.codesystems.AdministrativeGender;
+import org.openmrs.EncounterProvider;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.Person;
+import org.openmrs.PersonName;
 import org.openmrs.module.fhir2.FhirConceptSource;
+import org.openmrs.module.fhir2.FhirPersonNameToken;
+import org.openmrs.module.fhir2.FhirPersonNameTrigram;
+import org.openmrs.module.fhir2.api.search.ConceptSourceRegistry;
+import org.openmrs.module.fhir2.api.search.DatabaseCollation;
+import org.openmrs.module.fhir2.api.search.PersonNameTokenSearch;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchResultCache;
+import org.openmrs.module.fhir2.api.translators.FetchPaths;
+import org.openmrs.module.fhir2.api.translators.TranslatorFetchPlans;
+import org.openmrs.module.fhir2.api.util.PersonNameTokenizer;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * <p>
@@ -157,8 +184,38 @@ import org.openmrs.module.fhir2.FhirConceptSource;
  */
 public abstract class BaseDaoImpl {
 	
+	/**
+	 * The name Hibernate uses to refer to the primary key of any entity, regardless of the name of the
+	 * identifier property
+	 */
+	static final String ID_PROPERTY = "id";
+	
+	private static final String VOIDED_PROPERTY = "voided";
+	
+	// entities which record whether they are voided in a property not named voided
+	private static final Map<String, String> VOIDED_PROPERTIES = Collections.singletonMap(Person.class.getName(),
+	    "personVoided");
+	
 	private static final BigDecimal APPROX_RANGE = new BigDecimal(0.1);
 	
+	@Autowired
+	private SearchResultCache searchResultCache;
+	
+	@Autowired
+	private TranslatorFetchPlans translatorFetchPlans;
+	
+	@Autowired
+	@Setter(AccessLevel.PACKAGE)
+	private PersonNameTokenSearch personNameTokenSearch;
+	
+	@Autowired
+	@Setter(AccessLevel.PACKAGE)
+	private ConceptSourceRegistry conceptSourceRegistry;
+	
+	@Autowired
+	@Setter(AccessLevel.PACKAGE)
+	private DatabaseCollation databaseCollation;
+	
 	/**
 	 * Converts an {@link Iterable} to a {@link Stream}
 	 *
@@ -203,6 +260,186 @@ public abstract class BaseDaoImpl {
 		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), true);
 	}
 	
+	/**
+	 * Returns the association paths, e.g. {@code "person.names"}, which are used when translating
+	 * objects of the given type, as declared on the translators by {@link FetchPaths}
+	 *
+	 * @param entityName the name of the OpenMRS type
+	 * @return the association paths to load along with objects of that type, which may be empty
+	 */
+	protected Collection<String> getFetchPaths(String entityName) {
+		if (translatorFetchPlans == null) {
+			return Collections.emptyList();
+		}
+		
+		return translatorFetchPlans.getFetchPaths(entityName);
+	}
+	
+	/**
+	 * Runs a criteria which is expected to match at most one object, e.g. a lookup by uuid, loading
+	 * the associations used to translate that object along with it
+	 *
+	 * @param criteria the criteria to run
+	 * @param <T> the type of object returned by the criteria
+	 * @return the single matching object or null if there is no match
+	 * @throws NonUniqueResultException if the criteria matches more than one object
+	 * @see #getFetchPaths(String)
+	 */
+	protected <T> T uniqueResult(Criteria criteria) {
+		List<T> results = FetchPlanLoader.list(criteria, this::getFetchPaths);
+		if (results.size() > 1) {
+			throw new NonUniqueResultException(results.size());
+		}
+		
+		return results.isEmpty() ? null : results.get(0);
+	}
+	
+	/**
+	 * Runs a criteria restricted to the objects where {@code uuidProperty} is any of the given uuids,
+	 * e.g. to load all the resources referenced by a page of search results in a single query, loading
+	 * the associations used to translate those objects along with them
+	 *
+	 * @param criteria the criteria to run
+	 * @param uuidProperty the property, possibly of an alias, to match against the uuids
+	 * @param uuids the uuids to match
+	 * @param <T> the type of object returned by the criteria
+	 * @return the matching objects
+	 * @see #getFetchPaths(String)
+	 */
+	protected <T> List<T> listByUuids(Criteria criteria, String uuidProperty, Collection<String> uuids) {
+		if (uuids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		return FetchPlanLoader.list(criteria.add(in(uuidProperty, uuids)), this::getFetchPaths);
+	}
+	
+	/**
+	 * Wraps a function which builds a {@link Criteria} into a {@link SearchQuery}. The criteria is only
+	 * built and run when results are requested from the query, so paging can be pushed down to the
+	 * database.
+	 * <p/>
+	 * The associations used to translate each result, as returned by {@link #getFetchPaths(String)},
+	 * are loaded for each page of results in a few batched queries after the page itself is found,
+	 * rather than one at a time as they are used.
+	 * <p/>
+	 * Where the objects searched for can be voided, only unvoided objects are matched.
+	 *
+	 * @param criteriaSupplier a function which creates and fully configures the criteria to run
+	 * @param <T> the type of object returned by the criteria
+	 * @return a {@link SearchQuery} that will run the criteria
+	 * @see CriteriaSearchQuery
+	 */
+	protected <T> SearchQuery<T> toSearchQuery(Supplier<Criteria> criteriaSupplier) {
+		return toSearchQuery(criteriaSupplier, false);
+	}
+	
+	/**
+	 * Like {@link #toSearchQuery(Supplier)}, but voided objects can be included
+	 *
+	 * @param criteriaSupplier a function which creates and fully configures the criteria to run
+	 * @param includeVoided whether to match voided objects as well as unvoided ones, e.g. where the
+	 *            search itself restricts whether objects are voided
+	 * @param <T> the type of object returned by the criteria
+	 * @return a {@link SearchQuery} that will run the criteria
+	 */
+	protected <T> SearchQuery<T> toSearchQuery(Supplier<Criteria> criteriaSupplier, boolean includeVoided) {
+		return new CriteriaSearchQuery<>(withVoided(criteriaSupplier, includeVoided), this::getFetchPaths);
+	}
+	
+	/**
+	 * Like {@link #toSearchQuery(Supplier)}, but where the criteria is sorted by {@code sortProperty}
+	 * using {@link #handleSort(Criteria, SortSpec)}, later pages are loaded by seeking past the last
+	 * result of the previous page rather than by offset. This should be used for searches that clients
+	 * are expected to page deeply through. As with {@link #toSearchQuery(Supplier)}, only unvoided
+	 * objects are matched.
+	 *
+	 * @param criteriaSupplier a function which creates and fully configures the criteria to run
+	 * @param sortProperty the property to seek on, which must be a property of the type searched for
+	 * @param <T> the type of object returned by the criteria
+	 * @return a {@link SearchQuery} that will run the criteria
+	 * @see KeysetCriteriaSearchQuery
+	 */
+	protected <T> SearchQuery<T> toKeysetSearchQuery(Supplier<Criteria> criteriaSupplier, String sortProperty) {
+		return toKeysetSearchQuery(criteriaSupplier, sortProperty, false);
+	}
+	
+	/**
+	 * Like {@link #toKeysetSearchQuery(Supplier, String)}, but voided objects can be included
+	 *
+	 * @param criteriaSupplier a function which creates and fully configures the criteria to run
+	 * @param sortProperty the property to seek on, which must be a property of the type searched for
+	 * @param includeVoided whether to match voided objects as well as unvoided ones
+	 * @param <T> the type of object returned by the criteria
+	 * @return a {@link SearchQuery} that will run the criteria
+	 */
+	protected <T> SearchQuery<T> toKeysetSearchQuery(Supplier<Criteria> criteriaSupplier, String sortProperty,
+	        boolean includeVoided) {
+		return new KeysetCriteriaSearchQuery<>(withVoided(criteriaSupplier, includeVoided), sortProperty,
+		        this::getFetchPaths);
+	}
+	
+	/**
+	 * Restricts the criteria built by a function to unvoided objects, unless voided objects are to be
+	 * included or the objects searched for can't be voided. This is applied to every search so that
+	 * voided objects are excluded by the database rather than loaded and translated.
+	 *
+	 * @param criteriaSupplier a function which creates the criteria
+	 * @param includeVoided whether voided objects should be included
+	 * @return a function which creates the criteria, restricted to unvoided objects where necessary
+	 */
+	protected Supplier<Criteria> withVoided(Supplier<Criteria> criteriaSupplier, boolean includeVoided) {
+		if (includeVoided) {
+			return criteriaSupplier;
+		}
+		
+		return () -> {
+			Criteria criteria = criteriaSupplier.get();
+			getVoidedProperty(criteria).ifPresent(voidedProperty -> criteria.add(eq(voidedProperty, false)));
+			return criteria;
+		};
+	}
+	
+	/**
+	 * @param criteria a criteria for some entity
+	 * @return the property of the entity which records whether it is voided, which is {@code voided}
+	 *         unless mapped otherwise, e.g. {@code personVoided} for {@link Person}, or empty if it
+	 *         can't be voided
+	 */
+	private Optional<String> getVoidedProperty(Criteria criteria) {
+		return asImpl(criteria).map(impl -> {
+			String entityName = impl.getEntityOrClassName();
+			String voidedProperty = VOIDED_PROPERTIES.getOrDefault(entityName, VOIDED_PROPERTY);
+			
+			ClassMetadata metadata = impl.getSession().getFactory().getClassMetadata(entityName);
+			return metadata != null && Arrays.asList(metadata.getPropertyNames()).contains(voidedProperty)
+			        ? voidedProperty
+			        : null;
+		});
+	}
+	
+	/**
+	 * Wraps a {@link SearchQuery} created by {@link #toSearchQuery(Supplier)} or
+	 * {@link #toKeysetSearchQuery(Supplier, String)} so that the ids it matches are cached in the
+	 * {@link SearchResultCache}, keyed by the given search parameters. The parameters passed here must
+	 * be all of those the search depends on.
+	 *
+	 * @param type the type of object returned by the search
+	 * @param searchQuery the search to cache
+	 * @param params the parameters of the search
+	 * @param <T> the type of object returned by the search
+	 * @return a {@link SearchQuery} that answers from the cache where possible
+	 */
+	protected <T extends OpenmrsObject> SearchQuery<T> toCachedSearchQuery(Class<T> type, SearchQuery<T> searchQuery,
+	        Object... params) {
+		if (searchResultCache == null || !(searchQuery instanceof CriteriaSearchQuery)) {
+			return searchQuery;
+		}
+		
+		return new CachingSearchQuery<>(searchResultCache, type, SearchResultCache.toCacheKey(getClass().getName(), params),
+		        (CriteriaSearchQuery<T>) searchQuery);
+	}
+	
 	/**
 	 * Determines whether or not the given criteria object already has a given alias. This is useful to
 	 * determine whether a mapping has already been made or whether a given alias is already in use.
@@ -480,14 +717,27 @@ public abstract class BaseDaoImpl {
 		return handleAndListParam(quantityAndListParam, quantityParam -> handleQuantity(propertyName, quantityParam));
 	}
 	
+	/**
+	 * Matches objects whose encounter is one of those referenced. The encounter is matched by uuid,
+	 * which is unique and indexed, so the database can look up the encounter first and then its
+	 * objects.
+	 *
+	 * @param encounterAlias the alias of the encounter in the current query
+	 * @param encounterReference the encounter references to match
+	 * @return a criterion which matches objects in the referenced encounters
+	 */
 	protected Optional<Criterion> handleEncounterReference(@NotNull String encounterAlias,
 	        ReferenceAndListParam encounterReference) {
 		if (encounterReference == null) {
 			return Optional.empty();
 		}
+		
 		return handleAndListParam(encounterReference, token -> {
-			Optional.of(eq(String.format("%s.uuid", encounterAlias), token.getIdPart()));
-			return Optional.empty();
+			if (token.getIdPart() == null) {
+				return Optional.empty();
+			}
+			
+			return Optional.of(eq(String.format("%s.uuid", encounterAlias), token.getIdPart()));
 		});
 	}
 	
@@ -548,64 +798,54 @@ public abstract class BaseDaoImpl {
 		
 	}
 	
+	/**
+	 * Restricts the criteria to encounters with a participant matching the participant reference. Each
+	 * reference is matched by a correlated {@code EXISTS} subquery rather than by joining the
+	 * encounter's providers, so an encounter with several matching participants is returned only once.
+	 *
+	 * @param criteria the criteria for the encounters
+	 * @param participantReference the participant reference to match
+	 */
 	protected void handleParticipantReference(Criteria criteria, ReferenceAndListParam participantReference) {
-		if (participantReference != null && !containsAlias(criteria, "ep")) {
-			criteria.createAlias("encounterProviders", "ep");
+		handleAndListParam(participantReference, participantToken -> {
+			DetachedCriteria participantCriteria = DetachedCriteria.forClass(EncounterProvider.class, "ep")
+			        .createAlias("ep.provider", "pro");
 			
-			handleAndListParam(participantReference, participantToken -> {
-				if (participantToken.getChain() != null) {
-					switch (participantToken.getChain()) {
-						case Practitioner.SP_IDENTIFIER:
-							if (!containsAlias(criteria, "p")) {
-								criteria.createAlias("ep.provider", "p");
-							}
-							criteria.add(ilike("p.identifier", participantToken.getValue()));
-							break;
-						case Practitioner.SP_GIVEN:
-							if ((!containsAlias(criteria, "pro")
-							        && (!containsAlias(criteria, "ps") && (!containsAlias(criteria, "pn"))))) {
-								criteria.createAlias("ep.provider", "pro").createAlias("pro.person", "ps")
-								        .createAlias("ps.names", "pn");
-							}
-							criteria.add(ilike("pn.givenName", participantToken.getValue(), MatchMode.START));
-							break;
-						case Practitioner.SP_FAMILY:
-							if ((!containsAlias(criteria, "pro")
-							        && (!containsAlias(criteria, "ps") && (!containsAlias(criteria, "pn"))))) {
-								criteria.createAlias("ep.provider", "pro").createAlias("pro.person", "ps")
-								        .createAlias("ps.names", "pn");
-							}
-							criteria.add(ilike("pn.familyName", participantToken.getValue(), MatchMode.START));
-							break;
-						case Practitioner.SP_NAME:
-							if ((!containsAlias(criteria, "pro")
-							        && (!containsAlias(criteria, "ps") && (!containsAlias(criteria, "pn"))))) {
-								criteria.createAlias("ep.provider", "pro").createAlias("pro.person", "ps")
-								        .createAlias("ps.names", "pn");
-							}
-							
-							List<Optional<Criterion>> criterionList = new ArrayList<>();
-							
-							for (String token : StringUtils.split(participantToken.getValue(), " \t,")) {
-								criterionList.add(propertyLike("pn.givenName", token));
-								criterionList.add(propertyLike("pn.middleName", token));
-								criterionList.add(propertyLike("pn.familyName", token));
-							}
-							
-							criteria.add(or(toCriteriaArray(criterionList)));
-							break;
-					}
-				} else {
-					if (!containsAlias(criteria, "pro")) {
-						criteria.createAlias("ep.provider", "pro");
-					}
-					criteria.add(eq("pro.uuid", participantToken.getValue()));
+			if (participantToken.getChain() != null) {
+				switch (participantToken.getChain()) {
+					case Practitioner.SP_IDENTIFIER:
+						participantCriteria.add(ilike("pro.identifier", participantToken.getValue()));
+						break;
+					case Practitioner.SP_GIVEN:
+						participantCriteria.createAlias("pro.person", "ps").createAlias("ps.names", "pn");
+						nameLike("pn", new StringParam(participantToken.getValue()), "givenName")
+						        .ifPresent(participantCriteria::add);
+						break;
+					case Practitioner.SP_FAMILY:
+						participantCriteria.createAlias("pro.person", "ps").createAlias("ps.names", "pn");
+						nameLike("pn", new StringParam(participantToken.getValue()), "familyName")
+						        .ifPresent(participantCriteria::add);
+						break;
+					case Practitioner.SP_NAME:
+						List<Optional<Criterion>> criterionList = new ArrayList<>();
+						
+						for (String token : StringUtils.split(participantToken.getValue(), " \t,")) {
+							criterionList
+							        .add(nameLike("pn", new StringParam(token), "givenName", "middleName", "familyName"));
+						}
+						
+						participantCriteria.createAlias("pro.person", "ps").createAlias("ps.names", "pn")
+						        .add(or(toCriteriaArray(criterionList)));
+						break;
+					default:
+						return Optional.empty();
 				}
-				
-				return Optional.empty();
-			});
+			} else {
+				participantCriteria.add(eq("pro.uuid", participantToken.getValue()));
+			}
 			
-		}
+			return Optional.of(correlatedExists(participantCriteria, "ep.encounter", ID_PROPERTY));
+		}).ifPresent(criteria::add);
 	}
 	
 	protected Optional<Criterion> handleCodeableConcept(Criteria criteria, TokenAndListParam concepts,
@@ -631,105 +871,144 @@ public abstract class BaseDaoImpl {
 		});
 	}
 	
+	/**
+	 * Restricts the criteria to patients with an unvoided identifier matching the identifier parameter.
+	 * This uses a correlated {@code EXISTS} subquery, so a patient with several matching identifiers is
+	 * returned only once.
+	 *
+	 * @param criteria the criteria for the patients
+	 * @param identifier the identifiers to match
+	 */
 	protected void handleIdentifier(Criteria criteria, TokenOrListParam identifier) {
 		if (identifier == null) {
 			return;
 		}
 		
-		criteria.createAlias("identifiers", "pi", JoinType.INNER_JOIN, eq("pi.voided", false));
+		DetachedCriteria identifierCriteria = DetachedCriteria.forClass(PatientIdentifier.class, "pi")
+		        .add(eq("pi.voided", false));
+		if (handleOrListParam(identifier).anyMatch(token -> StringUtils.isNotBlank(token.getSystem()))) {
+			identifierCriteria.createAlias("pi.identifierType", "pit");
+		}
 		
 		handleOrListParamBySystem(identifier, (system, tokens) -> {
 			if (system.isEmpty()) {
 				return Optional.of(in("pi.identifier", tokensToList(tokens)));
 			} else {
-				if (!containsAlias(criteria, "pit")) {
-					criteria.createAlias("pi.identifierType", "pit");
-				}
-				
 				return Optional.of(and(eq("pit.name", system), in("pi.identifier", tokensToList(tokens))));
 			}
-		}).ifPresent(criteria::add);
+		}).ifPresent(identifierCriteria::add);
+		
+		criteria.add(correlatedExists(identifierCriteria, "pi.patient", ID_PROPERTY));
 	}
 	
+	/**
+	 * Restricts the criteria to people with a name matching the name parameters. A single name must
+	 * match all of the parameters given. This uses a correlated {@code EXISTS} subquery, so a person
+	 * with several matching names is returned only once.
+	 *
+	 * @param criteria the criteria for the people
+	 * @param name the names to match against any part of the name
+	 * @param given the given names to match
+	 * @param family the family names to match
+	 */
 	protected void handleNames(Criteria criteria, StringOrListParam name, StringOrListParam given,
 	        StringOrListParam family) {
 		if (name == null && given == null && family == null) {
 			return;
 		}
 		
-		criteria.createAlias("names", "pn");
+		DetachedCriteria nameCriteria = DetachedCriteria.forClass(PersonName.class, "pn");
 		
 		if (name != null) {
 			handleOrListParamAsStream(name,
 			    (nameParam) -> Arrays.stream(StringUtils.split(nameParam.getValue(), " \t,"))
 			            .map(token -> new StringParam().setValue(token).setExact(nameParam.isExact())
 			                    .setContains(nameParam.isContains()))
-			            .map(tokenParam -> Arrays.asList(propertyLike("pn.givenName", tokenParam),
-			                propertyLike("pn.middleName", tokenParam), propertyLike("pn.familyName", tokenParam)))
-			            .flatMap(Collection::stream)).ifPresent(criteria::add);
+			            .map(tokenParam -> nameLike("pn", tokenParam, "givenName", "middleName", "familyName")))
+			        .ifPresent(nameCriteria::add);
 		}
 		
 		if (given != null) {
-			handleOrListParam(given, (givenName) -> propertyLike("pn.givenName", givenName)).ifPresent(criteria::add);
+			handleOrListParam(given, (givenName) -> nameLike("pn", givenName, "givenName")).ifPresent(nameCriteria::add);
 		}
 		
 		if (family != null) {
-			handleOrListParam(family, (familyName) -> propertyLike("pn.familyName", familyName)).ifPresent(criteria::add);
+			handleOrListParam(family, (familyName) -> nameLike("pn", familyName, "familyName"))
+			        .ifPresent(nameCriteria::add);
 		}
+		
+		criteria.add(correlatedExists(nameCriteria, "pn.person", ID_PROPERTY));
 	}
 	
 	protected void handlePatientReference(Criteria criteria, ReferenceAndListParam patientReference) {
 		handlePatientReference(criteria, patientReference, "patient");
 	}
 	
+	/**
+	 * Restricts the criteria to objects whose patient matches the patient reference. References by
+	 * uuid join the patient itself, but chained searches on the patient's identifiers or names use
+	 * correlated {@code EXISTS} subqueries, so each object is returned only once no matter how many of
+	 * the patient's identifiers or names match.
+	 *
+	 * @param criteria the criteria for the objects
+	 * @param patientReference the patient reference to match
+	 * @param associationPath the path of the patient from the objects, e.g. {@code "patient"}
+	 */
 	protected void handlePatientReference(Criteria criteria, ReferenceAndListParam patientReference,
 	        String associationPath) {
-		if (patientReference != null) {
-			criteria.createAlias(associationPath, "p");
-			
-			handleAndListParam(patientReference, patientToken -> {
-				if (patientToken.getChain() != null) {
-					switch (patientToken.getChain()) {
-						case Patient.SP_IDENTIFIER:
-							if (!containsAlias(criteria, "pi")) {
-								criteria.createAlias("p.identifiers", "pi");
-							}
-							criteria.add(ilike("pi.identifier", patientToken.getValue()));
-							break;
-						case Patient.SP_GIVEN:
-							if (!containsAlias(criteria, "pn")) {
-								criteria.createAlias("p.names", "pn");
-							}
-							criteria.add(ilike("pn.givenName", patientToken.getValue(), MatchMode.START));
-							break;
-						case Patient.SP_FAMILY:
-							if (!containsAlias(criteria, "pn")) {
-								criteria.createAlias("p.names", "pn");
-							}
-							criteria.add(ilike("pn.familyName", patientToken.getValue(), MatchMode.START));
-							break;
-						case Patient.SP_NAME:
-							if (!containsAlias(criteria, "pn")) {
-								criteria.createAlias("p.names", "pn");
-							}
-							List<Optional<Criterion>> criterionList = new ArrayList<>();
-							
-							for (String token : StringUtils.split(patientToken.getValue(), " \t,")) {
-								criterionList.add(propertyLike("pn.givenName", token));
-								criterionList.add(propertyLike("pn.middleName", token));
-								criterionList.add(propertyLike("pn.familyName", token));
-							}
-							
-							criteria.add(or(toCriteriaArray(criterionList)));
-							break;
-					}
-				} else {
-					criteria.add(eq("p.uuid", patientToken.getValue()));
+		handleAndListParam(patientReference, patientToken -> {
+			if (patientToken.getChain() != null) {
+				switch (patientToken.getChain()) {
+					case Patient.SP_IDENTIFIER:
+						return Optional.of(correlatedExists(DetachedCriteria.forClass(PatientIdentifier.class, "pi")
+						        .add(ilike("pi.identifier", patientToken.getValue())),
+						    "pi.patient", associationPath));
+					case Patient.SP_GIVEN:
+						return nameLike("pn", new StringParam(patientToken.getValue()), "givenName")
+						        .map(name -> correlatedExists(DetachedCriteria.forClass(PersonName.class, "pn").add(name),
+						            "pn.person", associationPath));
+					case Patient.SP_FAMILY:
+						return nameLike("pn", new StringParam(patientToken.getValue()), "familyName")
+						        .map(name -> correlatedExists(DetachedCriteria.forClass(PersonName.class, "pn").add(name),
+						            "pn.person", associationPath));
+					case Patient.SP_NAME:
+						List<Optional<Criterion>> criterionList = new ArrayList<>();
+						
+						for (String token : StringUtils.split(patientToken.getValue(), " \t,")) {
+							criterionList
+							        .add(nameLike("pn", new StringParam(token), "givenName", "middleName", "familyName"));
+						}
+						
+						return Optional.of(correlatedExists(
+						    DetachedCriteria.forClass(PersonName.class, "pn").add(or(toCriteriaArray(criterionList))),
+						    "pn.person", associationPath));
+					default:
+						return Optional.empty();
+				}
+			} else {
+				if (!containsAlias(criteria, "p")) {
+					criteria.createAlias(associationPath, "p");
 				}
 				
-				return Optional.empty();
-			});
-		}
+				return Optional.of(eq("p.uuid", patientToken.getValue()));
+			}
+		}).ifPresent(criteria::add);
+	}
+	
+	/**
+	 * Creates a correlated {@code EXISTS} subquery, i.e. one which matches when the subquery has any
+	 * results for the current row of the outer query. Unlike joining a collection, this never returns
+	 * a row of the outer query more than once, so counts and paging are unaffected by the number of
+	 * matching members of the collection.
+	 *
+	 * @param subquery the subquery, which should have an alias that is not used by the outer query
+	 * @param subqueryProperty the property of the subquery which refers to the outer query's root
+	 * @param rootProperty the property of the outer query's root to compare it with
+	 * @return a criterion which matches when the subquery has any results
+	 */
+	protected Criterion correlatedExists(DetachedCriteria subquery, String subqueryProperty, String rootProperty) {
+		return exists(subquery.add(eqProperty(subqueryProperty, CriteriaSpecification.ROOT_ALIAS + "." + rootProperty))
+		        .setProjection(Projections.id()));
 	}
 	
 	protected Optional<Criterion> handlePersonAddress(String aliasPrefix, StringOrListParam city, StringOrListParam state,
@@ -771,12 +1050,19 @@ public abstract class BaseDaoImpl {
 	 * Use this method to properly implement sorting for your query. Note that for this method to work,
 	 * you must override one or more of: {@link #paramToProps(SortState)},
 	 * {@link #paramToProps(String)}, or {@link #paramToProp(String)}.
+	 * <p/>
+	 * The requested orderings are followed by an ordering on the primary key, in the same direction as
+	 * the last requested ordering, so that results which tie on every requested ordering are still
+	 * returned in a consistent order from one page to the next.
 	 *
 	 * @param criteria the current criteria
 	 * @param sort the {@link SortSpec} which defines the sorting to be translated
 	 */
 	protected void handleSort(Criteria criteria, SortSpec sort) {
-		handleSort(criteria, sort, this::paramToProps).ifPresent(l -> l.forEach(criteria::addOrder));
+		handleSort(criteria, sort, this::paramToProps).ifPresent(l -> {
+			l.forEach(criteria::addOrder);
+			criteria.addOrder(l.get(l.size() - 1).isAscending() ? Order.asc(ID_PROPERTY) : Order.desc(ID_PROPERTY));
+		});
 	}
 	
 	protected Optional<List<Order>> handleSort(Criteria criteria, SortSpec sort,
@@ -802,16 +1088,38 @@ public abstract class BaseDaoImpl {
 		return Optional.of(orderings);
 	}
 	
+	/**
+	 * Generates a criterion matching concept reference terms with any of the given codes in the concept
+	 * source for a FHIR system. Where the {@link ConceptSourceRegistry} is available, the concept source
+	 * is looked up in memory rather than with a subquery on {@code fhir_concept_source}.
+	 *
+	 * @param system the URL of the system
+	 * @param codes the codes to match
+	 * @param conceptReferenceTermAlias the alias of the concept reference terms
+	 * @return the criterion
+	 */
 	protected Criterion generateSystemQuery(String system, List<String> codes, String conceptReferenceTermAlias) {
-		DetachedCriteria conceptSourceCriteria = DetachedCriteria.forClass(FhirConceptSource.class).add(eq("url", system))
-		        .setProjection(property("conceptSource"));
+		Criterion conceptSourceCriterion;
+		if (conceptSourceRegistry != null) {
+			Optional<Integer> conceptSourceId = conceptSourceRegistry.getConceptSourceId(system);
+			if (!conceptSourceId.isPresent()) {
+				// no concept source has this URL, so no terms can match
+				return sqlRestriction("1 = 0");
+			}
+			
+			conceptSourceCriterion = eq(String.format("%s.conceptSource.conceptSourceId", conceptReferenceTermAlias),
+			    conceptSourceId.get());
+		} else {
+			DetachedCriteria conceptSourceCriteria = DetachedCriteria.forClass(FhirConceptSource.class)
+			        .add(eq("url", system)).setProjection(property("conceptSource"));
+			conceptSourceCriterion = propertyEq(String.format("%s.conceptSource", conceptReferenceTermAlias),
+			    conceptSourceCriteria);
+		}
 		
 		if (codes.size() > 1) {
-			return and(propertyEq(String.format("%s.conceptSource", conceptReferenceTermAlias), conceptSourceCriteria),
-			    in(String.format("%s.code", conceptReferenceTermAlias), codes));
+			return and(conceptSourceCriterion, in(String.format("%s.code", conceptReferenceTermAlias), codes));
 		} else {
-			return and(propertyEq(String.format("%s.conceptSource", conceptReferenceTermAlias), conceptSourceCriteria),
-			    eq(String.format("%s.code", conceptReferenceTermAlias), codes.get(0)));
+			return and(conceptSourceCriterion, eq(String.format("%s.code", conceptReferenceTermAlias), codes.get(0)));
 		}
 	}
 	
@@ -883,6 +1191,24 @@ public abstract class BaseDaoImpl {
 		return null;
 	}
 	
+	/**
+	 * Compares a property with a value, ignoring case, without wrapping the column in {@code lower()}
+	 * where the database is known to compare it without regard to case
+	 *
+	 * @param propertyName the property to compare
+	 * @param value the value to match exactly, ignoring case
+	 * @return a criterion which matches when the property is equal to the value, ignoring case
+	 * @see DatabaseCollation
+	 */
+	protected Criterion ilike(@NotNull String propertyName, String value) {
+		return ilike(propertyName, value, MatchMode.EXACT);
+	}
+	
+	protected Criterion ilike(@NotNull String propertyName, String value, MatchMode matchMode) {
+		return CollationAwareLikeExpression.ilike(propertyName, value, matchMode,
+		    databaseCollation != null && databaseCollation.isCaseInsensitive());
+	}
+	
 	protected Optional<Criterion> propertyLike(@NotNull String propertyName, String value) {
 		if (value == null) {
 			return Optional.empty();
@@ -905,6 +1231,65 @@ public abstract class BaseDaoImpl {
 		return Optional.of(ilike(propertyName, param.getValue(), MatchMode.START));
 	}
 	
+	/**
+	 * Matches person names where any of the given parts of the name matches the parameter. When name
+	 * token search is enabled, each word of the parameter must match a word of one of the parts, which
+	 * is looked up in the indexed name token table, ignoring case and accents. Otherwise, and always
+	 * for {@code :exact} searches, the parts themselves are compared with the parameter, as in
+	 * {@link #propertyLike(String, StringParam)}.
+	 *
+	 * @param nameAlias the alias of the {@link PersonName} in the current query
+	 * @param param the value to match
+	 * @param nameParts the properties of the name to match against, e.g. {@code "givenName"}
+	 * @return a criterion which matches names where any of the parts match the parameter
+	 * @see PersonNameTokenSearch
+	 */
+	protected Optional<Criterion> nameLike(@NotNull String nameAlias, StringParam param, @NotNull String... nameParts) {
+		if (param == null || param.getValue() == null) {
+			return Optional.empty();
+		}
+		
+		List<String> tokens = PersonNameTokenizer.tokenize(param.getValue());
+		// tokens are folded, so an exact match has to compare the name parts themselves
+		if (param.isExact() || tokens.isEmpty() || !isPersonNameTokenSearchEnabled()) {
+			return Optional.of(or(Arrays.stream(nameParts)
+			        .map(namePart -> propertyLike(String.format("%s.%s", nameAlias, namePart), param))
+			        .filter(Optional::isPresent).map(Optional::get).toArray(Criterion[]::new)));
+		}
+		
+		// these subqueries are not correlated, so the database can look up the few matching names in the index on
+		// the token rather than testing each name in turn
+		return Optional.of(and(tokens.stream().map(token -> {
+			DetachedCriteria tokenCriteria = DetachedCriteria.forClass(FhirPersonNameToken.class, "nt")
+			        .add(in("nt.namePart", Arrays.asList(nameParts)));
+			
+			if (param.isContains()) {
+				// a leading wildcard can't use the index, so first narrow the names to those with every trigram
+				for (String trigram : PersonNameTokenizer.trigrams(token)) {
+					tokenCriteria.add(propertyIn("nt.personName",
+					    DetachedCriteria.forClass(FhirPersonNameTrigram.class, "ng").add(eq("ng.trigram", trigram))
+					            .setProjection(property("ng.personName"))));
+				}
+				
+				tokenCriteria.add(like("nt.token", token, MatchMode.ANYWHERE));
+			} else {
+				tokenCriteria.add(like("nt.token", token, MatchMode.START));
+			}
+			
+			return propertyIn(String.format("%s.personNameId", nameAlias),
+			    tokenCriteria.setProjection(property("nt.personName")));
+		}).toArray(Criterion[]::new)));
+	}
+	
+	/**
+	 * @return true if names should be searched and sorted using the tables maintained by the
+	 *         {@link org.openmrs.module.fhir2.api.search.PersonNameTokenInterceptor}
+	 * @see PersonNameTokenSearch
+	 */
+	protected boolean isPersonNameTokenSearchEnabled() {
+		return personNameTokenSearch != null && personNameTokenSearch.isEnabled();
+	}
+	
 	protected Optional<CriteriaImpl> asImpl(Criteria criteria) {
 		if (CriteriaImpl.class.isAssignableFrom(criteria.getClass())) {
 			return Optional.of((CriteriaImpl) criteria);
@@ -0,0 +1,129 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.openmrs.OpenmrsObject;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchResultCache;
+
+/**
+ * A {@link SearchQuery} which answers from the {@link SearchResultCache} where possible. Once the
+ * ids matched by a search are cached, the total is taken from the cached ids and each page of
+ * results is loaded by uuid, so the search itself does not need to be run again.
+ *
+ * @param <T> the type of object returned by the search
+ */
+class CachingSearchQuery<T extends OpenmrsObject> implements SearchQuery<T> {
+	
+	// searches matching more results than this are assumed not to be repeated often enough to be worth caching
+	static final int MAX_CACHED_IDS = 10000;
+	
+	private final SearchResultCache searchResultCache;
+	
+	private final Class<T> type;
+	
+	private final String key;
+	
+	private final CriteriaSearchQuery<T> searchQuery;
+	
+	CachingSearchQuery(SearchResultCache searchResultCache, Class<T> type, String key, CriteriaSearchQuery<T> searchQuery) {
+		this.searchResultCache = searchResultCache;
+		this.type = type;
+		this.key = key;
+		this.searchQuery = searchQuery;
+	}
+	
+	@Override
+	public List<T> getResults(int firstResult, int maxResults) {
+		List<String> uuids = searchResultCache.get(key);
+		if (uuids == null) {
+			return searchQuery.getResults(firstResult, maxResults);
+		}
+		
+		int fromIndex = Math.min(Math.max(firstResult, 0), uuids.size());
+		int toIndex = (int) Math.min((long) fromIndex + maxResults, uuids.size());
+		
+		// results which no longer match, e.g. because they were voided since being cached, are skipped
+		return searchQuery.getResultsByUuid(uuids.subList(fromIndex, toIndex));
+	}
+	
+	@Override
+	public List<T> getResultsByUuid(List<String> uuids) {
+		return searchQuery.getResultsByUuid(uuids);
+	}
+	
+	@Override
+	public List<T> getResults() {
+		return searchQuery.getResults();
+	}
+	
+	@Override
+	public int getCount() {
+		List<String> uuids = searchResultCache.get(key);
+		if (uuids != null) {
+			return uuids.size();
+		}
+		
+		if (!searchResultCache.isEnabled()) {
+			return searchQuery.getCount();
+		}
+		
+		// loading the ids is little more expensive than counting them, and caches them for the pages that follow
+		long generation = searchResultCache.getGeneration(type);
+		uuids = searchQuery.getUuids(MAX_CACHED_IDS + 1);
+		if (uuids.size() > MAX_CACHED_IDS) {
+			return searchQuery.getCount();
+		}
+		
+		searchResultCache.put(type, key, generation, uuids);
+		return uuids.size();
+	}
+	
+	@Override
+	public List<String> getUuids() {
+		List<String> uuids = searchResultCache.get(key);
+		if (uuids != null) {
+			return uuids;
+		}
+		
+		long generation = searchResultCache.getGeneration(type);
+		uuids = searchQuery.getUuids();
+		if (uuids.size() <= MAX_CACHED_IDS) {
+			searchResultCache.put(type, key, generation, uuids);
+		}
+		
+		return uuids;
+	}
+	
+	@Override
+	public List<String> getUuids(int maxResults) {
+		List<String> uuids = searchResultCache.get(key);
+		if (uuids == null) {
+			return searchQuery.getUuids(maxResults);
+		}
+		
+		return maxResults < 0 || uuids.size() <= maxResults ? uuids : uuids.subList(0, maxResults);
+	}
+	
+	@Override
+	public void forEach(int batchSize, Consumer<? super T> action) {
+		searchQuery.forEach(batchSize, action);
+	}
+	
+	/**
+	 * @return the query run when the ids of this search are not cached
+	 */
+	CriteriaSearchQuery<T> getSearchQuery() {
+		return searchQuery;
+	}
+}
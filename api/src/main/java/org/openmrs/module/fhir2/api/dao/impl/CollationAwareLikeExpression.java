@@ -0,0 +1,91 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.util.Locale;
+
+import org.hibernate.Criteria;
+import org.hibernate.HibernateException;
+import org.hibernate.criterion.CriteriaQuery;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.MatchMode;
+import org.hibernate.engine.spi.TypedValue;
+
+/**
+ * A case-insensitive comparison of a property with a value, like
+ * {@link org.hibernate.criterion.Restrictions#ilike(String, String, MatchMode)}. Hibernate's version
+ * always wraps the column in {@code lower()}, which prevents the database from using any index on
+ * the column. Where the column is known to use a case-insensitive collation, the comparison is
+ * already case-insensitive, so this compares the column directly, using {@code =} rather than
+ * {@code like} for exact matches. Otherwise, it still compares the lower-cased column.
+ *
+ * @see org.openmrs.module.fhir2.api.search.DatabaseCollation
+ */
+final class CollationAwareLikeExpression implements Criterion {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final String propertyName;
+	
+	private final String value;
+	
+	private final MatchMode matchMode;
+	
+	private final boolean caseInsensitiveCollation;
+	
+	private CollationAwareLikeExpression(String propertyName, String value, MatchMode matchMode,
+	        boolean caseInsensitiveCollation) {
+		this.propertyName = propertyName;
+		this.value = value;
+		this.matchMode = matchMode;
+		this.caseInsensitiveCollation = caseInsensitiveCollation;
+	}
+	
+	/**
+	 * @param propertyName the property to compare
+	 * @param value the value to match, ignoring case
+	 * @param matchMode where the value must appear in the property
+	 * @param caseInsensitiveCollation whether the column of the property is known to compare strings
+	 *            without regard to case
+	 * @return a criterion which matches when the property matches the value, ignoring case
+	 */
+	static Criterion ilike(String propertyName, String value, MatchMode matchMode, boolean caseInsensitiveCollation) {
+		return new CollationAwareLikeExpression(propertyName, value, matchMode, caseInsensitiveCollation);
+	}
+	
+	@Override
+	public String toSqlString(Criteria criteria, CriteriaQuery criteriaQuery) throws HibernateException {
+		String[] columns = criteriaQuery.findColumns(propertyName, criteria);
+		if (columns.length != 1) {
+			throw new HibernateException("Like may only be used with single-column properties");
+		}
+		
+		if (caseInsensitiveCollation) {
+			return columns[0] + (matchMode == MatchMode.EXACT ? " = ?" : " like ?");
+		}
+		
+		return criteriaQuery.getFactory().getDialect().getLowercaseFunction() + "(" + columns[0] + ") like ?";
+	}
+	
+	@Override
+	public TypedValue[] getTypedValues(Criteria criteria, CriteriaQuery criteriaQuery) throws HibernateException {
+		String matchValue = matchMode.toMatchString(value);
+		if (!caseInsensitiveCollation) {
+			matchValue = matchValue.toLowerCase(Locale.ROOT);
+		}
+		
+		return new TypedValue[] { criteriaQuery.getTypedValue(criteria, propertyName, matchValue) };
+	}
+	
+	@Override
+	public String toString() {
+		return propertyName + " ilike " + matchMode.toMatchString(value);
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Criteria;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.internal.CriteriaImpl;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+
+/**
+ * A {@link SearchQuery} backed by a Hibernate {@link Criteria}. The criteria is rebuilt each time
+ * results are requested so that the query can be run against whatever session is current at the
+ * time, e.g. when a later page of results is requested.
+ * <p/>
+ * Where the type searched for has a fetch plan, results are loaded in two phases by the
+ * {@link FetchPlanLoader}, so that the associations used to translate them are loaded in a few
+ * batched queries.
+ *
+ * @param <T> the type of object returned by the criteria
+ */
+class CriteriaSearchQuery<T> implements SearchQuery<T> {
+	
+	protected final Supplier<Criteria> criteriaSupplier;
+	
+	protected final Function<String, Collection<String>> fetchPlan;
+	
+	CriteriaSearchQuery(Supplier<Criteria> criteriaSupplier) {
+		this(criteriaSupplier, entityName -> Collections.emptyList());
+	}
+	
+	CriteriaSearchQuery(Supplier<Criteria> criteriaSupplier, Function<String, Collection<String>> fetchPlan) {
+		this.criteriaSupplier = criteriaSupplier;
+		this.fetchPlan = fetchPlan;
+	}
+	
+	@Override
+	public List<T> getResults(int firstResult, int maxResults) {
+		Criteria criteria = criteriaSupplier.get();
+		criteria.setFirstResult(Math.max(firstResult, 0));
+		criteria.setMaxResults(maxResults);
+		return list(criteria);
+	}
+	
+	@Override
+	public List<T> getResults() {
+		return list(criteriaSupplier.get());
+	}
+	
+	@Override
+	public int getCount() {
+		Criteria criteria = criteriaSupplier.get();
+		
+		// orderings don't affect the count and some databases reject an ORDER BY alongside an aggregate
+		if (criteria instanceof CriteriaImpl) {
+			Iterator<CriteriaImpl.OrderEntry> orderings = ((CriteriaImpl) criteria).iterateOrderings();
+			while (orderings.hasNext()) {
+				orderings.next();
+				orderings.remove();
+			}
+		}
+		
+		criteria.setProjection(Projections.rowCount());
+		return ((Number) criteria.uniqueResult()).intValue();
+	}
+	
+	@Override
+	public List<String> getUuids() {
+		return getUuids(-1);
+	}
+	
+	/**
+	 * Scrolls through the primary keys of the matching results, loading the results themselves a batch
+	 * at a time. As each batch is a run of consecutive results, running the (ordered) criteria again
+	 * restricted to the keys in the batch returns them in the same order. Note that some JDBC drivers,
+	 * e.g. MySQL's, read every key into memory regardless of the fetch size; this is still far smaller
+	 * than the results themselves. The session is cleared after each batch, once the action has been
+	 * applied to every result in it.
+	 */
+	@Override
+	public void forEach(int batchSize, Consumer<? super T> action) {
+		ScrollableResults ids = criteriaSupplier.get().setProjection(Projections.id()).setFetchSize(batchSize)
+		        .setCacheMode(CacheMode.IGNORE).scroll(ScrollMode.FORWARD_ONLY);
+		
+		try {
+			List<Serializable> batch = new ArrayList<>(batchSize);
+			while (ids.next()) {
+				batch.add((Serializable) ids.get(0));
+				if (batch.size() >= batchSize) {
+					forEachInBatch(batch, action);
+					batch.clear();
+				}
+			}
+			
+			if (!batch.isEmpty()) {
+				forEachInBatch(batch, action);
+			}
+		}
+		finally {
+			ids.close();
+		}
+	}
+	
+	private void forEachInBatch(List<Serializable> ids, Consumer<? super T> action) {
+		Criteria criteria = criteriaSupplier.get().add(Restrictions.in(BaseDaoImpl.ID_PROPERTY, ids));
+		list(criteria).forEach(action);
+		clearSession(criteria);
+	}
+	
+	/**
+	 * Clears the session a batch of results was loaded through, once the batch has been processed.
+	 * Evicting only the results would leave behind everything loaded while processing them, e.g. their
+	 * associations and concepts, so the session would still grow with every batch.
+	 *
+	 * @param criteria the criteria the batch was loaded by
+	 */
+	protected static void clearSession(Criteria criteria) {
+		if (criteria instanceof CriteriaImpl && ((CriteriaImpl) criteria).getSession() instanceof Session) {
+			((Session) ((CriteriaImpl) criteria).getSession()).clear();
+		}
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<String> getUuids(int maxResults) {
+		Criteria criteria = criteriaSupplier.get().setProjection(Projections.property("uuid"));
+		if (maxResults >= 0) {
+			criteria.setMaxResults(maxResults);
+		}
+		
+		return criteria.list();
+	}
+	
+	@Override
+	public List<T> getResultsByUuid(List<String> uuids) {
+		if (uuids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		Map<String, T> results = new HashMap<>(uuids.size());
+		for (T result : list(criteriaSupplier.get().add(Restrictions.in("uuid", uuids)))) {
+			results.putIfAbsent(((OpenmrsObject) result).getUuid(), result);
+		}
+		
+		return uuids.stream().map(results::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Runs a criteria built by this query, loading the associations named by the fetch plan along with
+	 * the results
+	 *
+	 * @param criteria the criteria to run
+	 * @return the results of the criteria, in order
+	 */
+	protected List<T> list(Criteria criteria) {
+		return FetchPlanLoader.list(criteria, fetchPlan);
+	}
+}
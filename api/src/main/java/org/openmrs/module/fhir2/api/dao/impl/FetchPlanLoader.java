@@ -0,0 +1,166 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.Session;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.CriteriaImpl;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+
+/**
+ * Runs criteria in two phases so that the associations named by a fetch plan can be loaded in a few
+ * batched queries. The criteria is first run to find only the primary keys of the matching results.
+ * The results are then loaded by primary key using one query for all the fetch paths which only pass
+ * through single-valued associations and one query for each path which passes through a collection.
+ * This avoids loading each association one at a time as it is used, and means that collections can
+ * be fetched without interfering with paging.
+ */
+final class FetchPlanLoader {
+	
+	// the largest number of values to put in a single IN clause
+	private static final int MAX_BATCH_SIZE = 1000;
+	
+	private FetchPlanLoader() {
+	}
+	
+	/**
+	 * Runs a criteria, loading the associations named by the fetch plan for its type along with the
+	 * results
+	 *
+	 * @param criteria the criteria to run
+	 * @param fetchPlan a function which returns the association paths to load for an entity name
+	 * @param <T> the type of object returned by the criteria
+	 * @return the results of the criteria, in order
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> List<T> list(Criteria criteria, Function<String, Collection<String>> fetchPlan) {
+		if (!(criteria instanceof CriteriaImpl) || !(((CriteriaImpl) criteria).getSession() instanceof Session)) {
+			return criteria.list();
+		}
+		
+		CriteriaImpl criteriaImpl = (CriteriaImpl) criteria;
+		Collection<String> fetchPaths = fetchPlan.apply(criteriaImpl.getEntityOrClassName());
+		if (fetchPaths.isEmpty()) {
+			return criteria.list();
+		}
+		
+		List<Serializable> ids = criteria.setProjection(Projections.id()).list();
+		return list((Session) criteriaImpl.getSession(), criteriaImpl.getEntityOrClassName(), ids, fetchPaths);
+	}
+	
+	/**
+	 * Loads the objects with the given primary keys, along with the associations named by the fetch plan
+	 * for their type, e.g. a page of the keys found by an earlier run of a criteria
+	 *
+	 * @param session the session to load the objects in
+	 * @param entityName the name of the type of object to load
+	 * @param ids the primary keys of the objects to load
+	 * @param fetchPlan a function which returns the association paths to load for an entity name
+	 * @param <T> the type of object to load
+	 * @return the objects, in the order of their keys; keys which no longer exist are skipped
+	 */
+	static <T> List<T> list(Session session, String entityName, List<Serializable> ids,
+	        Function<String, Collection<String>> fetchPlan) {
+		return list(session, entityName, ids, fetchPlan.apply(entityName));
+	}
+	
+	private static <T> List<T> list(Session session, String entityName, List<Serializable> ids,
+	        Collection<String> fetchPaths) {
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		Map<Serializable, T> results = load(session, entityName, new ArrayList<>(new LinkedHashSet<>(ids)), fetchPaths);
+		
+		return ids.stream().map(results::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> Map<Serializable, T> load(Session session, String entityName, List<Serializable> ids,
+	        Collection<String> fetchPaths) {
+		SessionFactoryImplementor sessionFactory = (SessionFactoryImplementor) session.getSessionFactory();
+		
+		List<String> singleValuedPaths = new ArrayList<>();
+		List<String> collectionPaths = new ArrayList<>();
+		for (String fetchPath : fetchPaths) {
+			if (isCollectionPath(sessionFactory, entityName, fetchPath)) {
+				collectionPaths.add(fetchPath);
+			} else {
+				singleValuedPaths.add(fetchPath);
+			}
+		}
+		
+		Map<Serializable, T> results = new HashMap<>(ids.size());
+		for (int i = 0; i < ids.size(); i += MAX_BATCH_SIZE) {
+			List<Serializable> batch = ids.subList(i, Math.min(i + MAX_BATCH_SIZE, ids.size()));
+			
+			for (T result : (List<T>) createFetchCriteria(session, entityName, batch, singleValuedPaths).list()) {
+				results.put(session.getIdentifier(result), result);
+			}
+			
+			// these queries only populate the collections of the results already in the session
+			for (String collectionPath : collectionPaths) {
+				createFetchCriteria(session, entityName, batch, Collections.singletonList(collectionPath)).list();
+			}
+		}
+		
+		return results;
+	}
+	
+	private static Criteria createFetchCriteria(Session session, String entityName, List<Serializable> ids,
+	        List<String> paths) {
+		Criteria criteria = session.createCriteria(entityName).add(Restrictions.in(BaseDaoImpl.ID_PROPERTY, ids));
+		for (String path : paths) {
+			// every association along the path needs to be joined for the path itself to be fetched
+			int separator = -1;
+			do {
+				separator = path.indexOf('.', separator + 1);
+				criteria.setFetchMode(separator < 0 ? path : path.substring(0, separator), FetchMode.JOIN);
+			} while (separator >= 0);
+		}
+		
+		return criteria;
+	}
+	
+	private static boolean isCollectionPath(SessionFactoryImplementor sessionFactory, String entityName, String path) {
+		String currentEntityName = entityName;
+		for (String property : path.split("\\.")) {
+			Type type = sessionFactory.getClassMetadata(currentEntityName).getPropertyType(property);
+			if (type.isCollectionType()) {
+				return true;
+			}
+			
+			if (!type.isEntityType()) {
+				return false;
+			}
+			
+			currentEntityName = ((EntityType) type).getAssociatedEntityName(sessionFactory);
+		}
+		
+		return false;
+	}
+}
@@ -11,7 +11,6 @@ package org.openmrs.module.fhir2.api.dao.impl;
 
 import static org.hibernate.criterion.Restrictions.eq;
 
-import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 
@@ -30,6 +29,7 @@ import org.openmrs.Allergy;
 import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
 import org.openmrs.module.fhir2.api.dao.FhirAllergyIntoleranceDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -47,23 +47,28 @@ public class FhirAllergyIntoleranceDaoImpl extends BaseDaoImpl implements FhirAl
 	
 	@Override
 	public Allergy getAllergyIntoleranceByUuid(String uuid) {
-		return (Allergy) sessionFactory.getCurrentSession().createCriteria(Allergy.class).add(eq("uuid", uuid))
-		        .uniqueResult();
+		return uniqueResult(sessionFactory.getCurrentSession().createCriteria(Allergy.class).add(eq("uuid", uuid)));
 	}
 	
 	@Override
-	public Collection<Allergy> searchForAllergies(ReferenceAndListParam patientReference, TokenOrListParam category,
+	public SearchQuery<Allergy> searchForAllergies(ReferenceAndListParam patientReference, TokenOrListParam category,
 	        TokenAndListParam allergen, TokenOrListParam severity, TokenAndListParam manifestationCode,
 	        TokenOrListParam clinicalStatus) {
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Allergy.class);
-		handlePatientReference(criteria, patientReference, "patient");
-		handleAllergenCategory("allergen.allergenType", category).ifPresent(criteria::add);
-		handleAllergen(criteria, allergen);
-		handleSeverity(criteria, severity).ifPresent(criteria::add);
-		handleManifestation(criteria, manifestationCode);
-		handleBoolean("voided", convertStringStatusToBoolean(clinicalStatus)).ifPresent(criteria::add);
+		// voided allergies are inactive ones, so they are always included and only the clinical status filters them
+		SearchQuery<Allergy> searchQuery = toSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Allergy.class);
+			handlePatientReference(criteria, patientReference, "patient");
+			handleAllergenCategory("allergen.allergenType", category).ifPresent(criteria::add);
+			handleAllergen(criteria, allergen);
+			handleSeverity(criteria, severity).ifPresent(criteria::add);
+			handleManifestation(criteria, manifestationCode);
+			handleBoolean("voided", convertStringStatusToBoolean(clinicalStatus)).ifPresent(criteria::add);
+			
+			return criteria;
+		}, true);
 		
-		return criteria.list();
+		return toCachedSearchQuery(Allergy.class, searchQuery, patientReference, category, allergen, severity,
+		    manifestationCode, clinicalStatus);
 	}
 	
 	private void handleManifestation(Criteria criteria, TokenAndListParam code) {
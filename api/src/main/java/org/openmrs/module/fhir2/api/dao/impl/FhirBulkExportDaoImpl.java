@@ -0,0 +1,87 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import static org.hibernate.criterion.Restrictions.eq;
+import static org.hibernate.criterion.Restrictions.ge;
+import static org.hibernate.criterion.Restrictions.gt;
+import static org.hibernate.criterion.Restrictions.in;
+import static org.hibernate.criterion.Restrictions.or;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hibernate.Criteria;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
+import org.hibernate.metadata.ClassMetadata;
+import org.openmrs.Patient;
+import org.openmrs.module.fhir2.api.dao.FhirBulkExportDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class FhirBulkExportDaoImpl extends BaseDaoImpl implements FhirBulkExportDao {
+	
+	@Autowired
+	@Qualifier("sessionFactory")
+	private SessionFactory sessionFactory;
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Integer> getPatientIds(Integer afterPatientId, int maxResults) {
+		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Patient.class).add(eq("voided", false));
+		if (afterPatientId != null) {
+			criteria.add(gt(ID_PROPERTY, afterPatientId));
+		}
+		
+		return criteria.setProjection(Projections.id()).addOrder(Order.asc(ID_PROPERTY)).setMaxResults(maxResults)
+		        .list();
+	}
+	
+	@Override
+	public SearchQuery<Object> searchForExport(String entityName, String patientProperty, Collection<Integer> patientIds,
+	        Date since) {
+		return toSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(entityName);
+			
+			criteria.add(in(patientProperty == null ? ID_PROPERTY : patientProperty + "." + ID_PROPERTY, patientIds));
+			
+			// not every type records when it was changed, e.g. obs are voided and replaced instead
+			if (since != null) {
+				if (hasProperty(entityName, "dateChanged")) {
+					criteria.add(or(ge("dateCreated", since), ge("dateChanged", since)));
+				} else {
+					criteria.add(ge("dateCreated", since));
+				}
+			}
+			
+			return criteria.addOrder(Order.asc(ID_PROPERTY));
+		});
+	}
+	
+	@Override
+	public void clearSession() {
+		sessionFactory.getCurrentSession().clear();
+	}
+	
+	private boolean hasProperty(String entityName, String propertyName) {
+		ClassMetadata metadata = sessionFactory.getClassMetadata(entityName);
+		return metadata != null && Arrays.asList(metadata.getPropertyNames()).contains(propertyName);
+	}
+}
@@ -12,7 +12,10 @@ package org.openmrs.module.fhir2.api.dao.impl;
 import static org.hibernate.criterion.Restrictions.eq;
 
 import java.util.Collection;
+import java.util.List;
 
+import ca.uhn.fhir.rest.api.SortOrderEnum;
+import ca.uhn.fhir.rest.api.SortSpec;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import lombok.AccessLevel;
@@ -21,6 +24,7 @@ import org.hibernate.Criteria;
 import org.hibernate.SessionFactory;
 import org.openmrs.Encounter;
 import org.openmrs.module.fhir2.api.dao.FhirEncounterDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -29,27 +33,53 @@ import org.springframework.stereotype.Component;
 @Setter(AccessLevel.PACKAGE)
 public class FhirEncounterDaoImpl extends BaseDaoImpl implements FhirEncounterDao {
 	
+	private static final SortSpec DEFAULT_SORT = new SortSpec("date", SortOrderEnum.ASC);
+	
 	@Autowired
 	@Qualifier("sessionFactory")
 	private SessionFactory sessionFactory;
 	
 	@Override
 	public Encounter getEncounterByUuid(String uuid) {
-		return (Encounter) sessionFactory.getCurrentSession().createCriteria(Encounter.class).add(eq("uuid", uuid))
-		        .uniqueResult();
+		return uniqueResult(sessionFactory.getCurrentSession().createCriteria(Encounter.class).add(eq("uuid", uuid)));
 	}
 	
 	@Override
-	public Collection<Encounter> searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
+	public List<Encounter> getEncountersByUuids(Collection<String> uuids) {
+		return listByUuids(sessionFactory.getCurrentSession().createCriteria(Encounter.class), "uuid", uuids);
+	}
+	
+	@Override
+	public SearchQuery<Encounter> searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
 	        ReferenceAndListParam participant, ReferenceAndListParam subject) {
+		return searchForEncounters(date, location, participant, subject, false);
+	}
+	
+	@Override
+	public SearchQuery<Encounter> searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
+	        ReferenceAndListParam participant, ReferenceAndListParam subject, boolean includeVoided) {
 		
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Encounter.class);
+		SearchQuery<Encounter> searchQuery = toKeysetSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Encounter.class);
+			
+			handleDateRange("encounterDatetime", date).ifPresent(criteria::add);
+			handleLocationReference("l", location).ifPresent(l -> criteria.createAlias("location", "l").add(l));
+			handleParticipantReference(criteria, participant);
+			handlePatientReference(criteria, subject);
+			handleSort(criteria, DEFAULT_SORT);
+			
+			return criteria;
+		}, "encounterDatetime", includeVoided);
 		
-		handleDateRange("encounterDatetime", date).ifPresent(criteria::add);
-		handleLocationReference("l", location).ifPresent(l -> criteria.createAlias("location", "l").add(l));
-		handleParticipantReference(criteria, participant);
-		handlePatientReference(criteria, subject);
+		return toCachedSearchQuery(Encounter.class, searchQuery, date, location, participant, subject, includeVoided);
+	}
+	
+	@Override
+	protected String paramToProp(String paramName) {
+		if ("date".equals(paramName)) {
+			return "encounterDatetime";
+		}
 		
-		return criteria.list();
+		return null;
 	}
 }
@@ -34,6 +34,7 @@ import org.hibernate.sql.JoinType;
 import org.openmrs.Location;
 import org.openmrs.LocationAttribute;
 import org.openmrs.module.fhir2.api.dao.FhirLocationDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -53,23 +54,32 @@ public class FhirLocationDaoImpl extends BaseDaoImpl implements FhirLocationDao
 	}
 	
 	@Override
-	public Collection<Location> searchForLocations(StringOrListParam name, StringOrListParam city, StringOrListParam country,
+	public List<Location> getLocationsByUuids(Collection<String> uuids) {
+		return listByUuids(sessionFactory.getCurrentSession().createCriteria(Location.class), "uuid", uuids);
+	}
+	
+	@Override
+	public SearchQuery<Location> searchForLocations(StringOrListParam name, StringOrListParam city, StringOrListParam country,
 	        StringOrListParam postalCode, StringOrListParam state, TokenOrListParam tag, ReferenceOrListParam parent,
 	        SortSpec sort) {
 		
-		Criteria criteria = this.sessionFactory.getCurrentSession().createCriteria(Location.class);
-		
-		handleBooleanProperty("retired", false).ifPresent(criteria::add);
-		handleName(criteria, name);
-		handleCity(criteria, city);
-		handleCountry(criteria, country);
-		handlePostalCode(criteria, postalCode);
-		handleState(criteria, state);
-		handleTag(criteria, tag);
-		handleParentLocation(criteria, parent);
-		handleSort(criteria, sort);
+		SearchQuery<Location> searchQuery = toSearchQuery(() -> {
+			Criteria criteria = this.sessionFactory.getCurrentSession().createCriteria(Location.class);
+			
+			handleBooleanProperty("retired", false).ifPresent(criteria::add);
+			handleName(criteria, name);
+			handleCity(criteria, city);
+			handleCountry(criteria, country);
+			handlePostalCode(criteria, postalCode);
+			handleState(criteria, state);
+			handleTag(criteria, tag);
+			handleParentLocation(criteria, parent);
+			handleSort(criteria, sort);
+			
+			return criteria;
+		});
 		
-		return criteria.list();
+		return toCachedSearchQuery(Location.class, searchQuery, name, city, country, postalCode, state, tag, parent, sort);
 	}
 	
 	@Override
@@ -11,8 +11,6 @@ package org.openmrs.module.fhir2.api.dao.impl;
 
 import static org.hibernate.criterion.Restrictions.eq;
 
-import java.util.Collection;
-
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import lombok.AccessLevel;
@@ -22,6 +20,7 @@ import org.hibernate.SessionFactory;
 import org.openmrs.Drug;
 import org.openmrs.DrugIngredient;
 import org.openmrs.module.fhir2.api.dao.FhirMedicationDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -51,14 +50,18 @@ public class FhirMedicationDaoImpl extends BaseDaoImpl implements FhirMedication
 	}
 	
 	@Override
-	public Collection<Drug> searchForMedications(TokenAndListParam code, TokenAndListParam dosageForm,
+	public SearchQuery<Drug> searchForMedications(TokenAndListParam code, TokenAndListParam dosageForm,
 	        TokenOrListParam ingredientCode, TokenOrListParam status) {
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Drug.class);
-		handleMedicationCode(criteria, code);
-		handleMedicationDosageForm(criteria, dosageForm);
-		handleBoolean("retired", convertStringStatusToBoolean(status)).ifPresent(criteria::add);
+		SearchQuery<Drug> searchQuery = toSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Drug.class);
+			handleMedicationCode(criteria, code);
+			handleMedicationDosageForm(criteria, dosageForm);
+			handleBoolean("retired", convertStringStatusToBoolean(status)).ifPresent(criteria::add);
+			
+			return criteria;
+		});
 		
-		return criteria.list();
+		return toCachedSearchQuery(Drug.class, searchQuery, code, dosageForm, ingredientCode, status);
 	}
 	
 	private void handleMedicationCode(Criteria criteria, TokenAndListParam code) {
@@ -14,8 +14,10 @@ import static org.hibernate.criterion.Restrictions.eq;
 import javax.validation.constraints.NotNull;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import ca.uhn.fhir.rest.api.SortOrderEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityAndListParam;
@@ -27,9 +29,11 @@ import ca.uhn.fhir.rest.param.TokenParam;
 import org.hibernate.Criteria;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
 import org.hl7.fhir.r4.model.Observation;
 import org.openmrs.Obs;
 import org.openmrs.module.fhir2.api.dao.FhirObservationDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -37,36 +41,58 @@ import org.springframework.stereotype.Component;
 @Component
 public class FhirObservationDaoImpl extends BaseDaoImpl implements FhirObservationDao {
 	
+	private static final SortSpec DEFAULT_SORT = new SortSpec("date", SortOrderEnum.ASC);
+	
 	@Autowired
 	@Qualifier("sessionFactory")
 	private SessionFactory sessionFactory;
 	
 	@Override
 	public Obs getObsByUuid(String uuid) {
-		return (Obs) sessionFactory.getCurrentSession().createCriteria(Obs.class).add(eq("uuid", uuid)).uniqueResult();
+		return uniqueResult(sessionFactory.getCurrentSession().createCriteria(Obs.class).add(eq("uuid", uuid)));
+	}
+	
+	@Override
+	public List<Obs> getObsByEncounterUuids(Collection<String> encounterUuids) {
+		return listByUuids(sessionFactory.getCurrentSession().createCriteria(Obs.class).createAlias("encounter", "e")
+		        .add(eq("voided", false)).addOrder(Order.asc("obsId")), "e.uuid", encounterUuids);
 	}
 	
 	@Override
-	public Collection<Obs> searchForObservations(ReferenceAndListParam encounterReference,
+	public SearchQuery<Obs> searchForObservations(ReferenceAndListParam encounterReference,
 	        ReferenceAndListParam patientReference, ReferenceParam hasMemberReference, TokenAndListParam valueConcept,
 	        DateRangeParam valueDateParam, QuantityAndListParam valueQuantityParam, StringAndListParam valueStringParam,
 	        DateRangeParam date, TokenAndListParam code, SortSpec sort) {
+		return searchForObservations(encounterReference, patientReference, hasMemberReference, valueConcept,
+		    valueDateParam, valueQuantityParam, valueStringParam, date, code, sort, false);
+	}
+	
+	@Override
+	public SearchQuery<Obs> searchForObservations(ReferenceAndListParam encounterReference,
+	        ReferenceAndListParam patientReference, ReferenceParam hasMemberReference, TokenAndListParam valueConcept,
+	        DateRangeParam valueDateParam, QuantityAndListParam valueQuantityParam, StringAndListParam valueStringParam,
+	        DateRangeParam date, TokenAndListParam code, SortSpec sort, boolean includeVoided) {
 		
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Obs.class);
-		
-		handleEncounterReference("e", encounterReference).ifPresent(c -> criteria.createAlias("encounter", "e").add(c));
-		handlePatientReference(criteria, patientReference, "person");
-		handleHasMemberReference(criteria, hasMemberReference);
-		handleValueCodedConcept(criteria, valueConcept);
-		handleDateRange("valueDatetime", valueDateParam);
-		
-		handleValueStringParam("valueText", valueStringParam).ifPresent(criteria::add);
-		handleQuantity("valueNumeric", valueQuantityParam).ifPresent(criteria::add);
-		handleDateRange("obsDatetime", date);
-		handleCodedConcept(criteria, code);
-		handleSort(criteria, sort);
+		SearchQuery<Obs> searchQuery = toKeysetSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Obs.class);
+			
+			handleEncounterReference("e", encounterReference).ifPresent(c -> criteria.createAlias("encounter", "e").add(c));
+			handlePatientReference(criteria, patientReference, "person");
+			handleHasMemberReference(criteria, hasMemberReference);
+			handleValueCodedConcept(criteria, valueConcept);
+			handleDateRange("valueDatetime", valueDateParam).ifPresent(criteria::add);
+			
+			handleValueStringParam("valueText", valueStringParam).ifPresent(criteria::add);
+			handleQuantity("valueNumeric", valueQuantityParam).ifPresent(criteria::add);
+			handleDateRange("obsDatetime", date).ifPresent(criteria::add);
+			handleCodedConcept(criteria, code);
+			handleSort(criteria, sort != null ? sort : DEFAULT_SORT);
+			
+			return criteria;
+		}, "obsDatetime", includeVoided);
 		
-		return criteria.list();
+		return toCachedSearchQuery(Obs.class, searchQuery, encounterReference, patientReference, hasMemberReference,
+		    valueConcept, valueDateParam, valueQuantityParam, valueStringParam, date, code, sort, includeVoided);
 	}
 	
 	protected void handleHasMemberReference(Criteria criteria, ReferenceParam hasMemberReference) {
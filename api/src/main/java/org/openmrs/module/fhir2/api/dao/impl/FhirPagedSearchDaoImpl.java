@@ -0,0 +1,187 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import static org.hibernate.criterion.Restrictions.between;
+import static org.hibernate.criterion.Restrictions.eq;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.StringJoiner;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hibernate.CacheMode;
+import org.hibernate.Criteria;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
+import org.hibernate.internal.CriteriaImpl;
+import org.hibernate.metadata.ClassMetadata;
+import org.openmrs.module.fhir2.FhirPagedSearch;
+import org.openmrs.module.fhir2.FhirPagedSearchResult;
+import org.openmrs.module.fhir2.api.dao.FhirPagedSearchDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.translators.TranslatorFetchPlans;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores the primary keys of the results of a search, in order, a chunk of {@value #CHUNK_SIZE} keys
+ * to a {@link FhirPagedSearchResult}. The keys are read by scrolling through the query of the search
+ * once, when it is saved, so the pages of a search all come from the same snapshot of its results
+ * and nothing is written while they are read. A page of results is loaded by reading the one or two
+ * chunks it falls in and then loading the results by primary key through the fetch plan.
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class FhirPagedSearchDaoImpl implements FhirPagedSearchDao {
+	
+	// the number of primary keys stored in each FhirPagedSearchResult
+	static final int CHUNK_SIZE = 1000;
+	
+	private static final String ID_SEPARATOR = ",";
+	
+	@Autowired
+	@Qualifier("sessionFactory")
+	private SessionFactory sessionFactory;
+	
+	@Autowired
+	private TranslatorFetchPlans translatorFetchPlans;
+	
+	@Override
+	public FhirPagedSearch getPagedSearchByUuid(String uuid) {
+		return (FhirPagedSearch) sessionFactory.getCurrentSession().createCriteria(FhirPagedSearch.class)
+		        .add(eq("uuid", uuid)).uniqueResult();
+	}
+	
+	@Override
+	public FhirPagedSearch savePagedSearch(FhirPagedSearch search, SearchQuery<?> searchQuery) {
+		Criteria criteria = toCriteria(searchQuery);
+		if (!(criteria instanceof CriteriaImpl)) {
+			return null;
+		}
+		
+		// every OpenMRS object has an integer primary key, which is what the chunks are read back as
+		String entityName = ((CriteriaImpl) criteria).getEntityOrClassName();
+		ClassMetadata metadata = sessionFactory.getClassMetadata(entityName);
+		if (metadata == null || !Integer.class.equals(metadata.getIdentifierType().getReturnedClass())) {
+			return null;
+		}
+		
+		Session session = sessionFactory.getCurrentSession();
+		search.setEntityName(entityName);
+		search.setTotal(0);
+		session.saveOrUpdate(search);
+		
+		ScrollableResults ids = criteria.setProjection(Projections.id()).setFetchSize(CHUNK_SIZE)
+		        .setCacheMode(CacheMode.IGNORE).scroll(ScrollMode.FORWARD_ONLY);
+		
+		int total = 0;
+		try {
+			StringJoiner chunk = new StringJoiner(ID_SEPARATOR);
+			while (ids.next()) {
+				chunk.add(ids.get(0).toString());
+				if (++total % CHUNK_SIZE == 0) {
+					saveChunk(session, search, total / CHUNK_SIZE - 1, chunk.toString());
+					chunk = new StringJoiner(ID_SEPARATOR);
+				}
+			}
+			
+			if (total % CHUNK_SIZE != 0) {
+				saveChunk(session, search, total / CHUNK_SIZE, chunk.toString());
+			}
+		}
+		finally {
+			ids.close();
+		}
+		
+		search.setTotal(total);
+		return search;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<?> getResults(FhirPagedSearch search, int firstResult, int maxResults) {
+		int fromIndex = Math.max(firstResult, 0);
+		int toIndex = (int) Math.min((long) fromIndex + maxResults, search.getTotal());
+		if (toIndex <= fromIndex) {
+			return Collections.emptyList();
+		}
+		
+		Session session = sessionFactory.getCurrentSession();
+		List<String> chunks = session.createCriteria(FhirPagedSearchResult.class).add(eq("search", search))
+		        .add(between("chunkIndex", fromIndex / CHUNK_SIZE, (toIndex - 1) / CHUNK_SIZE))
+		        .addOrder(Order.asc("chunkIndex")).setProjection(Projections.property("entityIds")).list();
+		
+		List<Serializable> ids = new ArrayList<>(toIndex - fromIndex);
+		int index = fromIndex / CHUNK_SIZE * CHUNK_SIZE;
+		for (String chunk : chunks) {
+			for (String id : chunk.split(ID_SEPARATOR)) {
+				if (index >= fromIndex && index < toIndex) {
+					ids.add(Integer.valueOf(id));
+				}
+				
+				index++;
+			}
+		}
+		
+		// results which have since been purged are skipped
+		return FetchPlanLoader.list(session, search.getEntityName(), ids, this::getFetchPaths);
+	}
+	
+	@Override
+	public int deletePagedSearchesExpiredBefore(Date date) {
+		Session session = sessionFactory.getCurrentSession();
+		
+		session.createQuery("delete from FhirPagedSearchResult r where r.search.id in "
+		        + "(select s.id from FhirPagedSearch s where s.expires < :date)").setParameter("date", date)
+		        .executeUpdate();
+		
+		return session.createQuery("delete from FhirPagedSearch s where s.expires < :date").setParameter("date", date)
+		        .executeUpdate();
+	}
+	
+	private void saveChunk(Session session, FhirPagedSearch search, int chunkIndex, String entityIds) {
+		// searches can match a very large number of results, so no chunk is kept in the session once written
+		FhirPagedSearchResult chunk = new FhirPagedSearchResult(null, search, chunkIndex, entityIds);
+		session.save(chunk);
+		session.flush();
+		session.evict(chunk);
+	}
+	
+	private Criteria toCriteria(SearchQuery<?> searchQuery) {
+		if (searchQuery instanceof CachingSearchQuery) {
+			return toCriteria(((CachingSearchQuery<?>) searchQuery).getSearchQuery());
+		}
+		
+		if (searchQuery instanceof CriteriaSearchQuery) {
+			return ((CriteriaSearchQuery<?>) searchQuery).criteriaSupplier.get();
+		}
+		
+		return null;
+	}
+	
+	private Collection<String> getFetchPaths(String entityName) {
+		if (translatorFetchPlans == null) {
+			return Collections.emptyList();
+		}
+		
+		return translatorFetchPlans.getFetchPaths(entityName);
+	}
+}
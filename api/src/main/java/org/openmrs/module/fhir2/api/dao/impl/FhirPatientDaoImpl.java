@@ -29,6 +29,7 @@ import org.hibernate.SessionFactory;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.module.fhir2.api.dao.FhirPatientDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -49,8 +50,12 @@ public class FhirPatientDaoImpl extends AbstractPersonDaoImpl implements FhirPat
 	
 	@Override
 	public Patient getPatientByUuid(String uuid) {
-		return (Patient) sessionFactory.getCurrentSession().createCriteria(Patient.class).add(eq("uuid", uuid))
-		        .uniqueResult();
+		return uniqueResult(sessionFactory.getCurrentSession().createCriteria(Patient.class).add(eq("uuid", uuid)));
+	}
+	
+	@Override
+	public List<Patient> getPatientsByUuids(Collection<String> uuids) {
+		return listByUuids(sessionFactory.getCurrentSession().createCriteria(Patient.class), "uuid", uuids);
 	}
 	
 	@Override
@@ -76,25 +81,30 @@ public class FhirPatientDaoImpl extends AbstractPersonDaoImpl implements FhirPat
 	}
 	
 	@Override
-	public Collection<Patient> searchForPatients(StringOrListParam name, StringOrListParam given, StringOrListParam family,
+	public SearchQuery<Patient> searchForPatients(StringOrListParam name, StringOrListParam given, StringOrListParam family,
 	        TokenOrListParam identifier, TokenOrListParam gender, DateRangeParam birthDate, DateRangeParam deathDate,
 	        TokenOrListParam deceased, StringOrListParam city, StringOrListParam state, StringOrListParam postalCode,
 	        StringOrListParam country, SortSpec sort) {
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Patient.class);
-		
-		handleNames(criteria, name, given, family);
-		handleIdentifier(criteria, identifier);
-		handleGender("gender", gender).ifPresent(criteria::add);
-		handleDateRange("birthdate", birthDate).ifPresent(criteria::add);
-		handleDateRange("deathDate", deathDate).ifPresent(criteria::add);
-		handleBoolean("dead", deceased).ifPresent(criteria::add);
-		handlePersonAddress("pad", city, state, postalCode, country).ifPresent(c -> {
-			criteria.createAlias("addresses", "pad");
-			criteria.add(c);
-		});
-		handleSort(criteria, sort);
+		SearchQuery<Patient> searchQuery = toPersonSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Patient.class);
+			
+			handleNames(criteria, name, given, family);
+			handleIdentifier(criteria, identifier);
+			handleGender("gender", gender).ifPresent(criteria::add);
+			handleDateRange("birthdate", birthDate).ifPresent(criteria::add);
+			handleDateRange("deathDate", deathDate).ifPresent(criteria::add);
+			handleBoolean("dead", deceased).ifPresent(criteria::add);
+			handlePersonAddress("pad", city, state, postalCode, country).ifPresent(c -> {
+				criteria.createAlias("addresses", "pad");
+				criteria.add(c);
+			});
+			handleSort(criteria, sort);
+			
+			return criteria;
+		}, sort);
 		
-		return criteria.list();
+		return toCachedSearchQuery(Patient.class, searchQuery, name, given, family, identifier, gender, birthDate, deathDate,
+		    deceased, city, state, postalCode, country, sort);
 	}
 	
 	@Override
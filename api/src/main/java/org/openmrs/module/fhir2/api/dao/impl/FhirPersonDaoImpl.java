@@ -11,7 +11,6 @@ package org.openmrs.module.fhir2.api.dao.impl;
 
 import static org.hibernate.criterion.Restrictions.eq;
 
-import java.util.Collection;
 import java.util.List;
 
 import ca.uhn.fhir.rest.api.SortSpec;
@@ -26,6 +25,7 @@ import org.hibernate.sql.JoinType;
 import org.openmrs.Person;
 import org.openmrs.PersonAttribute;
 import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -40,7 +40,7 @@ public class FhirPersonDaoImpl extends AbstractPersonDaoImpl implements FhirPers
 	
 	@Override
 	public Person getPersonByUuid(String uuid) {
-		return (Person) sessionFactory.getCurrentSession().createCriteria(Person.class).add(eq("uuid", uuid)).uniqueResult();
+		return uniqueResult(sessionFactory.getCurrentSession().createCriteria(Person.class).add(eq("uuid", uuid)));
 	}
 	
 	@Override
@@ -53,22 +53,34 @@ public class FhirPersonDaoImpl extends AbstractPersonDaoImpl implements FhirPers
 	}
 	
 	@Override
-	public Collection<Person> searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
+	public SearchQuery<Person> searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
 	        StringOrListParam city, StringOrListParam state, StringOrListParam postalCode, StringOrListParam country,
 	        SortSpec sort) {
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Person.class);
-		
-		handleNames(criteria, name, null, null);
-		handleGender("gender", gender).ifPresent(criteria::add);
-		handleDateRange("birthdate", birthDate).ifPresent(criteria::add);
-		handlePersonAddress("pad", city, state, postalCode, country).ifPresent(c -> {
-			criteria.createAlias("addresses", "pad");
-			criteria.add(c);
-		});
-		
-		handleSort(criteria, sort);
+		return searchForPeople(name, gender, birthDate, city, state, postalCode, country, sort, false);
+	}
+	
+	@Override
+	public SearchQuery<Person> searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
+	        StringOrListParam city, StringOrListParam state, StringOrListParam postalCode, StringOrListParam country,
+	        SortSpec sort, boolean includeVoided) {
+		SearchQuery<Person> searchQuery = toPersonSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Person.class);
+			
+			handleNames(criteria, name, null, null);
+			handleGender("gender", gender).ifPresent(criteria::add);
+			handleDateRange("birthdate", birthDate).ifPresent(criteria::add);
+			handlePersonAddress("pad", city, state, postalCode, country).ifPresent(c -> {
+				criteria.createAlias("addresses", "pad");
+				criteria.add(c);
+			});
+			
+			handleSort(criteria, sort);
+			
+			return criteria;
+		}, sort, includeVoided);
 		
-		return criteria.list();
+		return toCachedSearchQuery(Person.class, searchQuery, name, gender, birthDate, city, state, postalCode, country,
+		    sort, includeVoided);
 	}
 	
 	@Override
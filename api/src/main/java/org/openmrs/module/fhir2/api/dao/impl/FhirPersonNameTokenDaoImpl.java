@@ -0,0 +1,67 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.util.Collection;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hibernate.SessionFactory;
+import org.openmrs.PersonName;
+import org.openmrs.module.fhir2.api.dao.FhirPersonNameTokenDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class FhirPersonNameTokenDaoImpl implements FhirPersonNameTokenDao {
+	
+	@Autowired
+	@Qualifier("sessionFactory")
+	private SessionFactory sessionFactory;
+	
+	/**
+	 * The tokens are written with plain JDBC on the session's connection, so this can be called while
+	 * the session is being flushed and the rows are part of the same transaction as the names
+	 */
+	@Override
+	public void saveNameTokens(Collection<PersonName> names) {
+		if (names.isEmpty()) {
+			return;
+		}
+		
+		sessionFactory.getCurrentSession().doWork(connection -> {
+			try (PersonNameTokenWriter writer = new PersonNameTokenWriter(connection)) {
+				for (PersonName name : names) {
+					if (name.getPersonNameId() != null) {
+						writer.write(name.getPersonNameId(), Boolean.TRUE.equals(name.getVoided()), name.getGivenName(),
+						    name.getMiddleName(), name.getFamilyName());
+					}
+				}
+			}
+		});
+	}
+	
+	@Override
+	public void saveSortKeys(Collection<Integer> personIds) {
+		if (personIds.isEmpty()) {
+			return;
+		}
+		
+		sessionFactory.getCurrentSession().doWork(connection -> {
+			try (PersonSortKeyWriter writer = new PersonSortKeyWriter(connection)) {
+				for (Integer personId : personIds) {
+					writer.update(personId);
+				}
+			}
+		});
+	}
+}
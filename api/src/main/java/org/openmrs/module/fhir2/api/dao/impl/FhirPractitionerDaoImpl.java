@@ -11,7 +11,10 @@ package org.openmrs.module.fhir2.api.dao.impl;
 
 import static org.hibernate.criterion.Restrictions.and;
 import static org.hibernate.criterion.Restrictions.eq;
+import static org.hibernate.criterion.Restrictions.in;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import lombok.AccessLevel;
@@ -40,6 +43,16 @@ public class FhirPractitionerDaoImpl implements FhirPractitionerDao {
 		        .uniqueResult();
 	}
 	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Provider> getProvidersByUuids(Collection<String> uuids) {
+		if (uuids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		return sessionFactory.getCurrentSession().createCriteria(Provider.class).add(in("uuid", uuids)).list();
+	}
+	
 	@Override
 	@SuppressWarnings("unchecked")
 	public List<Provider> findProviderByName(String name) {
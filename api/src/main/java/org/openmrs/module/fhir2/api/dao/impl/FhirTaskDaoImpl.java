@@ -29,6 +29,7 @@ import org.hl7.fhir.r4.model.DomainResource;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.module.fhir2.FhirTask;
 import org.openmrs.module.fhir2.api.dao.FhirTaskDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -67,35 +68,39 @@ public class FhirTaskDaoImpl extends BaseDaoImpl implements FhirTaskDao {
 	}
 	
 	@Override
-	public Collection<FhirTask> searchForTasks(ReferenceParam basedOnReference, ReferenceParam ownerReference,
+	public SearchQuery<FhirTask> searchForTasks(ReferenceParam basedOnReference, ReferenceParam ownerReference,
 	        TokenOrListParam status, SortSpec sort) {
 		
-		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(FhirTask.class);
+		SearchQuery<FhirTask> searchQuery = toSearchQuery(() -> {
+			Criteria criteria = sessionFactory.getCurrentSession().createCriteria(FhirTask.class);
+			
+			// TODO: Refactor with BaseDaoImpl search support
+			// TODO: Handle optional params
+			// Task.basedOn
+			if (validReferenceParam(basedOnReference)) {
+				criteria.createAlias("basedOnReferences", "bo")
+				        .add(Restrictions.eq("bo.reference", basedOnReference.getIdPart()))
+				        .add(Restrictions.eq("bo.type", basedOnReference.getResourceType()));
+			}
+			
+			// Task.owner
+			if (validReferenceParam(ownerReference)) {
+				criteria.createAlias("ownerReference", "o").add(Restrictions.eq("o.reference", ownerReference.getIdPart()))
+				        .add(Restrictions.eq("o.type", ownerReference.getResourceType()));
+			}
+			
+			// Task.status
+			if (status != null && !status.getValuesAsQueryTokens().isEmpty()) {
+				criteria.add(Restrictions.in("status", status.getValuesAsQueryTokens().stream()
+				        .map(token -> FhirTask.TaskStatus.valueOf(token.getValue())).collect(Collectors.toList())));
+			}
+			
+			handleSort(criteria, sort);
+			
+			return criteria;
+		});
 		
-		// TODO: Refactor with BaseDaoImpl search support
-		// TODO: Handle optional params
-		// Task.basedOn
-		if (validReferenceParam(basedOnReference)) {
-			criteria.createAlias("basedOnReferences", "bo")
-			        .add(Restrictions.eq("bo.reference", basedOnReference.getIdPart()))
-			        .add(Restrictions.eq("bo.type", basedOnReference.getResourceType()));
-		}
-		
-		// Task.owner
-		if (validReferenceParam(ownerReference)) {
-			criteria.createAlias("ownerReference", "o").add(Restrictions.eq("o.reference", ownerReference.getIdPart()))
-			        .add(Restrictions.eq("o.type", ownerReference.getResourceType()));
-		}
-		
-		// Task.status
-		if (status != null && !status.getValuesAsQueryTokens().isEmpty()) {
-			criteria.add(Restrictions.in("status", status.getValuesAsQueryTokens().stream()
-			        .map(token -> FhirTask.TaskStatus.valueOf(token.getValue())).collect(Collectors.toList())));
-		}
-		
-		handleSort(criteria, sort);
-		
-		return criteria.list();
+		return toCachedSearchQuery(FhirTask.class, searchQuery, basedOnReference, ownerReference, status, sort);
 	}
 	
 	@Override
@@ -0,0 +1,140 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import static org.hibernate.criterion.Restrictions.and;
+import static org.hibernate.criterion.Restrictions.eq;
+import static org.hibernate.criterion.Restrictions.gt;
+import static org.hibernate.criterion.Restrictions.lt;
+import static org.hibernate.criterion.Restrictions.or;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import lombok.Value;
+import org.hibernate.Criteria;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.internal.CriteriaImpl;
+import org.hibernate.metadata.ClassMetadata;
+
+/**
+ * A {@link CriteriaSearchQuery} which uses keyset (or "seek") pagination instead of offsets where it
+ * can. Each time a page is loaded, the sort key of its last result is remembered, so that when the
+ * following page is requested the query can seek directly past that result instead of having the
+ * database step over every preceding row. This means that loading page N costs the same as loading
+ * page 1.
+ * <p/>
+ * Seeking is only possible when the results are ordered by the sort property followed by the
+ * primary key, both in the same direction, which is what
+ * {@link BaseDaoImpl#handleSort(Criteria, ca.uhn.fhir.rest.api.SortSpec)} produces when sorting on
+ * the sort property. For any other ordering, or for a page that does not directly follow the last
+ * page loaded, this falls back to offset paging.
+ *
+ * @param <T> the type of object returned by the criteria
+ */
+class KeysetCriteriaSearchQuery<T> extends CriteriaSearchQuery<T> {
+	
+	private final String sortProperty;
+	
+	private volatile Cursor cursor;
+	
+	KeysetCriteriaSearchQuery(Supplier<Criteria> criteriaSupplier, String sortProperty,
+	        Function<String, Collection<String>> fetchPlan) {
+		super(criteriaSupplier, fetchPlan);
+		this.sortProperty = sortProperty;
+	}
+	
+	@Override
+	public List<T> getResults(int firstResult, int maxResults) {
+		Criteria criteria = criteriaSupplier.get();
+		
+		Optional<Boolean> ascending = getSeekDirection(criteria);
+		Cursor current = cursor;
+		if (ascending.isPresent() && current != null && firstResult > 0 && current.getOffset() == firstResult) {
+			criteria.add(seekPast(current, ascending.get()));
+		} else {
+			criteria.setFirstResult(Math.max(firstResult, 0));
+		}
+		
+		criteria.setMaxResults(maxResults);
+		List<T> results = list(criteria);
+		
+		if (ascending.isPresent() && !results.isEmpty()) {
+			CriteriaImpl criteriaImpl = (CriteriaImpl) criteria;
+			SessionImplementor session = criteriaImpl.getSession();
+			ClassMetadata metadata = session.getFactory().getClassMetadata(criteriaImpl.getEntityOrClassName());
+			
+			T last = results.get(results.size() - 1);
+			cursor = new Cursor(Math.max(firstResult, 0) + results.size(), metadata.getPropertyValue(last, sortProperty),
+			        metadata.getIdentifier(last, session));
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Determines whether the given criteria is ordered so that it can be paged by seeking, i.e. by the
+	 * sort property and then the primary key, both in the same direction.
+	 *
+	 * @param criteria the criteria to examine
+	 * @return true if the criteria is sorted in ascending order, false if it is sorted in descending
+	 *         order, or empty if it cannot be paged by seeking
+	 */
+	private Optional<Boolean> getSeekDirection(Criteria criteria) {
+		if (!(criteria instanceof CriteriaImpl)) {
+			return Optional.empty();
+		}
+		
+		List<Order> orders = new ArrayList<>(2);
+		((CriteriaImpl) criteria).iterateOrderings().forEachRemaining(o -> orders.add(o.getOrder()));
+		
+		if (orders.size() != 2) {
+			return Optional.empty();
+		}
+		
+		Order sortOrder = orders.get(0);
+		Order idOrder = orders.get(1);
+		if (!sortProperty.equals(sortOrder.getPropertyName()) || !BaseDaoImpl.ID_PROPERTY.equals(idOrder.getPropertyName())
+		        || sortOrder.isAscending() != idOrder.isAscending()) {
+			return Optional.empty();
+		}
+		
+		return Optional.of(sortOrder.isAscending());
+	}
+	
+	private Criterion seekPast(Cursor cursor, boolean ascending) {
+		if (ascending) {
+			return or(gt(sortProperty, cursor.getSortValue()),
+			    and(eq(sortProperty, cursor.getSortValue()), gt(BaseDaoImpl.ID_PROPERTY, cursor.getId())));
+		}
+		
+		return or(lt(sortProperty, cursor.getSortValue()),
+		    and(eq(sortProperty, cursor.getSortValue()), lt(BaseDaoImpl.ID_PROPERTY, cursor.getId())));
+	}
+	
+	/**
+	 * The position immediately after the last result of the most recently loaded page
+	 */
+	@Value
+	private static class Cursor {
+		
+		int offset;
+		
+		Object sortValue;
+		
+		Object id;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Populates the name token tables from the existing names when they are first created. From then
+ * on, they are kept up to date as names are saved.
+ *
+ * @see PersonNameTokenWriter
+ */
+public class PersonNameTokenChangeSet implements CustomTaskChange {
+	
+	private static final int BATCH_SIZE = 1000;
+	
+	private int count;
+	
+	@Override
+	public void execute(Database database) throws CustomChangeException {
+		Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+		
+		// names are read in batches ordered by id so that only one batch is held in memory at a time
+		try (PreparedStatement select = connection.prepareStatement(
+		    "select person_name_id, given_name, middle_name, family_name from person_name "
+		            + "where voided = ? and person_name_id > ? order by person_name_id");
+		        PersonNameTokenWriter writer = new PersonNameTokenWriter(connection)) {
+			select.setMaxRows(BATCH_SIZE);
+			
+			int lastId = 0;
+			boolean more = true;
+			while (more) {
+				select.setBoolean(1, false);
+				select.setInt(2, lastId);
+				
+				more = false;
+				try (ResultSet names = select.executeQuery()) {
+					while (names.next()) {
+						lastId = names.getInt(1);
+						writer.write(lastId, false, names.getString(2), names.getString(3), names.getString(4));
+						count++;
+						more = true;
+					}
+				}
+				
+				writer.flush();
+			}
+		}
+		catch (SQLException e) {
+			throw new CustomChangeException("Could not populate the person name tokens", e);
+		}
+	}
+	
+	@Override
+	public String getConfirmationMessage() {
+		return "Added the tokens of " + count + " person names";
+	}
+	
+	@Override
+	public void setUp() throws SetupException {
+	}
+	
+	@Override
+	public void setFileOpener(ResourceAccessor resourceAccessor) {
+	}
+	
+	@Override
+	public ValidationErrors validate(Database database) {
+		return null;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openmrs.module.fhir2.FhirPersonNameToken;
+import org.openmrs.module.fhir2.FhirPersonNameTrigram;
+import org.openmrs.module.fhir2.api.util.PersonNameTokenizer;
+
+/**
+ * Replaces the rows of the {@link FhirPersonNameToken} and {@link FhirPersonNameTrigram} tables for
+ * a batch of names using plain JDBC, so that it can be used both while Hibernate is flushing a
+ * session and from a Liquibase change set. Names are buffered by {@link #write} and their rows are
+ * only replaced by {@link #flush}.
+ */
+class PersonNameTokenWriter implements AutoCloseable {
+	
+	/**
+	 * The properties of a name which are tokenized, as recorded in the {@code name_part} column
+	 */
+	static final String[] NAME_PARTS = { "givenName", "middleName", "familyName" };
+	
+	private final PreparedStatement deleteTokens;
+	
+	private final PreparedStatement deleteTrigrams;
+	
+	private final PreparedStatement insertToken;
+	
+	private final PreparedStatement insertTrigram;
+	
+	private final Map<Integer, String[]> names = new LinkedHashMap<>();
+	
+	PersonNameTokenWriter(Connection connection) throws SQLException {
+		deleteTokens = connection.prepareStatement("delete from fhir_person_name_token where person_name_id = ?");
+		deleteTrigrams = connection.prepareStatement("delete from fhir_person_name_trigram where person_name_id = ?");
+		insertToken = connection
+		        .prepareStatement("insert into fhir_person_name_token (person_name_id, name_part, token) values (?, ?, ?)");
+		insertTrigram = connection
+		        .prepareStatement("insert into fhir_person_name_trigram (person_name_id, trigram) values (?, ?)");
+	}
+	
+	/**
+	 * Buffers a name to be written
+	 *
+	 * @param personNameId the id of the name
+	 * @param voided whether the name is voided, in which case it has no tokens
+	 * @param parts the values of the {@link #NAME_PARTS} of the name, in the same order
+	 */
+	void write(int personNameId, boolean voided, String... parts) {
+		names.put(personNameId, voided ? null : parts);
+	}
+	
+	/**
+	 * Replaces the tokens and trigrams of every buffered name
+	 *
+	 * @throws SQLException if the rows could not be written
+	 */
+	void flush() throws SQLException {
+		if (names.isEmpty()) {
+			return;
+		}
+		
+		for (Map.Entry<Integer, String[]> name : names.entrySet()) {
+			int personNameId = name.getKey();
+			deleteTokens.setInt(1, personNameId);
+			deleteTokens.addBatch();
+			deleteTrigrams.setInt(1, personNameId);
+			deleteTrigrams.addBatch();
+			
+			if (name.getValue() != null) {
+				addTokens(personNameId, name.getValue());
+			}
+		}
+		
+		deleteTokens.executeBatch();
+		deleteTrigrams.executeBatch();
+		insertToken.executeBatch();
+		insertTrigram.executeBatch();
+		names.clear();
+	}
+	
+	@Override
+	public void close() throws SQLException {
+		try {
+			flush();
+		}
+		finally {
+			deleteTokens.close();
+			deleteTrigrams.close();
+			insertToken.close();
+			insertTrigram.close();
+		}
+	}
+	
+	private void addTokens(int personNameId, String[] parts) throws SQLException {
+		Set<String> trigrams = new LinkedHashSet<>();
+		for (int i = 0; i < NAME_PARTS.length && i < parts.length; i++) {
+			List<String> tokens = PersonNameTokenizer.tokenize(parts[i]);
+			for (String token : tokens) {
+				insertToken.setInt(1, personNameId);
+				insertToken.setString(2, NAME_PARTS[i]);
+				insertToken.setString(3, token);
+				insertToken.addBatch();
+				
+				trigrams.addAll(PersonNameTokenizer.trigrams(token));
+			}
+		}
+		
+		for (String trigram : trigrams) {
+			insertTrigram.setInt(1, personNameId);
+			insertTrigram.setString(2, trigram);
+			insertTrigram.addBatch();
+		}
+	}
+}
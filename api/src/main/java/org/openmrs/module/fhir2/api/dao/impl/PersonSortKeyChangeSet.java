@@ -0,0 +1,101 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Populates the person sort key table from the existing names when it is first created, adding a row
+ * for every person. From then on, it is kept up to date as people and names are saved.
+ *
+ * @see PersonSortKeyWriter
+ */
+public class PersonSortKeyChangeSet implements CustomTaskChange {
+	
+	private static final int BATCH_SIZE = 1000;
+	
+	private int count;
+	
+	@Override
+	public void execute(Database database) throws CustomChangeException {
+		Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+		
+		// the names of each person are ordered so that their preferred name comes first; as only that name is needed, a
+		// batch which ends part way through a person's names can safely skip the rest of them
+		try (PreparedStatement select = connection.prepareStatement("select person_id, " + PersonSortKeyWriter.NAME_COLUMNS
+		        + " from person_name where voided = ? and person_id > ? order by person_id, preferred desc, person_name_id");
+		        PersonSortKeyWriter writer = new PersonSortKeyWriter(connection)) {
+			select.setMaxRows(BATCH_SIZE);
+			
+			int lastId = 0;
+			boolean more = true;
+			while (more) {
+				select.setBoolean(1, false);
+				select.setInt(2, lastId);
+				
+				more = false;
+				try (ResultSet names = select.executeQuery()) {
+					while (names.next()) {
+						int personId = names.getInt(1);
+						if (personId != lastId) {
+							writer.write(personId, names.getString(2), names.getString(3), names.getString(4),
+							    names.getString(5), names.getString(6), names.getString(7));
+							lastId = personId;
+							count++;
+						}
+						
+						more = true;
+					}
+				}
+				
+				writer.flush();
+			}
+			
+			// every person has a row, so the people without any unvoided names are given one with null keys
+			try (PreparedStatement insert = connection.prepareStatement("insert into fhir_person_sort_key (person_id) "
+			        + "select person_id from person p where not exists "
+			        + "(select 1 from fhir_person_sort_key k where k.person_id = p.person_id)")) {
+				count += insert.executeUpdate();
+			}
+		}
+		catch (SQLException e) {
+			throw new CustomChangeException("Could not populate the person sort keys", e);
+		}
+	}
+	
+	@Override
+	public String getConfirmationMessage() {
+		return "Added the sort keys of " + count + " people";
+	}
+	
+	@Override
+	public void setUp() throws SetupException {
+	}
+	
+	@Override
+	public void setFileOpener(ResourceAccessor resourceAccessor) {
+	}
+	
+	@Override
+	public ValidationErrors validate(Database database) {
+		return null;
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Criteria;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Subqueries;
+import org.hibernate.internal.CriteriaImpl;
+import org.openmrs.module.fhir2.FhirPersonSortKey;
+
+/**
+ * A {@link CriteriaSearchQuery} for people, or patients, which orders them by one of the keys of their
+ * {@link FhirPersonSortKey}. Person is mapped by OpenMRS, so its criteria can't join the sort key
+ * table; instead the primary keys of each page are found by a query on the sort key table, restricted
+ * to the people matched by the criteria and ordered by the key, and the people are then loaded by
+ * primary key through the fetch plan. The criteria itself is only used to filter, so it should not be
+ * ordered.
+ *
+ * @param <T> the type of object returned by the criteria
+ */
+class PersonSortKeySearchQuery<T> extends CriteriaSearchQuery<T> {
+	
+	private final String sortKeyProperty;
+	
+	private final boolean ascending;
+	
+	/**
+	 * @param criteriaSupplier a function which creates the criteria matching the people to return
+	 * @param sortKeyProperty the property of {@link FhirPersonSortKey} to order by, e.g. {@code "nameKey"}
+	 * @param ascending whether to sort in ascending order
+	 * @param fetchPlan a function which returns the association paths to load for an entity name
+	 */
+	PersonSortKeySearchQuery(Supplier<Criteria> criteriaSupplier, String sortKeyProperty, boolean ascending,
+	        Function<String, Collection<String>> fetchPlan) {
+		super(criteriaSupplier, fetchPlan);
+		this.sortKeyProperty = sortKeyProperty;
+		this.ascending = ascending;
+	}
+	
+	@Override
+	public List<T> getResults(int firstResult, int maxResults) {
+		CriteriaImpl criteria = (CriteriaImpl) criteriaSupplier.get();
+		return listByIds(criteria,
+		    toSortKeyCriteria(criteria).setFirstResult(Math.max(firstResult, 0)).setMaxResults(maxResults).list());
+	}
+	
+	@Override
+	public List<T> getResults() {
+		CriteriaImpl criteria = (CriteriaImpl) criteriaSupplier.get();
+		return listByIds(criteria, toSortKeyCriteria(criteria).list());
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<String> getUuids(int maxResults) {
+		Criteria criteria = toSortKeyCriteria((CriteriaImpl) criteriaSupplier.get()).createAlias("person", "p")
+		        .setProjection(Projections.property("p.uuid"));
+		if (maxResults >= 0) {
+			criteria.setMaxResults(maxResults);
+		}
+		
+		return criteria.list();
+	}
+	
+	@Override
+	public void forEach(int batchSize, Consumer<? super T> action) {
+		CriteriaImpl criteria = (CriteriaImpl) criteriaSupplier.get();
+		ScrollableResults ids = toSortKeyCriteria(criteria).setFetchSize(batchSize).setCacheMode(CacheMode.IGNORE)
+		        .scroll(ScrollMode.FORWARD_ONLY);
+		
+		try {
+			List<Serializable> batch = new ArrayList<>(batchSize);
+			while (ids.next()) {
+				batch.add((Serializable) ids.get(0));
+				if (batch.size() >= batchSize) {
+					forEachInBatch(criteria, batch, action);
+					batch.clear();
+				}
+			}
+			
+			if (!batch.isEmpty()) {
+				forEachInBatch(criteria, batch, action);
+			}
+		}
+		finally {
+			ids.close();
+		}
+	}
+	
+	private void forEachInBatch(CriteriaImpl criteria, List<Serializable> ids, Consumer<? super T> action) {
+		listByIds(criteria, ids).forEach(action);
+		clearSession(criteria);
+	}
+	
+	/**
+	 * Creates a criteria for the primary keys of the people matched by the given criteria, ordered by
+	 * their sort keys and then by primary key, so that people with the same key are returned in a
+	 * consistent order from one page to the next
+	 */
+	private Criteria toSortKeyCriteria(CriteriaImpl criteria) {
+		// the people are matched by a subquery, in which an ordering is neither needed nor always allowed
+		Iterator<CriteriaImpl.OrderEntry> orderings = criteria.iterateOrderings();
+		while (orderings.hasNext()) {
+			orderings.next();
+			orderings.remove();
+		}
+		
+		criteria.setProjection(Projections.id());
+		
+		return ((Session) criteria.getSession()).createCriteria(FhirPersonSortKey.class, "k")
+		        .add(Subqueries.propertyIn("k.personId", new PersonCriteria(criteria)))
+		        .addOrder(ascending ? Order.asc("k." + sortKeyProperty) : Order.desc("k." + sortKeyProperty))
+		        .addOrder(ascending ? Order.asc("k.personId") : Order.desc("k.personId"))
+		        .setProjection(Projections.property("k.personId"));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<T> listByIds(CriteriaImpl criteria, List<?> ids) {
+		return FetchPlanLoader.list((Session) criteria.getSession(), criteria.getEntityOrClassName(),
+		    (List<Serializable>) ids, fetchPlan);
+	}
+	
+	/**
+	 * Allows a criteria built by a DAO to be used as a subquery
+	 */
+	private static class PersonCriteria extends DetachedCriteria {
+		
+		private static final long serialVersionUID = 1L;
+		
+		PersonCriteria(CriteriaImpl criteria) {
+			super(criteria, criteria);
+		}
+	}
+}
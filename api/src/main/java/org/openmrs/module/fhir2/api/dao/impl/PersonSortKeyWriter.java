@@ -0,0 +1,159 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.openmrs.module.fhir2.FhirPersonSortKey;
+import org.openmrs.module.fhir2.api.util.PersonNameTokenizer;
+
+/**
+ * Replaces the rows of the {@link FhirPersonSortKey} table for a batch of people using plain JDBC,
+ * so that it can be used both while Hibernate is flushing a session and from a Liquibase change set.
+ * People are buffered by {@link #write} or {@link #update} and their rows are only replaced by
+ * {@link #flush}.
+ */
+class PersonSortKeyWriter implements AutoCloseable {
+	
+	/**
+	 * The columns of {@code person_name} which the keys are derived from
+	 */
+	static final String NAME_COLUMNS = "given_name, middle_name, family_name, family_name2, family_name_prefix, "
+	        + "family_name_suffix";
+	
+	// the indexes of the name columns, in the order they are sorted on
+	private static final int[] NAME_KEY_PARTS = { 2, 3, 0, 1, 4, 5 };
+	
+	private static final int GIVEN_NAME = 0;
+	
+	private static final int FAMILY_NAME = 2;
+	
+	private static final int MAXIMUM_NAME_KEY_LENGTH = 255;
+	
+	private static final int MAXIMUM_NAME_PART_KEY_LENGTH = 50;
+	
+	private final PreparedStatement selectPreferredName;
+	
+	private final PreparedStatement deleteSortKey;
+	
+	private final PreparedStatement insertSortKey;
+	
+	private final Map<Integer, String[]> names = new LinkedHashMap<>();
+	
+	PersonSortKeyWriter(Connection connection) throws SQLException {
+		selectPreferredName = connection.prepareStatement("select " + NAME_COLUMNS
+		        + " from person_name where person_id = ? and voided = ? order by preferred desc, person_name_id");
+		selectPreferredName.setMaxRows(1);
+		deleteSortKey = connection.prepareStatement("delete from fhir_person_sort_key where person_id = ?");
+		insertSortKey = connection.prepareStatement(
+		    "insert into fhir_person_sort_key (person_id, name_key, given_key, family_key) values (?, ?, ?, ?)");
+	}
+	
+	/**
+	 * Buffers the keys of a person to be written
+	 *
+	 * @param personId the id of the person
+	 * @param name the values of the {@link #NAME_COLUMNS} of the person's preferred name, in the same
+	 *            order, or null if the person has no unvoided names
+	 */
+	void write(int personId, String... name) {
+		names.put(personId, name);
+	}
+	
+	/**
+	 * Looks up the current preferred name of a person and buffers the keys derived from it
+	 *
+	 * @param personId the id of the person
+	 * @throws SQLException if the name could not be read
+	 */
+	void update(int personId) throws SQLException {
+		selectPreferredName.setInt(1, personId);
+		selectPreferredName.setBoolean(2, false);
+		
+		try (ResultSet name = selectPreferredName.executeQuery()) {
+			if (name.next()) {
+				String[] values = new String[NAME_KEY_PARTS.length];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = name.getString(i + 1);
+				}
+				
+				write(personId, values);
+			} else {
+				write(personId, (String[]) null);
+			}
+		}
+	}
+	
+	/**
+	 * Replaces the keys of every buffered person
+	 *
+	 * @throws SQLException if the rows could not be written
+	 */
+	void flush() throws SQLException {
+		if (names.isEmpty()) {
+			return;
+		}
+		
+		for (Map.Entry<Integer, String[]> name : names.entrySet()) {
+			deleteSortKey.setInt(1, name.getKey());
+			deleteSortKey.addBatch();
+			
+			// people without a name still get a row, with null keys, so that sorting by a key never drops them
+			String[] values = name.getValue();
+			insertSortKey.setInt(1, name.getKey());
+			insertSortKey.setString(2, values == null ? null : nameKey(values));
+			insertSortKey.setString(3, values == null ? null : key(values[GIVEN_NAME], MAXIMUM_NAME_PART_KEY_LENGTH));
+			insertSortKey.setString(4, values == null ? null : key(values[FAMILY_NAME], MAXIMUM_NAME_PART_KEY_LENGTH));
+			insertSortKey.addBatch();
+		}
+		
+		deleteSortKey.executeBatch();
+		insertSortKey.executeBatch();
+		names.clear();
+	}
+	
+	@Override
+	public void close() throws SQLException {
+		try {
+			flush();
+		}
+		finally {
+			selectPreferredName.close();
+			deleteSortKey.close();
+			insertSortKey.close();
+		}
+	}
+	
+	private static String nameKey(String[] name) {
+		StringJoiner nameKey = new StringJoiner(" ");
+		for (int part : NAME_KEY_PARTS) {
+			if (part < name.length && name[part] != null && !name[part].trim().isEmpty()) {
+				nameKey.add(name[part].trim());
+			}
+		}
+		
+		return key(nameKey.toString(), MAXIMUM_NAME_KEY_LENGTH);
+	}
+	
+	private static String key(String value, int maximumLength) {
+		if (value == null || value.trim().isEmpty()) {
+			return null;
+		}
+		
+		String key = PersonNameTokenizer.normalize(value.trim());
+		return key.length() > maximumLength ? key.substring(0, maximumLength) : key;
+	}
+}
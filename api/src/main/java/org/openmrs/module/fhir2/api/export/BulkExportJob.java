@@ -0,0 +1,188 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.export;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+/**
+ * A bulk data export of the resources of a set of patients. Exports are run in the background by the
+ * {@link BulkExportWriter}, which writes one gzipped NDJSON file for each resource type exported.
+ * <p/>
+ * Exports are only held in memory, so any export in progress or not yet downloaded is lost when the
+ * server is restarted.
+ */
+@Getter
+public class BulkExportJob {
+	
+	public enum Status {
+		IN_PROGRESS,
+		COMPLETED,
+		FAILED,
+		CANCELLED
+	}
+	
+	private final String id;
+	
+	private final String request;
+	
+	private final String requestedBy;
+	
+	private final Date transactionTime;
+	
+	@Getter(AccessLevel.NONE)
+	private final List<Integer> patientIds;
+	
+	private final List<String> resourceTypes;
+	
+	private final Date since;
+	
+	private final File directory;
+	
+	private volatile Status status = Status.IN_PROGRESS;
+	
+	private volatile String error;
+	
+	private volatile Date completedTime;
+	
+	@Getter(AccessLevel.NONE)
+	private final List<Output> outputs = new ArrayList<>();
+	
+	@Getter(AccessLevel.NONE)
+	private final AtomicLong exportedCount = new AtomicLong();
+	
+	/**
+	 * @param id the id of the export
+	 * @param request the url of the request which started the export
+	 * @param requestedBy the uuid of the user who started the export, who is the only user able to check
+	 *            on, download or cancel it
+	 * @param patientIds the ids of the patients to export, in ascending order, or null to export every
+	 *            patient
+	 * @param resourceTypes the FHIR resource types to export
+	 * @param since if not null, only resources created or changed since this time are exported
+	 * @param directory the directory to write the exported files to
+	 */
+	public BulkExportJob(String id, String request, String requestedBy, List<Integer> patientIds,
+	        List<String> resourceTypes, Date since, File directory) {
+		this.id = id;
+		this.request = request;
+		this.requestedBy = requestedBy;
+		this.transactionTime = new Date();
+		this.patientIds = patientIds == null ? null : Collections.unmodifiableList(patientIds);
+		this.resourceTypes = Collections.unmodifiableList(resourceTypes);
+		this.since = since;
+		this.directory = directory;
+	}
+	
+	/**
+	 * @return true if this export is limited to a set of patients
+	 */
+	public boolean hasPatientIds() {
+		return patientIds != null;
+	}
+	
+	/**
+	 * @return the ids of the patients to export, in ascending order
+	 */
+	List<Integer> getPatientIds() {
+		return patientIds == null ? Collections.emptyList() : patientIds;
+	}
+	
+	/**
+	 * @return the files written so far, in the order they were written
+	 */
+	public synchronized List<Output> getOutputs() {
+		return new ArrayList<>(outputs);
+	}
+	
+	/**
+	 * @return the number of resources written so far
+	 */
+	public long getExportedCount() {
+		return exportedCount.get();
+	}
+	
+	/**
+	 * @return a short description of the progress of the export, suitable for the X-Progress header
+	 */
+	public String getProgress() {
+		return String.format("Exported %d resources", getExportedCount());
+	}
+	
+	public boolean isInProgress() {
+		return status == Status.IN_PROGRESS;
+	}
+	
+	public boolean isCancelled() {
+		return status == Status.CANCELLED;
+	}
+	
+	void incrementExportedCount() {
+		exportedCount.incrementAndGet();
+	}
+	
+	synchronized void addOutput(Output output) {
+		outputs.add(output);
+	}
+	
+	/**
+	 * Marks this export as completed, unless it has already been cancelled
+	 */
+	public synchronized void complete() {
+		if (status == Status.IN_PROGRESS) {
+			status = Status.COMPLETED;
+			completedTime = new Date();
+		}
+	}
+	
+	/**
+	 * Marks this export as failed, unless it has already been cancelled
+	 *
+	 * @param error a description of the failure
+	 */
+	public synchronized void fail(String error) {
+		if (status == Status.IN_PROGRESS) {
+			this.status = Status.FAILED;
+			this.error = error;
+			completedTime = new Date();
+		}
+	}
+	
+	/**
+	 * Cancels this export. An export in progress stops at the next resource it writes.
+	 */
+	public synchronized void cancel() {
+		status = Status.CANCELLED;
+		if (completedTime == null) {
+			completedTime = new Date();
+		}
+	}
+	
+	/**
+	 * A single file written by an export
+	 */
+	@Value
+	public static class Output {
+		
+		String resourceType;
+		
+		String fileName;
+		
+		long count;
+	}
+}
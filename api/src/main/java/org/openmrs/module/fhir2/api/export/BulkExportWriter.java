@@ -0,0 +1,230 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.export;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import lombok.AccessLevel;
+import lombok.Setter;
+import lombok.Value;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.openmrs.Allergy;
+import org.openmrs.Encounter;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.dao.FhirBulkExportDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.translators.AllergyIntoleranceTranslator;
+import org.openmrs.module.fhir2.api.translators.ConditionTranslator;
+import org.openmrs.module.fhir2.api.translators.EncounterTranslator;
+import org.openmrs.module.fhir2.api.translators.ObservationTranslator;
+import org.openmrs.module.fhir2.api.translators.PatientTranslator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the files for a {@link BulkExportJob}. Each resource type is written to its own gzipped
+ * NDJSON file, one patient batch at a time, so that only a batch of objects is ever held in the
+ * session. This must be run with a session open, but not inside a transaction, as an export can take
+ * far longer than any transaction should.
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class BulkExportWriter {
+	
+	public static final String FILE_EXTENSION = ".ndjson.gz";
+	
+	// the number of patients whose resources are exported at a time
+	static final int PATIENT_BATCH_SIZE = 1000;
+	
+	// the number of objects loaded from the database at a time
+	private static final int RESULT_BATCH_SIZE = 500;
+	
+	@Autowired
+	@Qualifier("fhirR4")
+	private FhirContext fhirContext;
+	
+	@Autowired
+	private FhirBulkExportDao dao;
+	
+	@Autowired
+	private PatientTranslator patientTranslator;
+	
+	@Autowired
+	private ObservationTranslator observationTranslator;
+	
+	@Autowired
+	private EncounterTranslator encounterTranslator;
+	
+	@Autowired
+	private AllergyIntoleranceTranslator allergyIntoleranceTranslator;
+	
+	// conditions are only supported on OpenMRS 2.2 and later
+	@Autowired(required = false)
+	private ConditionTranslator<?> conditionTranslator;
+	
+	private volatile Map<String, ExportType> exportTypes;
+	
+	/**
+	 * @return the FHIR resource types which can be exported, in the order they are exported
+	 */
+	public Set<String> getResourceTypes() {
+		return getExportTypes().keySet();
+	}
+	
+	/**
+	 * Writes a file for each of the resource types requested by the export, recording each file on the
+	 * export as it is completed. Resource types for which there are no resources do not get a file.
+	 *
+	 * @param job the export to write
+	 * @throws IOException if a file cannot be written
+	 * @throws CancellationException if the export is cancelled while it is being written
+	 */
+	public void write(BulkExportJob job) throws IOException {
+		IParser parser = fhirContext.newJsonParser().setPrettyPrint(false);
+		
+		for (String resourceType : job.getResourceTypes()) {
+			ExportType exportType = getExportTypes().get(resourceType);
+			if (exportType != null) {
+				write(job, exportType, parser);
+			}
+		}
+	}
+	
+	private void write(BulkExportJob job, ExportType exportType, IParser parser) throws IOException {
+		String fileName = exportType.getResourceType() + FILE_EXTENSION;
+		File file = new File(job.getDirectory(), fileName);
+		AtomicLong count = new AtomicLong();
+		
+		try (Writer writer = new BufferedWriter(
+		        new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8))) {
+			forEachPatientBatch(job, patientIds -> write(job, exportType, patientIds, parser, writer, count));
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		
+		if (count.get() > 0) {
+			job.addOutput(new BulkExportJob.Output(exportType.getResourceType(), fileName, count.get()));
+		} else if (!file.delete()) {
+			file.deleteOnExit();
+		}
+	}
+	
+	private void write(BulkExportJob job, ExportType exportType, List<Integer> patientIds, IParser parser,
+	        Writer writer, AtomicLong count) {
+		SearchQuery<Object> query = dao.searchForExport(exportType.getEntityName(), exportType.getPatientProperty(),
+		    patientIds, job.getSince());
+		query.forEach(RESULT_BATCH_SIZE, result -> {
+			if (job.isCancelled()) {
+				throw new CancellationException("Export " + job.getId() + " was cancelled");
+			}
+			
+			IBaseResource resource = exportType.getTranslator().apply(result);
+			if (resource == null) {
+				return;
+			}
+			
+			try {
+				parser.encodeResourceToWriter(resource, writer);
+				writer.write('\n');
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			
+			count.incrementAndGet();
+			job.incrementExportedCount();
+		});
+	}
+	
+	private void forEachPatientBatch(BulkExportJob job, Consumer<List<Integer>> action) {
+		if (job.hasPatientIds()) {
+			List<Integer> patientIds = job.getPatientIds();
+			for (int i = 0; i < patientIds.size(); i += PATIENT_BATCH_SIZE) {
+				action.accept(patientIds.subList(i, Math.min(i + PATIENT_BATCH_SIZE, patientIds.size())));
+				dao.clearSession();
+			}
+			
+			return;
+		}
+		
+		List<Integer> patientIds = dao.getPatientIds(null, PATIENT_BATCH_SIZE);
+		while (!patientIds.isEmpty()) {
+			action.accept(patientIds);
+			dao.clearSession();
+			
+			if (patientIds.size() < PATIENT_BATCH_SIZE) {
+				break;
+			}
+			
+			patientIds = dao.getPatientIds(patientIds.get(patientIds.size() - 1), PATIENT_BATCH_SIZE);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Map<String, ExportType> getExportTypes() {
+		if (exportTypes == null) {
+			Map<String, ExportType> types = new LinkedHashMap<>();
+			types.put(FhirConstants.PATIENT, new ExportType(FhirConstants.PATIENT, Patient.class.getName(), null,
+			        patient -> patientTranslator.toFhirResource((Patient) patient)));
+			types.put(FhirConstants.ENCOUNTER, new ExportType(FhirConstants.ENCOUNTER, Encounter.class.getName(), "patient",
+			        encounter -> encounterTranslator.toFhirResource((Encounter) encounter)));
+			types.put(FhirConstants.OBSERVATION, new ExportType(FhirConstants.OBSERVATION, Obs.class.getName(), "person",
+			        obs -> observationTranslator.toFhirResource((Obs) obs)));
+			types.put(FhirConstants.ALLERGY_INTOLERANCE,
+			    new ExportType(FhirConstants.ALLERGY_INTOLERANCE, Allergy.class.getName(), "patient",
+			            allergy -> allergyIntoleranceTranslator.toFhirResource((Allergy) allergy)));
+			
+			if (conditionTranslator != null) {
+				ConditionTranslator<Object> translator = (ConditionTranslator<Object>) conditionTranslator;
+				types.put(FhirConstants.CONDITION, new ExportType(FhirConstants.CONDITION, "org.openmrs.Condition",
+				        "patient", translator::toFhirResource));
+			}
+			
+			exportTypes = Collections.unmodifiableMap(types);
+		}
+		
+		return exportTypes;
+	}
+	
+	@Value
+	private static class ExportType {
+		
+		String resourceType;
+		
+		String entityName;
+		
+		String patientProperty;
+		
+		Function<Object, IBaseResource> translator;
+	}
+}
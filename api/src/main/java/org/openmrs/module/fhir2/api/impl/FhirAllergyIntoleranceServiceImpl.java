@@ -9,9 +9,7 @@
  */
 package org.openmrs.module.fhir2.api.impl;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
-
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
@@ -20,6 +18,7 @@ import lombok.Setter;
 import org.hl7.fhir.r4.model.AllergyIntolerance;
 import org.openmrs.module.fhir2.api.FhirAllergyIntoleranceService;
 import org.openmrs.module.fhir2.api.dao.FhirAllergyIntoleranceDao;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 import org.openmrs.module.fhir2.api.translators.AllergyIntoleranceTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -44,11 +43,10 @@ public class FhirAllergyIntoleranceServiceImpl implements FhirAllergyIntolerance
 	
 	@Override
 	@Transactional(readOnly = true)
-	public Collection<AllergyIntolerance> searchForAllergies(ReferenceAndListParam patientReference,
+	public IBundleProvider searchForAllergies(ReferenceAndListParam patientReference,
 	        TokenOrListParam category, TokenAndListParam allergen, TokenOrListParam severity,
 	        TokenAndListParam manifestationCode, TokenOrListParam clinicalStatus) {
-		return allergyIntoleranceDao
-		        .searchForAllergies(patientReference, category, allergen, severity, manifestationCode, clinicalStatus)
-		        .stream().map(allergyIntoleranceTranslator::toFhirResource).collect(Collectors.toList());
+		return new SearchQueryBundleProvider<>(allergyIntoleranceDao.searchForAllergies(patientReference, category,
+		    allergen, severity, manifestationCode, clinicalStatus), allergyIntoleranceTranslator::toFhirResource);
 	}
 }
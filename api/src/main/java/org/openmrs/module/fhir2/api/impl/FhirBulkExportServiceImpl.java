@@ -0,0 +1,239 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.impl;
+
+import javax.annotation.PreDestroy;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.apache.commons.io.FileUtils;
+import org.openmrs.Cohort;
+import org.openmrs.User;
+import org.openmrs.api.APIAuthenticationException;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirBulkExportService;
+import org.openmrs.module.fhir2.api.dao.FhirListDao;
+import org.openmrs.module.fhir2.api.export.BulkExportJob;
+import org.openmrs.module.fhir2.api.export.BulkExportWriter;
+import org.openmrs.util.OpenmrsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs bulk data exports one at a time on a background thread, as the user who requested them. Only
+ * that user can check on, download or cancel an export; to anyone else it does not exist. Exports are
+ * only held in memory; their files are kept in the application data directory until
+ * {@link #RETENTION_MILLIS} after they finish and any files left over from before the server was
+ * restarted are deleted.
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class FhirBulkExportServiceImpl implements FhirBulkExportService {
+	
+	private static final Logger log = LoggerFactory.getLogger(FhirBulkExportServiceImpl.class);
+	
+	static final long RETENTION_MILLIS = TimeUnit.HOURS.toMillis(24);
+	
+	private static final String EXPORT_DIRECTORY = "fhir2" + File.separator + "export";
+	
+	@Autowired
+	private FhirListDao<Cohort> cohortDao;
+	
+	@Autowired
+	private BulkExportWriter exportWriter;
+	
+	private Executor executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "fhir2-bulk-export");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private File exportDirectory;
+	
+	private final ConcurrentMap<String, BulkExportJob> jobs = new ConcurrentHashMap<>();
+	
+	@Override
+	public Set<String> getExportableResourceTypes() {
+		return exportWriter.getResourceTypes();
+	}
+	
+	@Override
+	public BulkExportJob startExport(Collection<String> resourceTypes, Date since, String request) {
+		requireExportPrivilege();
+		return start(null, resourceTypes, since, request);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public BulkExportJob startExport(String groupUuid, Collection<String> resourceTypes, Date since, String request) {
+		requireExportPrivilege();
+		
+		Cohort cohort = cohortDao.getListByUuid(groupUuid);
+		if (cohort == null) {
+			return null;
+		}
+		
+		List<Integer> patientIds = new ArrayList<>(cohort.getMemberIds());
+		Collections.sort(patientIds);
+		
+		return start(patientIds, resourceTypes, since, request);
+	}
+	
+	@Override
+	public BulkExportJob getExport(String jobId) {
+		removeExpiredExports();
+		
+		BulkExportJob job = jobs.get(jobId);
+		return job != null && isRequestedByAuthenticatedUser(job) ? job : null;
+	}
+	
+	@Override
+	public BulkExportJob cancelExport(String jobId) {
+		BulkExportJob job = jobs.get(jobId);
+		if (job == null || !isRequestedByAuthenticatedUser(job) || !jobs.remove(jobId, job)) {
+			return null;
+		}
+		
+		job.cancel();
+		
+		// an export in progress deletes its own files once it stops
+		if (!job.isInProgress()) {
+			FileUtils.deleteQuietly(job.getDirectory());
+		}
+		
+		return job;
+	}
+	
+	@Override
+	public File getExportFile(String jobId, String fileName) {
+		BulkExportJob job = getExport(jobId);
+		if (job == null || job.getStatus() != BulkExportJob.Status.COMPLETED) {
+			return null;
+		}
+		
+		// only the files recorded by the export are served, so the file name cannot refer to any other file
+		return job.getOutputs().stream().filter(output -> output.getFileName().equals(fileName)).findFirst()
+		        .map(output -> new File(job.getDirectory(), output.getFileName())).orElse(null);
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		if (executor instanceof ExecutorService) {
+			((ExecutorService) executor).shutdownNow();
+		}
+	}
+	
+	private BulkExportJob start(List<Integer> patientIds, Collection<String> resourceTypes, Date since, String request) {
+		removeExpiredExports();
+		
+		String jobId = UUID.randomUUID().toString();
+		User user = Context.getAuthenticatedUser();
+		BulkExportJob job = new BulkExportJob(jobId, request, user == null ? null : user.getUuid(), patientIds,
+		        new ArrayList<>(resourceTypes), since, new File(getExportDirectory(), jobId));
+		jobs.put(jobId, job);
+		
+		UserContext userContext = Context.getUserContext();
+		executor.execute(() -> run(job, userContext));
+		
+		return job;
+	}
+	
+	private static void requireExportPrivilege() {
+		if (!Context.hasPrivilege(FhirConstants.PRIVILEGE_BULK_EXPORT)) {
+			throw new APIAuthenticationException("Privilege required: " + FhirConstants.PRIVILEGE_BULK_EXPORT);
+		}
+	}
+	
+	private static boolean isRequestedByAuthenticatedUser(BulkExportJob job) {
+		User user = Context.getAuthenticatedUser();
+		return user != null && user.getUuid().equals(job.getRequestedBy());
+	}
+	
+	private void run(BulkExportJob job, UserContext userContext) {
+		if (job.isCancelled()) {
+			return;
+		}
+		
+		Context.openSession();
+		try {
+			Context.setUserContext(userContext);
+			
+			if (!job.getDirectory().mkdirs()) {
+				throw new IllegalStateException("Could not create directory " + job.getDirectory());
+			}
+			
+			exportWriter.write(job);
+			job.complete();
+		}
+		catch (CancellationException e) {
+			log.debug("Export {} was cancelled", job.getId());
+		}
+		catch (Exception e) {
+			log.error("Export {} failed", job.getId(), e);
+			job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+		}
+		finally {
+			Context.clearUserContext();
+			Context.closeSession();
+		}
+		
+		if (job.getStatus() != BulkExportJob.Status.COMPLETED) {
+			FileUtils.deleteQuietly(job.getDirectory());
+		}
+	}
+	
+	private void removeExpiredExports() {
+		long expiredBefore = System.currentTimeMillis() - RETENTION_MILLIS;
+		
+		for (BulkExportJob job : jobs.values()) {
+			if (job.getCompletedTime() != null && job.getCompletedTime().getTime() < expiredBefore
+			        && jobs.remove(job.getId(), job)) {
+				FileUtils.deleteQuietly(job.getDirectory());
+			}
+		}
+	}
+	
+	private synchronized File getExportDirectory() {
+		if (exportDirectory == null) {
+			exportDirectory = OpenmrsUtil.getDirectoryInApplicationDataDirectory(EXPORT_DIRECTORY);
+			
+			// exports are only held in memory, so any files already here belong to exports which no longer exist
+			File[] files = exportDirectory.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					FileUtils.deleteQuietly(file);
+				}
+			}
+		}
+		
+		return exportDirectory;
+	}
+}
@@ -9,9 +9,10 @@
  */
 package org.openmrs.module.fhir2.api.impl;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.Set;
 
+import ca.uhn.fhir.model.api.Include;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import lombok.AccessLevel;
@@ -19,6 +20,8 @@ import lombok.Setter;
 import org.hl7.fhir.r4.model.Encounter;
 import org.openmrs.module.fhir2.api.FhirEncounterService;
 import org.openmrs.module.fhir2.api.dao.FhirEncounterDao;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
+import org.openmrs.module.fhir2.api.search.SearchQueryInclude;
 import org.openmrs.module.fhir2.api.translators.EncounterTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -35,6 +38,9 @@ public class FhirEncounterServiceImpl implements FhirEncounterService {
 	@Autowired
 	EncounterTranslator translator;
 	
+	@Autowired
+	SearchQueryInclude searchQueryInclude;
+	
 	@Override
 	@Transactional(readOnly = true)
 	public Encounter getEncounterByUuid(String uuid) {
@@ -43,9 +49,11 @@ public class FhirEncounterServiceImpl implements FhirEncounterService {
 	
 	@Override
 	@Transactional(readOnly = true)
-	public Collection<Encounter> searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
-	        ReferenceAndListParam participant, ReferenceAndListParam subject) {
-		return dao.searchForEncounters(date, location, participant, subject).stream().map(translator::toFhirResource)
-		        .collect(Collectors.toList());
+	public IBundleProvider searchForEncounters(DateRangeParam date, ReferenceAndListParam location,
+	        ReferenceAndListParam participant, ReferenceAndListParam subject, Set<Include> includes,
+	        Set<Include> revIncludes, boolean includeVoided) {
+		return new SearchQueryBundleProvider<>(dao.searchForEncounters(date, location, participant, subject, includeVoided),
+		        translator::toFhirResource,
+		        (results, page) -> searchQueryInclude.getIncludedResources(results, page, includes, revIncludes));
 	}
 }
@@ -0,0 +1,137 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.GlobalPropertyListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * An in-memory copy of the global properties read through the
+ * {@link org.openmrs.module.fhir2.api.FhirGlobalPropertyService}. Several translators read a global
+ * property for every resource they translate, so each property is read from the database the first
+ * time it is requested and then kept, including the fact that it is not set.
+ * <p/>
+ * Cached values are kept up to date by registering the cache as a {@link GlobalPropertyListener}
+ * with the {@link org.openmrs.api.AdministrationService}, which the module activator does when the
+ * module starts. Nothing is cached until then, as changes would not be seen.
+ *
+ * @see org.openmrs.module.fhir2.FhirActivator
+ */
+@Component
+public class FhirGlobalPropertyCache implements GlobalPropertyListener {
+	
+	private final ConcurrentMap<String, Optional<String>> values = new ConcurrentHashMap<>();
+	
+	private volatile boolean enabled = false;
+	
+	/**
+	 * @param enabled whether global properties should be cached, which must only be true while this
+	 *            cache is registered as a global property listener
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		values.clear();
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Returns the value of a global property, reading it if it is not cached
+	 *
+	 * @param property the name of the global property
+	 * @param loader the function which reads the value of the global property
+	 * @return the value of the global property, or null if it is not set
+	 */
+	public String getGlobalProperty(String property, Function<String, String> loader) {
+		if (!enabled || property == null) {
+			return loader.apply(property);
+		}
+		
+		Optional<String> value = values.get(property);
+		if (value == null) {
+			// a value stored by the listener while this one was being read is newer, so takes precedence
+			value = Optional.ofNullable(loader.apply(property));
+			Optional<String> current = values.putIfAbsent(property, value);
+			if (current != null) {
+				value = current;
+			}
+		}
+		
+		return value.orElse(null);
+	}
+	
+	/**
+	 * Returns the values of several global properties, reading those which are not cached
+	 *
+	 * @param properties the names of the global properties
+	 * @param loader the function which reads the values of global properties, returning only those
+	 *            which are set
+	 * @return the values of those global properties which are set, keyed by name
+	 */
+	public Map<String, String> getGlobalProperties(String[] properties,
+	        Function<String[], Map<String, String>> loader) {
+		if (!enabled) {
+			return loader.apply(properties);
+		}
+		
+		Map<String, String> result = new HashMap<>();
+		List<String> missing = new ArrayList<>();
+		for (String property : properties) {
+			Optional<String> value = values.get(property);
+			if (value == null) {
+				missing.add(property);
+			} else {
+				value.ifPresent(v -> result.put(property, v));
+			}
+		}
+		
+		if (!missing.isEmpty()) {
+			Map<String, String> loaded = loader.apply(missing.toArray(new String[0]));
+			for (String property : missing) {
+				Optional<String> value = Optional.ofNullable(loaded.get(property));
+				Optional<String> current = values.putIfAbsent(property, value);
+				(current == null ? value : current).ifPresent(v -> result.put(property, v));
+			}
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return true;
+	}
+	
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		if (enabled && newValue != null && newValue.getProperty() != null) {
+			values.put(newValue.getProperty(), Optional.ofNullable(newValue.getPropertyValue()));
+		}
+	}
+	
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		if (enabled && propertyName != null) {
+			values.put(propertyName, Optional.empty());
+		}
+	}
+}
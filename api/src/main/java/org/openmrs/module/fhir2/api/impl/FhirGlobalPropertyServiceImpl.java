@@ -28,15 +28,26 @@ public class FhirGlobalPropertyServiceImpl implements FhirGlobalPropertyService
 	@Autowired
 	private FhirGlobalPropertyDao dao;
 	
+	@Autowired
+	private FhirGlobalPropertyCache cache;
+	
 	@Override
 	@Transactional(readOnly = true)
 	public String getGlobalProperty(String property) throws APIException {
+		if (cache != null) {
+			return cache.getGlobalProperty(property, dao::getGlobalProperty);
+		}
+		
 		return dao.getGlobalProperty(property);
 	}
 	
 	@Override
 	@Transactional(readOnly = true)
 	public Map<String, String> getGlobalProperties(String... properties) {
+		if (cache != null) {
+			return cache.getGlobalProperties(properties, dao::getGlobalProperties);
+		}
+		
 		return dao.getGlobalProperties(properties);
 	}
 }
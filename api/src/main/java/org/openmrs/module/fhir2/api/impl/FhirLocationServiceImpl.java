@@ -9,10 +9,8 @@
  */
 package org.openmrs.module.fhir2.api.impl;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
-
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceOrListParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
@@ -21,6 +19,7 @@ import lombok.Setter;
 import org.hl7.fhir.r4.model.Location;
 import org.openmrs.module.fhir2.api.FhirLocationService;
 import org.openmrs.module.fhir2.api.dao.FhirLocationDao;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 import org.openmrs.module.fhir2.api.translators.LocationTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -45,10 +44,11 @@ public class FhirLocationServiceImpl implements FhirLocationService {
 	
 	@Override
 	@Transactional(readOnly = true)
-	public Collection<Location> searchForLocations(StringOrListParam name, StringOrListParam city, StringOrListParam country,
+	public IBundleProvider searchForLocations(StringOrListParam name, StringOrListParam city, StringOrListParam country,
 	        StringOrListParam postalCode, StringOrListParam state, TokenOrListParam tag, ReferenceOrListParam parent,
 	        SortSpec sort) {
-		return locationDao.searchForLocations(name, city, country, postalCode, state, tag, parent, sort).stream()
-		        .map(locationTranslator::toFhirResource).collect(Collectors.toList());
+		return new SearchQueryBundleProvider<>(
+		        locationDao.searchForLocations(name, city, country, postalCode, state, tag, parent, sort),
+		        locationTranslator::toFhirResource);
 	}
 }
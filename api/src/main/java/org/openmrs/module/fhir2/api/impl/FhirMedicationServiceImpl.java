@@ -9,9 +9,7 @@
  */
 package org.openmrs.module.fhir2.api.impl;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
-
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
@@ -22,6 +20,7 @@ import org.hl7.fhir.r4.model.Medication;
 import org.openmrs.Drug;
 import org.openmrs.module.fhir2.api.FhirMedicationService;
 import org.openmrs.module.fhir2.api.dao.FhirMedicationDao;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 import org.openmrs.module.fhir2.api.translators.MedicationTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -72,10 +71,10 @@ public class FhirMedicationServiceImpl implements FhirMedicationService {
 	
 	@Override
 	@Transactional(readOnly = true)
-	public Collection<Medication> searchForMedications(TokenAndListParam code, TokenAndListParam dosageForm,
+	public IBundleProvider searchForMedications(TokenAndListParam code, TokenAndListParam dosageForm,
 	        TokenOrListParam ingredientCode, TokenOrListParam status) {
 		
-		return medicationDao.searchForMedications(code, dosageForm, ingredientCode, status).stream()
-		        .map(medicationTranslator::toFhirResource).collect(Collectors.toList());
+		return new SearchQueryBundleProvider<>(medicationDao.searchForMedications(code, dosageForm, ingredientCode, status),
+		        medicationTranslator::toFhirResource);
 	}
 }
@@ -9,10 +9,11 @@
  */
 package org.openmrs.module.fhir2.api.impl;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.Set;
 
+import ca.uhn.fhir.model.api.Include;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityAndListParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
@@ -24,6 +25,8 @@ import lombok.Setter;
 import org.hl7.fhir.r4.model.Observation;
 import org.openmrs.module.fhir2.api.FhirObservationService;
 import org.openmrs.module.fhir2.api.dao.FhirObservationDao;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
+import org.openmrs.module.fhir2.api.search.SearchQueryInclude;
 import org.openmrs.module.fhir2.api.translators.ObservationTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -40,6 +43,9 @@ public class FhirObservationServiceImpl implements FhirObservationService {
 	@Autowired
 	ObservationTranslator observationTranslator;
 	
+	@Autowired
+	SearchQueryInclude searchQueryInclude;
+	
 	@Override
 	@Transactional(readOnly = true)
 	public Observation getObservationByUuid(String uuid) {
@@ -48,13 +54,14 @@ public class FhirObservationServiceImpl implements FhirObservationService {
 	
 	@Override
 	@Transactional(readOnly = true)
-	public Collection<Observation> searchForObservations(ReferenceAndListParam encounterReference,
+	public IBundleProvider searchForObservations(ReferenceAndListParam encounterReference,
 	        ReferenceAndListParam patientReference, ReferenceParam hasMemberReference, TokenAndListParam valueConcept,
 	        DateRangeParam valueDateParam, QuantityAndListParam valueQuantityParam, StringAndListParam valueStringParam,
-	        DateRangeParam date, TokenAndListParam code, SortSpec sort) {
-		return dao
-		        .searchForObservations(encounterReference, patientReference, hasMemberReference, valueConcept,
-		            valueDateParam, valueQuantityParam, valueStringParam, date, code, sort)
-		        .stream().map(observationTranslator::toFhirResource).collect(Collectors.toList());
+	        DateRangeParam date, TokenAndListParam code, SortSpec sort, Set<Include> includes, boolean includeVoided) {
+		return new SearchQueryBundleProvider<>(dao.searchForObservations(encounterReference, patientReference,
+		    hasMemberReference, valueConcept, valueDateParam, valueQuantityParam, valueStringParam, date, code, sort,
+		    includeVoided),
+		    observationTranslator::toFhirResource,
+		    (results, page) -> searchQueryInclude.getIncludedResources(results, page, includes, null));
 	}
 }
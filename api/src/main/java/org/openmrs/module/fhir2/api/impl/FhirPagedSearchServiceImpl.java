@@ -0,0 +1,152 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import ca.uhn.fhir.model.api.Include;
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.FhirPagedSearch;
+import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+import org.openmrs.module.fhir2.api.FhirPagedSearchService;
+import org.openmrs.module.fhir2.api.dao.FhirPagedSearchDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchQueryInclude;
+import org.openmrs.module.fhir2.api.translators.ToFhirTranslator;
+import org.openmrs.module.fhir2.api.translators.ToFhirTranslatorRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@Transactional
+@Setter(AccessLevel.PACKAGE)
+public class FhirPagedSearchServiceImpl implements FhirPagedSearchService {
+	
+	private static final int DEFAULT_TIMEOUT_MINUTES = 60;
+	
+	private static final long PURGE_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+	
+	private static final String INCLUDE_SEPARATOR = ",";
+	
+	@Autowired
+	private FhirPagedSearchDao dao;
+	
+	@Autowired
+	private FhirGlobalPropertyService globalPropertyService;
+	
+	@Autowired
+	private ToFhirTranslatorRegistry translatorRegistry;
+	
+	@Autowired
+	private SearchQueryInclude searchQueryInclude;
+	
+	private final AtomicLong nextPurge = new AtomicLong();
+	
+	@Override
+	public FhirPagedSearch savePagedSearch(String resourceType, SearchQuery<?> searchQuery, boolean includeTotal,
+	        Set<Include> includes, Set<Include> revIncludes) {
+		// expired searches are swept up as new ones are saved, at most once every PURGE_INTERVAL on each server
+		long now = System.currentTimeMillis();
+		long purgeAt = nextPurge.get();
+		if (now >= purgeAt && nextPurge.compareAndSet(purgeAt, now + PURGE_INTERVAL)) {
+			purgeExpiredPagedSearches();
+		}
+		
+		int timeout = NumberUtils.toInt(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_PAGING_TIMEOUT),
+		    DEFAULT_TIMEOUT_MINUTES);
+		
+		FhirPagedSearch search = new FhirPagedSearch();
+		search.setResourceType(resourceType);
+		search.setIncludeTotal(includeTotal);
+		search.setIncludes(joinIncludes(includes));
+		search.setRevIncludes(joinIncludes(revIncludes));
+		search.setDateCreated(new Date(now));
+		search.setExpires(new Date(now + TimeUnit.MINUTES.toMillis(timeout)));
+		
+		return dao.savePagedSearch(search, searchQuery);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public FhirPagedSearch getPagedSearchByUuid(String uuid) {
+		FhirPagedSearch search = dao.getPagedSearchByUuid(uuid);
+		
+		if (search == null || search.getExpires().before(new Date())) {
+			return null;
+		}
+		
+		return search;
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<IBaseResource> getResources(FhirPagedSearch search, int fromIndex, int toIndex) {
+		ToFhirTranslator<Object, ? extends IBaseResource> translator = translatorRegistry
+		        .getTranslator(search.getEntityName(), search.getResourceType());
+		if (translator == null) {
+			return null;
+		}
+		
+		if (toIndex <= fromIndex) {
+			return Collections.emptyList();
+		}
+		
+		List<?> results = dao.getResults(search, fromIndex, toIndex - fromIndex);
+		if (results == null) {
+			return null;
+		}
+		
+		List<IBaseResource> resources = results.stream().map(translator::toFhirResource)
+		        .collect(Collectors.toCollection(ArrayList::new));
+		
+		// included resources follow the page of results, as HAPI expects
+		resources.addAll(searchQueryInclude.getIncludedResources(results, resources, splitIncludes(search.getIncludes()),
+		    splitIncludes(search.getRevIncludes())));
+		
+		return resources;
+	}
+	
+	@Override
+	public void purgeExpiredPagedSearches() {
+		dao.deletePagedSearchesExpiredBefore(new Date());
+	}
+	
+	private static String joinIncludes(Set<Include> includes) {
+		if (includes == null || includes.isEmpty()) {
+			return null;
+		}
+		
+		return includes.stream().map(Include::getValue).collect(Collectors.joining(INCLUDE_SEPARATOR));
+	}
+	
+	private static Set<Include> splitIncludes(String includes) {
+		if (StringUtils.isBlank(includes)) {
+			return null;
+		}
+		
+		return Arrays.stream(includes.split(INCLUDE_SEPARATOR)).map(Include::new)
+		        .collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+}
@@ -9,10 +9,8 @@
  */
 package org.openmrs.module.fhir2.api.impl;
 
-import java.util.Collection;
-import java.util.stream.Collectors;
-
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
@@ -21,6 +19,7 @@ import lombok.Setter;
 import org.hl7.fhir.r4.model.Person;
 import org.openmrs.module.fhir2.api.FhirPersonService;
 import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 import org.openmrs.module.fhir2.api.translators.PersonTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -44,11 +43,11 @@ public class FhirPersonServiceImpl implements FhirPersonService {
 	}
 	
 	@Override
-	public Collection<Person> searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
+	public IBundleProvider searchForPeople(StringOrListParam name, TokenOrListParam gender, DateRangeParam birthDate,
 	        StringOrListParam city, StringOrListParam state, StringOrListParam postalCode, StringOrListParam country,
-	        SortSpec sort) {
-		return fhirPersonDao.searchForPeople(name, gender, birthDate, city, state, postalCode, country, sort).stream()
-		        .map(personTranslator::toFhirResource).collect(Collectors.toList());
+	        SortSpec sort, boolean includeVoided) {
+		return new SearchQueryBundleProvider<>(fhirPersonDao.searchForPeople(name, gender, birthDate, city, state,
+		    postalCode, country, sort, includeVoided), personTranslator::toFhirResource);
 	}
 	
 }
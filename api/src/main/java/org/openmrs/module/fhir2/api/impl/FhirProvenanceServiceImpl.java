@@ -0,0 +1,159 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hl7.fhir.r4.model.Provenance;
+import org.hl7.fhir.r4.model.Reference;
+import org.openmrs.Auditable;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirProvenanceService;
+import org.openmrs.module.fhir2.api.dao.FhirAllergyIntoleranceDao;
+import org.openmrs.module.fhir2.api.dao.FhirEncounterDao;
+import org.openmrs.module.fhir2.api.dao.FhirLocationDao;
+import org.openmrs.module.fhir2.api.dao.FhirObservationDao;
+import org.openmrs.module.fhir2.api.dao.FhirPatientDao;
+import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
+import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@Transactional
+@Setter(AccessLevel.PACKAGE)
+public class FhirProvenanceServiceImpl implements FhirProvenanceService {
+	
+	private static final String CREATE_SUFFIX = "-create";
+	
+	private static final String UPDATE_SUFFIX = "-update";
+	
+	private static final List<String> TARGET_TYPES = Arrays.asList(FhirConstants.PATIENT, FhirConstants.PERSON,
+	    FhirConstants.OBSERVATION, FhirConstants.ENCOUNTER, FhirConstants.LOCATION, FhirConstants.ALLERGY_INTOLERANCE);
+	
+	@Autowired
+	private FhirPatientDao patientDao;
+	
+	@Autowired
+	private FhirPersonDao personDao;
+	
+	@Autowired
+	private FhirObservationDao observationDao;
+	
+	@Autowired
+	private FhirEncounterDao encounterDao;
+	
+	@Autowired
+	private FhirLocationDao locationDao;
+	
+	@Autowired
+	private FhirAllergyIntoleranceDao allergyIntoleranceDao;
+	
+	@Autowired
+	private ProvenanceTranslator<Auditable> provenanceTranslator;
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Provenance> searchForProvenance(ReferenceParam target) {
+		if (target == null || target.getIdPart() == null) {
+			return Collections.emptyList();
+		}
+		
+		String uuid = target.getIdPart();
+		List<String> resourceTypes = target.getResourceType() == null ? TARGET_TYPES
+		        : Collections.singletonList(target.getResourceType());
+		
+		for (String resourceType : resourceTypes) {
+			Auditable object = getTarget(resourceType, uuid);
+			if (object != null) {
+				return getProvenance(resourceType, uuid, object);
+			}
+		}
+		
+		return Collections.emptyList();
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public Provenance getProvenanceById(String id) {
+		if (id == null) {
+			return null;
+		}
+		
+		boolean create = id.endsWith(CREATE_SUFFIX);
+		if (!create && !id.endsWith(UPDATE_SUFFIX)) {
+			return null;
+		}
+		
+		String uuid = id.substring(0, id.length() - (create ? CREATE_SUFFIX : UPDATE_SUFFIX).length());
+		for (String resourceType : TARGET_TYPES) {
+			Auditable object = getTarget(resourceType, uuid);
+			if (object != null) {
+				Provenance provenance = create ? provenanceTranslator.getCreateProvenance(object)
+				        : provenanceTranslator.getUpdateProvenance(object);
+				return provenance == null ? null : withTarget(provenance, id, resourceType, uuid);
+			}
+		}
+		
+		return null;
+	}
+	
+	private Auditable getTarget(String resourceType, String uuid) {
+		switch (resourceType) {
+			case FhirConstants.PATIENT:
+				return patientDao.getPatientByUuid(uuid);
+			case FhirConstants.PERSON:
+				return personDao.getPersonByUuid(uuid);
+			case FhirConstants.OBSERVATION:
+				return observationDao.getObsByUuid(uuid);
+			case FhirConstants.ENCOUNTER:
+				return encounterDao.getEncounterByUuid(uuid);
+			case FhirConstants.LOCATION:
+				return locationDao.getLocationByUuid(uuid);
+			case FhirConstants.ALLERGY_INTOLERANCE:
+				return allergyIntoleranceDao.getAllergyIntoleranceByUuid(uuid);
+			default:
+				return null;
+		}
+	}
+	
+	/**
+	 * Unlike contained provenance, these resources are given ids derived from their target, so that
+	 * the same provenance always has the same id
+	 */
+	private List<Provenance> getProvenance(String resourceType, String uuid, Auditable object) {
+		List<Provenance> results = new ArrayList<>(2);
+		
+		Provenance createProvenance = provenanceTranslator.getCreateProvenance(object);
+		if (createProvenance != null) {
+			results.add(withTarget(createProvenance, uuid + CREATE_SUFFIX, resourceType, uuid));
+		}
+		
+		Provenance updateProvenance = provenanceTranslator.getUpdateProvenance(object);
+		if (updateProvenance != null) {
+			results.add(withTarget(updateProvenance, uuid + UPDATE_SUFFIX, resourceType, uuid));
+		}
+		
+		return results;
+	}
+	
+	private Provenance withTarget(Provenance provenance, String id, String resourceType, String uuid) {
+		provenance.setId(id);
+		provenance.addTarget(new Reference().setReference(resourceType + "/" + uuid).setType(resourceType));
+		return provenance;
+	}
+}
@@ -14,6 +14,7 @@ import java.util.Collection;
 import java.util.stream.Collectors;
 
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
@@ -26,6 +27,7 @@ import org.hl7.fhir.r4.model.Task;
 import org.openmrs.module.fhir2.FhirTask;
 import org.openmrs.module.fhir2.api.FhirTaskService;
 import org.openmrs.module.fhir2.api.dao.FhirTaskDao;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 import org.openmrs.module.fhir2.api.translators.TaskTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -126,9 +128,9 @@ public class FhirTaskServiceImpl implements FhirTaskService {
 	 */
 	@Override
 	@Transactional(readOnly = true)
-	public Collection<Task> searchForTasks(ReferenceParam basedOnReference, ReferenceParam ownerReference,
+	public IBundleProvider searchForTasks(ReferenceParam basedOnReference, ReferenceParam ownerReference,
 	        TokenOrListParam status, SortSpec sort) {
-		return dao.searchForTasks(basedOnReference, ownerReference, status, sort).stream().map(translator::toFhirResource)
-		        .collect(Collectors.toList());
+		return new SearchQueryBundleProvider<>(dao.searchForTasks(basedOnReference, ownerReference, status, sort),
+		        translator::toFhirResource);
 	}
 }
@@ -0,0 +1,157 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import lombok.Value;
+import org.openmrs.ConceptSource;
+import org.openmrs.module.fhir2.FhirConceptSource;
+import org.openmrs.module.fhir2.api.dao.FhirConceptSourceDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * An in-memory registry mapping the names of OpenMRS concept sources to the FHIR system URLs they
+ * are published under and back again. Concept sources change rarely, but are looked up for every
+ * coding that is translated or searched for, so the whole {@code fhir_concept_source} table is read
+ * the first time it is needed and kept until a concept source or FHIR concept source is saved or
+ * deleted (see {@link ConceptSourceRegistryInterceptor}).
+ * <p/>
+ * Names are matched ignoring case, as they are by the database; URLs must match exactly.
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class ConceptSourceRegistry {
+	
+	@Autowired
+	private FhirConceptSourceDao conceptSourceDao;
+	
+	private volatile Entries entries;
+	
+	private volatile long generation = 0;
+	
+	/**
+	 * Returns the URL of the FHIR system for an OpenMRS concept source
+	 *
+	 * @param conceptSourceName the name of the concept source
+	 * @return the URL of the system, if the concept source and its FHIR concept source are not retired
+	 */
+	public Optional<String> getUrl(@NotNull String conceptSourceName) {
+		return Optional.ofNullable(getEntries().getUrlsByName().get(conceptSourceName));
+	}
+	
+	/**
+	 * Returns the name of the OpenMRS concept source for a FHIR system
+	 *
+	 * @param url the URL of the system
+	 * @return the name of the concept source, if the FHIR concept source is not retired
+	 */
+	public Optional<String> getConceptSourceName(@NotNull String url) {
+		return Optional.ofNullable(getEntries().getNamesByUrl().get(url));
+	}
+	
+	/**
+	 * Returns the id of the OpenMRS concept source for a FHIR system, for use in searches. Unlike
+	 * {@link #getConceptSourceName(String)}, this also returns the ids of retired concept sources, so
+	 * that data coded using them can still be found.
+	 *
+	 * @param url the URL of the system
+	 * @return the id of the concept source, if there is a FHIR concept source with that URL
+	 */
+	public Optional<Integer> getConceptSourceId(@NotNull String url) {
+		return Optional.ofNullable(getEntries().getIdsByUrl().get(url));
+	}
+	
+	/**
+	 * Returns the generation of the registry, which changes every time it is invalidated. Anything
+	 * derived from the registry can be cached along with its generation and discarded once that
+	 * changes.
+	 *
+	 * @return the current generation
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * Discards the registry, so that it is read again from the database the next time it is used
+	 */
+	public synchronized void invalidate() {
+		generation++;
+		entries = null;
+	}
+	
+	private Entries getEntries() {
+		Entries current = entries;
+		if (current != null) {
+			return current;
+		}
+		
+		long loadedGeneration = generation;
+		current = load();
+		
+		// if the registry was invalidated while it was being read, what was read may already be stale
+		synchronized (this) {
+			if (generation == loadedGeneration) {
+				entries = current;
+			}
+		}
+		
+		return current;
+	}
+	
+	private Entries load() {
+		Map<String, String> urlsByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		Map<String, String> namesByUrl = new HashMap<>();
+		Map<String, Integer> idsByUrl = new HashMap<>();
+		
+		for (FhirConceptSource fhirConceptSource : conceptSourceDao.getFhirConceptSources()) {
+			ConceptSource conceptSource = fhirConceptSource.getConceptSource();
+			String url = fhirConceptSource.getUrl();
+			if (conceptSource == null || url == null) {
+				continue;
+			}
+			
+			idsByUrl.putIfAbsent(url, conceptSource.getConceptSourceId());
+			
+			if (Boolean.TRUE.equals(fhirConceptSource.getRetired())) {
+				continue;
+			}
+			
+			namesByUrl.putIfAbsent(url, conceptSource.getName());
+			
+			if (!Boolean.TRUE.equals(conceptSource.getRetired())) {
+				urlsByName.putIfAbsent(conceptSource.getName(), url);
+			}
+		}
+		
+		return new Entries(Collections.unmodifiableMap(urlsByName), Collections.unmodifiableMap(namesByUrl),
+		        Collections.unmodifiableMap(idsByUrl));
+	}
+	
+	@Value
+	private static class Entries {
+		
+		Map<String, String> urlsByName;
+		
+		Map<String, String> namesByUrl;
+		
+		Map<String, Integer> idsByUrl;
+	}
+}
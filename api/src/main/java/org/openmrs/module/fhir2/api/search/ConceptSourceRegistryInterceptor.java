@@ -0,0 +1,84 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import java.io.Serializable;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+import org.hibernate.type.Type;
+import org.openmrs.ConceptSource;
+import org.openmrs.module.fhir2.FhirConceptSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * A Hibernate interceptor which invalidates the {@link ConceptSourceRegistry} whenever a concept
+ * source or FHIR concept source is saved or deleted, whether through this module or through OpenMRS
+ * core.
+ * <p/>
+ * The registry is invalidated as soon as a change is flushed, and again once the transaction
+ * completes, so that a registry read by another thread before the commit is discarded.
+ */
+@Component("fhir2ConceptSourceRegistryInterceptor")
+@Setter(AccessLevel.PACKAGE)
+public class ConceptSourceRegistryInterceptor extends EmptyInterceptor {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<Boolean> changed = ThreadLocal.withInitial(() -> false);
+	
+	// the registry depends on the session factory, which in turn depends on this interceptor
+	@Lazy
+	@Autowired
+	private transient ConceptSourceRegistry conceptSourceRegistry;
+	
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+		return false;
+	}
+	
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+		return false;
+	}
+	
+	@Override
+	public void onDelete(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+	}
+	
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		try {
+			if (changed.get() && conceptSourceRegistry != null) {
+				conceptSourceRegistry.invalidate();
+			}
+		}
+		finally {
+			changed.remove();
+		}
+	}
+	
+	private void entityChanged(Object entity) {
+		if (conceptSourceRegistry == null || !(entity instanceof ConceptSource || entity instanceof FhirConceptSource)) {
+			return;
+		}
+		
+		conceptSourceRegistry.invalidate();
+		changed.set(true);
+	}
+}
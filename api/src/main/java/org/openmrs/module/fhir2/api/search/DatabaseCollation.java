@@ -0,0 +1,114 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Determines whether the string columns searched by the DAOs compare strings without regard to case,
+ * in which case they can be compared without wrapping them in {@code lower()}. This can be
+ * configured through the {@link FhirConstants#OPENMRS_FHIR_CASE_INSENSITIVE_COLLATION} global
+ * property, which is read each time it is needed; otherwise, on MySQL, it is determined once, the
+ * first time it is needed, from the collations {@code information_schema} reports for the columns of
+ * the tables searched. Where the collation cannot be determined, it is assumed to be case-sensitive.
+ */
+@Component
+public class DatabaseCollation {
+	
+	private static final Logger log = LoggerFactory.getLogger(DatabaseCollation.class);
+	
+	// the tables with string columns the DAOs compare ignoring case
+	private static final List<String> SEARCHED_TABLES = Arrays.asList("person", "person_name", "person_address",
+	    "patient_identifier", "location", "provider", "obs");
+	
+	@Autowired
+	@Qualifier("sessionFactory")
+	@Setter(AccessLevel.PACKAGE)
+	private SessionFactory sessionFactory;
+	
+	@Autowired
+	@Setter(AccessLevel.PACKAGE)
+	private FhirGlobalPropertyService globalPropertyService;
+	
+	private volatile Boolean detected;
+	
+	/**
+	 * @return true if the searched columns are known to compare strings without regard to case
+	 */
+	public boolean isCaseInsensitive() {
+		// "true" or "false" configure the collation, while anything else means it is determined from the database
+		String mode = globalPropertyService == null ? null
+		        : globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_CASE_INSENSITIVE_COLLATION);
+		if ("true".equalsIgnoreCase(mode)) {
+			return true;
+		} else if ("false".equalsIgnoreCase(mode)) {
+			return false;
+		}
+		
+		Boolean caseInsensitive = detected;
+		if (caseInsensitive == null) {
+			synchronized (this) {
+				if (detected == null) {
+					detected = detect();
+				}
+				
+				caseInsensitive = detected;
+			}
+		}
+		
+		return caseInsensitive;
+	}
+	
+	private boolean detect() {
+		if (sessionFactory == null
+		        || !(((SessionFactoryImplementor) sessionFactory).getDialect() instanceof MySQLDialect)) {
+			return false;
+		}
+		
+		Session session = sessionFactory.openSession();
+		try {
+			List<?> collations = session
+			        .createSQLQuery("select distinct collation_name from information_schema.columns "
+			                + "where table_schema = database() and table_name in (:tables) and collation_name is not null")
+			        .setParameterList("tables", SEARCHED_TABLES).list();
+			
+			boolean caseInsensitive = !collations.isEmpty()
+			        && collations.stream().allMatch(c -> c.toString().toLowerCase(Locale.ROOT).endsWith("_ci"));
+			log.info("Searched columns use the collations {}, so string comparisons are {}", collations,
+			    caseInsensitive ? "case-insensitive" : "assumed to be case-sensitive");
+			return caseInsensitive;
+		}
+		catch (HibernateException e) {
+			log.warn("Could not determine the collation of the searched columns, so they are assumed to be case-sensitive",
+			    e);
+			return false;
+		}
+		finally {
+			session.close();
+		}
+	}
+}
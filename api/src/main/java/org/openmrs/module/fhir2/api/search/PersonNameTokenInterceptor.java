@@ -0,0 +1,110 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+import org.hibernate.type.Type;
+import org.openmrs.Person;
+import org.openmrs.PersonName;
+import org.openmrs.module.fhir2.api.dao.FhirPersonNameTokenDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * A Hibernate interceptor which keeps the name token and person sort key tables up to date whenever
+ * names are saved, whether through this module or through OpenMRS core. The names changed by a flush
+ * are collected while it runs and their tokens, and the sort keys of their people, are replaced once
+ * it has finished, in the same transaction. New people are given sort keys too, even without a name,
+ * so that every person has one. Names which are deleted have their tokens removed by the database.
+ *
+ * @see FhirPersonNameTokenDao
+ */
+@Component("fhir2PersonNameTokenInterceptor")
+@Setter(AccessLevel.PACKAGE)
+public class PersonNameTokenInterceptor extends EmptyInterceptor {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<Set<PersonName>> changedNames = ThreadLocal
+	        .withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+	
+	private static final ThreadLocal<Set<Person>> newPeople = ThreadLocal
+	        .withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+	
+	// the DAO depends on the session factory, which in turn depends on this interceptor
+	@Lazy
+	@Autowired
+	private transient FhirPersonNameTokenDao personNameTokenDao;
+	
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		if (entity instanceof Person) {
+			newPeople.get().add((Person) entity);
+		}
+		
+		entityChanged(entity);
+		return false;
+	}
+	
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+		return false;
+	}
+	
+	@Override
+	public void postFlush(Iterator entities) {
+		Set<PersonName> names = changedNames.get();
+		Set<Person> people = newPeople.get();
+		if ((names.isEmpty() && people.isEmpty()) || personNameTokenDao == null) {
+			return;
+		}
+		
+		List<PersonName> flushedNames = new ArrayList<>(names);
+		Set<Person> flushedPeople = Collections.newSetFromMap(new IdentityHashMap<>());
+		flushedPeople.addAll(people);
+		flushedNames.stream().map(PersonName::getPerson).filter(Objects::nonNull).forEach(flushedPeople::add);
+		names.clear();
+		people.clear();
+		
+		// the tokens are saved in the same transaction as the names, so a failure here rolls back both
+		personNameTokenDao.saveNameTokens(flushedNames);
+		personNameTokenDao.saveSortKeys(flushedPeople.stream().map(Person::getPersonId).filter(Objects::nonNull)
+		        .collect(Collectors.toCollection(LinkedHashSet::new)));
+	}
+	
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		changedNames.get().clear();
+		newPeople.get().clear();
+	}
+	
+	private void entityChanged(Object entity) {
+		if (entity instanceof PersonName) {
+			changedNames.get().add((PersonName) entity);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Controls whether searches on the names of people, patients and practitioners use the name token
+ * table, which is indexed, or match the parts of each name directly, which requires scanning every
+ * name. Searching the tokens is enabled by default; it matches any word of a name rather than only
+ * the start of each part, and ignores case and accents. This also controls whether people and
+ * patients are sorted by name using the person sort key table rather than by finding each person's
+ * preferred name.
+ * <p/>
+ * Searching the tokens is only disabled by setting the
+ * {@link FhirConstants#OPENMRS_FHIR_NAME_TOKEN_SEARCH} global property to {@code false}, which is
+ * read each time a name is searched for.
+ *
+ * @see PersonNameTokenInterceptor
+ */
+@Component
+public class PersonNameTokenSearch {
+	
+	@Autowired
+	@Setter(AccessLevel.PACKAGE)
+	private FhirGlobalPropertyService globalPropertyService;
+	
+	/**
+	 * @return true if searches on names should use the name token and sort key tables
+	 */
+	public boolean isEnabled() {
+		if (globalPropertyService == null) {
+			return true;
+		}
+		
+		String nameTokenSearch = globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_NAME_TOKEN_SEARCH);
+		return !"false".equalsIgnoreCase(nameTokenSearch);
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A search against the database which is only executed when its results are requested. This allows
+ * callers to load only the page of results they actually need.
+ *
+ * @param <T> the type of object returned by the search
+ */
+public interface SearchQuery<T> {
+	
+	/**
+	 * Executes the query and returns a single page of results
+	 *
+	 * @param firstResult the (0-based) index of the first result to return
+	 * @param maxResults the maximum number of results to return
+	 * @return the matching results
+	 */
+	List<T> getResults(int firstResult, int maxResults);
+	
+	/**
+	 * Executes the query and returns every matching result. This should be avoided for any query that
+	 * may return a large number of results.
+	 *
+	 * @return all matching results
+	 */
+	List<T> getResults();
+	
+	/**
+	 * Executes a count query for this search. This does not load any of the matching results.
+	 *
+	 * @return the total number of matching results
+	 */
+	int getCount();
+	
+	/**
+	 * Executes the query and returns the uuids of every matching result, in order, without loading the
+	 * results themselves
+	 *
+	 * @return the uuids of all matching results
+	 */
+	List<String> getUuids();
+	
+	/**
+	 * Like {@link #getUuids()}, but returns at most {@code maxResults} uuids, so that a caller with a
+	 * limit on how many it can hold never reads more than that from the database
+	 *
+	 * @param maxResults the maximum number of uuids to return or a negative number for no limit
+	 * @return the uuids of the first {@code maxResults} matching results
+	 */
+	List<String> getUuids(int maxResults);
+	
+	/**
+	 * Loads the matching results with the given uuids, e.g. a page of uuids returned earlier by
+	 * {@link #getUuids()}, in a single query
+	 *
+	 * @param uuids the uuids of the results to load
+	 * @return the matching results with the given uuids, in the order of the uuids; uuids which no
+	 *         longer match the query are skipped
+	 */
+	List<T> getResultsByUuid(List<String> uuids);
+	
+	/**
+	 * Executes the query and passes each matching result, in order, to the given action. Results are
+	 * loaded {@code batchSize} at a time and the session is cleared once the action has been applied to
+	 * every result in a batch, so this can be used to process any number of results in constant memory.
+	 * Any objects loaded before this is called are detached as well.
+	 *
+	 * @param batchSize the number of results to load at a time
+	 * @param action the action to apply to each result
+	 */
+	void forEach(int batchSize, Consumer<? super T> action);
+}
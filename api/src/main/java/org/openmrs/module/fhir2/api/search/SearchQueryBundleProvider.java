@@ -0,0 +1,193 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import ca.uhn.fhir.model.primitive.InstantDt;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
+
+/**
+ * An {@link IBundleProvider} backed by a {@link SearchQuery}. Only the page of results requested by
+ * the server is loaded from the database and translated into FHIR resources.
+ *
+ * @param <T> the OpenMRS type returned by the query
+ * @param <U> the FHIR resource type the results are translated into
+ */
+public class SearchQueryBundleProvider<T, U extends IBaseResource> implements IBundleProvider {
+	
+	private final SearchQuery<T> searchQuery;
+	
+	private final Function<T, U> translator;
+	
+	private final BiFunction<List<T>, List<IBaseResource>, List<IBaseResource>> includedResources;
+	
+	private final IPrimitiveType<Date> published;
+	
+	private Integer count;
+	
+	private boolean includeResources = true;
+	
+	private boolean includeTotal = true;
+	
+	public SearchQueryBundleProvider(@NotNull SearchQuery<T> searchQuery, @NotNull Function<T, U> translator) {
+		this(searchQuery, translator, null);
+	}
+	
+	/**
+	 * @param searchQuery the query to load results from
+	 * @param translator the function which translates each result
+	 * @param includedResources a function which returns the resources to include alongside a page of
+	 *            results, e.g. for {@code _include} or {@code _revinclude}, given the page both as loaded
+	 *            and as translated, which may be null if there are none
+	 * @see SearchQueryInclude
+	 */
+	public SearchQueryBundleProvider(@NotNull SearchQuery<T> searchQuery, @NotNull Function<T, U> translator,
+	        BiFunction<List<T>, List<IBaseResource>, List<IBaseResource>> includedResources) {
+		this.searchQuery = searchQuery;
+		this.translator = translator;
+		this.includedResources = includedResources;
+		this.published = new InstantDt(new Date());
+	}
+	
+	@Override
+	public IPrimitiveType<Date> getPublished() {
+		return published;
+	}
+	
+	/**
+	 * Limits this search to the parts of the response requested by the {@code _summary} and
+	 * {@code _total} parameters, i.e. no resources are loaded for {@code _summary=count} and no count
+	 * query is run for {@code _total=none}. Unlike wrapping this provider, this keeps the search
+	 * available to the paging providers and to streaming.
+	 *
+	 * @param includeResources whether resources are returned
+	 * @param includeTotal whether the total number of results is returned
+	 */
+	public void setSummaryAndTotal(boolean includeResources, boolean includeTotal) {
+		this.includeResources = includeResources;
+		this.includeTotal = includeTotal;
+	}
+	
+	/**
+	 * @return false if the total number of results is not wanted, e.g. for {@code _total=none}
+	 */
+	public boolean isIncludeTotal() {
+		return includeTotal;
+	}
+	
+	@Override
+	public List<IBaseResource> getResources(int fromIndex, int toIndex) {
+		if (!includeResources || toIndex <= fromIndex) {
+			return Collections.emptyList();
+		}
+		
+		return translate(searchQuery.getResults(fromIndex, toIndex - fromIndex));
+	}
+	
+	/**
+	 * Loads and translates the matching results with the given uuids, e.g. a page of the ids returned
+	 * earlier by {@link #getResourceIds(int)}, in a single query
+	 *
+	 * @param uuids the uuids of the results to load
+	 * @return the resources with the given ids, in the order of the ids, followed by any included
+	 *         resources
+	 * @see SearchQuery#getResultsByUuid(List)
+	 */
+	public List<IBaseResource> getResourcesByUuid(List<String> uuids) {
+		if (!includeResources || uuids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		return translate(searchQuery.getResultsByUuid(uuids));
+	}
+	
+	/**
+	 * @return the query this loads results from
+	 */
+	public SearchQuery<T> getSearchQuery() {
+		return searchQuery;
+	}
+	
+	@Override
+	public String getUuid() {
+		return null;
+	}
+	
+	@Override
+	public Integer preferredPageSize() {
+		return null;
+	}
+	
+	/**
+	 * Returns the ids of the first {@code maxResults} matching resources, in order, without loading or
+	 * translating the resources themselves
+	 *
+	 * @param maxResults the maximum number of ids to return or a negative number for no limit
+	 * @return the ids of the first {@code maxResults} matching resources
+	 * @see SearchQuery#getUuids(int)
+	 */
+	public List<String> getResourceIds(int maxResults) {
+		return searchQuery.getUuids(maxResults);
+	}
+	
+	/**
+	 * Translates every matching result, in order, and passes it to the given action. Only
+	 * {@code batchSize} results are held in memory at a time, so this can be used to write out any
+	 * number of results.
+	 *
+	 * @param batchSize the number of results to load from the database at a time
+	 * @param action the action to apply to each translated resource
+	 * @see SearchQuery#forEach(int, Consumer)
+	 */
+	public void forEachResource(int batchSize, Consumer<? super U> action) {
+		searchQuery.forEach(batchSize, result -> action.accept(translator.apply(result)));
+	}
+	
+	/**
+	 * Returns the total number of matching results. This is calculated using a count query the first
+	 * time it is requested, unless the total is not wanted, in which case this returns null.
+	 */
+	@Override
+	public Integer size() {
+		if (!includeTotal) {
+			return null;
+		}
+		
+		if (count == null) {
+			count = searchQuery.getCount();
+		}
+		
+		return count;
+	}
+	
+	private List<IBaseResource> translate(List<T> results) {
+		List<IBaseResource> resources = results.stream().map(translator)
+		        .collect(Collectors.toCollection(ArrayList::new));
+		
+		// included resources follow the page of results, as HAPI expects
+		if (includedResources != null) {
+			resources.addAll(includedResources.apply(results, resources));
+		}
+		
+		return resources;
+	}
+}
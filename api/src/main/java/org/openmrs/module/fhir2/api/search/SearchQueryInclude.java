@@ -0,0 +1,254 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ca.uhn.fhir.model.api.Include;
+import ca.uhn.fhir.model.api.ResourceMetadataKeyEnum;
+import ca.uhn.fhir.model.valueset.BundleEntrySearchModeEnum;
+import lombok.AccessLevel;
+import lombok.Setter;
+import lombok.Value;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Resource;
+import org.openmrs.EncounterProvider;
+import org.openmrs.Obs;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.Provider;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.dao.FhirEncounterDao;
+import org.openmrs.module.fhir2.api.dao.FhirLocationDao;
+import org.openmrs.module.fhir2.api.dao.FhirObservationDao;
+import org.openmrs.module.fhir2.api.dao.FhirPatientDao;
+import org.openmrs.module.fhir2.api.dao.FhirPractitionerDao;
+import org.openmrs.module.fhir2.api.translators.EncounterTranslator;
+import org.openmrs.module.fhir2.api.translators.LocationTranslator;
+import org.openmrs.module.fhir2.api.translators.ObservationTranslator;
+import org.openmrs.module.fhir2.api.translators.PatientTranslator;
+import org.openmrs.module.fhir2.api.translators.PractitionerTranslator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the resources requested by the {@code _include} and {@code _revinclude} parameters of a
+ * search for a page of its results. Rather than looking up each referenced resource as it is
+ * encountered, the references of the whole page are collected first and each type of resource is
+ * then loaded with a single {@code IN} query.
+ * <p/>
+ * References are read from the OpenMRS objects of the page rather than from the translated
+ * resources, which may have had the referencing elements removed, e.g. by {@code _elements}. The
+ * associations read are part of the fetch plans of those objects, so collecting them doesn't load
+ * anything further.
+ * <p/>
+ * The supported includes are {@code Observation:patient}, {@code Observation:encounter},
+ * {@code Encounter:location} and {@code Encounter:participant}, along with the reverse include
+ * {@code Observation:encounter}.
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class SearchQueryInclude {
+	
+	private static final Map<String, IncludedReferences> INCLUDE_REFERENCES;
+	
+	static {
+		Map<String, IncludedReferences> includeReferences = new HashMap<>();
+		includeReferences.put(FhirConstants.OBSERVATION + ":" + Observation.SP_PATIENT,
+		    new IncludedReferences(Obs.class, FhirConstants.PATIENT, obs -> Stream.of(((Obs) obs).getPerson())));
+		includeReferences.put(FhirConstants.OBSERVATION + ":" + Observation.SP_ENCOUNTER,
+		    new IncludedReferences(Obs.class, FhirConstants.ENCOUNTER, obs -> Stream.of(((Obs) obs).getEncounter())));
+		includeReferences.put(FhirConstants.ENCOUNTER + ":" + Encounter.SP_LOCATION,
+		    new IncludedReferences(org.openmrs.Encounter.class, FhirConstants.LOCATION,
+		            encounter -> Stream.of(((org.openmrs.Encounter) encounter).getLocation())));
+		includeReferences.put(FhirConstants.ENCOUNTER + ":" + Encounter.SP_PARTICIPANT,
+		    new IncludedReferences(org.openmrs.Encounter.class, FhirConstants.PRACTITIONER,
+		            encounter -> ((org.openmrs.Encounter) encounter).getActiveEncounterProviders().stream()
+		                    .map(EncounterProvider::getProvider)));
+		INCLUDE_REFERENCES = Collections.unmodifiableMap(includeReferences);
+	}
+	
+	@Autowired
+	private FhirPatientDao patientDao;
+	
+	@Autowired
+	private FhirEncounterDao encounterDao;
+	
+	@Autowired
+	private FhirLocationDao locationDao;
+	
+	@Autowired
+	private FhirPractitionerDao practitionerDao;
+	
+	@Autowired
+	private FhirObservationDao observationDao;
+	
+	@Autowired
+	private PatientTranslator patientTranslator;
+	
+	@Autowired
+	private EncounterTranslator encounterTranslator;
+	
+	@Autowired
+	private LocationTranslator locationTranslator;
+	
+	@Autowired
+	private PractitionerTranslator<Provider> practitionerTranslator;
+	
+	@Autowired
+	private ObservationTranslator observationTranslator;
+	
+	/**
+	 * Loads the resources included by a page of search results. Resources which are already part of
+	 * the page are not included a second time.
+	 *
+	 * @param results the page of search results, as OpenMRS objects
+	 * @param resources the page of search results, translated into FHIR resources
+	 * @param includes the values of the {@code _include} parameter, which may be null
+	 * @param revIncludes the values of the {@code _revinclude} parameter, which may be null
+	 * @return the included resources, each marked as an included resource rather than a match
+	 */
+	public List<IBaseResource> getIncludedResources(List<?> results, List<IBaseResource> resources,
+	        Set<Include> includes, Set<Include> revIncludes) {
+		if (results.isEmpty() || (isEmpty(includes) && isEmpty(revIncludes))) {
+			return Collections.emptyList();
+		}
+		
+		Set<String> seen = new HashSet<>();
+		for (IBaseResource resource : resources) {
+			seen.add(getKey(resource));
+		}
+		
+		Map<String, Set<String>> referencedIds = new LinkedHashMap<>();
+		if (includes != null) {
+			for (Include include : includes) {
+				collectReferencedIds(results, include, referencedIds);
+			}
+		}
+		
+		List<IBaseResource> included = new ArrayList<>();
+		for (Map.Entry<String, Set<String>> entry : referencedIds.entrySet()) {
+			addIncluded(loadResources(entry.getKey(), entry.getValue()), seen, included);
+		}
+		
+		if (revIncludes != null) {
+			for (Include revInclude : revIncludes) {
+				addIncluded(loadReverseIncludes(results, revInclude), seen, included);
+			}
+		}
+		
+		return included;
+	}
+	
+	private void collectReferencedIds(List<?> results, Include include, Map<String, Set<String>> referencedIds) {
+		IncludedReferences references = INCLUDE_REFERENCES.get(include.getParamType() + ":" + include.getParamName());
+		if (references == null) {
+			return;
+		}
+		
+		String targetType = include.getParamTargetType();
+		if (targetType != null && !targetType.equals(references.getResourceType())) {
+			return;
+		}
+		
+		results.stream().filter(references.getSourceType()::isInstance).flatMap(references.getReferences())
+		        .filter(Objects::nonNull).map(OpenmrsObject::getUuid)
+		        .forEach(uuid -> referencedIds.computeIfAbsent(references.getResourceType(), type -> new LinkedHashSet<>())
+		                .add(uuid));
+	}
+	
+	private List<? extends IBaseResource> loadResources(String resourceType, Collection<String> uuids) {
+		switch (resourceType) {
+			case FhirConstants.PATIENT:
+				return translate(patientDao.getPatientsByUuids(uuids), patientTranslator::toFhirResource);
+			case FhirConstants.ENCOUNTER:
+				return translate(encounterDao.getEncountersByUuids(uuids), encounterTranslator::toFhirResource);
+			case FhirConstants.LOCATION:
+				return translate(locationDao.getLocationsByUuids(uuids), locationTranslator::toFhirResource);
+			case FhirConstants.PRACTITIONER:
+				return translate(practitionerDao.getProvidersByUuids(uuids), practitionerTranslator::toFhirResource);
+			default:
+				return Collections.emptyList();
+		}
+	}
+	
+	private List<? extends IBaseResource> loadReverseIncludes(List<?> results, Include revInclude) {
+		String revIncludeValue = revInclude.getParamType() + ":" + revInclude.getParamName();
+		if (!(FhirConstants.OBSERVATION + ":" + Observation.SP_ENCOUNTER).equals(revIncludeValue)) {
+			return Collections.emptyList();
+		}
+		
+		Set<String> encounterUuids = results.stream().filter(org.openmrs.Encounter.class::isInstance)
+		        .map(result -> ((org.openmrs.Encounter) result).getUuid())
+		        .collect(Collectors.toCollection(LinkedHashSet::new));
+		if (encounterUuids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		return translate(observationDao.getObsByEncounterUuids(encounterUuids), observationTranslator::toFhirResource);
+	}
+	
+	private static <T, U extends IBaseResource> List<U> translate(List<T> results, Function<T, U> translator) {
+		return results.stream().map(translator).collect(Collectors.toList());
+	}
+	
+	private static void addIncluded(List<? extends IBaseResource> resources, Set<String> seen,
+	        List<IBaseResource> included) {
+		for (IBaseResource resource : resources) {
+			if (resource instanceof Resource && seen.add(getKey(resource))) {
+				ResourceMetadataKeyEnum.ENTRY_SEARCH_MODE.put((Resource) resource, BundleEntrySearchModeEnum.INCLUDE);
+				included.add(resource);
+			}
+		}
+	}
+	
+	/**
+	 * The ids of translated resources don't carry their resource type, so it is taken from the
+	 * resource itself
+	 */
+	private static String getKey(IBaseResource resource) {
+		return getResourceType(resource) + "/" + resource.getIdElement().getIdPart();
+	}
+	
+	private static String getResourceType(IBaseResource resource) {
+		return resource instanceof Resource ? ((Resource) resource).fhirType() : null;
+	}
+	
+	private static boolean isEmpty(Set<Include> includes) {
+		return includes == null || includes.isEmpty();
+	}
+	
+	/**
+	 * The objects referenced by an include, read from the OpenMRS objects of the type searched for
+	 */
+	@Value
+	private static class IncludedReferences {
+		
+		Class<?> sourceType;
+		
+		String resourceType;
+		
+		Function<Object, Stream<? extends OpenmrsObject>> references;
+	}
+}
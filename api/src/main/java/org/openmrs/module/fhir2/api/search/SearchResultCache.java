@@ -0,0 +1,311 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import ca.uhn.fhir.model.api.IQueryParameterAnd;
+import ca.uhn.fhir.model.api.IQueryParameterOr;
+import ca.uhn.fhir.model.api.IQueryParameterType;
+import ca.uhn.fhir.rest.api.SortSpec;
+import lombok.Setter;
+import lombok.Value;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * A cache of the ordered ids matched by searches, keyed by the type of entity searched for and the
+ * normalized search parameters. This allows frequently repeated searches to be answered without
+ * re-running the search query.
+ * <p/>
+ * Cached results are invalidated whenever an entity of the searched type, or a supertype or subtype
+ * of it, is saved or deleted (see {@link SearchResultCacheInterceptor}). Changes to other entities a
+ * search depends on, e.g. the concepts an observation refers to, only become visible once cached
+ * results expire, so the cache is disabled until a time-to-live is configured.
+ * <p/>
+ * The time-to-live and maximum size are read from the
+ * {@link FhirConstants#OPENMRS_FHIR_SEARCH_CACHE_TTL} and
+ * {@link FhirConstants#OPENMRS_FHIR_SEARCH_CACHE_MAXIMUM_SIZE} global properties each time they are
+ * needed, so changes to them apply to the next search.
+ */
+@Component
+public class SearchResultCache {
+	
+	private static final double EVICTION_FACTOR = 0.9;
+	
+	private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+	
+	private final ConcurrentMap<String, CachedIds> entries = new ConcurrentHashMap<>();
+	
+	private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	// the global property service depends on the session factory, which in turn depends on the interceptor using this
+	@Lazy
+	@Autowired
+	@Setter
+	private FhirGlobalPropertyService globalPropertyService;
+	
+	/**
+	 * @return true if search results are currently being cached, i.e. once both a time-to-live and a
+	 *         maximum size are configured
+	 */
+	public boolean isEnabled() {
+		return getTimeToLiveMillis() > 0 && getMaximumSize() > 0;
+	}
+	
+	/**
+	 * Returns the current generation of cached results for a type. This must be read <em>before</em>
+	 * running the search whose results are then passed to
+	 * {@link #put(Class, String, long, List)}, so that results which were invalidated while the search
+	 * was running are never cached.
+	 *
+	 * @param type the type of entity searched for
+	 * @return the current generation for that type
+	 */
+	public long getGeneration(Class<?> type) {
+		return generation(type).get();
+	}
+	
+	/**
+	 * Returns the cached ids for a search
+	 *
+	 * @param key the normalized search parameters, see {@link #toCacheKey(String, Object...)}
+	 * @return the cached ids, in order, or null if the search is not cached
+	 */
+	public List<String> get(String key) {
+		if (!isEnabled()) {
+			return null;
+		}
+		
+		CachedIds cached = entries.get(key);
+		if (cached != null) {
+			if (isCurrent(cached, System.currentTimeMillis())) {
+				hits.increment();
+				return cached.getIds();
+			}
+			
+			entries.remove(key, cached);
+		}
+		
+		misses.increment();
+		return null;
+	}
+	
+	/**
+	 * Caches the ids matched by a search
+	 *
+	 * @param type the type of entity searched for
+	 * @param key the normalized search parameters, see {@link #toCacheKey(String, Object...)}
+	 * @param generation the generation for the type, read before the search was run
+	 * @param ids the ids matched by the search, in order
+	 */
+	public void put(Class<?> type, String key, long generation, List<String> ids) {
+		long timeToLiveMillis = getTimeToLiveMillis();
+		int maximumSize = getMaximumSize();
+		if (timeToLiveMillis <= 0 || maximumSize <= 0 || generation != getGeneration(type)) {
+			return;
+		}
+		
+		long now = System.currentTimeMillis();
+		entries.put(key, new CachedIds(type, generation, now + timeToLiveMillis,
+		        Collections.unmodifiableList(new ArrayList<>(ids))));
+		
+		if (entries.size() > maximumSize) {
+			evict(now, maximumSize);
+		}
+	}
+	
+	/**
+	 * Invalidates the cached results of every search for a type which may be affected by a change to
+	 * an entity of the given type, i.e. searches for the type itself, its supertypes and its subtypes
+	 *
+	 * @param changedType the type of entity that has changed
+	 */
+	public void invalidate(Class<?> changedType) {
+		for (Map.Entry<Class<?>, AtomicLong> generation : generations.entrySet()) {
+			Class<?> type = generation.getKey();
+			if (type.isAssignableFrom(changedType) || changedType.isAssignableFrom(type)) {
+				generation.getValue().incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * Removes all cached search results
+	 */
+	public void clear() {
+		entries.clear();
+	}
+	
+	/**
+	 * @return the number of searches answered from the cache
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return the number of searches which could not be answered from the cache
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return the number of searches currently cached
+	 */
+	public int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Builds a cache key from a set of search parameters. Parameters are compared by their query
+	 * string representation, and the order of values within AND and OR lists is ignored, so equivalent
+	 * searches share the same key.
+	 *
+	 * @param search identifies the search the parameters are for, e.g. the name of the DAO
+	 * @param params the search parameters, in the order they are passed to the search
+	 * @return the cache key
+	 */
+	public static String toCacheKey(String search, Object... params) {
+		StringBuilder key = new StringBuilder();
+		appendToken(key, search);
+		for (Object param : params) {
+			key.append(';');
+			appendParam(key, param);
+		}
+		
+		return key.toString();
+	}
+	
+	private static void appendParam(StringBuilder key, Object param) {
+		if (param == null) {
+			key.append('-');
+		} else if (param instanceof IQueryParameterAnd) {
+			List<String> ors = new ArrayList<>();
+			for (IQueryParameterOr<?> or : ((IQueryParameterAnd<?>) param).getValuesAsQueryTokens()) {
+				StringBuilder orKey = new StringBuilder();
+				appendParam(orKey, or);
+				ors.add(orKey.toString());
+			}
+			appendList(key, '&', ors);
+		} else if (param instanceof IQueryParameterOr) {
+			List<String> values = new ArrayList<>();
+			for (IQueryParameterType value : ((IQueryParameterOr<?>) param).getValuesAsQueryTokens()) {
+				StringBuilder valueKey = new StringBuilder();
+				appendParam(valueKey, value);
+				values.add(valueKey.toString());
+			}
+			appendList(key, ',', values);
+		} else if (param instanceof IQueryParameterType) {
+			IQueryParameterType value = (IQueryParameterType) param;
+			key.append('=');
+			appendToken(key, value.getQueryParameterQualifier());
+			appendToken(key, value.getValueAsQueryToken(null));
+		} else if (param instanceof SortSpec) {
+			SortSpec sort = (SortSpec) param;
+			key.append('^');
+			appendToken(key, sort.getParamName());
+			appendToken(key, sort.getOrder() == null ? null : sort.getOrder().name());
+			appendParam(key, sort.getChain());
+		} else {
+			key.append('$');
+			appendToken(key, param.toString());
+		}
+	}
+	
+	private static void appendList(StringBuilder key, char type, List<String> values) {
+		Collections.sort(values);
+		key.append(type).append(values.size()).append('[');
+		values.forEach(key::append);
+		key.append(']');
+	}
+	
+	private static void appendToken(StringBuilder key, String token) {
+		// tokens are length-prefixed so that no value can be mistaken for a separator
+		if (token == null) {
+			key.append('-');
+		} else {
+			key.append(token.length()).append(':').append(token);
+		}
+	}
+	
+	private AtomicLong generation(Class<?> type) {
+		return generations.computeIfAbsent(type, t -> new AtomicLong());
+	}
+	
+	private boolean isCurrent(CachedIds cached, long now) {
+		return now < cached.getExpires() && cached.getGeneration() == getGeneration(cached.getType());
+	}
+	
+	private long getTimeToLiveMillis() {
+		if (globalPropertyService == null) {
+			return 0;
+		}
+		
+		return TimeUnit.SECONDS.toMillis(
+		    NumberUtils.toInt(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_TTL), 0));
+	}
+	
+	private int getMaximumSize() {
+		if (globalPropertyService == null) {
+			return DEFAULT_MAXIMUM_SIZE;
+		}
+		
+		return NumberUtils.toInt(
+		    globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_MAXIMUM_SIZE),
+		    DEFAULT_MAXIMUM_SIZE);
+	}
+	
+	private void evict(long now, int maximumSize) {
+		entries.entrySet().removeIf(entry -> !isCurrent(entry.getValue(), now));
+		
+		int targetSize = (int) (maximumSize * EVICTION_FACTOR);
+		if (entries.size() > targetSize) {
+			List<Map.Entry<String, CachedIds>> oldest = new ArrayList<>(entries.entrySet());
+			oldest.sort(Comparator.comparingLong(entry -> entry.getValue().getExpires()));
+			for (int i = 0; i < oldest.size() - targetSize; i++) {
+				entries.remove(oldest.get(i).getKey(), oldest.get(i).getValue());
+			}
+		}
+	}
+	
+	/**
+	 * The ids matched by a search along with when they stop being valid
+	 */
+	@Value
+	private static class CachedIds {
+		
+		Class<?> type;
+		
+		long generation;
+		
+		long expires;
+		
+		List<String> ids;
+	}
+}
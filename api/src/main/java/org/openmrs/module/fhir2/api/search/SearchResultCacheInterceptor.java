@@ -0,0 +1,122 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Hibernate;
+import org.hibernate.Transaction;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.type.Type;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.Person;
+import org.openmrs.PersonAddress;
+import org.openmrs.PersonAttribute;
+import org.openmrs.PersonName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * A Hibernate interceptor which invalidates the {@link SearchResultCache} whenever entities are
+ * saved or deleted, whether through this module or through OpenMRS core.
+ * <p/>
+ * Cached results are invalidated as soon as a change is flushed, so that later searches in the same
+ * transaction see it, and again once the transaction completes, so that results cached by other
+ * threads from data read before the commit are discarded.
+ */
+@Component("fhir2SearchResultCacheInterceptor")
+@Setter(AccessLevel.PACKAGE)
+public class SearchResultCacheInterceptor extends EmptyInterceptor {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<Set<Class<?>>> changedTypes = ThreadLocal.withInitial(HashSet::new);
+	
+	@Autowired
+	private transient SearchResultCache searchResultCache;
+	
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+		return false;
+	}
+	
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+		return false;
+	}
+	
+	@Override
+	public void onDelete(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+	}
+	
+	@Override
+	public void onCollectionRecreate(Object collection, Serializable key) {
+		collectionChanged(collection);
+	}
+	
+	@Override
+	public void onCollectionRemove(Object collection, Serializable key) {
+		collectionChanged(collection);
+	}
+	
+	@Override
+	public void onCollectionUpdate(Object collection, Serializable key) {
+		collectionChanged(collection);
+	}
+	
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		Set<Class<?>> types = changedTypes.get();
+		try {
+			if (searchResultCache != null) {
+				types.forEach(searchResultCache::invalidate);
+			}
+		}
+		finally {
+			types.clear();
+		}
+	}
+	
+	private void collectionChanged(Object collection) {
+		if (collection instanceof PersistentCollection) {
+			entityChanged(((PersistentCollection) collection).getOwner());
+		}
+	}
+	
+	private void entityChanged(Object entity) {
+		if (entity == null || searchResultCache == null) {
+			return;
+		}
+		
+		typeChanged(Hibernate.getClass(entity));
+		
+		// searches for people and patients match on these, so changing them changes the results
+		if (entity instanceof PersonName || entity instanceof PersonAddress || entity instanceof PersonAttribute) {
+			typeChanged(Person.class);
+		} else if (entity instanceof PatientIdentifier) {
+			typeChanged(Patient.class);
+		}
+	}
+	
+	private void typeChanged(Class<?> type) {
+		searchResultCache.invalidate(type);
+		changedTypes.get().add(type);
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import lombok.Value;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hl7.fhir.r4.model.Base;
+import org.openmrs.Concept;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * A bounded cache of the FHIR elements translated from concepts, e.g. the
+ * {@link org.hl7.fhir.r4.model.CodeableConcept} for a concept or the reference ranges of a numeric
+ * concept. The same few hundred concepts are translated for almost every resource, so each is
+ * translated once into a template and callers are given a copy of it, which they are free to modify.
+ * <p/>
+ * Each template is stored along with the {@code dateChanged} of its concept and a version supplied
+ * by the caller, e.g. the generation of the
+ * {@link org.openmrs.module.fhir2.api.search.ConceptSourceRegistry}, and is translated again once
+ * either of these changes. As a concept's names, mappings and reference ranges can change without
+ * changing its {@code dateChanged}, the whole cache is also cleared by the
+ * {@link ConceptTranslationCacheInterceptor} whenever any of them are saved. Concepts which have not
+ * been saved are never cached.
+ * <p/>
+ * The maximum size of the cache is read from the
+ * {@link FhirConstants#OPENMRS_FHIR_CONCEPT_CACHE_MAXIMUM_SIZE} global property each time it is
+ * needed, so the cache shrinks to a smaller size the next time an element is added to it.
+ */
+@Component
+public class ConceptTranslationCache {
+	
+	private static final double EVICTION_FACTOR = 0.9;
+	
+	private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+	
+	private final ConcurrentMap<Key, Template> templates = new ConcurrentHashMap<>();
+	
+	// the global property service depends on the session factory, which in turn depends on the interceptor using this
+	@Lazy
+	@Autowired
+	@Setter(AccessLevel.PACKAGE)
+	private FhirGlobalPropertyService globalPropertyService;
+	
+	/**
+	 * @return true if translated elements are currently being cached, i.e. unless the maximum size is
+	 *         0 or less
+	 */
+	public boolean isEnabled() {
+		return getMaximumSize() > 0;
+	}
+	
+	/**
+	 * Returns a copy of the element translated from a concept, translating it if it is not cached
+	 *
+	 * @param type the kind of element, which distinguishes different translations of the same concept
+	 * @param concept the concept to translate
+	 * @param version the version of any other data the translation depends on
+	 * @param translator the function which translates the concept
+	 * @param <T> the type of element
+	 * @return a copy of the translated element, or null if the translator returns null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Base> T get(String type, Concept concept, long version, Function<Concept, T> translator) {
+		T template = getTemplate(type, concept, version, translator);
+		return template == null ? null : (T) template.copy();
+	}
+	
+	/**
+	 * Returns copies of the elements translated from a concept, translating them if they are not
+	 * cached
+	 *
+	 * @param type the kind of elements, which distinguishes different translations of the same concept
+	 * @param concept the concept to translate
+	 * @param version the version of any other data the translation depends on
+	 * @param translator the function which translates the concept
+	 * @param <T> the type of elements
+	 * @return copies of the translated elements, or null if the translator returns null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Base> List<T> getList(String type, Concept concept, long version,
+	        Function<Concept, List<T>> translator) {
+		List<T> template = getTemplate(type, concept, version, translator);
+		return template == null ? null
+		        : template.stream().map(element -> (T) element.copy()).collect(Collectors.toCollection(ArrayList::new));
+	}
+	
+	/**
+	 * Discards every cached element
+	 */
+	public void clear() {
+		templates.clear();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> T getTemplate(String type, Concept concept, long version, Function<Concept, T> translator) {
+		if (concept == null || concept.getConceptId() == null || !isEnabled()) {
+			return concept == null ? null : translator.apply(concept);
+		}
+		
+		Key key = new Key(type, concept.getConceptId());
+		long dateChanged = toMillis(concept.getDateChanged());
+		
+		Template template = templates.get(key);
+		if (template != null && template.getDateChanged() == dateChanged && template.getVersion() == version) {
+			return (T) template.getElement();
+		}
+		
+		T element = translator.apply(concept);
+		if (element != null) {
+			templates.put(key, new Template(dateChanged, version, element));
+			
+			int maximumSize = getMaximumSize();
+			if (templates.size() > maximumSize) {
+				evict(maximumSize);
+			}
+		}
+		
+		return element;
+	}
+	
+	private int getMaximumSize() {
+		if (globalPropertyService == null) {
+			return DEFAULT_MAXIMUM_SIZE;
+		}
+		
+		return NumberUtils.toInt(
+		    globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_CONCEPT_CACHE_MAXIMUM_SIZE),
+		    DEFAULT_MAXIMUM_SIZE);
+	}
+	
+	private void evict(int maximumSize) {
+		int targetSize = (int) (maximumSize * EVICTION_FACTOR);
+		if (targetSize <= 0) {
+			templates.clear();
+		} else if (templates.size() > targetSize) {
+			// evict the oldest templates first; any which are still used are soon translated again
+			List<Map.Entry<Key, Template>> oldest = new ArrayList<>(templates.entrySet());
+			oldest.sort(Comparator.comparingLong(entry -> entry.getValue().getCreated()));
+			for (int i = 0; i < oldest.size() - targetSize; i++) {
+				templates.remove(oldest.get(i).getKey(), oldest.get(i).getValue());
+			}
+		}
+	}
+	
+	private static long toMillis(Date date) {
+		return date == null ? Long.MIN_VALUE : date.getTime();
+	}
+	
+	@Value
+	private static class Key {
+		
+		String type;
+		
+		Integer conceptId;
+	}
+	
+	@Value
+	private static class Template {
+		
+		long dateChanged;
+		
+		long version;
+		
+		Object element;
+		
+		long created = System.nanoTime();
+	}
+}
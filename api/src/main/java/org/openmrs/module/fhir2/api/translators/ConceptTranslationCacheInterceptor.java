@@ -0,0 +1,86 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import java.io.Serializable;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+import org.hibernate.type.Type;
+import org.openmrs.Concept;
+import org.openmrs.ConceptMap;
+import org.openmrs.ConceptName;
+import org.openmrs.ConceptReferenceTerm;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * A Hibernate interceptor which clears the {@link ConceptTranslationCache} whenever a concept, or a
+ * name, mapping or reference term it is translated from, is saved or deleted, whether through this
+ * module or through OpenMRS core. These can change without changing the {@code dateChanged} of the
+ * concept, e.g. when a reference term's code is corrected, so the cache can't rely on it alone.
+ * <p/>
+ * The cache is cleared as soon as a change is flushed, and again once the transaction completes, so
+ * that a translation cached by another thread before the commit is discarded.
+ */
+@Component("fhir2ConceptTranslationCacheInterceptor")
+@Setter(AccessLevel.PACKAGE)
+public class ConceptTranslationCacheInterceptor extends EmptyInterceptor {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<Boolean> changed = ThreadLocal.withInitial(() -> false);
+	
+	@Autowired
+	private transient ConceptTranslationCache conceptTranslationCache;
+	
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+		return false;
+	}
+	
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+		return false;
+	}
+	
+	@Override
+	public void onDelete(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		entityChanged(entity);
+	}
+	
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		try {
+			if (changed.get() && conceptTranslationCache != null) {
+				conceptTranslationCache.clear();
+			}
+		}
+		finally {
+			changed.remove();
+		}
+	}
+	
+	private void entityChanged(Object entity) {
+		// ConceptNumeric is a Concept, so changes to reference ranges are covered too
+		if (conceptTranslationCache == null || !(entity instanceof Concept || entity instanceof ConceptName
+		        || entity instanceof ConceptMap || entity instanceof ConceptReferenceTerm)) {
+			return;
+		}
+		
+		conceptTranslationCache.clear();
+		changed.set(true);
+	}
+}
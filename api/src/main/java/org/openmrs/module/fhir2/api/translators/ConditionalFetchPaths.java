@@ -0,0 +1,30 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+/**
+ * Implemented by a translator whose {@link FetchPaths} include associations it only uses some of the
+ * time, e.g. attributes which are only read when an element is asked for or a global property is set.
+ * Each time objects of the translated type are loaded, the translator is asked which of its paths to
+ * load, so that associations it won't use are not loaded for nothing.
+ *
+ * @see TranslatorFetchPlans
+ */
+public interface ConditionalFetchPaths {
+	
+	/**
+	 * Called on the thread the objects are loaded and translated on, so may depend on e.g. the
+	 * {@link ElementProjection} of the current request
+	 *
+	 * @param path one of the paths declared by the translator's {@link FetchPaths}
+	 * @return true if the association should be loaded along with the objects being loaded
+	 */
+	boolean isFetched(String path);
+}
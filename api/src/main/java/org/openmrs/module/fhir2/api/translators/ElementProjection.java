@@ -0,0 +1,67 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import java.util.function.BiPredicate;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * The elements of FHIR resources asked for by the request being handled, through the
+ * {@code _elements} or {@code _summary} parameters. HAPI only removes the other elements once the
+ * resources have been translated, so translators check this to skip the work, and any database
+ * queries, needed for elements which would just be thrown away.
+ * <p/>
+ * The projection is held per thread and applies to every resource translated on that thread until it
+ * is cleared. Where no projection has been set, every element is included. Elements are named as
+ * they are in the resource definition, e.g. {@code "subject"} or {@code "contained"}; translators
+ * only need to check those elements which are costly to populate.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ElementProjection {
+	
+	private static final ThreadLocal<BiPredicate<String, String>> includedElements = new ThreadLocal<>();
+	
+	/**
+	 * @param resourceType the type of resource being translated, e.g. {@code "Observation"}
+	 * @param element the name of a top-level element of that resource type
+	 * @return true if the element should be populated
+	 */
+	public static boolean isIncluded(String resourceType, String element) {
+		BiPredicate<String, String> included = includedElements.get();
+		return included == null || included.test(resourceType, element);
+	}
+	
+	/**
+	 * @return the projection for the current thread or null if every element is included
+	 */
+	public static BiPredicate<String, String> get() {
+		return includedElements.get();
+	}
+	
+	/**
+	 * Sets the projection for the current thread
+	 *
+	 * @param included a predicate which is passed a resource type and element name and returns true if
+	 *            that element should be populated, or null to include every element
+	 */
+	public static void set(BiPredicate<String, String> included) {
+		if (included == null) {
+			includedElements.remove();
+		} else {
+			includedElements.set(included);
+		}
+	}
+	
+	public static void clear() {
+		includedElements.remove();
+	}
+}
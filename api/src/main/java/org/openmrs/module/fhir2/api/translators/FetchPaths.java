@@ -0,0 +1,39 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the associations a {@link ToFhirTranslator} uses from the OpenMRS objects it translates,
+ * e.g. {@code "names"} or {@code "concept.conceptMappings"}. Whenever the DAOs load objects of that
+ * type, these associations are loaded along with them in a few batched queries rather than one at a
+ * time as the translator uses them.
+ * <p/>
+ * Each path is a chain of Hibernate association properties starting from the translated type.
+ * Paths should only name associations the translator always uses, as everything named is loaded,
+ * unless the translator implements {@link ConditionalFetchPaths} to say when each path is used.
+ *
+ * @see TranslatorFetchPlans
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FetchPaths {
+	
+	/**
+	 * @return the association paths to load with each translated object
+	 */
+	String[] value();
+}
@@ -0,0 +1,52 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Controls how the provenance of a resource, i.e. who created and last changed it and when, is
+ * exposed. By default each translated resource contains its provenance. Translating the provenance
+ * means looking up each user involved and building several codeable concepts for every resource, so
+ * it can instead be exposed as separate {@code Provenance} resources which are only translated when
+ * a client searches for them, e.g. {@code Provenance?target=Patient/<uuid>}.
+ * <p/>
+ * The mode is read from the {@link FhirConstants#OPENMRS_FHIR_PROVENANCE_MODE} global property each
+ * time it is needed, so changes to it take effect without restarting the module.
+ */
+@Component
+public class ProvenanceMode {
+	
+	public static final String CONTAINED = "contained";
+	
+	public static final String SEPARATE = "separate";
+	
+	@Autowired
+	@Setter(AccessLevel.PACKAGE)
+	private FhirGlobalPropertyService globalPropertyService;
+	
+	/**
+	 * @return true if the provenance of each resource should be contained in the resource itself, i.e.
+	 *         unless the mode is {@link #SEPARATE}
+	 */
+	public boolean isContained() {
+		if (globalPropertyService == null) {
+			return true;
+		}
+		
+		String mode = globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_PROVENANCE_MODE);
+		return !SEPARATE.equalsIgnoreCase(mode);
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Looks up the {@link ToFhirTranslator} which translates an OpenMRS type into a FHIR resource type,
+ * e.g. to translate the results of a search which is run again after the request which created it has
+ * finished. Where several translators translate the same OpenMRS type into the same resource type,
+ * none of them is returned, as there is no way to tell which one the search used.
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class ToFhirTranslatorRegistry {
+	
+	@Autowired
+	private ApplicationContext applicationContext;
+	
+	private volatile Map<String, ToFhirTranslator<?, ?>> translators;
+	
+	/**
+	 * @param entityName the name of the OpenMRS type, i.e. its fully-qualified class name
+	 * @param resourceType the name of the FHIR resource type, e.g. {@code Patient}
+	 * @param <T> the OpenMRS type
+	 * @return the only translator from the OpenMRS type to the resource type or null if there is not
+	 *         exactly one
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> ToFhirTranslator<T, ? extends IBaseResource> getTranslator(String entityName, String resourceType) {
+		Map<String, ToFhirTranslator<?, ?>> registry = translators;
+		if (registry == null) {
+			// translators are only looked up once they have all been created to avoid circular references
+			registry = translators = loadTranslators();
+		}
+		
+		return (ToFhirTranslator<T, ? extends IBaseResource>) registry.get(toKey(entityName, resourceType));
+	}
+	
+	private Map<String, ToFhirTranslator<?, ?>> loadTranslators() {
+		Map<String, ToFhirTranslator<?, ?>> result = new HashMap<>();
+		Set<String> ambiguous = new HashSet<>();
+		for (ToFhirTranslator<?, ?> translator : applicationContext.getBeansOfType(ToFhirTranslator.class).values()) {
+			Class<?>[] typeArguments = GenericTypeResolver.resolveTypeArguments(AopUtils.getTargetClass(translator),
+			    ToFhirTranslator.class);
+			if (typeArguments == null || typeArguments[0] == null || typeArguments[1] == null
+			        || !IBaseResource.class.isAssignableFrom(typeArguments[1])) {
+				continue;
+			}
+			
+			String key = toKey(typeArguments[0].getName(), typeArguments[1].getSimpleName());
+			if (result.putIfAbsent(key, translator) != null) {
+				ambiguous.add(key);
+			}
+		}
+		
+		ambiguous.forEach(result::remove);
+		return Collections.unmodifiableMap(result);
+	}
+	
+	private static String toKey(String entityName, String resourceType) {
+		return entityName + "/" + resourceType;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects the {@link FetchPaths} declared by each {@link ToFhirTranslator}, keyed by the name of the
+ * OpenMRS type the translator translates. Where several translators for the same type declare fetch
+ * paths, their paths are combined.
+ * <p/>
+ * Paths declared by a translator implementing {@link ConditionalFetchPaths} are only returned when
+ * that translator says they will be used, unless another translator declares them unconditionally.
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class TranslatorFetchPlans {
+	
+	@Autowired
+	private ApplicationContext applicationContext;
+	
+	// the conditions under which each path is loaded for each type, where no conditions means always
+	private volatile Map<String, Map<String, List<ConditionalFetchPaths>>> fetchPlans;
+	
+	/**
+	 * Returns the association paths to load along with objects of the given type
+	 *
+	 * @param entityName the name of the OpenMRS type, i.e. its fully-qualified class name
+	 * @return the association paths declared for that type and used by its translators, which may be
+	 *         empty
+	 */
+	public Collection<String> getFetchPaths(String entityName) {
+		Map<String, Map<String, List<ConditionalFetchPaths>>> plans = fetchPlans;
+		if (plans == null) {
+			// translators are only looked up once they have all been created to avoid circular references
+			plans = fetchPlans = loadFetchPlans();
+		}
+		
+		Map<String, List<ConditionalFetchPaths>> plan = plans.get(entityName);
+		if (plan == null) {
+			return Collections.emptySet();
+		}
+		
+		List<String> paths = new ArrayList<>(plan.size());
+		plan.forEach((path, conditions) -> {
+			if (conditions.isEmpty() || conditions.stream().anyMatch(condition -> condition.isFetched(path))) {
+				paths.add(path);
+			}
+		});
+		
+		return paths;
+	}
+	
+	private Map<String, Map<String, List<ConditionalFetchPaths>>> loadFetchPlans() {
+		Map<String, Map<String, List<ConditionalFetchPaths>>> plans = new HashMap<>();
+		for (Object translator : applicationContext.getBeansWithAnnotation(FetchPaths.class).values()) {
+			Class<?> translatorClass = AopUtils.getTargetClass(translator);
+			Class<?>[] typeArguments = GenericTypeResolver.resolveTypeArguments(translatorClass, ToFhirTranslator.class);
+			FetchPaths fetchPaths = AnnotationUtils.findAnnotation(translatorClass, FetchPaths.class);
+			if (typeArguments == null || typeArguments[0] == null || fetchPaths == null) {
+				continue;
+			}
+			
+			Map<String, List<ConditionalFetchPaths>> plan = plans.computeIfAbsent(typeArguments[0].getName(),
+			    k -> new LinkedHashMap<>());
+			for (String path : fetchPaths.value()) {
+				if (!(translator instanceof ConditionalFetchPaths)) {
+					plan.put(path, Collections.emptyList());
+				} else if (!plan.containsKey(path)) {
+					plan.put(path, new ArrayList<>(Collections.singletonList((ConditionalFetchPaths) translator)));
+				} else if (!plan.get(path).isEmpty()) {
+					plan.get(path).add((ConditionalFetchPaths) translator);
+				}
+			}
+		}
+		
+		return Collections.unmodifiableMap(plans);
+	}
+}
@@ -30,14 +30,17 @@ import org.openmrs.module.fhir2.api.FhirConceptService;
 import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
 import org.openmrs.module.fhir2.api.translators.AllergyIntoleranceTranslator;
 import org.openmrs.module.fhir2.api.translators.ConceptTranslator;
+import org.openmrs.module.fhir2.api.translators.FetchPaths;
 import org.openmrs.module.fhir2.api.translators.PatientReferenceTranslator;
 import org.openmrs.module.fhir2.api.translators.PractitionerReferenceTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 @Setter(AccessLevel.PACKAGE)
+@FetchPaths({ "patient.names", "patient.identifiers.identifierType", "reactions.reaction", "severity" })
 public class AllergyIntoleranceTranslatorImpl extends AbstractReferenceHandlingTranslator implements AllergyIntoleranceTranslator {
 	
 	@Autowired
@@ -55,6 +58,9 @@ public class AllergyIntoleranceTranslatorImpl extends AbstractReferenceHandlingT
 	@Autowired
 	private ProvenanceTranslator<Allergy> provenanceTranslator;
 	
+	@Autowired
+	private ProvenanceMode provenanceMode;
+	
 	@Autowired
 	private ConceptTranslator conceptTranslator;
 	
@@ -99,8 +105,10 @@ public class AllergyIntoleranceTranslatorImpl extends AbstractReferenceHandlingT
 		reactionComponent.setDescription(omrsAllergy.getReactionNonCoded());
 		reactionComponent.setSeverity(getFhirSeverity(omrsAllergy.getSeverity()));
 		allergy.addReaction(reactionComponent);
-		allergy.addContained(provenanceTranslator.getCreateProvenance(omrsAllergy));
-		allergy.addContained(provenanceTranslator.getUpdateProvenance(omrsAllergy));
+		if (provenanceMode.isContained()) {
+			allergy.addContained(provenanceTranslator.getCreateProvenance(omrsAllergy));
+			allergy.addContained(provenanceTranslator.getUpdateProvenance(omrsAllergy));
+		}
 		
 		return allergy;
 	}
@@ -9,8 +9,6 @@
  */
 package org.openmrs.module.fhir2.api.translators.impl;
 
-import java.util.concurrent.atomic.AtomicReference;
-
 import lombok.AccessLevel;
 import lombok.Setter;
 import org.hl7.fhir.r4.model.CodeableConcept;
@@ -19,7 +17,8 @@ import org.openmrs.Concept;
 import org.openmrs.ConceptMap;
 import org.openmrs.ConceptReferenceTerm;
 import org.openmrs.module.fhir2.api.FhirConceptService;
-import org.openmrs.module.fhir2.api.FhirConceptSourceService;
+import org.openmrs.module.fhir2.api.search.ConceptSourceRegistry;
+import org.openmrs.module.fhir2.api.translators.ConceptTranslationCache;
 import org.openmrs.module.fhir2.api.translators.ConceptTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -32,7 +31,10 @@ public class ConceptTranslatorImpl implements ConceptTranslator {
 	private FhirConceptService conceptService;
 	
 	@Autowired
-	private FhirConceptSourceService conceptSourceService;
+	private ConceptSourceRegistry conceptSourceRegistry;
+	
+	@Autowired
+	private ConceptTranslationCache conceptTranslationCache;
 	
 	@Override
 	public CodeableConcept toFhirResource(Concept concept) {
@@ -40,6 +42,16 @@ public class ConceptTranslatorImpl implements ConceptTranslator {
 			return null;
 		}
 		
+		if (conceptTranslationCache != null) {
+			// the codings depend on the URLs of the concept sources as well as on the concept itself
+			return conceptTranslationCache.get("CodeableConcept", concept, conceptSourceRegistry.getGeneration(),
+			    this::translateConcept);
+		}
+		
+		return translateConcept(concept);
+	}
+	
+	private CodeableConcept translateConcept(Concept concept) {
 		CodeableConcept codeableConcept = new CodeableConcept();
 		
 		// TODO fix this so it refers to a specific system
@@ -96,15 +108,10 @@ public class ConceptTranslatorImpl implements ConceptTranslator {
 	}
 	
 	private String conceptSourceToURL(String conceptSourceName) {
-		final AtomicReference<String> url = new AtomicReference<>(null);
-		conceptSourceService.getFhirConceptSourceByConceptSourceName(conceptSourceName)
-		        .ifPresent(cs -> url.set(cs.getUrl()));
-		return url.get();
+		return conceptSourceRegistry.getUrl(conceptSourceName).orElse(null);
 	}
 	
 	private String conceptURLToSource(String url) {
-		final AtomicReference<String> sourceName = new AtomicReference<>(null);
-		conceptSourceService.getFhirConceptSourceByUrl(url).ifPresent(cs -> sourceName.set(cs.getConceptSource().getName()));
-		return sourceName.get();
+		return conceptSourceRegistry.getConceptSourceName(url).orElse(null);
 	}
 }
@@ -18,16 +18,21 @@ import lombok.AccessLevel;
 import lombok.Setter;
 import org.hl7.fhir.r4.model.Encounter;
 import org.openmrs.EncounterProvider;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
 import org.openmrs.module.fhir2.api.translators.EncounterLocationTranslator;
 import org.openmrs.module.fhir2.api.translators.EncounterParticipantTranslator;
 import org.openmrs.module.fhir2.api.translators.EncounterTranslator;
+import org.openmrs.module.fhir2.api.translators.FetchPaths;
 import org.openmrs.module.fhir2.api.translators.PatientReferenceTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 @Setter(AccessLevel.PACKAGE)
+@FetchPaths({ "location", "patient.names", "patient.identifiers.identifierType", "encounterProviders.provider" })
 public class EncounterTranslatorImpl implements EncounterTranslator {
 	
 	@Autowired
@@ -42,6 +47,9 @@ public class EncounterTranslatorImpl implements EncounterTranslator {
 	@Autowired
 	private ProvenanceTranslator<org.openmrs.Encounter> provenanceTranslator;
 	
+	@Autowired
+	private ProvenanceMode provenanceMode;
+	
 	@Override
 	public Encounter toFhirResource(org.openmrs.Encounter openMrsEncounter) {
 		if (openMrsEncounter == null) {
@@ -51,18 +59,34 @@ public class EncounterTranslatorImpl implements EncounterTranslator {
 		encounter.setId(openMrsEncounter.getUuid());
 		encounter.setStatus(Encounter.EncounterStatus.UNKNOWN);
 		
-		encounter.setSubject(patientReferenceTranslator.toFhirResource(openMrsEncounter.getPatient()));
-		encounter.setParticipant(openMrsEncounter.getEncounterProviders().stream().map(participantTranslator::toFhirResource)
-		        .collect(Collectors.toList()));
-		encounter.setLocation(
-		    Collections.singletonList(encounterLocationTranslator.toFhirResource(openMrsEncounter.getLocation())));
+		if (isIncluded("subject")) {
+			encounter.setSubject(patientReferenceTranslator.toFhirResource(openMrsEncounter.getPatient()));
+		}
+		
+		if (isIncluded("participant")) {
+			encounter.setParticipant(openMrsEncounter.getEncounterProviders().stream()
+			        .map(participantTranslator::toFhirResource).collect(Collectors.toList()));
+		}
+		
+		if (isIncluded("location")) {
+			encounter.setLocation(
+			    Collections.singletonList(encounterLocationTranslator.toFhirResource(openMrsEncounter.getLocation())));
+		}
+		
 		encounter.getMeta().setLastUpdated(openMrsEncounter.getDateChanged());
-		encounter.addContained(provenanceTranslator.getCreateProvenance(openMrsEncounter));
-		encounter.addContained(provenanceTranslator.getUpdateProvenance(openMrsEncounter));
+		
+		if (isIncluded("contained") && provenanceMode.isContained()) {
+			encounter.addContained(provenanceTranslator.getCreateProvenance(openMrsEncounter));
+			encounter.addContained(provenanceTranslator.getUpdateProvenance(openMrsEncounter));
+		}
 		
 		return encounter;
 	}
 	
+	private boolean isIncluded(String element) {
+		return ElementProjection.isIncluded(FhirConstants.ENCOUNTER, element);
+	}
+	
 	@Override
 	public org.openmrs.Encounter toOpenmrsType(Encounter fhirEncounter) {
 		return this.toOpenmrsType(new org.openmrs.Encounter(), fhirEncounter);
@@ -0,0 +1,56 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hibernate.collection.spi.PersistentCollection;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.Voidable;
+
+/**
+ * Finds the active attributes of a type among attributes which have already been loaded, e.g.
+ * because the translator's {@link org.openmrs.module.fhir2.api.translators.FetchPaths} loaded the
+ * attributes of a whole page of results in a single query. This saves querying the attributes of
+ * each result separately.
+ */
+final class LoadedAttributes {
+	
+	private LoadedAttributes() {
+	}
+	
+	/**
+	 * Returns the unvoided attributes of the given type, provided the attributes have been loaded from
+	 * the database
+	 *
+	 * @param attributes the attributes of an object
+	 * @param attributeTypeUuid the uuid of the attribute type to find
+	 * @param attributeType a function which returns the type of an attribute
+	 * @param <T> the type of attribute
+	 * @return the active attributes of the type, or an empty optional if the attributes have not been
+	 *         loaded, in which case they should be queried instead
+	 */
+	static <T extends Voidable> Optional<List<T>> getActiveAttributes(Collection<T> attributes, String attributeTypeUuid,
+	        Function<T, ? extends OpenmrsObject> attributeType) {
+		// attributes which aren't a loaded Hibernate collection may not reflect what is in the database
+		if (!(attributes instanceof PersistentCollection) || !((PersistentCollection) attributes).wasInitialized()) {
+			return Optional.empty();
+		}
+		
+		return Optional.of(attributes.stream().filter(attribute -> !Boolean.TRUE.equals(attribute.getVoided()))
+		        .filter(attribute -> attributeTypeUuid != null && attributeType.apply(attribute) != null
+		                && attributeTypeUuid.equals(attributeType.apply(attribute).getUuid()))
+		        .collect(Collectors.toList()));
+	}
+}
@@ -11,12 +11,14 @@ package org.openmrs.module.fhir2.api.translators.impl;
 
 import javax.validation.constraints.NotNull;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.AccessLevel;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.ContactPoint;
 import org.hl7.fhir.r4.model.Location;
@@ -26,16 +28,25 @@ import org.openmrs.LocationTag;
 import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
 import org.openmrs.module.fhir2.api.dao.FhirLocationDao;
+import org.openmrs.module.fhir2.api.translators.ConditionalFetchPaths;
 import org.openmrs.module.fhir2.api.translators.CustomizableMetadataTranslator;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
+import org.openmrs.module.fhir2.api.translators.FetchPaths;
 import org.openmrs.module.fhir2.api.translators.LocationAddressTranslator;
 import org.openmrs.module.fhir2.api.translators.LocationTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.TelecomTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 @Setter(AccessLevel.PACKAGE)
-public class LocationTranslatorImpl extends AbstractReferenceHandlingTranslator implements LocationTranslator {
+@FetchPaths({ "attributes.attributeType" })
+public class LocationTranslatorImpl extends AbstractReferenceHandlingTranslator
+        implements LocationTranslator, ConditionalFetchPaths {
+	
+	// the attributes are only used for the contact details
+	private static final String ATTRIBUTES_FETCH_PATH = "attributes.attributeType";
 	
 	@Autowired
 	private LocationAddressTranslator locationAddressTranslator;
@@ -52,6 +63,9 @@ public class LocationTranslatorImpl extends AbstractReferenceHandlingTranslator
 	@Autowired
 	private CustomizableMetadataTranslator<LocationAttribute, org.openmrs.Location> customizableMetadataTranslator;
 	
+	@Autowired
+	private ProvenanceMode provenanceMode;
+	
 	/**
 	 * @see org.openmrs.module.fhir2.api.translators.LocationTranslator#toFhirResource(org.openmrs.Location)
 	 */
@@ -82,7 +96,9 @@ public class LocationTranslatorImpl extends AbstractReferenceHandlingTranslator
 				fhirLocation.setStatus(Location.LocationStatus.INACTIVE);
 			}
 			
-			fhirLocation.setTelecom(getLocationContactDetails(openmrsLocation));
+			if (isIncluded("telecom")) {
+				fhirLocation.setTelecom(getLocationContactDetails(openmrsLocation));
+			}
 			
 			if (openmrsLocation.getTags() != null) {
 				for (LocationTag tag : openmrsLocation.getTags()) {
@@ -95,16 +111,44 @@ public class LocationTranslatorImpl extends AbstractReferenceHandlingTranslator
 			}
 			
 			fhirLocation.getMeta().setLastUpdated(openmrsLocation.getDateChanged());
-			fhirLocation.addContained(customizableMetadataTranslator.getCreateProvenance(openmrsLocation));
-			fhirLocation.addContained(customizableMetadataTranslator.getUpdateProvenance(openmrsLocation));
+			
+			if (provenanceMode.isContained()) {
+				fhirLocation.addContained(customizableMetadataTranslator.getCreateProvenance(openmrsLocation));
+				fhirLocation.addContained(customizableMetadataTranslator.getUpdateProvenance(openmrsLocation));
+			}
 		}
 		return fhirLocation;
 	}
 	
+	@Override
+	public boolean isFetched(String path) {
+		if (!ATTRIBUTES_FETCH_PATH.equals(path)) {
+			return true;
+		}
+		
+		if (!isIncluded("telecom")) {
+			return false;
+		}
+		
+		// the attributes needn't be loaded if the contact details can't be found
+		String attributeTypeUuid = propertyService.getGlobalProperty(FhirConstants.LOCATION_ATTRIBUTE_TYPE_PROPERTY);
+		return StringUtils.isNotBlank(attributeTypeUuid);
+	}
+	
+	private boolean isIncluded(String element) {
+		return ElementProjection.isIncluded(FhirConstants.LOCATION, element);
+	}
+	
 	protected List<ContactPoint> getLocationContactDetails(@NotNull org.openmrs.Location location) {
-		return fhirLocationDao
-		        .getActiveAttributesByLocationAndAttributeTypeUuid(location,
-		            propertyService.getGlobalProperty(FhirConstants.LOCATION_ATTRIBUTE_TYPE_PROPERTY))
+		String attributeTypeUuid = propertyService.getGlobalProperty(FhirConstants.LOCATION_ATTRIBUTE_TYPE_PROPERTY);
+		if (StringUtils.isBlank(attributeTypeUuid)) {
+			return new ArrayList<>();
+		}
+		
+		return LoadedAttributes
+		        .getActiveAttributes(location.getAttributes(), attributeTypeUuid, LocationAttribute::getAttributeType)
+		        .orElseGet(() -> fhirLocationDao.getActiveAttributesByLocationAndAttributeTypeUuid(location,
+		            attributeTypeUuid))
 		        .stream().map(telecomTranslator::toFhirResource).collect(Collectors.toList());
 	}
 	
@@ -12,19 +12,36 @@ package org.openmrs.module.fhir2.api.translators.impl;
 import java.util.ArrayList;
 import java.util.List;
 
+import lombok.AccessLevel;
+import lombok.Setter;
 import org.hl7.fhir.r4.model.CodeableConcept;
 import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Quantity;
 import org.openmrs.ConceptNumeric;
 import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.translators.ConceptTranslationCache;
 import org.openmrs.module.fhir2.api.translators.ObservationReferenceRangeTranslator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
+@Setter(AccessLevel.PACKAGE)
 public class ObservationReferenceRangeTranslatorImpl implements ObservationReferenceRangeTranslator {
 	
+	@Autowired
+	private ConceptTranslationCache conceptTranslationCache;
+	
 	@Override
 	public List<Observation.ObservationReferenceRangeComponent> toFhirResource(ConceptNumeric conceptNumeric) {
+		if (conceptNumeric != null && conceptTranslationCache != null) {
+			return conceptTranslationCache.getList("ReferenceRange", conceptNumeric, 0,
+			    concept -> translateReferenceRanges((ConceptNumeric) concept));
+		}
+		
+		return translateReferenceRanges(conceptNumeric);
+	}
+	
+	private List<Observation.ObservationReferenceRangeComponent> translateReferenceRanges(ConceptNumeric conceptNumeric) {
 		if (conceptNumeric != null) {
 			List<Observation.ObservationReferenceRangeComponent> observationReferenceRangeComponentList = new ArrayList<>();
 			observationReferenceRangeComponentList.add(createObservationReferenceRange(conceptNumeric.getHiNormal(),
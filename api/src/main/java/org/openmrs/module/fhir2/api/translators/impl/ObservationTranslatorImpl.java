@@ -20,8 +20,11 @@ import org.openmrs.ConceptNumeric;
 import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.Person;
+import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.translators.ConceptTranslator;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
 import org.openmrs.module.fhir2.api.translators.EncounterReferenceTranslator;
+import org.openmrs.module.fhir2.api.translators.FetchPaths;
 import org.openmrs.module.fhir2.api.translators.ObservationBasedOnReferenceTranslator;
 import org.openmrs.module.fhir2.api.translators.ObservationEffectiveDatetimeTranslator;
 import org.openmrs.module.fhir2.api.translators.ObservationInterpretationTranslator;
@@ -31,12 +34,15 @@ import org.openmrs.module.fhir2.api.translators.ObservationStatusTranslator;
 import org.openmrs.module.fhir2.api.translators.ObservationTranslator;
 import org.openmrs.module.fhir2.api.translators.ObservationValueTranslator;
 import org.openmrs.module.fhir2.api.translators.PatientReferenceTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 @Setter(AccessLevel.PACKAGE)
+@FetchPaths({ "encounter", "person.names", "groupMembers",
+        "concept.conceptMappings.conceptReferenceTerm.conceptSource" })
 public class ObservationTranslatorImpl implements ObservationTranslator {
 	
 	@Autowired
@@ -66,6 +72,9 @@ public class ObservationTranslatorImpl implements ObservationTranslator {
 	@Autowired
 	private ProvenanceTranslator<Obs> provenanceTranslator;
 	
+	@Autowired
+	private ProvenanceMode provenanceMode;
+	
 	@Autowired
 	private ObservationBasedOnReferenceTranslator basedOnReferenceTranslator;
 	
@@ -82,10 +91,12 @@ public class ObservationTranslatorImpl implements ObservationTranslator {
 		obs.setId(observation.getUuid());
 		obs.setStatus(observationStatusTranslator.toFhirResource(observation));
 		
-		obs.setEncounter(encounterReferenceTranslator.toFhirResource(observation.getEncounter()));
+		if (isIncluded("encounter")) {
+			obs.setEncounter(encounterReferenceTranslator.toFhirResource(observation.getEncounter()));
+		}
 		
 		Person obsPerson = observation.getPerson();
-		if (obsPerson != null) {
+		if (obsPerson != null && isIncluded("subject")) {
 			try {
 				obs.setSubject(patientReferenceTranslator.toFhirResource((Patient) observation.getPerson()));
 			}
@@ -94,7 +105,7 @@ public class ObservationTranslatorImpl implements ObservationTranslator {
 		
 		obs.setCode(conceptTranslator.toFhirResource(observation.getConcept()));
 		
-		if (observation.isObsGrouping()) {
+		if (observation.isObsGrouping() && isIncluded("hasMember")) {
 			for (Obs groupObs : observation.getGroupMembers()) {
 				obs.addHasMember(observationReferenceTranslator.toFhirResource(groupObs));
 			}
@@ -102,9 +113,11 @@ public class ObservationTranslatorImpl implements ObservationTranslator {
 		
 		obs.setValue(observationValueTranslator.toFhirResource(observation));
 		
-		obs.addInterpretation(interpretationTranslator.toFhirResource(observation));
+		if (isIncluded("interpretation")) {
+			obs.addInterpretation(interpretationTranslator.toFhirResource(observation));
+		}
 		
-		if (observation.getValueNumeric() != null) {
+		if (observation.getValueNumeric() != null && isIncluded("referenceRange")) {
 			Concept concept = observation.getConcept();
 			if (concept instanceof ConceptNumeric) {
 				obs.setReferenceRange(referenceRangeTranslator.toFhirResource((ConceptNumeric) concept));
@@ -112,15 +125,26 @@ public class ObservationTranslatorImpl implements ObservationTranslator {
 			
 		}
 		obs.getMeta().setLastUpdated(observation.getDateChanged());
-		obs.addContained(provenanceTranslator.getCreateProvenance(observation));
-		obs.addContained(provenanceTranslator.getUpdateProvenance(observation));
+		
+		if (isIncluded("contained") && provenanceMode.isContained()) {
+			obs.addContained(provenanceTranslator.getCreateProvenance(observation));
+			obs.addContained(provenanceTranslator.getUpdateProvenance(observation));
+		}
+		
 		obs.setIssued(observation.getDateCreated());
 		obs.setEffective(datetimeTranslator.toFhirResource(observation));
-		obs.addBasedOn(basedOnReferenceTranslator.toFhirResource(observation.getOrder()));
+		
+		if (isIncluded("basedOn")) {
+			obs.addBasedOn(basedOnReferenceTranslator.toFhirResource(observation.getOrder()));
+		}
 		
 		return obs;
 	}
 	
+	private boolean isIncluded(String element) {
+		return ElementProjection.isIncluded(FhirConstants.OBSERVATION, element);
+	}
+	
 	@Override
 	public Obs toOpenmrsType(Obs existingObs, Observation observation, Supplier<Obs> groupedObsFactory) {
 		if (existingObs == null) {
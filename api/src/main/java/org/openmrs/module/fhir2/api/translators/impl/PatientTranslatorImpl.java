@@ -13,12 +13,14 @@ import static org.apache.commons.lang3.Validate.notNull;
 
 import javax.validation.constraints.NotNull;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.AccessLevel;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 import org.hl7.fhir.exceptions.FHIRException;
 import org.hl7.fhir.r4.model.Address;
 import org.hl7.fhir.r4.model.BooleanType;
@@ -34,11 +36,15 @@ import org.openmrs.PersonName;
 import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
 import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
+import org.openmrs.module.fhir2.api.translators.ConditionalFetchPaths;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
+import org.openmrs.module.fhir2.api.translators.FetchPaths;
 import org.openmrs.module.fhir2.api.translators.GenderTranslator;
 import org.openmrs.module.fhir2.api.translators.PatientIdentifierTranslator;
 import org.openmrs.module.fhir2.api.translators.PatientTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonAddressTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonNameTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.openmrs.module.fhir2.api.translators.TelecomTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,7 +52,11 @@ import org.springframework.stereotype.Component;
 
 @Component
 @Setter(AccessLevel.PACKAGE)
-public class PatientTranslatorImpl implements PatientTranslator {
+@FetchPaths({ "names", "identifiers.identifierType", "addresses", "attributes.attributeType" })
+public class PatientTranslatorImpl implements PatientTranslator, ConditionalFetchPaths {
+	
+	// the attributes are only used for the contact details
+	private static final String ATTRIBUTES_FETCH_PATH = "attributes.attributeType";
 	
 	@Autowired
 	private PatientIdentifierTranslator identifierTranslator;
@@ -72,6 +82,9 @@ public class PatientTranslatorImpl implements PatientTranslator {
 	@Autowired
 	private ProvenanceTranslator<org.openmrs.Patient> provenanceTranslator;
 	
+	@Autowired
+	private ProvenanceMode provenanceMode;
+	
 	@Override
 	public Patient toFhirResource(org.openmrs.Patient openmrsPatient) {
 		Patient patient = new Patient();
@@ -90,34 +103,72 @@ public class PatientTranslatorImpl implements PatientTranslator {
 				patient.setDeceased(new BooleanType(false));
 			}
 			
-			for (PatientIdentifier identifier : openmrsPatient.getActiveIdentifiers()) {
-				patient.addIdentifier(identifierTranslator.toFhirResource(identifier));
+			if (isIncluded("identifier")) {
+				for (PatientIdentifier identifier : openmrsPatient.getActiveIdentifiers()) {
+					patient.addIdentifier(identifierTranslator.toFhirResource(identifier));
+				}
 			}
 			
-			for (PersonName name : openmrsPatient.getNames()) {
-				patient.addName(nameTranslator.toFhirResource(name));
+			if (isIncluded("name")) {
+				for (PersonName name : openmrsPatient.getNames()) {
+					patient.addName(nameTranslator.toFhirResource(name));
+				}
 			}
 			
 			if (openmrsPatient.getGender() != null) {
 				patient.setGender(genderTranslator.toFhirResource(openmrsPatient.getGender()));
 			}
 			
-			for (PersonAddress address : openmrsPatient.getAddresses()) {
-				patient.addAddress(addressTranslator.toFhirResource(address));
+			if (isIncluded("address")) {
+				for (PersonAddress address : openmrsPatient.getAddresses()) {
+					patient.addAddress(addressTranslator.toFhirResource(address));
+				}
 			}
-			patient.setTelecom(getPatientContactDetails(openmrsPatient));
+			
+			// the contact details are looked up separately, so are only loaded if they will be returned
+			if (isIncluded("telecom")) {
+				patient.setTelecom(getPatientContactDetails(openmrsPatient));
+			}
+			
 			patient.getMeta().setLastUpdated(openmrsPatient.getDateChanged());
-			patient.addContained(provenanceTranslator.getCreateProvenance(openmrsPatient));
-			patient.addContained(provenanceTranslator.getUpdateProvenance(openmrsPatient));
+			
+			if (isIncluded("contained") && provenanceMode.isContained()) {
+				patient.addContained(provenanceTranslator.getCreateProvenance(openmrsPatient));
+				patient.addContained(provenanceTranslator.getUpdateProvenance(openmrsPatient));
+			}
 		}
 		
 		return patient;
 	}
 	
+	private boolean isIncluded(String element) {
+		return ElementProjection.isIncluded(FhirConstants.PATIENT, element);
+	}
+	
+	@Override
+	public boolean isFetched(String path) {
+		if (!ATTRIBUTES_FETCH_PATH.equals(path)) {
+			return true;
+		}
+		
+		if (!isIncluded("telecom")) {
+			return false;
+		}
+		
+		// the attributes needn't be loaded if the contact details can't be found
+		String attributeTypeUuid = globalPropertyService.getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY);
+		return StringUtils.isNotBlank(attributeTypeUuid);
+	}
+	
 	public List<ContactPoint> getPatientContactDetails(@NotNull org.openmrs.Patient patient) {
-		return fhirPersonDao
-		        .getActiveAttributesByPersonAndAttributeTypeUuid(patient,
-		            globalPropertyService.getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY))
+		String attributeTypeUuid = globalPropertyService.getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY);
+		if (StringUtils.isBlank(attributeTypeUuid)) {
+			return new ArrayList<>();
+		}
+		
+		return LoadedAttributes
+		        .getActiveAttributes(patient.getAttributes(), attributeTypeUuid, PersonAttribute::getAttributeType)
+		        .orElseGet(() -> fhirPersonDao.getActiveAttributesByPersonAndAttributeTypeUuid(patient, attributeTypeUuid))
 		        .stream().map(telecomTranslator::toFhirResource).collect(Collectors.toList());
 	}
 	
@@ -20,6 +20,7 @@ import java.util.stream.Collectors;
 
 import lombok.AccessLevel;
 import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
 import org.hl7.fhir.r4.model.Address;
 import org.hl7.fhir.r4.model.ContactPoint;
 import org.hl7.fhir.r4.model.HumanName;
@@ -31,10 +32,14 @@ import org.openmrs.PersonName;
 import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
 import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
+import org.openmrs.module.fhir2.api.translators.ConditionalFetchPaths;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
+import org.openmrs.module.fhir2.api.translators.FetchPaths;
 import org.openmrs.module.fhir2.api.translators.GenderTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonAddressTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonNameTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.openmrs.module.fhir2.api.translators.TelecomTranslator;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,7 +47,11 @@ import org.springframework.stereotype.Component;
 
 @Component
 @Setter(AccessLevel.PACKAGE)
-public class PersonTranslatorImpl implements PersonTranslator {
+@FetchPaths({ "names", "addresses", "attributes.attributeType" })
+public class PersonTranslatorImpl implements PersonTranslator, ConditionalFetchPaths {
+	
+	// the attributes are only used for the contact details
+	private static final String ATTRIBUTES_FETCH_PATH = "attributes.attributeType";
 	
 	@Autowired
 	private PersonNameTranslator nameTranslator;
@@ -65,6 +74,9 @@ public class PersonTranslatorImpl implements PersonTranslator {
 	@Autowired
 	private ProvenanceTranslator<Person> provenanceTranslator;
 	
+	@Autowired
+	private ProvenanceMode provenanceMode;
+	
 	@Override
 	public org.hl7.fhir.r4.model.Person toFhirResource(@NotNull Person openmrsPerson) {
 		org.hl7.fhir.r4.model.Person person = new org.hl7.fhir.r4.model.Person();
@@ -84,20 +96,49 @@ public class PersonTranslatorImpl implements PersonTranslator {
 			for (PersonAddress address : openmrsPerson.getAddresses()) {
 				person.addAddress(addressTranslator.toFhirResource(address));
 			}
-			person.setTelecom(getPersonContactDetails(openmrsPerson));
+			
+			if (isIncluded("telecom")) {
+				person.setTelecom(getPersonContactDetails(openmrsPerson));
+			}
 			
 			buildPersonLinks(openmrsPerson, person);
 			person.getMeta().setLastUpdated(openmrsPerson.getDateChanged());
-			person.addContained(provenanceTranslator.getCreateProvenance(openmrsPerson));
-			person.addContained(provenanceTranslator.getUpdateProvenance(openmrsPerson));
+			if (provenanceMode.isContained()) {
+				person.addContained(provenanceTranslator.getCreateProvenance(openmrsPerson));
+				person.addContained(provenanceTranslator.getUpdateProvenance(openmrsPerson));
+			}
 		}
 		return person;
 	}
 	
+	@Override
+	public boolean isFetched(String path) {
+		if (!ATTRIBUTES_FETCH_PATH.equals(path)) {
+			return true;
+		}
+		
+		if (!isIncluded("telecom")) {
+			return false;
+		}
+		
+		// the attributes needn't be loaded if the contact details can't be found
+		String attributeTypeUuid = globalPropertyService.getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY);
+		return StringUtils.isNotBlank(attributeTypeUuid);
+	}
+	
+	private boolean isIncluded(String element) {
+		return ElementProjection.isIncluded(FhirConstants.PERSON, element);
+	}
+	
 	public List<ContactPoint> getPersonContactDetails(@NotNull Person person) {
-		return fhirPersonDao
-		        .getActiveAttributesByPersonAndAttributeTypeUuid(person,
-		            globalPropertyService.getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY))
+		String attributeTypeUuid = globalPropertyService.getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY);
+		if (StringUtils.isBlank(attributeTypeUuid)) {
+			return new ArrayList<>();
+		}
+		
+		return LoadedAttributes
+		        .getActiveAttributes(person.getAttributes(), attributeTypeUuid, PersonAttribute::getAttributeType)
+		        .orElseGet(() -> fhirPersonDao.getActiveAttributesByPersonAndAttributeTypeUuid(person, attributeTypeUuid))
 		        .stream().map(telecomTranslator::toFhirResource).collect(Collectors.toList());
 	}
 	
@@ -11,6 +11,7 @@ package org.openmrs.module.fhir2.api.translators.impl;
 
 import javax.validation.constraints.NotNull;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -19,6 +20,7 @@ import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.Setter;
 import org.apache.commons.lang.Validate;
+import org.apache.commons.lang3.StringUtils;
 import org.hl7.fhir.r4.model.ContactPoint;
 import org.hl7.fhir.r4.model.Identifier;
 import org.hl7.fhir.r4.model.Practitioner;
@@ -29,7 +31,10 @@ import org.openmrs.ProviderAttribute;
 import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
 import org.openmrs.module.fhir2.api.dao.FhirPractitionerDao;
+import org.openmrs.module.fhir2.api.translators.ConditionalFetchPaths;
 import org.openmrs.module.fhir2.api.translators.CustomizableMetadataTranslator;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
+import org.openmrs.module.fhir2.api.translators.FetchPaths;
 import org.openmrs.module.fhir2.api.translators.GenderTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonAddressTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonNameTranslator;
@@ -40,7 +45,11 @@ import org.springframework.stereotype.Component;
 
 @Component
 @Setter(AccessLevel.PACKAGE)
-public class PractitionerTranslatorProviderImpl implements PractitionerTranslator<Provider> {
+@FetchPaths({ "attributes.attributeType" })
+public class PractitionerTranslatorProviderImpl implements PractitionerTranslator<Provider>, ConditionalFetchPaths {
+	
+	// the attributes are only used for the contact details
+	private static final String ATTRIBUTES_FETCH_PATH = "attributes.attributeType";
 	
 	@Autowired
 	private PersonNameTranslator nameTranslator;
@@ -101,7 +110,9 @@ public class PractitionerTranslatorProviderImpl implements PractitionerTranslato
 		
 		practitioner.setId(provider.getUuid());
 		practitioner.setActive(provider.getRetired());
-		practitioner.setTelecom(getProviderContactDetails(provider));
+		if (isIncluded("telecom")) {
+			practitioner.setTelecom(getProviderContactDetails(provider));
+		}
 		
 		if (provider.getPerson() != null) {
 			practitioner.setBirthDate(provider.getPerson().getBirthdate());
@@ -120,10 +131,35 @@ public class PractitionerTranslatorProviderImpl implements PractitionerTranslato
 		return practitioner;
 	}
 	
+	@Override
+	public boolean isFetched(String path) {
+		if (!ATTRIBUTES_FETCH_PATH.equals(path)) {
+			return true;
+		}
+		
+		if (!isIncluded("telecom")) {
+			return false;
+		}
+		
+		// the attributes needn't be loaded if the contact details can't be found
+		String attributeTypeUuid = globalPropertyService.getGlobalProperty(FhirConstants.PROVIDER_ATTRIBUTE_TYPE_PROPERTY);
+		return StringUtils.isNotBlank(attributeTypeUuid);
+	}
+	
+	private boolean isIncluded(String element) {
+		return ElementProjection.isIncluded(FhirConstants.PRACTITIONER, element);
+	}
+	
 	public List<ContactPoint> getProviderContactDetails(@NotNull Provider provider) {
-		return fhirPractitionerDao
-		        .getActiveAttributesByPractitionerAndAttributeTypeUuid(provider,
-		            globalPropertyService.getGlobalProperty(FhirConstants.PROVIDER_ATTRIBUTE_TYPE_PROPERTY))
+		String attributeTypeUuid = globalPropertyService.getGlobalProperty(FhirConstants.PROVIDER_ATTRIBUTE_TYPE_PROPERTY);
+		if (StringUtils.isBlank(attributeTypeUuid)) {
+			return new ArrayList<>();
+		}
+		
+		return LoadedAttributes
+		        .getActiveAttributes(provider.getAttributes(), attributeTypeUuid, ProviderAttribute::getAttributeType)
+		        .orElseGet(() -> fhirPractitionerDao.getActiveAttributesByPractitionerAndAttributeTypeUuid(provider,
+		            attributeTypeUuid))
 		        .stream().map(telecomTranslator::toFhirResource).collect(Collectors.toList());
 	}
 	
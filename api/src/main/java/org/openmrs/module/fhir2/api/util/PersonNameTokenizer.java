@@ -0,0 +1,99 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the parts of a person's name into normalized tokens, which are stored in the name token
+ * table so that names can be searched without scanning the {@code person_name} table. Tokens are
+ * case-folded and have any accents removed, so {@code "Éloïse"} and {@code "eloise"} produce the
+ * same token. The same normalization is applied to the values searched for.
+ */
+public class PersonNameTokenizer {
+	
+	/**
+	 * The length of the substrings of each token which are indexed to support searches for tokens
+	 * containing a value
+	 */
+	public static final int TRIGRAM_LENGTH = 3;
+	
+	private static final int MAXIMUM_TOKEN_LENGTH = 255;
+	
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+	
+	private PersonNameTokenizer() {
+	}
+	
+	/**
+	 * Case-folds a value and removes any accents from it
+	 *
+	 * @param value the value to normalize
+	 * @return the normalized value
+	 */
+	public static String normalize(String value) {
+		if (value == null) {
+			return null;
+		}
+		
+		return DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+	
+	/**
+	 * Splits a value into normalized tokens, e.g. {@code "Mary-Ann"} into {@code "mary"} and
+	 * {@code "ann"}
+	 *
+	 * @param value the value to split
+	 * @return the distinct tokens in the value, in order, which may be empty
+	 */
+	public static List<String> tokenize(String value) {
+		if (value == null) {
+			return Collections.emptyList();
+		}
+		
+		Set<String> tokens = new LinkedHashSet<>();
+		for (String token : SEPARATORS.split(normalize(value))) {
+			if (!token.isEmpty()) {
+				tokens.add(token.length() > MAXIMUM_TOKEN_LENGTH ? token.substring(0, MAXIMUM_TOKEN_LENGTH) : token);
+			}
+		}
+		
+		return new ArrayList<>(tokens);
+	}
+	
+	/**
+	 * Returns the distinct substrings of {@link #TRIGRAM_LENGTH} characters of a token. A token
+	 * containing a value must have every trigram of that value.
+	 *
+	 * @param token a normalized token
+	 * @return the trigrams of the token, which is empty if the token is too short to have any
+	 */
+	public static Set<String> trigrams(String token) {
+		if (token == null || token.length() < TRIGRAM_LENGTH) {
+			return Collections.emptySet();
+		}
+		
+		Set<String> trigrams = new LinkedHashSet<>();
+		for (int i = 0; i + TRIGRAM_LENGTH <= token.length(); i++) {
+			trigrams.add(token.substring(i, i + TRIGRAM_LENGTH));
+		}
+		
+		return trigrams;
+	}
+}
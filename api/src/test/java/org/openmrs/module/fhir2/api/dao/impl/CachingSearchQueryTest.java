@@ -0,0 +1,141 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.Obs;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.impl.FhirGlobalPropertyServiceImpl;
+import org.openmrs.module.fhir2.api.search.SearchResultCache;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingSearchQueryTest {
+	
+	private static final String OBS_UUID = "39fb7f47-e80a-4056-9285-bd798be13c63";
+	
+	private static final String OTHER_OBS_UUID = "e26cea2c-1b9f-4afe-b211-f3ef6c88af6f";
+	
+	private static final String KEY = "key";
+	
+	@Mock
+	private CriteriaSearchQuery<Obs> criteriaSearchQuery;
+	
+	private final Map<String, String> globalProperties = new HashMap<>();
+	
+	private SearchResultCache searchResultCache;
+	
+	private CachingSearchQuery<Obs> searchQuery;
+	
+	@Before
+	public void setup() {
+		globalProperties.put(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_TTL, "60");
+		
+		searchResultCache = new SearchResultCache();
+		searchResultCache.setGlobalPropertyService(new FhirGlobalPropertyServiceImpl() {
+			
+			@Override
+			public String getGlobalProperty(String property) {
+				return globalProperties.get(property);
+			}
+		});
+		
+		searchQuery = new CachingSearchQuery<>(searchResultCache, Obs.class, KEY, criteriaSearchQuery);
+	}
+	
+	@Test
+	public void getCount_shouldCacheIdsOfMatchingResults() {
+		when(criteriaSearchQuery.getUuids(CachingSearchQuery.MAX_CACHED_IDS + 1))
+		        .thenReturn(Arrays.asList(OBS_UUID, OTHER_OBS_UUID));
+		
+		assertThat(searchQuery.getCount(), equalTo(2));
+		assertThat(searchResultCache.get(KEY), contains(OBS_UUID, OTHER_OBS_UUID));
+		verify(criteriaSearchQuery, never()).getCount();
+	}
+	
+	@Test
+	public void getCount_shouldRunCountQueryWhenCacheIsDisabled() {
+		globalProperties.put(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_TTL, "0");
+		when(criteriaSearchQuery.getCount()).thenReturn(2);
+		
+		assertThat(searchQuery.getCount(), equalTo(2));
+		verify(criteriaSearchQuery, never()).getUuids(anyInt());
+	}
+	
+	@Test
+	public void getResults_shouldLoadPageOfCachedIdsInCachedOrder() {
+		Obs obs = newObs(OBS_UUID);
+		Obs otherObs = newObs(OTHER_OBS_UUID);
+		searchResultCache.put(Obs.class, KEY, searchResultCache.getGeneration(Obs.class),
+		    Arrays.asList(OTHER_OBS_UUID, OBS_UUID));
+		when(criteriaSearchQuery.getResultsByUuid(Arrays.asList(OTHER_OBS_UUID, OBS_UUID)))
+		        .thenReturn(Arrays.asList(otherObs, obs));
+		
+		List<Obs> results = searchQuery.getResults(0, 10);
+		
+		assertThat(results, contains(otherObs, obs));
+		verify(criteriaSearchQuery, never()).getResults(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void getResults_shouldSkipCachedIdsWhichNoLongerMatch() {
+		searchResultCache.put(Obs.class, KEY, searchResultCache.getGeneration(Obs.class),
+		    Arrays.asList(OBS_UUID, OTHER_OBS_UUID));
+		when(criteriaSearchQuery.getResultsByUuid(Collections.singletonList(OTHER_OBS_UUID)))
+		        .thenReturn(Collections.emptyList());
+		
+		assertThat(searchQuery.getResults(1, 10), empty());
+	}
+	
+	@Test
+	public void getResults_shouldRunSearchWhenNotCached() {
+		Obs obs = newObs(OBS_UUID);
+		when(criteriaSearchQuery.getResults(0, 10)).thenReturn(Collections.singletonList(obs));
+		
+		assertThat(searchQuery.getResults(0, 10), contains(obs));
+	}
+	
+	@Test
+	public void getUuids_shouldRunSearchAgainAfterInvalidation() {
+		when(criteriaSearchQuery.getUuids()).thenReturn(Collections.singletonList(OBS_UUID),
+		    Arrays.asList(OBS_UUID, OTHER_OBS_UUID));
+		
+		assertThat(searchQuery.getUuids(), contains(OBS_UUID));
+		assertThat(searchQuery.getUuids(), contains(OBS_UUID));
+		
+		searchResultCache.invalidate(Obs.class);
+		
+		assertThat(searchQuery.getUuids(), contains(OBS_UUID, OTHER_OBS_UUID));
+	}
+	
+	private Obs newObs(String uuid) {
+		Obs obs = new Obs();
+		obs.setUuid(uuid);
+		return obs;
+	}
+}
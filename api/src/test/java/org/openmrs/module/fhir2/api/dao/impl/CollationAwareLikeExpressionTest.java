@@ -0,0 +1,95 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.Criteria;
+import org.hibernate.criterion.CriteriaQuery;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.MatchMode;
+import org.hibernate.dialect.MySQL5Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.TypedValue;
+import org.hibernate.type.StringType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CollationAwareLikeExpressionTest {
+	
+	private static final String PROPERTY = "pn.givenName";
+	
+	private static final String COLUMN = "pn1_.given_name";
+	
+	@Mock
+	private Criteria criteria;
+	
+	@Mock
+	private CriteriaQuery criteriaQuery;
+	
+	@Mock
+	private SessionFactoryImplementor sessionFactory;
+	
+	@Test
+	public void toSqlString_shouldCompareColumnDirectlyOnCaseInsensitiveCollation() {
+		when(criteriaQuery.findColumns(PROPERTY, criteria)).thenReturn(new String[] { COLUMN });
+		
+		assertThat(toSqlString(CollationAwareLikeExpression.ilike(PROPERTY, "Jean", MatchMode.START, true)),
+		    equalTo(COLUMN + " like ?"));
+		assertThat(toSqlString(CollationAwareLikeExpression.ilike(PROPERTY, "Jean", MatchMode.EXACT, true)),
+		    equalTo(COLUMN + " = ?"));
+	}
+	
+	@Test
+	public void toSqlString_shouldLowerCaseColumnOtherwise() {
+		when(criteriaQuery.getFactory()).thenReturn(sessionFactory);
+		when(sessionFactory.getDialect()).thenReturn(new MySQL5Dialect());
+		when(criteriaQuery.findColumns(PROPERTY, criteria)).thenReturn(new String[] { COLUMN });
+		
+		assertThat(toSqlString(CollationAwareLikeExpression.ilike(PROPERTY, "Jean", MatchMode.START, false)),
+		    equalTo("lower(" + COLUMN + ") like ?"));
+		assertThat(toSqlString(CollationAwareLikeExpression.ilike(PROPERTY, "Jean", MatchMode.EXACT, false)),
+		    equalTo("lower(" + COLUMN + ") like ?"));
+	}
+	
+	@Test
+	public void getTypedValues_shouldKeepCaseOfValueOnCaseInsensitiveCollation() {
+		when(criteriaQuery.getTypedValue(eq(criteria), eq(PROPERTY), anyString()))
+		        .then(invocation -> new TypedValue(StringType.INSTANCE, invocation.getArgument(2)));
+		
+		assertThat(getValue(CollationAwareLikeExpression.ilike(PROPERTY, "Jean", MatchMode.START, true)),
+		    equalTo("Jean%"));
+	}
+	
+	@Test
+	public void getTypedValues_shouldLowerCaseValueOtherwise() {
+		when(criteriaQuery.getTypedValue(eq(criteria), eq(PROPERTY), any()))
+		        .then(invocation -> new TypedValue(StringType.INSTANCE, invocation.getArgument(2)));
+		
+		assertThat(getValue(CollationAwareLikeExpression.ilike(PROPERTY, "Jean", MatchMode.ANYWHERE, false)),
+		    equalTo("%jean%"));
+	}
+	
+	private String toSqlString(Criterion criterion) {
+		return criterion.toSqlString(criteria, criteriaQuery);
+	}
+	
+	private Object getValue(Criterion criterion) {
+		return criterion.getTypedValues(criteria, criteriaQuery)[0].getValue();
+	}
+}
@@ -117,7 +117,8 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		
 		referenceParam.addValue(new ReferenceOrListParam().add(allergyParam));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null,
+		    null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getPatient().getIdentifiers().iterator().next().getIdentifier(),
@@ -134,7 +135,8 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		
 		referenceParam.addValue(new ReferenceOrListParam().add(allergyParam));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null,
+		    null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getPatient().getGivenName(), equalTo("John"));
@@ -150,7 +152,8 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		
 		referenceParam.addValue(new ReferenceOrListParam().add(allergyParam));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null,
+		    null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getPatient().getFamilyName(), equalTo("Doe"));
@@ -166,7 +169,8 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		
 		referenceParam.addValue(new ReferenceOrListParam().add(allergyParam));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null,
+		    null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 	}
@@ -185,7 +189,8 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		
 		referenceParam.addValue(new ReferenceOrListParam().add(allergyParamName).add(allergyParamGiven));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(referenceParam, null, null, null, null,
+		    null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getUuid(), equalTo(ALLERGY_UUID));
@@ -197,7 +202,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		TokenOrListParam category = new TokenOrListParam();
 		category.addOr(new TokenParam().setValue("food"));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, category, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, category, null, null, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getAllergenType(), equalTo(AllergenType.FOOD));
@@ -208,7 +213,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		TokenOrListParam category = new TokenOrListParam();
 		category.addOr(new TokenParam().setValue("medication"));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, category, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, category, null, null, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getAllergenType(), equalTo(AllergenType.DRUG));
@@ -219,7 +224,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		TokenOrListParam category = new TokenOrListParam();
 		category.addOr(new TokenParam().setValue("environment"));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, category, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, category, null, null, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getAllergenType(), equalTo(AllergenType.ENVIRONMENT));
@@ -230,7 +235,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		TokenOrListParam category = new TokenOrListParam();
 		category.addOr(new TokenParam().setValue("null"));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, null, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 	}
@@ -239,7 +244,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 	public void searchForAllergies_shouldSearchForMultipleAllergiesByCategory() {
 		TokenOrListParam category = new TokenOrListParam();
 		category.addOr(new TokenParam(null, "food")).addOr(new TokenParam(null, "medication"));
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, category, null, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, category, null, null, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result, hasSize(2));
 		assertThat(result, hasItem(hasProperty("allergenType", equalTo(AllergenType.FOOD))));
@@ -251,7 +256,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		TokenAndListParam allergen = new TokenAndListParam();
 		allergen.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODED_ALLERGEN_UUID)));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, allergen, null, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, allergen, null, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getAllergen().getCodedAllergen().getUuid(), equalTo(CODED_ALLERGEN_UUID));
@@ -268,7 +273,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		    FhirConstants.GLOBAL_PROPERTY_MODERATE, FhirConstants.GLOBAL_PROPERTY_SEVERE,
 		    FhirConstants.GLOBAL_PROPERTY_OTHER)).thenReturn(severityConceptUuids);
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, severity, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, severity, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getSeverity().getUuid(), equalTo(SEVERITY_MILD_CONCEPT_UUID));
@@ -285,7 +290,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		    FhirConstants.GLOBAL_PROPERTY_MODERATE, FhirConstants.GLOBAL_PROPERTY_SEVERE,
 		    FhirConstants.GLOBAL_PROPERTY_OTHER)).thenReturn(severityConceptUuids);
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, severity, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, severity, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getSeverity().getUuid(), equalTo(SEVERITY_MODERATE_CONCEPT_UUID));
@@ -302,7 +307,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		    FhirConstants.GLOBAL_PROPERTY_MODERATE, FhirConstants.GLOBAL_PROPERTY_SEVERE,
 		    FhirConstants.GLOBAL_PROPERTY_OTHER)).thenReturn(severityConceptUuids);
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, severity, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, severity, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getSeverity().getUuid(), equalTo(SEVERITY_SEVERE_CONCEPT_UUID));
@@ -319,7 +324,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		    FhirConstants.GLOBAL_PROPERTY_MODERATE, FhirConstants.GLOBAL_PROPERTY_SEVERE,
 		    FhirConstants.GLOBAL_PROPERTY_OTHER)).thenReturn(severityConceptUuids);
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, severity, null, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, severity, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 	}
@@ -329,7 +334,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		TokenAndListParam manifestation = new TokenAndListParam();
 		manifestation.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODED_REACTION_UUID)));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, null, manifestation, null);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, null, manifestation, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getReactions().get(0).getReaction().getUuid(), equalTo(CODED_REACTION_UUID));
@@ -340,7 +345,7 @@ public class FhirAllergyIntoleranceDaoImplTest extends BaseModuleContextSensitiv
 		TokenOrListParam status = new TokenOrListParam();
 		status.addOr(new TokenParam().setValue("active"));
 		
-		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, null, null, status);
+		Collection<Allergy> result = allergyDao.searchForAllergies(null, null, null, null, null, status).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getVoided(), equalTo(false));
@@ -18,7 +18,10 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import ca.uhn.fhir.rest.param.DateParam;
 import ca.uhn.fhir.rest.param.DateRangeParam;
@@ -34,6 +37,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.openmrs.Encounter;
 import org.openmrs.module.fhir2.TestFhirSpringConfiguration;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.test.BaseModuleContextSensitiveTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -66,6 +70,10 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 	
 	private static final String ENCOUNTER_DATE = "2005-01-01 00:00:00.0";
 	
+	private static final String VOIDED_ENCOUNTER_UUID = "d3f7c1a9-5e2b-4f86-9c0d-7a4b2e8f1c65";
+	
+	private static final String VOIDED_ENCOUNTER_DATETIME = "1999-09-09T00:00:00.0";
+	
 	private static final String PATIENT_GIVEN_NAME = "John";
 	
 	private static final String PATIENT_FAMILY_NAME = "Doe";
@@ -116,13 +124,26 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForEncounters_shouldSearchForEncountersByDate() {
 		Collection<Encounter> results = dao.searchForEncounters(new DateRangeParam(new DateParam(ENCOUNTER_DATETIME)), null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
 		assertThat(results.iterator().next().getEncounterDatetime().toString(), equalTo(ENCOUNTER_DATE));
 	}
 	
+	@Test
+	public void searchForEncounters_shouldExcludeVoidedEncountersUnlessAskedToIncludeThem() {
+		DateRangeParam date = new DateRangeParam(new DateParam(VOIDED_ENCOUNTER_DATETIME));
+		
+		Collection<Encounter> results = dao.searchForEncounters(date, null, null, null).getResults();
+		assertThat(results, empty());
+		
+		results = dao.searchForEncounters(date, null, null, null, true).getResults();
+		assertThat(results.size(), equalTo(1));
+		assertThat(results.iterator().next().getUuid(), equalTo(VOIDED_ENCOUNTER_UUID));
+		assertThat(results.iterator().next().getVoided(), is(true));
+	}
+	
 	@Test
 	public void searchForEncounters_shouldSearchForEncountersBySubjectName() {
 		ReferenceAndListParam subjectReference = new ReferenceAndListParam();
@@ -133,7 +154,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		subjectReference.addValue(new ReferenceOrListParam().add(subject));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -151,7 +172,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		subjectReference.addValue(new ReferenceOrListParam().add(subject));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -169,7 +190,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		subjectReference.addValue(new ReferenceOrListParam().add(subject));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -186,7 +207,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		subjectReference.addValue(new ReferenceOrListParam().add(subject));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -203,7 +224,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		subjectReference.addValue(new ReferenceOrListParam().add(subject));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -221,7 +242,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		subjectReference.addValue(new ReferenceOrListParam().add(subject));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, is(empty()));
@@ -237,7 +258,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		participantReference.addValue(new ReferenceOrListParam().add(participant));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -257,7 +278,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		participantReference.addValue(new ReferenceOrListParam().add(participant));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -278,7 +299,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		participantReference.addValue(new ReferenceOrListParam().add(participant));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -299,7 +320,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		participantReference.addValue(new ReferenceOrListParam().add(participant));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -319,7 +340,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		participantReference.addValue(new ReferenceOrListParam().add(participant));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -339,7 +360,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		locationReference.addValue(new ReferenceOrListParam().add(location));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -356,7 +377,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		locationReference.addValue(new ReferenceOrListParam().add(location));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -373,7 +394,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		locationReference.addValue(new ReferenceOrListParam().add(location));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -390,7 +411,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		locationReference.addValue(new ReferenceOrListParam().add(location));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -406,7 +427,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		locationReference.addValue(new ReferenceOrListParam().add(location));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -427,7 +448,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		subjectReference.addValue(new ReferenceOrListParam().add(subjectIdentifier).add(subjectGiven));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, null, subjectReference).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -454,7 +475,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		participantReference.addValue(new ReferenceOrListParam().add(participantName));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, null, participantReference, null).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -484,7 +505,7 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		locationReference.addValue(new ReferenceOrListParam().add(locationCity).add(locationCountry).add(locationState));
 		
-		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null);
+		Collection<Encounter> results = dao.searchForEncounters(null, locationReference, null, null).getResults();
 		
 		assertThat(results, Matchers.notNullValue());
 		assertThat(results, not(empty()));
@@ -493,4 +514,19 @@ public class FhirEncounterDaoImplTest extends BaseModuleContextSensitiveTest {
 		assertThat(results.iterator().next().getLocation().getCityVillage(), equalTo(ENCOUNTER_LOCATION_CITY));
 		assertThat(results.iterator().next().getLocation().getCountry(), equalTo(ENCOUNTER_LOCATION_COUNTRY));
 	}
+	
+	@Test
+	public void searchForEncounters_shouldReturnTheSameEncountersWhenPagingThroughResults() {
+		SearchQuery<Encounter> query = dao.searchForEncounters(null, null, null, null);
+		
+		List<String> allResults = query.getResults().stream().map(Encounter::getUuid).collect(Collectors.toList());
+		assertThat(allResults.size(), greaterThanOrEqualTo(3));
+		
+		List<String> pagedResults = new ArrayList<>();
+		for (int i = 0; i < allResults.size(); i += 2) {
+			query.getResults(i, 2).stream().map(Encounter::getUuid).forEach(pagedResults::add);
+		}
+		
+		assertThat(pagedResults, equalTo(allResults));
+	}
 }
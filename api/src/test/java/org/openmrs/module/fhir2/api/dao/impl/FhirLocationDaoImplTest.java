@@ -119,7 +119,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForLocations_shouldReturnCorrectLocationByName() {
 		StringOrListParam location = new StringOrListParam().add(new StringParam(LOCATION_NAME));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(location, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(1));
@@ -130,7 +130,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForLocations_shouldReturnEmptyCollectionWhenCalledWithUnknownName() {
 		StringOrListParam location = new StringOrListParam().add(new StringParam(UNKNOWN_LOCATION_NAME));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(location, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(0));
@@ -139,7 +139,8 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForLocations_shouldReturnCorrectLocationByCity() {
 		StringOrListParam city = new StringOrListParam().add(new StringParam(LOCATION_CITY));
-		Collection<Location> locations = fhirLocationDao.searchForLocations(null, city, null, null, null, null, null, null);
+		Collection<Location> locations = fhirLocationDao.searchForLocations(null, city, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(1));
@@ -149,7 +150,8 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForLocations_shouldReturnEmptyCollectionWhenCalledWithUnknownCity() {
 		StringOrListParam city = new StringOrListParam().add(new StringParam(UNKNOWN_LOCATION_CITY));
-		Collection<Location> locations = fhirLocationDao.searchForLocations(null, city, null, null, null, null, null, null);
+		Collection<Location> locations = fhirLocationDao.searchForLocations(null, city, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(0));
@@ -159,7 +161,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForLocations_shouldReturnCorrectLocationByCountry() {
 		StringOrListParam country = new StringOrListParam().add(new StringParam(LOCATION_COUNTRY));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, country, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(2));
@@ -170,7 +172,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForLocations_shouldReturnEmptyCollectionWhenCalledWithUnknownCountry() {
 		StringOrListParam country = new StringOrListParam().add(new StringParam(UNKNOWN_LOCATION_COUNTRY));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, country, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(0));
@@ -180,7 +182,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForLocations_shouldReturnCorrectLocationByPostalCode() {
 		StringOrListParam postalCode = new StringOrListParam().add(new StringParam(POSTAL_CODE));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, postalCode, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(2));
@@ -191,7 +193,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForLocations_shouldReturnEmptyCollectionWhenCalledWithUnknownCode() {
 		StringOrListParam postalCode = new StringOrListParam().add(new StringParam(UNKNOWN_POSTAL_CODE));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, postalCode, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(0));
@@ -200,7 +202,8 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForLocations_shouldReturnCorrectLocationByState() {
 		StringOrListParam state = new StringOrListParam().add(new StringParam(LOCATION_STATE));
-		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, state, null, null, null);
+		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, state, null, null,
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(2));
@@ -210,7 +213,8 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForLocations_shouldReturnEmptyCollectionWhenCalledWithUnknownState() {
 		StringOrListParam state = new StringOrListParam().add(new StringParam(UNKNOWN_LOCATION_STATE));
-		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, state, null, null, null);
+		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, state, null, null,
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(0));
@@ -221,7 +225,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 		TokenOrListParam locationTag = new TokenOrListParam(FhirConstants.OPENMRS_FHIR_EXT_LOCATION_TAG,
 		        LOGIN_LOCATION_TAG_NAME);
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, locationTag, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(2));
@@ -233,7 +237,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 		ReferenceOrListParam parentLocation = new ReferenceOrListParam()
 		        .add(new ReferenceParam().setValue(LOCATION_PARENT_ID).setChain(""));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, null,
-		    parentLocation, null);
+		    parentLocation, null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(1));
@@ -245,7 +249,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 		ReferenceOrListParam parentLocation = new ReferenceOrListParam()
 		        .add(new ReferenceParam().setValue(LOCATION_PARENT_NAME).setChain("name"));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, null,
-		    parentLocation, null);
+		    parentLocation, null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(1));
@@ -257,7 +261,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 		ReferenceOrListParam parentLocation = new ReferenceOrListParam()
 		        .add(new ReferenceParam().setValue(LOCATION_PARENT_CITY).setChain("address-city"));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, null,
-		    parentLocation, null);
+		    parentLocation, null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(1));
@@ -269,7 +273,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 		ReferenceOrListParam parentLocation = new ReferenceOrListParam()
 		        .add(new ReferenceParam().setValue(LOCATION_PARENT_COUNTRY).setChain("address-country"));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, null,
-		    parentLocation, null);
+		    parentLocation, null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(1));
@@ -281,7 +285,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 		ReferenceOrListParam parentLocation = new ReferenceOrListParam()
 		        .add(new ReferenceParam().setValue(LOCATION_PARENT_POSTAL_CODE).setChain("address-postalcode"));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, null,
-		    parentLocation, null);
+		    parentLocation, null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(1));
@@ -293,7 +297,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 		ReferenceOrListParam parentLocation = new ReferenceOrListParam()
 		        .add(new ReferenceParam().setValue(LOCATION_PARENT_STATE).setChain("address-state"));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, null,
-		    parentLocation, null);
+		    parentLocation, null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(1));
@@ -305,7 +309,7 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 		StringOrListParam postalCode = new StringOrListParam().add(new StringParam(POSTAL_CODE));
 		StringOrListParam country = new StringOrListParam().add(new StringParam(LOCATION_COUNTRY));
 		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, country, postalCode, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations.size(), equalTo(2));
@@ -431,7 +435,8 @@ public class FhirLocationDaoImplTest extends BaseModuleContextSensitiveTest {
 	}
 	
 	private List<Location> getNonNullLocationListForSorting(SortSpec sort) {
-		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, null, null, sort);
+		Collection<Location> locations = fhirLocationDao.searchForLocations(null, null, null, null, null, null, null,
+		    sort).getResults();
 		
 		assertThat(locations, notNullValue());
 		assertThat(locations, not(empty()));
@@ -88,7 +88,7 @@ public class FhirMedicationDaoImplTest extends BaseModuleContextSensitiveTest {
 		TokenAndListParam code = new TokenAndListParam();
 		code.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CONCEPT_UUID)));
 		
-		Collection<Drug> result = medicationDao.searchForMedications(code, null, null, null);
+		Collection<Drug> result = medicationDao.searchForMedications(code, null, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getConcept().getUuid(), equalTo(CONCEPT_UUID));
@@ -99,7 +99,7 @@ public class FhirMedicationDaoImplTest extends BaseModuleContextSensitiveTest {
 		TokenAndListParam dosageForm = new TokenAndListParam();
 		dosageForm.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(DOSAGE_FORM_UUID)));
 		
-		Collection<Drug> result = medicationDao.searchForMedications(null, dosageForm, null, null);
+		Collection<Drug> result = medicationDao.searchForMedications(null, dosageForm, null, null).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getDosageForm().getUuid(), equalTo(DOSAGE_FORM_UUID));
@@ -110,7 +110,7 @@ public class FhirMedicationDaoImplTest extends BaseModuleContextSensitiveTest {
 		TokenOrListParam status = new TokenOrListParam();
 		status.addOr(new TokenParam().setValue("active"));
 		
-		Collection<Drug> result = medicationDao.searchForMedications(null, null, null, status);
+		Collection<Drug> result = medicationDao.searchForMedications(null, null, null, status).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getRetired(), equalTo(false));
@@ -121,7 +121,7 @@ public class FhirMedicationDaoImplTest extends BaseModuleContextSensitiveTest {
 		TokenOrListParam status = new TokenOrListParam();
 		status.addOr(new TokenParam().setValue("inactive"));
 		
-		Collection<Drug> result = medicationDao.searchForMedications(null, null, null, status);
+		Collection<Drug> result = medicationDao.searchForMedications(null, null, null, status).getResults();
 		assertThat(result, notNullValue());
 		assertThat(result.size(), greaterThanOrEqualTo(1));
 		assertThat(result.iterator().next().getRetired(), equalTo(true));
@@ -9,22 +9,27 @@
  */
 package org.openmrs.module.fhir2.api.dao.impl;
 
+import static org.exparity.hamcrest.date.DateMatchers.before;
 import static org.exparity.hamcrest.date.DateMatchers.sameOrAfter;
 import static org.exparity.hamcrest.date.DateMatchers.sameOrBefore;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import ca.uhn.fhir.rest.api.SortOrderEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
@@ -43,6 +48,9 @@ import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
 import org.apache.commons.lang3.math.NumberUtils;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Patient;
 import org.junit.Before;
@@ -50,8 +58,10 @@ import org.junit.Test;
 import org.openmrs.Obs;
 import org.openmrs.module.fhir2.FhirTestConstants;
 import org.openmrs.module.fhir2.TestFhirSpringConfiguration;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.test.BaseModuleContextSensitiveTest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.test.context.ContextConfiguration;
 
 @ContextConfiguration(classes = TestFhirSpringConfiguration.class, inheritLocations = false)
@@ -75,8 +85,18 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 	
 	private static final String VALUE_STRING = "AFH56";
 	
+	private static final String VOIDED_OBS_VALUE_STRING = "VOIDED-OBS-TEXT";
+	
+	private static final String VOIDED_OBS_UUID = "9a3e6f1c-2b7d-4c85-a0e4-6d1b8f2c5e37";
+	
 	private static final String VALUE_DATE_AND_TIME = "1976-08-25T13:44:57.0";
 	
+	private static final String VALUE_DATE_OBS_UUID = "f6e9a4c3-6f1b-4b0e-9a5e-2d1f0c8b7a61";
+	
+	private static final String UNKNOWN_ENCOUNTER_UUID = "c4a4b2a5-6c5b-4a5e-8e3b-1b9f3d7e2a10";
+	
+	private static final String OBS_DATE = "2008-07-01";
+	
 	private static final String OBS_CONCEPT_UUID = "c607c80f-1ea9-4da3-bb88-6276ce8868dd";
 	
 	private static final String PATIENT_UUID = "5946f880-b197-400b-9caa-a3c661d23041";
@@ -106,9 +126,15 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 	
 	private static final String LOINC_SYSTOLIC_BP = "8480-6";
 	
+	private static final int PAGE_SIZE = 3;
+	
 	@Autowired
 	FhirObservationDaoImpl dao;
 	
+	@Autowired
+	@Qualifier("sessionFactory")
+	private SessionFactory sessionFactory;
+	
 	@Before
 	public void setup() throws Exception {
 		executeDataSet(OBS_DATA_XML);
@@ -129,6 +155,16 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		assertThat(result, nullValue());
 	}
 	
+	@Test
+	public void getObsByUuid_shouldLoadAssociationsNeededForTranslation() {
+		Obs result = dao.getObsByUuid(OBS_UUID);
+		
+		assertThat(result, notNullValue());
+		assertThat(Hibernate.isInitialized(result.getConcept()), equalTo(true));
+		assertThat(Hibernate.isInitialized(result.getConcept().getConceptMappings()), equalTo(true));
+		assertThat(Hibernate.isInitialized(result.getPerson().getNames()), equalTo(true));
+	}
+	
 	@Test
 	public void searchForObs_shouldSearchForObsByConceptId() {
 		TokenAndListParam code = new TokenAndListParam();
@@ -136,13 +172,32 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		codingToken.setValue(OBS_CONCEPT_ID);
 		code.addAnd(codingToken);
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code, null);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
 		assertThat(results, hasItem(hasProperty("uuid", equalTo(OBS_UUID))));
 	}
 	
+	@Test
+	public void searchForObs_shouldLoadAssociationsNeededForTranslation() {
+		TokenAndListParam code = new TokenAndListParam();
+		TokenParam codingToken = new TokenParam();
+		codingToken.setValue(OBS_CONCEPT_ID);
+		code.addAnd(codingToken);
+		
+		List<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code, null)
+		        .getResults(0, 10);
+		
+		assertThat(results, not(empty()));
+		for (Obs result : results) {
+			assertThat(Hibernate.isInitialized(result.getConcept()), equalTo(true));
+			assertThat(Hibernate.isInitialized(result.getConcept().getConceptMappings()), equalTo(true));
+			assertThat(Hibernate.isInitialized(result.getPerson().getNames()), equalTo(true));
+		}
+	}
+	
 	@Test
 	public void searchForObs_shouldSearchForObsByConceptUuid() {
 		TokenAndListParam code = new TokenAndListParam();
@@ -150,7 +205,8 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		codingToken.setValue(OBS_CONCEPT_UUID);
 		code.addAnd(codingToken);
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code, null);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -165,7 +221,8 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		codingToken.setValue(OBS_SNOMED_CODE);
 		code.addAnd(codingToken);
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code, null);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -185,7 +242,8 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 			orListParam.addOr(codingToken);
 		}
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code, null);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -212,7 +270,8 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		codingToken2.setValue(CIEL_DIASTOLIC_BP);
 		orListParam.addOr(codingToken2);
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code, null);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -236,7 +295,8 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		codingToken2.setValue(CIEL_DIASTOLIC_BP);
 		orListParam.addOr(codingToken2);
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code, null);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, code,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -255,7 +315,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		patientReference.addValue(new ReferenceOrListParam().add(patient));
 		
 		Collection<Obs> results = dao.searchForObservations(null, patientReference, null, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -273,7 +333,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		patientReference.addValue(new ReferenceOrListParam().add(patient));
 		
 		Collection<Obs> results = dao.searchForObservations(null, patientReference, null, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -291,7 +351,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		patientReference.addValue(new ReferenceOrListParam().add(patient));
 		
 		Collection<Obs> results = dao.searchForObservations(null, patientReference, null, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -309,7 +369,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		patientReference.addValue(new ReferenceOrListParam().add(patient));
 		
 		Collection<Obs> results = dao.searchForObservations(null, patientReference, null, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -327,7 +387,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		patientReference.addValue(new ReferenceOrListParam().add(patient));
 		
 		Collection<Obs> results = dao.searchForObservations(null, patientReference, null, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -340,20 +400,48 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		encounterReference.addValue(new ReferenceOrListParam().add(new ReferenceParam().setValue(ENCOUNTER_UUID)));
 		
 		Collection<Obs> results = dao.searchForObservations(encounterReference, null, null, null, null, null, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
 		assertThat(results, hasItem(hasProperty("uuid", equalTo(OBS_UUID))));
 	}
 	
+	@Test
+	public void searchForObs_shouldOnlyReturnObsInReferencedEncounter() {
+		ReferenceAndListParam encounterReference = new ReferenceAndListParam();
+		encounterReference.addValue(new ReferenceOrListParam().add(new ReferenceParam().setValue(ENCOUNTER_UUID)));
+		
+		SearchQuery<Obs> results = dao.searchForObservations(encounterReference, null, null, null, null, null, null, null,
+		    null, null);
+		
+		assertThat(results.getResults(), not(empty()));
+		assertThat(results.getResults(), everyItem(hasProperty("encounter", hasProperty("uuid", equalTo(ENCOUNTER_UUID)))));
+		assertThat(results.getCount(), equalTo(results.getResults().size()));
+		assertThat(results.getCount(), lessThan(
+		    dao.searchForObservations(null, null, null, null, null, null, null, null, null, null).getCount()));
+	}
+	
+	@Test
+	public void searchForObs_shouldReturnNoObsForUnknownEncounter() {
+		ReferenceAndListParam encounterReference = new ReferenceAndListParam();
+		encounterReference.addValue(new ReferenceOrListParam().add(new ReferenceParam().setValue(UNKNOWN_ENCOUNTER_UUID)));
+		
+		SearchQuery<Obs> results = dao.searchForObservations(encounterReference, null, null, null, null, null, null, null,
+		    null, null);
+		
+		assertThat(results.getResults(), empty());
+		assertThat(results.getCount(), equalTo(0));
+	}
+	
 	@Test
 	public void searchForObs_shouldSortObsAsRequested() {
 		SortSpec sort = new SortSpec();
 		sort.setParamName("date");
 		sort.setOrder(SortOrderEnum.ASC);
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, null, sort);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, null,
+		    sort).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -367,7 +455,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		sort.setOrder(SortOrderEnum.DESC);
 		
-		results = dao.searchForObservations(null, null, null, null, null, null, null, null, null, sort);
+		results = dao.searchForObservations(null, null, null, null, null, null, null, null, null, sort).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -386,7 +474,8 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		sort.setParamName("date");
 		sort.setOrder(SortOrderEnum.DESC);
 		
-		Collection<Obs> baselineObs = dao.searchForObservations(null, null, null, null, null, null, null, null, null, sort);
+		Collection<Obs> baselineObs = dao.searchForObservations(null, null, null, null, null, null, null, null, null,
+		    sort).getResults();
 		
 		assertThat(baselineObs, notNullValue());
 		assertThat(baselineObs, not(empty()));
@@ -396,7 +485,8 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		subSort.setParamName("dummy");
 		subSort.setOrder(SortOrderEnum.ASC);
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, null, sort);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, null, null, null,
+		    sort).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -418,7 +508,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		patientReference.addValue(new ReferenceOrListParam().add(patientOne).add(patientTwo));
 		
 		Collection<Obs> results = dao.searchForObservations(null, patientReference, null, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -432,7 +522,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		        .add(new ReferenceParam().setValue(ENCOUNTER_UUID_TWO)));
 		
 		Collection<Obs> results = dao.searchForObservations(encounterReference, null, null, null, null, null, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -464,7 +554,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		sort.setOrder(SortOrderEnum.DESC);
 		
 		Collection<Obs> results = dao.searchForObservations(null, patientReference, null, null, null, null, null, null, code,
-		    sort);
+		    sort).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -489,7 +579,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		memberReference.setChain("");
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, memberReference, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -505,7 +595,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		memberReference.setChain(Observation.SP_CODE);
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, memberReference, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -521,7 +611,8 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		codingToken.setValue(VALUE_CONCEPT_ID);
 		code.addAnd(codingToken);
 		
-		Collection<Obs> results = dao.searchForObservations(null, null, null, code, null, null, null, null, null, null);
+		Collection<Obs> results = dao.searchForObservations(null, null, null, code, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -531,11 +622,27 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForObs_shouldSearchForObsByValueDate() {
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null,
-		    new DateRangeParam(new DateParam(VALUE_DATE_AND_TIME)), null, null, null, null, null);
+		    new DateRangeParam(new DateParam(VALUE_DATE_AND_TIME)), null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
-		assertThat(results, hasItem(hasProperty("uuid", equalTo(OBS_UUID))));
+		assertThat(results, hasItem(hasProperty("uuid", equalTo(VALUE_DATE_OBS_UUID))));
+	}
+	
+	@Test
+	public void searchForObs_shouldOnlyReturnObsInDateRange() {
+		int total = dao.searchForObservations(null, null, null, null, null, null, null, null, null, null).getCount();
+		
+		SearchQuery<Obs> onOrAfter = dao.searchForObservations(null, null, null, null, null, null, null,
+		    new DateRangeParam(new DateParam(ParamPrefixEnum.GREATERTHAN_OR_EQUALS, OBS_DATE)), null, null);
+		SearchQuery<Obs> earlier = dao.searchForObservations(null, null, null, null, null, null, null,
+		    new DateRangeParam(new DateParam(ParamPrefixEnum.LESSTHAN, OBS_DATE)), null, null);
+		
+		Date date = new DateParam(OBS_DATE).getValue();
+		assertThat(onOrAfter.getResults(), not(empty()));
+		assertThat(onOrAfter.getResults(), everyItem(hasProperty("obsDatetime", sameOrAfter(date))));
+		assertThat(earlier.getResults(), everyItem(hasProperty("obsDatetime", before(date))));
+		assertThat(onOrAfter.getCount() + earlier.getCount(), equalTo(total));
 	}
 	
 	@Test
@@ -549,7 +656,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -567,7 +674,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -585,7 +692,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -603,7 +710,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -622,7 +729,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -642,7 +749,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -661,7 +768,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -680,7 +787,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -699,7 +806,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -718,7 +825,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -737,7 +844,7 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		quantityAndListParam.addAnd(quantityOrListParam.add(quantityParam));
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, quantityAndListParam, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -752,11 +859,83 @@ public class FhirObservationDaoImplTest extends BaseModuleContextSensitiveTest {
 		stringAndListParam.addAnd(stringParam);
 		
 		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, stringAndListParam, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
 		assertThat(results, hasItem(hasProperty("uuid", equalTo(OBS_VALUE_CONCEPT_UUID))));
 	}
 	
+	@Test
+	public void searchForObs_shouldExcludeVoidedObsUnlessAskedToIncludeThem() {
+		StringAndListParam stringAndListParam = new StringAndListParam();
+		stringAndListParam.addAnd(new StringParam(VOIDED_OBS_VALUE_STRING));
+		
+		Collection<Obs> results = dao.searchForObservations(null, null, null, null, null, null, stringAndListParam, null,
+		    null, null).getResults();
+		assertThat(results, empty());
+		
+		results = dao.searchForObservations(null, null, null, null, null, null, stringAndListParam, null, null, null, true)
+		        .getResults();
+		assertThat(results, hasSize(1));
+		assertThat(results, hasItem(hasProperty("uuid", equalTo(VOIDED_OBS_UUID))));
+		assertThat(results.iterator().next().getVoided(), equalTo(true));
+	}
+	
+	@Test
+	public void searchForObs_shouldReturnTheSameObsWhenPagingThroughResults() {
+		SearchQuery<Obs> query = dao.searchForObservations(null, null, null, null, null, null, null, null, null, null);
+		
+		assertThatPagesMatchAllResults(query);
+	}
+	
+	@Test
+	public void searchForObs_shouldReturnTheSameObsWhenPagingThroughResultsSortedByDateDescending() {
+		SortSpec sort = new SortSpec();
+		sort.setParamName("date");
+		sort.setOrder(SortOrderEnum.DESC);
+		
+		SearchQuery<Obs> query = dao.searchForObservations(null, null, null, null, null, null, null, null, null, sort);
+		
+		assertThatPagesMatchAllResults(query);
+	}
+	
+	@Test
+	public void searchForObs_shouldClearTheSessionAfterEachBatchOfResults() {
+		SearchQuery<Obs> query = dao.searchForObservations(null, null, null, null, null, null, null, null, null, null);
+		Session session = sessionFactory.getCurrentSession();
+		
+		List<Obs> results = new ArrayList<>();
+		List<Object> associations = new ArrayList<>();
+		query.forEach(PAGE_SIZE, obs -> {
+			if (results.size() % PAGE_SIZE == 0) {
+				// nothing loaded for an earlier batch, results or associations, is still held by the session
+				results.forEach(result -> assertThat(session.contains(result), equalTo(false)));
+				associations.forEach(association -> assertThat(session.contains(association), equalTo(false)));
+			}
+			
+			// loads associations the same way translating an obs would
+			Hibernate.initialize(obs.getConcept());
+			Hibernate.initialize(obs.getPerson());
+			associations.add(obs.getConcept());
+			associations.add(obs.getPerson());
+			results.add(obs);
+		});
+		
+		assertThat(results, hasSize(greaterThan(PAGE_SIZE)));
+		assertThat(session.getStatistics().getEntityCount(), equalTo(0));
+	}
+	
+	private void assertThatPagesMatchAllResults(SearchQuery<Obs> query) {
+		List<String> allResults = query.getResults().stream().map(Obs::getUuid).collect(Collectors.toList());
+		assertThat(allResults, hasSize(greaterThan(PAGE_SIZE)));
+		
+		List<String> pagedResults = new ArrayList<>();
+		for (int i = 0; i < allResults.size(); i += PAGE_SIZE) {
+			query.getResults(i, PAGE_SIZE).stream().map(Obs::getUuid).forEach(pagedResults::add);
+		}
+		
+		assertThat(pagedResults, equalTo(allResults));
+	}
+	
 }
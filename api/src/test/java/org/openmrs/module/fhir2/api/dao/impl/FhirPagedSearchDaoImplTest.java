@@ -0,0 +1,131 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Order;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Patient;
+import org.openmrs.module.fhir2.FhirPagedSearch;
+import org.openmrs.module.fhir2.TestFhirSpringConfiguration;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ContextConfiguration;
+
+@ContextConfiguration(classes = TestFhirSpringConfiguration.class, inheritLocations = false)
+public class FhirPagedSearchDaoImplTest extends BaseModuleContextSensitiveTest {
+	
+	private static final long ONE_HOUR = 60 * 60 * 1000;
+	
+	@Autowired
+	@Qualifier("sessionFactory")
+	private SessionFactory sessionFactory;
+	
+	private FhirPagedSearchDaoImpl dao;
+	
+	private SearchQuery<Patient> searchQuery;
+	
+	@Before
+	public void setup() {
+		dao = new FhirPagedSearchDaoImpl();
+		dao.setSessionFactory(sessionFactory);
+		
+		searchQuery = new CriteriaSearchQuery<>(() -> sessionFactory.getCurrentSession().createCriteria(Patient.class)
+		        .addOrder(Order.asc("patientId")));
+	}
+	
+	@Test
+	public void savePagedSearch_shouldSaveSearchWithTheIdsOfItsResults() {
+		FhirPagedSearch search = dao.savePagedSearch(newSearch(new Date(System.currentTimeMillis() + ONE_HOUR)),
+		    searchQuery);
+		sessionFactory.getCurrentSession().flush();
+		sessionFactory.getCurrentSession().clear();
+		
+		FhirPagedSearch result = dao.getPagedSearchByUuid(search.getUuid());
+		
+		assertThat(result, notNullValue());
+		assertThat(result.getEntityName(), equalTo(Patient.class.getName()));
+		assertThat(result.getTotal(), equalTo(searchQuery.getCount()));
+		assertThat(toUuids(dao.getResults(result, 0, result.getTotal())), equalTo(toUuids(searchQuery.getResults())));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void savePagedSearch_shouldNotSaveQueriesWhichAreNotBuiltFromCriteria() {
+		assertThat(dao.savePagedSearch(newSearch(new Date(System.currentTimeMillis() + ONE_HOUR)),
+		    mock(SearchQuery.class)), nullValue());
+	}
+	
+	@Test
+	public void getResults_shouldLoadRequestedPageFromStoredIds() {
+		FhirPagedSearch search = dao.savePagedSearch(newSearch(new Date(System.currentTimeMillis() + ONE_HOUR)),
+		    searchQuery);
+		sessionFactory.getCurrentSession().clear();
+		
+		List<?> results = dao.getResults(search, 1, 2);
+		
+		assertThat(results, hasSize(2));
+		assertThat(toUuids(results), equalTo(toUuids(searchQuery.getResults(1, 2))));
+	}
+	
+	@Test
+	public void getResults_shouldReturnEmptyListPastTheLastResult() {
+		FhirPagedSearch search = dao.savePagedSearch(newSearch(new Date(System.currentTimeMillis() + ONE_HOUR)),
+		    searchQuery);
+		
+		assertThat(dao.getResults(search, search.getTotal(), 2), empty());
+	}
+	
+	@Test
+	public void getPagedSearchByUuid_shouldReturnNullForUnknownSearch() {
+		assertThat(dao.getPagedSearchByUuid("c57ab3ee-7ae5-4a3c-a8b4-0cc9ba9d4a2e"), nullValue());
+	}
+	
+	@Test
+	public void deletePagedSearchesExpiredBefore_shouldDeleteOnlyExpiredSearches() {
+		Date now = new Date();
+		FhirPagedSearch expired = dao.savePagedSearch(newSearch(new Date(now.getTime() - ONE_HOUR)), searchQuery);
+		FhirPagedSearch current = dao.savePagedSearch(newSearch(new Date(now.getTime() + ONE_HOUR)), searchQuery);
+		
+		int deleted = dao.deletePagedSearchesExpiredBefore(now);
+		sessionFactory.getCurrentSession().clear();
+		
+		assertThat(deleted, equalTo(1));
+		assertThat(dao.getPagedSearchByUuid(expired.getUuid()), nullValue());
+		assertThat(dao.getPagedSearchByUuid(current.getUuid()), notNullValue());
+	}
+	
+	private FhirPagedSearch newSearch(Date expires) {
+		FhirPagedSearch search = new FhirPagedSearch();
+		search.setResourceType("Patient");
+		search.setDateCreated(new Date());
+		search.setExpires(expires);
+		return search;
+	}
+	
+	private List<String> toUuids(List<?> results) {
+		return results.stream().map(result -> ((Patient) result).getUuid()).collect(Collectors.toList());
+	}
+}
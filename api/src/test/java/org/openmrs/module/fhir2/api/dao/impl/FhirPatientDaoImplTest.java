@@ -38,6 +38,7 @@ import static org.openmrs.util.OpenmrsUtil.compareWithNullAsGreatest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import ca.uhn.fhir.rest.api.SortOrderEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
@@ -49,12 +50,15 @@ import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
 import org.hamcrest.comparator.ComparatorMatcherBuilder;
 import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Projections;
 import org.junit.Before;
 import org.junit.Test;
 import org.openmrs.Patient;
 import org.openmrs.PersonAddress;
 import org.openmrs.PersonName;
 import org.openmrs.module.fhir2.TestFhirSpringConfiguration;
+import org.openmrs.module.fhir2.api.search.PersonNameTokenSearch;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.test.BaseModuleContextSensitiveTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
@@ -192,7 +196,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByName() {
 		Collection<Patient> results = dao.searchForPatients(new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME)),
-		    null, null, null, null, null, null, null, null, null, null, null, null);
+		    null, null, null, null, null, null, null, null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -203,28 +207,101 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldReturnMultiplePatientsForPartialMatch() {
 		Collection<Patient> results = dao.searchForPatients(
 		    new StringOrListParam().add(new StringParam(PATIENT_PARTIAL_GIVEN_NAME)), null, null, null, null, null, null,
-		    null, null, null, null, null, null);
+		    null, null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
 		assertThat(results.size(), greaterThan(1));
 	}
 	
+	@Test
+	public void searchForPatients_shouldCountMatchingPatients() {
+		SearchQuery<Patient> results = dao.searchForPatients(
+		    new StringOrListParam().add(new StringParam(PATIENT_PARTIAL_GIVEN_NAME)), null, null, null, null, null, null,
+		    null, null, null, null, null, null);
+		
+		assertThat(results.getCount(), greaterThan(1));
+		assertThat(results.getCount(), equalTo(results.getResults().size()));
+	}
+	
+	@Test
+	public void searchForPatients_shouldReturnPatientOnceWhenSeveralNamesMatch() {
+		Patient patient = dao.getPatientByUuid(PATIENT_UUID);
+		PersonName otherName = new PersonName(patient.getGivenName(), null, PATIENT_NOT_FOUND_NAME);
+		patient.addName(otherName);
+		sessionFactory.getCurrentSession().saveOrUpdate(patient);
+		sessionFactory.getCurrentSession().flush();
+		
+		SearchQuery<Patient> results = dao.searchForPatients(null,
+		    new StringOrListParam().add(new StringParam(patient.getGivenName()).setExact(true)), null, null, null, null,
+		    null, null, null, null, null, null, null);
+		
+		assertThat(results.getResults(), hasItem(hasProperty("uuid", equalTo(PATIENT_UUID))));
+		assertThat(results.getResults().stream().filter(p -> PATIENT_UUID.equals(p.getUuid())).count(), equalTo(1L));
+		assertThat(results.getCount(), equalTo(results.getResults().size()));
+	}
+	
+	@Test
+	public void searchForPatients_shouldIgnoreSortWhenCountingPatients() {
+		SortSpec sort = new SortSpec();
+		sort.setParamName(SP_NAME);
+		sort.setOrder(SortOrderEnum.ASC);
+		
+		SearchQuery<Patient> results = dao.searchForPatients(null, null, null, null, null, null, null, null, null, null,
+		    null, null, sort);
+		
+		assertThat(results.getCount(), equalTo(results.getResults().size()));
+	}
+	
 	@Test
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientNameNotMatched() {
 		Collection<Patient> results = dao.searchForPatients(
 		    new StringOrListParam().add(new StringParam(PATIENT_NOT_FOUND_NAME)), null, null, null, null, null, null, null,
-		    null, null, null, null, null);
+		    null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, empty());
 	}
 	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void searchForPatients_shouldSearchForPatientsByNameTokens() {
+		FhirPersonNameTokenDaoImpl personNameTokenDao = new FhirPersonNameTokenDaoImpl();
+		personNameTokenDao.setSessionFactory(sessionFactory);
+		personNameTokenDao.saveNameTokens(sessionFactory.getCurrentSession().createCriteria(PersonName.class).list());
+		dao.setPersonNameTokenSearch(new PersonNameTokenSearch());
+		
+		Collection<Patient> results = dao.searchForPatients(
+		    new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME.toUpperCase())), null, null, null, null, null,
+		    null, null, null, null, null, null, null).getResults();
+		
+		assertThat(results, not(empty()));
+		assertThat(results, everyItem(hasProperty("givenName", equalTo(PATIENT_GIVEN_NAME))));
+		
+		results = dao.searchForPatients(new StringOrListParam().add(new StringParam("annet").setContains(true)), null, null,
+		    null, null, null, null, null, null, null, null, null, null).getResults();
+		
+		assertThat(results, not(empty()));
+		assertThat(results, everyItem(hasProperty("givenName", equalTo(PATIENT_GIVEN_NAME))));
+		
+		results = dao.searchForPatients(new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME).setExact(true)),
+		    null, null, null, null, null, null, null, null, null, null, null, null).getResults();
+		
+		assertThat(results, not(empty()));
+		assertThat(results, everyItem(hasProperty("givenName", equalTo(PATIENT_GIVEN_NAME))));
+		
+		results = dao.searchForPatients(
+		    new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME.substring(0, 3)).setExact(true)), null, null,
+		    null, null, null, null, null, null, null, null, null, null).getResults();
+		
+		assertThat(results, empty());
+	}
+	
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByGivenName() {
 		Collection<Patient> results = dao.searchForPatients(null,
 		    new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME)), null, null, null, null, null, null, null, null,
-		    null, null, null);
+		    null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -235,7 +312,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldReturnMultiplePatientsForPartialMatchOnGivenName() {
 		Collection<Patient> results = dao.searchForPatients(null,
 		    new StringOrListParam().add(new StringParam(PATIENT_PARTIAL_GIVEN_NAME)), null, null, null, null, null, null,
-		    null, null, null, null, null);
+		    null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -246,7 +323,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientGivenNameNotMatched() {
 		Collection<Patient> results = dao.searchForPatients(null,
 		    new StringOrListParam().add(new StringParam(PATIENT_NOT_FOUND_NAME)), null, null, null, null, null, null, null,
-		    null, null, null, null);
+		    null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, empty());
@@ -256,7 +333,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldSearchForPatientsByFamilyName() {
 		Collection<Patient> results = dao.searchForPatients(null, null,
 		    new StringOrListParam().add(new StringParam(PATIENT_FAMILY_NAME)), null, null, null, null, null, null, null,
-		    null, null, null);
+		    null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -267,7 +344,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldReturnMultiplePatientsForPartialMatchOnFamilyName() {
 		Collection<Patient> results = dao.searchForPatients(null, null,
 		    new StringOrListParam().add(new StringParam(PATIENT_PARTIAL_FAMILY_NAME)), null, null, null, null, null, null,
-		    null, null, null, null);
+		    null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -278,7 +355,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientFamilyNameNotMatched() {
 		Collection<Patient> results = dao.searchForPatients(null, null,
 		    new StringOrListParam().add(new StringParam(PATIENT_NOT_FOUND_NAME)), null, null, null, null, null, null, null,
-		    null, null, null);
+		    null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, empty());
@@ -288,7 +365,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldSearchForPatientsByIdentifier() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null,
 		    new TokenOrListParam().add(new TokenParam(null, PATIENT_IDENTIFIER)), null, null, null, null, null, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -299,7 +376,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldSearchForPatientsByIdentifierWithType() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null,
 		    new TokenOrListParam().add(new TokenParam(PATIENT_IDENTIFIER_TYPE, PATIENT_IDENTIFIER)), null, null, null, null,
-		    null, null, null, null, null);
+		    null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -310,7 +387,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldReturnEmptyCollectionWhenIdentifierNotMatched() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null,
 		    new TokenOrListParam().add(new TokenParam(PATIENT_IDENTIFIER_TYPE, BAD_PATIENT_IDENTIFIER)), null, null, null,
-		    null, null, null, null, null, null);
+		    null, null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, empty());
@@ -320,7 +397,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldReturnEmptyCollectionWhenIdentifierTypeNotMatched() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null,
 		    new TokenOrListParam().add(new TokenParam(BAD_PATIENT_IDENTIFIER_TYPE, PATIENT_IDENTIFIER)), null, null, null,
-		    null, null, null, null, null, null);
+		    null, null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, empty());
@@ -331,7 +408,8 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 		final String GENDER_PROPERTY = "gender";
 		
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null,
-		    new TokenOrListParam().add(new TokenParam(PATIENT_MALE_GENDER)), null, null, null, null, null, null, null, null);
+		    new TokenOrListParam().add(new TokenParam(PATIENT_MALE_GENDER)), null, null, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -339,7 +417,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		results = dao.searchForPatients(null, null, null, null,
 		    new TokenOrListParam().add(new TokenParam(PATIENT_FEMALE_GENDER)), null, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -350,7 +428,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldReturnEmptyCollectionWhenGenderNotMatched() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null,
 		    new TokenOrListParam().add(new TokenParam(PATIENT_WRONG_GENDER)), null, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, empty());
@@ -359,7 +437,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByBirthDate() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null,
-		    new DateRangeParam(new DateParam(PATIENT_BIRTHDATE)), null, null, null, null, null, null, null);
+		    new DateRangeParam(new DateParam(PATIENT_BIRTHDATE)), null, null, null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -369,7 +447,8 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForPatients_shouldTruncateBirthDateToDay() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null,
-		    new DateRangeParam(new DateParam(PATIENT_BIRTHDATE_WITH_TIME)), null, null, null, null, null, null, null);
+		    new DateRangeParam(new DateParam(PATIENT_BIRTHDATE_WITH_TIME)), null, null, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -379,7 +458,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByBirthDateWithLowerBound() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null,
-		    new DateRangeParam().setLowerBound(PATIENT_BIRTHDATE), null, null, null, null, null, null, null);
+		    new DateRangeParam().setLowerBound(PATIENT_BIRTHDATE), null, null, null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -390,7 +469,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByBirthDateWithUpperBound() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null,
-		    new DateRangeParam().setUpperBound(PATIENT_BIRTHDATE), null, null, null, null, null, null, null);
+		    new DateRangeParam().setUpperBound(PATIENT_BIRTHDATE), null, null, null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -402,7 +481,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void searchForPatients_shouldSearchForPatientsByBirthDateWithinBoundaries() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null,
 		    new DateRangeParam().setLowerBound(PATIENT_BIRTHDATE_LOWER_BOUND).setUpperBound(PATIENT_BIRTHDATE), null, null,
-		    null, null, null, null, null);
+		    null, null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -413,17 +492,28 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByCity() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null, null, null, null,
-		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_CITY)), null, null, null, null);
+		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_CITY)), null, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
 		assertThat(results.iterator().next().getUuid(), equalTo(PATIENT_ADDRESS_PATIENT_UUID));
 	}
 	
+	@Test
+	public void searchForPatients_shouldNotReturnVoidedPatients() {
+		dao.getPatientByUuid(PATIENT_ADDRESS_PATIENT_UUID).setVoided(true);
+		sessionFactory.getCurrentSession().flush();
+		
+		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null, null, null, null,
+		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_CITY)), null, null, null, null).getResults();
+		
+		assertThat(results, not(hasItem(hasProperty("uuid", equalTo(PATIENT_ADDRESS_PATIENT_UUID)))));
+	}
+	
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByState() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null, null, null, null, null,
-		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_STATE)), null, null, null);
+		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_STATE)), null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -433,7 +523,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForPatients_shouldSearchForPatientsCountry() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null, null, null, null, null, null, null,
-		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_COUNTRY)), null);
+		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_COUNTRY)), null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -443,7 +533,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByPostalCode() {
 		Collection<Patient> results = dao.searchForPatients(null, null, null, null, null, null, null, null, null, null,
-		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_POSTAL_CODE)), null, null);
+		    new StringOrListParam().add(new StringParam(PATIENT_ADDRESS_POSTAL_CODE)), null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -471,6 +561,62 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 		}
 	}
 	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldReturnCollectionOfPatientsSortedByGivenNameUsingSortKeys() {
+		FhirPersonNameTokenDaoImpl personNameTokenDao = new FhirPersonNameTokenDaoImpl();
+		personNameTokenDao.setSessionFactory(sessionFactory);
+		personNameTokenDao.saveSortKeys(sessionFactory.getCurrentSession().createCriteria(Patient.class)
+		        .setProjection(Projections.id()).list());
+		dao.setPersonNameTokenSearch(new PersonNameTokenSearch());
+		
+		SortSpec sort = new SortSpec();
+		sort.setParamName(SP_GIVEN);
+		sort.setOrder(SortOrderEnum.ASC);
+		
+		List<Patient> people = getPatientListForSorting(sort);
+		
+		for (int i = 1; i < people.size(); i++) {
+			assertThat(people.get(i - 1).getGivenName().toLowerCase(),
+			    lessThanOrEqualTo(people.get(i).getGivenName().toLowerCase()));
+		}
+		
+		sort.setOrder(SortOrderEnum.DESC);
+		
+		people = getPatientListForSorting(sort);
+		
+		for (int i = 1; i < people.size(); i++) {
+			assertThat(people.get(i - 1).getGivenName().toLowerCase(),
+			    greaterThanOrEqualTo(people.get(i).getGivenName().toLowerCase()));
+		}
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldPageThroughPatientsSortedByFamilyNameUsingSortKeys() {
+		FhirPersonNameTokenDaoImpl personNameTokenDao = new FhirPersonNameTokenDaoImpl();
+		personNameTokenDao.setSessionFactory(sessionFactory);
+		personNameTokenDao.saveSortKeys(sessionFactory.getCurrentSession().createCriteria(Patient.class)
+		        .setProjection(Projections.id()).list());
+		dao.setPersonNameTokenSearch(new PersonNameTokenSearch());
+		
+		SortSpec sort = new SortSpec();
+		sort.setParamName(SP_FAMILY);
+		sort.setOrder(SortOrderEnum.ASC);
+		
+		SearchQuery<Patient> searchQuery = dao.searchForPatients(null, null, null, null, null, null, null, null, null,
+		    null, null, null, sort);
+		List<Patient> patients = searchQuery.getResults();
+		
+		List<Patient> pages = new ArrayList<>(searchQuery.getResults(0, 2));
+		pages.addAll(searchQuery.getResults(2, patients.size()));
+		
+		assertThat(patients, hasSize(searchQuery.getCount()));
+		assertThat(pages, equalTo(patients));
+		assertThat(searchQuery.getUuids(),
+		    equalTo(patients.stream().map(Patient::getUuid).collect(Collectors.toList())));
+	}
+	
 	@Test
 	public void shouldReturnCollectionOfPatientsSortedByGivenName() {
 		SortSpec sort = new SortSpec();
@@ -645,7 +791,7 @@ public class FhirPatientDaoImplTest extends BaseModuleContextSensitiveTest {
 	
 	private List<Patient> getPatientListForSorting(SortSpec sort) {
 		Collection<Patient> patients = dao.searchForPatients(null, null, null, null, null, null, null, null, null, null,
-		    null, null, sort);
+		    null, null, sort).getResults();
 		
 		assertThat(patients, notNullValue());
 		assertThat(patients, not(empty()));
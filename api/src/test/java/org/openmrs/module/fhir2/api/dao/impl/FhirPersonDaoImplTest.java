@@ -92,6 +92,10 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	
 	private static final String NOT_FOUND_BIRTH_DATE = "0001-01-01";
 	
+	private static final String VOIDED_PERSON_UUID = "0b5a0a8e-cb7b-4d5e-8b52-4f7a1c0f3a9d";
+	
+	private static final String VOIDED_PERSON_BIRTH_DATE = "1985-06-15";
+	
 	private static final String PERSON_ATTRIBUTE_TYPE_UUID = "14d4f066-15f5-102d-96e4-000c29c2a5d7";
 	
 	private static final String CITY = "Indianapolis";
@@ -168,7 +172,7 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnCollectionOfPeopleForMatchOnPersonName() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PERSON_NAME));
 		Collection<Person> people = fhirPersonDao.searchForPeople(stringOrListParam, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people.size(), greaterThanOrEqualTo(1));
@@ -178,7 +182,7 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnCollectionOfPeopleForPartialMatchOnPersonName() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PERSON_PARTIAL_NAME));
 		Collection<Person> people = fhirPersonDao.searchForPeople(stringOrListParam, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people.size(), greaterThanOrEqualTo(1));
@@ -188,7 +192,7 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnEmptyCollectionForNoMatchOnPersonName() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(NOT_FOUND_NAME));
 		Collection<Person> people = fhirPersonDao.searchForPeople(stringOrListParam, null, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		assertThat(people, is(empty()));
 	}
 	
@@ -196,35 +200,35 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnCollectionOfPeopleForMatchingGender() {
 		final String GENDER_PROPERTY = "gender";
 		Collection<Person> people = fhirPersonDao.searchForPeople(null, new TokenOrListParam().add(MALE_GENDER), null, null,
-		    null, null, null, null);
+		    null, null, null, null).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people, everyItem(hasProperty(GENDER_PROPERTY, equalTo("M"))));
 		
 		people = fhirPersonDao.searchForPeople(null, new TokenOrListParam().add(FEMALE_GENDER), null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people, everyItem(hasProperty(GENDER_PROPERTY, equalTo("F"))));
 		
 		people = fhirPersonDao.searchForPeople(null, new TokenOrListParam().add(OTHER_GENDER), null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people, everyItem(hasProperty(GENDER_PROPERTY, nullValue())));
 		
 		people = fhirPersonDao.searchForPeople(null, new TokenOrListParam().add(NULL_GENDER), null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people, everyItem(hasProperty(GENDER_PROPERTY, nullValue())));
 		
 		people = fhirPersonDao.searchForPeople(null, new TokenOrListParam().add(UNKNOWN_GENDER), null, null, null, null,
-		    null, null);
+		    null, null).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
@@ -235,7 +239,7 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnEmptyCollectionForNoMatchOnGender() {
 		TokenOrListParam tokenOrListParam = new TokenOrListParam().add(WRONG_GENDER);
 		Collection<Person> people = fhirPersonDao.searchForPeople(null, tokenOrListParam, null, null, null, null, null,
-		    null);
+		    null).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people, is(empty()));
@@ -244,7 +248,8 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	@Test
 	public void shouldReturnCollectionOfPeopleForMatchOnBirthDate() throws ParseException {
 		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(BIRTH_DATE).setUpperBound(BIRTH_DATE);
-		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, dateRangeParam, null, null, null, null, null);
+		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, dateRangeParam, null, null, null, null,
+		    null).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people.size(), greaterThanOrEqualTo(1));
@@ -256,16 +261,33 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnEmptyCollectionForNoMatchOnBirthDate() throws ParseException {
 		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(NOT_FOUND_BIRTH_DATE)
 		        .setUpperBound(NOT_FOUND_BIRTH_DATE);
-		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, dateRangeParam, null, null, null, null, null);
+		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, dateRangeParam, null, null, null, null,
+		    null).getResults();
 		assertThat(people, notNullValue());
 		assertThat(people, empty());
 	}
 	
+	@Test
+	public void searchForPeople_shouldExcludeVoidedPeopleUnlessAskedToIncludeThem() {
+		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(VOIDED_PERSON_BIRTH_DATE)
+		        .setUpperBound(VOIDED_PERSON_BIRTH_DATE);
+		
+		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, dateRangeParam, null, null, null, null,
+		    null).getResults();
+		assertThat(people, empty());
+		
+		people = fhirPersonDao.searchForPeople(null, null, dateRangeParam, null, null, null, null, null, true)
+		        .getResults();
+		assertThat(people.size(), equalTo(1));
+		assertThat(people.iterator().next().getUuid(), equalTo(VOIDED_PERSON_UUID));
+		assertThat(people.iterator().next().getPersonVoided(), is(true));
+	}
+	
 	@Test
 	public void shouldReturnCollectionOfPeopleForMatchOnCity() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(CITY));
 		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, null, stringOrListParam, null, null, null,
-		    null);
+		    null).getResults();
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people.size(), greaterThanOrEqualTo(1));
@@ -277,7 +299,7 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnCollectionOfPeopleForMatchOnState() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(STATE));
 		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, null, null, stringOrListParam, null, null,
-		    null);
+		    null).getResults();
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people.size(), greaterThanOrEqualTo(1));
@@ -289,7 +311,7 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnCollectionOfPeopleForMatchOnPostalCode() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(POSTAL_CODE));
 		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, null, null, null, stringOrListParam, null,
-		    null);
+		    null).getResults();
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people.size(), greaterThanOrEqualTo(1));
@@ -301,7 +323,7 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	public void shouldReturnCollectionOfPeopleForMatchOnCountry() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(COUNTRY));
 		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, null, null, null, null, stringOrListParam,
-		    null);
+		    null).getResults();
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
 		assertThat(people.size(), greaterThanOrEqualTo(1));
@@ -452,7 +474,7 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 		StringOrListParam countryParam = new StringOrListParam().add(new StringParam(COUNTRY));
 		
 		Collection<Person> people = fhirPersonDao.searchForPeople(nameParam, genderParam, birthDateParam, cityParam,
-		    stateParam, postalCodeParam, countryParam, null);
+		    stateParam, postalCodeParam, countryParam, null).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
@@ -475,7 +497,8 @@ public class FhirPersonDaoImplTest extends BaseModuleContextSensitiveTest {
 	}
 	
 	private List<Person> getPersonListForSorting(SortSpec sort) {
-		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, null, null, null, null, null, sort);
+		Collection<Person> people = fhirPersonDao.searchForPeople(null, null, null, null, null, null, null,
+		    sort).getResults();
 		
 		assertThat(people, notNullValue());
 		assertThat(people, not(empty()));
@@ -307,7 +307,7 @@ public class FhirTaskDaoImplTest extends BaseModuleContextSensitiveTest {
 		ReferenceParam basedOnReference = new ReferenceParam();
 		basedOnReference.setValue(FhirConstants.SERVICE_REQUEST + "/" + BASED_ON_ORDER_UUID);
 		
-		Collection<FhirTask> results = dao.searchForTasks(basedOnReference, null, null, null);
+		Collection<FhirTask> results = dao.searchForTasks(basedOnReference, null, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -323,7 +323,7 @@ public class FhirTaskDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		executeDataSet(TASK_DATA_OWNER_XML);
 		
-		Collection<FhirTask> results = dao.searchForTasks(null, ownerReference, null, null);
+		Collection<FhirTask> results = dao.searchForTasks(null, ownerReference, null, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -336,7 +336,7 @@ public class FhirTaskDaoImplTest extends BaseModuleContextSensitiveTest {
 		TokenOrListParam status = new TokenOrListParam(FhirConstants.TASK_STATUS_VALUE_SET_URI,
 		        Task.TaskStatus.ACCEPTED.toString());
 		
-		Collection<FhirTask> results = dao.searchForTasks(null, null, status, null);
+		Collection<FhirTask> results = dao.searchForTasks(null, null, status, null).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -349,7 +349,7 @@ public class FhirTaskDaoImplTest extends BaseModuleContextSensitiveTest {
 		sort.setParamName("date");
 		sort.setOrder(SortOrderEnum.ASC);
 		
-		Collection<FhirTask> results = dao.searchForTasks(null, null, null, sort);
+		Collection<FhirTask> results = dao.searchForTasks(null, null, null, sort).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -363,7 +363,7 @@ public class FhirTaskDaoImplTest extends BaseModuleContextSensitiveTest {
 		
 		sort.setOrder(SortOrderEnum.DESC);
 		
-		results = dao.searchForTasks(null, null, null, sort);
+		results = dao.searchForTasks(null, null, null, sort).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -382,7 +382,7 @@ public class FhirTaskDaoImplTest extends BaseModuleContextSensitiveTest {
 		sort.setParamName("date");
 		sort.setOrder(SortOrderEnum.DESC);
 		
-		Collection<FhirTask> baseline = dao.searchForTasks(null, null, null, sort);
+		Collection<FhirTask> baseline = dao.searchForTasks(null, null, null, sort).getResults();
 		
 		assertThat(baseline, notNullValue());
 		assertThat(baseline, not(empty()));
@@ -392,7 +392,7 @@ public class FhirTaskDaoImplTest extends BaseModuleContextSensitiveTest {
 		subSort.setParamName("dummy");
 		subSort.setOrder(SortOrderEnum.ASC);
 		
-		Collection<FhirTask> results = dao.searchForTasks(null, null, null, sort);
+		Collection<FhirTask> results = dao.searchForTasks(null, null, null, sort).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
@@ -417,7 +417,7 @@ public class FhirTaskDaoImplTest extends BaseModuleContextSensitiveTest {
 		sort.setOrder(SortOrderEnum.DESC);
 		
 		// TODO: figure out fk integrity issue with setting owner_reference_id in the initial_data.xml file
-		Collection<FhirTask> results = dao.searchForTasks(null, ownerReference, status, sort);
+		Collection<FhirTask> results = dao.searchForTasks(null, ownerReference, status, sort).getResults();
 		
 		assertThat(results, notNullValue());
 		assertThat(results, not(empty()));
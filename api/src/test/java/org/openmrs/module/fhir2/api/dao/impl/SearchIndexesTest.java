@@ -0,0 +1,248 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.dao.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import ca.uhn.fhir.rest.api.SortOrderEnum;
+import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.param.ReferenceAndListParam;
+import ca.uhn.fhir.rest.param.ReferenceOrListParam;
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import ca.uhn.fhir.rest.param.TokenAndListParam;
+import ca.uhn.fhir.rest.param.TokenOrListParam;
+import ca.uhn.fhir.rest.param.TokenParam;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Test;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.TestFhirSpringConfiguration;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.orm.hibernate4.SessionHolder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Checks that the search indexes added by the module's change sets are used by the database for the
+ * queries the DAOs generate. Each search is run through its DAO with Hibernate's statements captured,
+ * each index is created exactly as defined in {@code liquibase.xml} and the plan of the captured
+ * statement is compared before and after.
+ */
+@ContextConfiguration(classes = TestFhirSpringConfiguration.class, inheritLocations = false)
+public class SearchIndexesTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String OBS_INDEX = "fhir_obs_person_concept_datetime_idx";
+	
+	private static final String ENCOUNTER_INDEX = "fhir_encounter_patient_datetime_idx";
+	
+	private static final String TASK_INDEX = "fhir_task_status_date_changed_idx";
+	
+	private static final String REFERENCE_INDEX = "fhir_reference_reference_type_idx";
+	
+	private static final String PATIENT_UUID = "5946f880-b197-400b-9caa-a3c661d23041";
+	
+	private static final String CONCEPT_ID = "5089";
+	
+	private static final String BASED_ON_ORDER_UUID = "7d0c4b0c-e4b4-4b4a-9f43-0f9a4d4b7f6a";
+	
+	@Autowired
+	@Qualifier("sessionFactory")
+	private SessionFactory sessionFactory;
+	
+	@Autowired
+	private FhirObservationDaoImpl observationDao;
+	
+	@Autowired
+	private FhirEncounterDaoImpl encounterDao;
+	
+	@Autowired
+	private FhirTaskDaoImpl taskDao;
+	
+	private final List<String> createdIndexes = new ArrayList<>();
+	
+	@After
+	public void tearDown() {
+		for (String index : createdIndexes) {
+			execute("drop index if exists " + index);
+		}
+	}
+	
+	@Test
+	public void shouldUseObsIndexForObservationsOfPatientByCode() {
+		TokenAndListParam code = new TokenAndListParam()
+		        .addAnd(new TokenOrListParam().add(new TokenParam().setValue(CONCEPT_ID)));
+		
+		assertIndexUsed(OBS_INDEX, () -> observationDao.searchForObservations(null, patientReference(), null, null, null,
+		    null, null, null, code, null));
+	}
+	
+	@Test
+	public void shouldUseEncounterIndexForEncountersOfPatient() {
+		assertIndexUsed(ENCOUNTER_INDEX, () -> encounterDao.searchForEncounters(null, null, null, patientReference()));
+	}
+	
+	@Test
+	public void shouldUseTaskIndexForTasksByStatus() {
+		SortSpec sort = new SortSpec();
+		sort.setParamName("date");
+		sort.setOrder(SortOrderEnum.ASC);
+		
+		assertIndexUsed(TASK_INDEX, () -> taskDao.searchForTasks(null, null,
+		    new TokenOrListParam(FhirConstants.TASK_STATUS_VALUE_SET_URI, "REQUESTED"), sort));
+	}
+	
+	@Test
+	public void shouldUseReferenceIndexForTasksByBasedOnReference() {
+		ReferenceParam basedOnReference = new ReferenceParam();
+		basedOnReference.setValue(FhirConstants.SERVICE_REQUEST + "/" + BASED_ON_ORDER_UUID);
+		
+		assertIndexUsed(REFERENCE_INDEX, () -> taskDao.searchForTasks(basedOnReference, null, null, null));
+	}
+	
+	private void assertIndexUsed(String indexName, Supplier<SearchQuery<?>> search) {
+		String query = captureSearchSql(search);
+		
+		assertThat(explain(query), not(containsString(indexName.toUpperCase(Locale.ROOT))));
+		
+		createIndex(indexName);
+		
+		assertThat(query, explain(query), containsString(indexName.toUpperCase(Locale.ROOT)));
+	}
+	
+	private static ReferenceAndListParam patientReference() {
+		return new ReferenceAndListParam().addAnd(new ReferenceOrListParam().add(new ReferenceParam(PATIENT_UUID)));
+	}
+	
+	/**
+	 * Runs the first page of a search on a session which records every statement Hibernate prepares.
+	 * The session shares the connection of the current one, so it sees the same data, and stands in
+	 * for it as the current session while the search runs.
+	 *
+	 * @return the SQL of the search itself, i.e. the first statement the search prepared
+	 */
+	private String captureSearchSql(Supplier<SearchQuery<?>> search) {
+		StatementCapturingInterceptor interceptor = new StatementCapturingInterceptor();
+		Connection connection = sessionFactory.getCurrentSession().doReturningWork(c -> c);
+		Session capturingSession = sessionFactory.withOptions().connection(connection).interceptor(interceptor)
+		        .openSession();
+		
+		Object currentSession = TransactionSynchronizationManager.unbindResource(sessionFactory);
+		SessionHolder capturingSessionHolder = new SessionHolder(capturingSession);
+		// stops Spring from registering the session with the test's transaction
+		capturingSessionHolder.setSynchronizedWithTransaction(true);
+		TransactionSynchronizationManager.bindResource(sessionFactory, capturingSessionHolder);
+		try {
+			search.get().getResults(0, 10);
+		}
+		finally {
+			TransactionSynchronizationManager.unbindResource(sessionFactory);
+			TransactionSynchronizationManager.bindResource(sessionFactory, currentSession);
+			capturingSession.close();
+		}
+		
+		assertThat("The search did not run any SQL", interceptor.statements, not(empty()));
+		return interceptor.statements.get(0);
+	}
+	
+	private void createIndex(String indexName) {
+		Element createIndex = findCreateIndex(indexName);
+		assertThat("No change set creates " + indexName, createIndex, notNullValue());
+		
+		List<String> columns = new ArrayList<>();
+		NodeList columnElements = createIndex.getElementsByTagName("column");
+		for (int i = 0; i < columnElements.getLength(); i++) {
+			columns.add(((Element) columnElements.item(i)).getAttribute("name"));
+		}
+		
+		execute(String.format("create index %s on %s (%s)", indexName, createIndex.getAttribute("tableName"),
+		    String.join(", ", columns)));
+		createdIndexes.add(indexName);
+	}
+	
+	private Element findCreateIndex(String indexName) {
+		try (InputStream changeLog = getClass().getClassLoader().getResourceAsStream("liquibase.xml")) {
+			NodeList createIndexes = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(changeLog)
+			        .getElementsByTagName("createIndex");
+			for (int i = 0; i < createIndexes.getLength(); i++) {
+				Element createIndex = (Element) createIndexes.item(i);
+				if (indexName.equals(createIndex.getAttribute("indexName"))) {
+					return createIndex;
+				}
+			}
+			
+			return null;
+		}
+		catch (Exception e) {
+			throw new IllegalStateException("Could not read liquibase.xml", e);
+		}
+	}
+	
+	private String explain(String query) {
+		return sessionFactory.getCurrentSession().doReturningWork(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("explain " + query)) {
+				// the plan is chosen without the values of the parameters, but they must all be set
+				for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+					statement.setObject(i, null);
+				}
+				
+				try (ResultSet plan = statement.executeQuery()) {
+					StringBuilder result = new StringBuilder();
+					while (plan.next()) {
+						result.append(plan.getString(1)).append('\n');
+					}
+					
+					return result.toString().toUpperCase(Locale.ROOT);
+				}
+			}
+		});
+	}
+	
+	private void execute(String sql) {
+		sessionFactory.getCurrentSession().doWork(connection -> {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute(sql);
+			}
+		});
+	}
+	
+	private static class StatementCapturingInterceptor extends EmptyInterceptor {
+		
+		private final List<String> statements = new ArrayList<>();
+		
+		@Override
+		public String onPrepareStatement(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.export;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import ca.uhn.fhir.context.FhirContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.Patient;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.dao.FhirBulkExportDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.translators.AllergyIntoleranceTranslator;
+import org.openmrs.module.fhir2.api.translators.EncounterTranslator;
+import org.openmrs.module.fhir2.api.translators.ObservationTranslator;
+import org.openmrs.module.fhir2.api.translators.PatientTranslator;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkExportWriterTest {
+	
+	private static final String PATIENT_UUID = "a7e04421-525f-442f-8138-05b619d16def";
+	
+	private static final String OTHER_PATIENT_UUID = "5946f880-b197-400b-9caa-a3c661d23041";
+	
+	private static final String PATIENT_ENTITY = Patient.class.getName();
+	
+	private static final FhirContext fhirContext = FhirContext.forR4();
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	@Mock
+	private FhirBulkExportDao dao;
+	
+	@Mock
+	private PatientTranslator patientTranslator;
+	
+	@Mock
+	private ObservationTranslator observationTranslator;
+	
+	@Mock
+	private EncounterTranslator encounterTranslator;
+	
+	@Mock
+	private AllergyIntoleranceTranslator allergyIntoleranceTranslator;
+	
+	@Mock
+	private SearchQuery<Object> searchQuery;
+	
+	private BulkExportWriter writer;
+	
+	private Patient patient;
+	
+	private Patient otherPatient;
+	
+	@Before
+	public void setup() {
+		writer = new BulkExportWriter();
+		writer.setFhirContext(fhirContext);
+		writer.setDao(dao);
+		writer.setPatientTranslator(patientTranslator);
+		writer.setObservationTranslator(observationTranslator);
+		writer.setEncounterTranslator(encounterTranslator);
+		writer.setAllergyIntoleranceTranslator(allergyIntoleranceTranslator);
+		
+		patient = new Patient(1);
+		otherPatient = new Patient(2);
+	}
+	
+	@Test
+	public void getResourceTypes_shouldNotIncludeConditionsWithoutConditionTranslator() {
+		assertThat(writer.getResourceTypes(), contains(FhirConstants.PATIENT, FhirConstants.ENCOUNTER,
+		    FhirConstants.OBSERVATION, FhirConstants.ALLERGY_INTOLERANCE));
+	}
+	
+	@Test
+	public void write_shouldWriteEachResourceAsLineOfGzippedFile() throws IOException {
+		BulkExportJob job = createJob(Arrays.asList(1, 2), FhirConstants.PATIENT);
+		when(dao.searchForExport(PATIENT_ENTITY, null, Arrays.asList(1, 2), null)).thenReturn(searchQuery);
+		returnResults(patient, otherPatient);
+		when(patientTranslator.toFhirResource(patient)).thenReturn(fhirPatient(PATIENT_UUID));
+		when(patientTranslator.toFhirResource(otherPatient)).thenReturn(fhirPatient(OTHER_PATIENT_UUID));
+		
+		writer.write(job);
+		
+		assertThat(job.getOutputs(),
+		    contains(new BulkExportJob.Output(FhirConstants.PATIENT, "Patient" + BulkExportWriter.FILE_EXTENSION, 2)));
+		assertThat(job.getExportedCount(), equalTo(2L));
+		
+		List<String> lines = readLines(new File(job.getDirectory(), "Patient" + BulkExportWriter.FILE_EXTENSION));
+		assertThat(lines.stream().map(this::toResourceId).collect(Collectors.toList()),
+		    contains(PATIENT_UUID, OTHER_PATIENT_UUID));
+	}
+	
+	@Test
+	public void write_shouldNotRecordFileForResourceTypeWithoutResources() throws IOException {
+		BulkExportJob job = createJob(Collections.singletonList(1), FhirConstants.PATIENT);
+		when(dao.searchForExport(PATIENT_ENTITY, null, Collections.singletonList(1), null)).thenReturn(searchQuery);
+		
+		writer.write(job);
+		
+		assertThat(job.getOutputs(), empty());
+		assertThat(new File(job.getDirectory(), "Patient" + BulkExportWriter.FILE_EXTENSION).exists(), equalTo(false));
+	}
+	
+	@Test
+	public void write_shouldExportEveryPatientInBatchesWhenNotLimitedToPatients() throws IOException {
+		List<Integer> firstBatch = IntStream.rangeClosed(1, BulkExportWriter.PATIENT_BATCH_SIZE).boxed()
+		        .collect(Collectors.toList());
+		List<Integer> secondBatch = Collections.singletonList(BulkExportWriter.PATIENT_BATCH_SIZE + 1);
+		
+		BulkExportJob job = createJob(null, FhirConstants.PATIENT);
+		when(dao.getPatientIds(null, BulkExportWriter.PATIENT_BATCH_SIZE)).thenReturn(firstBatch);
+		when(dao.getPatientIds(BulkExportWriter.PATIENT_BATCH_SIZE, BulkExportWriter.PATIENT_BATCH_SIZE))
+		        .thenReturn(secondBatch);
+		when(dao.searchForExport(eq(PATIENT_ENTITY), isNull(), any(), isNull())).thenReturn(searchQuery);
+		
+		writer.write(job);
+		
+		verify(dao).searchForExport(PATIENT_ENTITY, null, firstBatch, null);
+		verify(dao).searchForExport(PATIENT_ENTITY, null, secondBatch, null);
+		verify(dao, times(2)).clearSession();
+	}
+	
+	@Test(expected = CancellationException.class)
+	public void write_shouldStopWhenExportIsCancelled() throws IOException {
+		BulkExportJob job = createJob(Arrays.asList(1, 2), FhirConstants.PATIENT);
+		when(dao.searchForExport(PATIENT_ENTITY, null, Arrays.asList(1, 2), null)).thenReturn(searchQuery);
+		returnResults(patient, otherPatient);
+		job.cancel();
+		
+		try {
+			writer.write(job);
+		}
+		finally {
+			verify(patientTranslator, never()).toFhirResource(any());
+		}
+	}
+	
+	private BulkExportJob createJob(List<Integer> patientIds, String... resourceTypes) throws IOException {
+		return new BulkExportJob("job", "http://localhost/$export", null, patientIds, Arrays.asList(resourceTypes), null,
+		        temporaryFolder.newFolder());
+	}
+	
+	private void returnResults(Object... results) {
+		doAnswer(invocation -> {
+			Consumer<Object> action = invocation.getArgument(1);
+			Arrays.stream(results).forEach(action);
+			return null;
+		}).when(searchQuery).forEach(anyInt(), any());
+	}
+	
+	private org.hl7.fhir.r4.model.Patient fhirPatient(String uuid) {
+		org.hl7.fhir.r4.model.Patient fhirPatient = new org.hl7.fhir.r4.model.Patient();
+		fhirPatient.setId(uuid);
+		return fhirPatient;
+	}
+	
+	private String toResourceId(String line) {
+		return fhirContext.newJsonParser().parseResource(line).getIdElement().getIdPart();
+	}
+	
+	private List<String> readLines(File file) throws IOException {
+		try (BufferedReader reader = new BufferedReader(
+		        new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+			return reader.lines().collect(Collectors.toList());
+		}
+	}
+}
@@ -16,19 +16,22 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.ReferenceOrListParam;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.AllergyIntolerance;
 import org.hl7.fhir.r4.model.Patient;
 import org.junit.Before;
@@ -38,6 +41,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.Allergy;
 import org.openmrs.module.fhir2.api.dao.FhirAllergyIntoleranceDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.module.fhir2.api.translators.AllergyIntoleranceTranslator;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -56,6 +60,9 @@ public class FhirAllergyIntoleranceServiceImplTest {
 	@Mock
 	private FhirAllergyIntoleranceDao allergyIntoleranceDao;
 	
+	@Mock
+	private SearchQuery<Allergy> searchQuery;
+	
 	@Mock
 	private AllergyIntoleranceTranslator translator;
 	
@@ -97,7 +104,7 @@ public class FhirAllergyIntoleranceServiceImplTest {
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesByIdentifier() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		ReferenceAndListParam patientParam = new ReferenceAndListParam();
 		ReferenceParam referenceParam = new ReferenceParam();
@@ -108,17 +115,18 @@ public class FhirAllergyIntoleranceServiceImplTest {
 		patientParam.addValue(new ReferenceOrListParam().add(referenceParam));
 		
 		when(allergyIntoleranceDao.searchForAllergies(argThat(equalTo(patientParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(patientParam, null, null,
-		    null, null, null);
+		    isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(patientParam, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesByPatientGivenName() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		ReferenceAndListParam patientParam = new ReferenceAndListParam();
 		ReferenceParam referenceParam = new ReferenceParam();
@@ -129,17 +137,18 @@ public class FhirAllergyIntoleranceServiceImplTest {
 		patientParam.addValue(new ReferenceOrListParam().add(referenceParam));
 		
 		when(allergyIntoleranceDao.searchForAllergies(argThat(equalTo(patientParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(patientParam, null, null,
-		    null, null, null);
+		    isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(patientParam, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesByPatientFamilyName() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		ReferenceAndListParam patientParam = new ReferenceAndListParam();
 		ReferenceParam referenceParam = new ReferenceParam();
@@ -150,17 +159,18 @@ public class FhirAllergyIntoleranceServiceImplTest {
 		patientParam.addValue(new ReferenceOrListParam().add(referenceParam));
 		
 		when(allergyIntoleranceDao.searchForAllergies(argThat(equalTo(patientParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(patientParam, null, null,
-		    null, null, null);
+		    isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(patientParam, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesByPatientName() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		ReferenceAndListParam patientParam = new ReferenceAndListParam();
 		ReferenceParam referenceParam = new ReferenceParam();
@@ -171,91 +181,101 @@ public class FhirAllergyIntoleranceServiceImplTest {
 		patientParam.addValue(new ReferenceOrListParam().add(referenceParam));
 		
 		when(allergyIntoleranceDao.searchForAllergies(argThat(equalTo(patientParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(patientParam, null, null,
-		    null, null, null);
+		    isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(patientParam, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesByCategory() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		
 		TokenOrListParam category = new TokenOrListParam();
 		category.addOr(new TokenParam().setValue("food"));
 		
 		when(allergyIntoleranceDao.searchForAllergies(isNull(), argThat(equalTo(category)), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(null, category, null, null,
-		    null, null);
+		    isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(null, category, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesByAllergen() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		
 		TokenAndListParam allergen = new TokenAndListParam();
 		allergen.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODED_ALLERGEN_UUID)));
 		
 		when(allergyIntoleranceDao.searchForAllergies(isNull(), isNull(), argThat(equalTo(allergen)), isNull(), isNull(),
-		    isNull())).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(null, null, allergen, null,
-		    null, null);
+		    isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(null, null, allergen, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesBySeverity() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		
 		TokenOrListParam severity = new TokenOrListParam();
 		severity.addOr(new TokenParam().setValue(SEVERITY_CONCEPT_UUID));
 		
 		when(allergyIntoleranceDao.searchForAllergies(isNull(), isNull(), isNull(), argThat(equalTo(severity)), isNull(),
-		    isNull())).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(null, null, null, severity,
-		    null, null);
+		    isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(null, null, null, severity, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesByManifestation() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		
 		TokenAndListParam manifestation = new TokenAndListParam();
 		manifestation.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODED_REACTION_UUID)));
 		
 		when(allergyIntoleranceDao.searchForAllergies(isNull(), isNull(), isNull(), isNull(),
-		    argThat(equalTo(manifestation)), isNull())).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(null, null, null, null,
-		    manifestation, null);
+		    argThat(equalTo(manifestation)), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(null, null, null, null, manifestation, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForAllergies_shouldSearchForAllergiesByClinicalStatus() {
-		Collection<Allergy> allergies = new ArrayList<>();
+		List<Allergy> allergies = new ArrayList<>();
 		allergies.add(omrsAllergy);
 		
 		TokenOrListParam status = new TokenOrListParam();
 		status.addOr(new TokenParam().setValue("active"));
 		
 		when(allergyIntoleranceDao.searchForAllergies(isNull(), isNull(), isNull(), isNull(), isNull(),
-		    argThat(equalTo(status)))).thenReturn(allergies);
-		Collection<org.hl7.fhir.r4.model.AllergyIntolerance> results = service.searchForAllergies(null, null, null, null,
-		    null, status);
+		    argThat(equalTo(status)))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(allergies);
+		IBundleProvider results = service.searchForAllergies(null, null, null, null, null, status);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
+	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
 	}
 }
@@ -0,0 +1,92 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openmrs.api.APIAuthenticationException;
+import org.openmrs.api.context.Context;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.TestFhirSpringConfiguration;
+import org.openmrs.module.fhir2.api.export.BulkExportJob;
+import org.openmrs.test.BaseModuleContextSensitiveTest;
+import org.springframework.test.context.ContextConfiguration;
+
+@ContextConfiguration(classes = TestFhirSpringConfiguration.class, inheritLocations = false)
+public class FhirBulkExportServiceImplTest extends BaseModuleContextSensitiveTest {
+	
+	private static final String REQUEST_URL = "http://localhost:8080/fhir2Servlet/$export";
+	
+	private static final String FILE_NAME = "Observation.ndjson.gz";
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	private FhirBulkExportServiceImpl bulkExportService;
+	
+	@Before
+	public void setup() {
+		bulkExportService = new FhirBulkExportServiceImpl();
+		bulkExportService.setExportDirectory(temporaryFolder.getRoot());
+		// exports are never run, only started
+		bulkExportService.setExecutor(runnable -> {});
+	}
+	
+	@Test
+	public void startExport_shouldRecordTheUserWhoStartedTheExport() {
+		BulkExportJob job = startExport();
+		
+		assertThat(job.getRequestedBy(), equalTo(Context.getAuthenticatedUser().getUuid()));
+		assertThat(bulkExportService.getExport(job.getId()), sameInstance(job));
+	}
+	
+	@Test(expected = APIAuthenticationException.class)
+	public void startExport_shouldRequireTheBulkExportPrivilege() {
+		Context.logout();
+		
+		startExport();
+	}
+	
+	@Test
+	public void getExport_shouldNotReturnExportsStartedByAnotherUser() {
+		BulkExportJob job = startExport();
+		
+		Context.logout();
+		
+		assertThat(bulkExportService.getExport(job.getId()), nullValue());
+		assertThat(bulkExportService.getExportFile(job.getId(), FILE_NAME), nullValue());
+	}
+	
+	@Test
+	public void cancelExport_shouldNotCancelExportsStartedByAnotherUser() {
+		BulkExportJob job = startExport();
+		
+		Context.logout();
+		assertThat(bulkExportService.cancelExport(job.getId()), nullValue());
+		
+		authenticate();
+		assertThat(job.isCancelled(), equalTo(false));
+		assertThat(bulkExportService.cancelExport(job.getId()), sameInstance(job));
+		assertThat(job.isCancelled(), equalTo(true));
+	}
+	
+	private BulkExportJob startExport() {
+		return bulkExportService.startExport(Collections.singleton(FhirConstants.OBSERVATION), null, REQUEST_URL);
+	}
+}
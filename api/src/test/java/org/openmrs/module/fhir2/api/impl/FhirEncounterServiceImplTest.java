@@ -17,18 +17,22 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateParam;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.ReferenceOrListParam;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import org.hamcrest.Matchers;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Location;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.Practitioner;
@@ -39,6 +43,8 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.Encounter;
 import org.openmrs.module.fhir2.api.dao.FhirEncounterDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchQueryInclude;
 import org.openmrs.module.fhir2.api.translators.EncounterTranslator;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -57,9 +63,15 @@ public class FhirEncounterServiceImplTest {
 	@Mock
 	private FhirEncounterDao dao;
 	
+	@Mock
+	private SearchQuery<Encounter> searchQuery;
+	
 	@Mock
 	private EncounterTranslator encounterTranslator;
 	
+	@Mock
+	private SearchQueryInclude searchQueryInclude;
+	
 	private FhirEncounterServiceImpl encounterService;
 	
 	private org.openmrs.Encounter openMrsEncounter;
@@ -71,6 +83,7 @@ public class FhirEncounterServiceImplTest {
 		encounterService = new FhirEncounterServiceImpl();
 		encounterService.setDao(dao);
 		encounterService.setTranslator(encounterTranslator);
+		encounterService.setSearchQueryInclude(searchQueryInclude);
 		
 		openMrsEncounter = new Encounter();
 		openMrsEncounter.setUuid(ENCOUNTER_UUID);
@@ -91,21 +104,23 @@ public class FhirEncounterServiceImplTest {
 	
 	@Test
 	public void searchForEncounter_shouldReturnCollectionOfEncounterByDate() {
-		Collection<Encounter> encounters = new ArrayList<>();
+		List<Encounter> encounters = new ArrayList<>();
 		DateRangeParam dateRangeParam = new DateRangeParam(new DateParam(ENCOUNTER_DATETIME));
 		
 		encounters.add(openMrsEncounter);
 		
 		fhirEncounter.setId(ENCOUNTER_UUID);
-		when(dao.searchForEncounters(argThat(is(dateRangeParam)), any(), any(), any())).thenReturn(encounters);
+		when(dao.searchForEncounters(argThat(is(dateRangeParam)), any(), any(), any(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(encounters);
 		when(encounterTranslator.toFhirResource(openMrsEncounter)).thenReturn(fhirEncounter);
 		
-		Collection<org.hl7.fhir.r4.model.Encounter> results = encounterService.searchForEncounters(dateRangeParam, null,
-		    null, null);
+		IBundleProvider results = encounterService.searchForEncounters(dateRangeParam, null, null, null, null, null, false);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, Matchers.notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.iterator().next().getId(), equalTo(ENCOUNTER_UUID));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.iterator().next().getIdElement().getIdPart(), equalTo(ENCOUNTER_UUID));
 	}
 	
 	@Test
@@ -115,19 +130,21 @@ public class FhirEncounterServiceImplTest {
 		location.addValue(new ReferenceOrListParam()
 		        .add(new ReferenceParam().setValue(ENCOUNTER_ADDRESS_STATE).setChain(Location.SP_ADDRESS_CITY)));
 		
-		Collection<Encounter> encounters = new ArrayList<>();
+		List<Encounter> encounters = new ArrayList<>();
 		encounters.add(openMrsEncounter);
 		fhirEncounter.setId(ENCOUNTER_UUID);
 		
-		when(dao.searchForEncounters(any(), argThat(is(location)), any(), any())).thenReturn(encounters);
+		when(dao.searchForEncounters(any(), argThat(is(location)), any(), any(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(encounters);
 		when(encounterTranslator.toFhirResource(openMrsEncounter)).thenReturn(fhirEncounter);
 		
-		Collection<org.hl7.fhir.r4.model.Encounter> results = encounterService.searchForEncounters(null, location, null,
-		    null);
+		IBundleProvider results = encounterService.searchForEncounters(null, location, null, null, null, null, false);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, Matchers.notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -137,20 +154,22 @@ public class FhirEncounterServiceImplTest {
 		participant.addValue(new ReferenceOrListParam()
 		        .add(new ReferenceParam().setValue(PARTICIPANT_IDENTIFIER).setChain(Practitioner.SP_IDENTIFIER)));
 		
-		Collection<Encounter> encounters = new ArrayList<>();
+		List<Encounter> encounters = new ArrayList<>();
 		encounters.add(openMrsEncounter);
 		
 		fhirEncounter.setId(ENCOUNTER_UUID);
 		
-		when(dao.searchForEncounters(any(), any(), argThat(is(participant)), any())).thenReturn(encounters);
+		when(dao.searchForEncounters(any(), any(), argThat(is(participant)), any(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(encounters);
 		when(encounterTranslator.toFhirResource(openMrsEncounter)).thenReturn(fhirEncounter);
 		
-		Collection<org.hl7.fhir.r4.model.Encounter> results = encounterService.searchForEncounters(null, null, participant,
-		    null);
+		IBundleProvider results = encounterService.searchForEncounters(null, null, participant, null, null, null, false);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, Matchers.notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -160,19 +179,25 @@ public class FhirEncounterServiceImplTest {
 		subject.addValue(
 		    new ReferenceOrListParam().add(new ReferenceParam().setValue(PATIENT_FAMILY_NAME).setChain(Patient.SP_FAMILY)));
 		
-		Collection<Encounter> encounters = new ArrayList<>();
+		List<Encounter> encounters = new ArrayList<>();
 		encounters.add(openMrsEncounter);
 		
 		fhirEncounter.setId(ENCOUNTER_UUID);
 		
-		when(dao.searchForEncounters(any(), any(), any(), argThat(is(subject)))).thenReturn(encounters);
+		when(dao.searchForEncounters(any(), any(), any(), argThat(is(subject)), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(encounters);
 		when(encounterTranslator.toFhirResource(openMrsEncounter)).thenReturn(fhirEncounter);
 		
-		Collection<org.hl7.fhir.r4.model.Encounter> results = encounterService.searchForEncounters(null, null, null,
-		    subject);
+		IBundleProvider results = encounterService.searchForEncounters(null, null, null, subject, null, null, false);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, Matchers.notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
+	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
 	}
 }
@@ -14,6 +14,9 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
@@ -25,6 +28,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.GlobalProperty;
 import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.dao.FhirGlobalPropertyDao;
 
@@ -82,4 +86,66 @@ public class FhirGlobalPropertyServiceImplTest {
 		assertThat(values.size(), greaterThanOrEqualTo(1));
 		assertThat(values.get(FhirConstants.GLOBAL_PROPERTY_MODERATE), CoreMatchers.equalTo(GLOBAL_PROPERTY_MODERATE));
 	}
+	
+	@Test
+	public void shouldOnlyReadCachedGlobalPropertyOnce() {
+		FhirGlobalPropertyCache cache = enableCache();
+		when(fhirGlobalPropertyDao.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE)).thenReturn(PERSON_ATTRIBUTE_TYPE_UUID);
+		
+		globalPropertyService.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE);
+		String personAttributeTypeUuid = globalPropertyService.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE);
+		globalPropertyService.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE_NOT_FOUND);
+		globalPropertyService.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE_NOT_FOUND);
+		
+		assertThat(cache.isEnabled(), equalTo(true));
+		assertThat(personAttributeTypeUuid, equalTo(PERSON_ATTRIBUTE_TYPE_UUID));
+		verify(fhirGlobalPropertyDao, times(1)).getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE);
+		verify(fhirGlobalPropertyDao, times(1)).getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE_NOT_FOUND);
+	}
+	
+	@Test
+	public void shouldReturnChangedGlobalPropertyWithoutReadingIt() {
+		FhirGlobalPropertyCache cache = enableCache();
+		when(fhirGlobalPropertyDao.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE)).thenReturn(PERSON_ATTRIBUTE_TYPE_UUID);
+		globalPropertyService.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE);
+		
+		cache.globalPropertyChanged(new GlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE, GLOBAL_PROPERTY_MODERATE));
+		assertThat(globalPropertyService.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE), equalTo(GLOBAL_PROPERTY_MODERATE));
+		
+		cache.globalPropertyDeleted(PERSON_ATTRIBUTE_TYPE_VALUE);
+		assertThat(globalPropertyService.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE), nullValue());
+		
+		verify(fhirGlobalPropertyDao, times(1)).getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE);
+	}
+	
+	@Test
+	public void shouldOnlyReadUncachedGlobalProperties() {
+		enableCache();
+		Map<String, String> uuids = new HashMap<>();
+		uuids.put(FhirConstants.GLOBAL_PROPERTY_MODERATE, GLOBAL_PROPERTY_MODERATE);
+		when(fhirGlobalPropertyDao.getGlobalProperties(FhirConstants.GLOBAL_PROPERTY_MODERATE,
+		    FhirConstants.GLOBAL_PROPERTY_SEVERE)).thenReturn(uuids);
+		when(fhirGlobalPropertyDao.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE)).thenReturn(PERSON_ATTRIBUTE_TYPE_UUID);
+		
+		globalPropertyService.getGlobalProperties(FhirConstants.GLOBAL_PROPERTY_MODERATE,
+		    FhirConstants.GLOBAL_PROPERTY_SEVERE);
+		globalPropertyService.getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE);
+		Map<String, String> values = globalPropertyService.getGlobalProperties(FhirConstants.GLOBAL_PROPERTY_MODERATE,
+		    FhirConstants.GLOBAL_PROPERTY_SEVERE, PERSON_ATTRIBUTE_TYPE_VALUE);
+		
+		assertThat(values.size(), equalTo(2));
+		assertThat(values.get(FhirConstants.GLOBAL_PROPERTY_MODERATE), equalTo(GLOBAL_PROPERTY_MODERATE));
+		assertThat(values.get(PERSON_ATTRIBUTE_TYPE_VALUE), equalTo(PERSON_ATTRIBUTE_TYPE_UUID));
+		verify(fhirGlobalPropertyDao, times(1)).getGlobalProperties(FhirConstants.GLOBAL_PROPERTY_MODERATE,
+		    FhirConstants.GLOBAL_PROPERTY_SEVERE);
+		verify(fhirGlobalPropertyDao, times(1)).getGlobalProperty(PERSON_ATTRIBUTE_TYPE_VALUE);
+		verifyNoMoreInteractions(fhirGlobalPropertyDao);
+	}
+	
+	private FhirGlobalPropertyCache enableCache() {
+		FhirGlobalPropertyCache cache = new FhirGlobalPropertyCache();
+		cache.setEnabled(true);
+		globalPropertyService.setCache(cache);
+		return cache;
+	}
 }
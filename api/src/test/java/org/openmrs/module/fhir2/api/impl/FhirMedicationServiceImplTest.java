@@ -14,19 +14,22 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Medication;
 import org.junit.Before;
 import org.junit.Test;
@@ -35,6 +38,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.Drug;
 import org.openmrs.module.fhir2.api.dao.FhirMedicationDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.module.fhir2.api.translators.MedicationTranslator;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -52,6 +56,9 @@ public class FhirMedicationServiceImplTest {
 	@Mock
 	private FhirMedicationDao medicationDao;
 	
+	@Mock
+	private SearchQuery<Drug> searchQuery;
+	
 	private FhirMedicationServiceImpl fhirMedicationService;
 	
 	private Medication medication;
@@ -90,62 +97,70 @@ public class FhirMedicationServiceImplTest {
 	
 	@Test
 	public void searchForMedications_shouldSearchMedicationsByCode() {
-		Collection<Drug> medications = new ArrayList<>();
+		List<Drug> medications = new ArrayList<>();
 		medications.add(drug);
 		
 		TokenAndListParam code = new TokenAndListParam();
 		code.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODE)));
 		
 		when(medicationDao.searchForMedications(argThat(equalTo(code)), isNull(), isNull(), isNull()))
-		        .thenReturn(medications);
-		Collection<Medication> result = fhirMedicationService.searchForMedications(code, null, null, null);
-		assertThat(result.isEmpty(), equalTo(false));
-		assertThat(result.size(), greaterThanOrEqualTo(1));
+		        .thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(medications);
+		IBundleProvider result = fhirMedicationService.searchForMedications(code, null, null, null);
+		List<IBaseResource> resultList = get(result);
+		assertThat(resultList.isEmpty(), equalTo(false));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForMedications_shouldSearchMedicationsByDosageForm() {
-		Collection<Drug> medications = new ArrayList<>();
+		List<Drug> medications = new ArrayList<>();
 		medications.add(drug);
 		
 		TokenAndListParam dosageForm = new TokenAndListParam();
 		dosageForm.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODE)));
 		
 		when(medicationDao.searchForMedications(isNull(), argThat(equalTo(dosageForm)), isNull(), isNull()))
-		        .thenReturn(medications);
-		Collection<Medication> result = fhirMedicationService.searchForMedications(null, dosageForm, null, null);
-		assertThat(result.isEmpty(), equalTo(false));
-		assertThat(result.size(), greaterThanOrEqualTo(1));
+		        .thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(medications);
+		IBundleProvider result = fhirMedicationService.searchForMedications(null, dosageForm, null, null);
+		List<IBaseResource> resultList = get(result);
+		assertThat(resultList.isEmpty(), equalTo(false));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForMedications_shouldSearchMedicationsByIngredientCode() {
-		Collection<Drug> medications = new ArrayList<>();
+		List<Drug> medications = new ArrayList<>();
 		medications.add(drug);
 		
 		TokenOrListParam ingredientCode = new TokenOrListParam();
 		ingredientCode.addOr(new TokenParam().setValue(CODE));
 		
 		when(medicationDao.searchForMedications(isNull(), isNull(), argThat(equalTo(ingredientCode)), isNull()))
-		        .thenReturn(medications);
-		Collection<Medication> result = fhirMedicationService.searchForMedications(null, null, ingredientCode, null);
-		assertThat(result.isEmpty(), equalTo(false));
-		assertThat(result.size(), greaterThanOrEqualTo(1));
+		        .thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(medications);
+		IBundleProvider result = fhirMedicationService.searchForMedications(null, null, ingredientCode, null);
+		List<IBaseResource> resultList = get(result);
+		assertThat(resultList.isEmpty(), equalTo(false));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForMedications_shouldSearchMedicationsByStatus() {
-		Collection<Drug> medications = new ArrayList<>();
+		List<Drug> medications = new ArrayList<>();
 		medications.add(drug);
 		
 		TokenOrListParam status = new TokenOrListParam();
 		status.addOr(new TokenParam().setValue("inactive"));
 		
 		when(medicationDao.searchForMedications(isNull(), isNull(), isNull(), argThat(equalTo(status))))
-		        .thenReturn(medications);
-		Collection<Medication> result = fhirMedicationService.searchForMedications(null, null, null, status);
-		assertThat(result.isEmpty(), equalTo(false));
-		assertThat(result.size(), greaterThanOrEqualTo(1));
+		        .thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(medications);
+		IBundleProvider result = fhirMedicationService.searchForMedications(null, null, null, status);
+		List<IBaseResource> resultList = get(result);
+		assertThat(resultList.isEmpty(), equalTo(false));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -207,4 +222,8 @@ public class FhirMedicationServiceImplTest {
 		assertThat(result, notNullValue());
 		assertThat(result.getStatus(), equalTo(Medication.MedicationStatus.INACTIVE));
 	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
+	}
 }
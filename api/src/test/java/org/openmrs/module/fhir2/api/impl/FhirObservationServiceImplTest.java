@@ -17,11 +17,15 @@ import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Observation;
 import org.junit.Before;
 import org.junit.Test;
@@ -30,6 +34,8 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.Obs;
 import org.openmrs.module.fhir2.api.dao.FhirObservationDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchQueryInclude;
 import org.openmrs.module.fhir2.api.translators.ObservationTranslator;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -40,9 +46,15 @@ public class FhirObservationServiceImplTest {
 	@Mock
 	FhirObservationDao dao;
 	
+	@Mock
+	SearchQuery<Obs> searchQuery;
+	
 	@Mock
 	ObservationTranslator observationTranslator;
 	
+	@Mock
+	SearchQueryInclude searchQueryInclude;
+	
 	private FhirObservationServiceImpl fhirObservationService;
 	
 	@Before
@@ -50,6 +62,7 @@ public class FhirObservationServiceImplTest {
 		fhirObservationService = new FhirObservationServiceImpl();
 		fhirObservationService.setDao(dao);
 		fhirObservationService.setObservationTranslator(observationTranslator);
+		fhirObservationService.setSearchQueryInclude(searchQueryInclude);
 	}
 	
 	@Test
@@ -69,21 +82,28 @@ public class FhirObservationServiceImplTest {
 	
 	@Test
 	public void searchForObservations_shouldReturnObservationsByParameters() {
-		Collection<Obs> obs = new ArrayList<>();
+		List<Obs> obs = new ArrayList<>();
 		Obs ob = new Obs();
 		ob.setUuid(OBS_UUID);
 		obs.add(ob);
 		Observation observation = new Observation();
 		observation.setId(OBS_UUID);
-		when(dao.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-		        .thenReturn(obs);
+		when(dao.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), eq(false)))
+		        .thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(obs);
 		when(observationTranslator.toFhirResource(ob)).thenReturn(observation);
 		
-		Collection<Observation> results = fhirObservationService.searchForObservations(null, null, null, null, null, null,
-		    null, null, null, null);
+		IBundleProvider results = fhirObservationService.searchForObservations(null, null, null, null, null, null, null,
+		    null, null, null, null, false);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results, hasItem(hasProperty("id", equalTo(OBS_UUID))));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList, hasItem(hasProperty("id", equalTo(OBS_UUID))));
+	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
 	}
 }
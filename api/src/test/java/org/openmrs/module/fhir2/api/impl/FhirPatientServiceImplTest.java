@@ -16,6 +16,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
@@ -23,14 +24,16 @@ import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.HumanName;
 import org.junit.Before;
 import org.junit.Test;
@@ -41,6 +44,7 @@ import org.openmrs.Patient;
 import org.openmrs.PersonAddress;
 import org.openmrs.PersonName;
 import org.openmrs.module.fhir2.api.dao.FhirPatientDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.module.fhir2.api.translators.PatientTranslator;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -86,6 +90,9 @@ public class FhirPatientServiceImplTest {
 	@Mock
 	private FhirPatientDao dao;
 	
+	@Mock
+	private SearchQuery<Patient> searchQuery;
+	
 	private FhirPatientServiceImpl patientService;
 	
 	private org.hl7.fhir.r4.model.Patient fhirPatient;
@@ -136,146 +143,182 @@ public class FhirPatientServiceImplTest {
 	
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByName() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME));
 		when(dao.searchForPatients(argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(patients);
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(stringOrListParam, null, null,
-		    null, null, null, null, null, null, null, null, null, null);
+		IBundleProvider results = patientService.searchForPatients(stringOrListParam, null, null, null, null, null, null,
+		    null, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), equalTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), equalTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByGivenName() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME));
 		when(dao.searchForPatients(isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(patients);
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
+		
+		IBundleProvider results = patientService.searchForPatients(null, stringOrListParam, null, null, null, null, null,
+		    null, null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, stringOrListParam, null,
-		    null, null, null, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), equalTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), equalTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldSearchForPatientsByFamilyName() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PATIENT_FAMILY_NAME));
 		when(dao.searchForPatients(isNull(), isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(patients);
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, stringOrListParam,
-		    null, null, null, null, null, null, null, null, null, null);
+		IBundleProvider results = patientService.searchForPatients(null, null, stringOrListParam, null, null, null, null,
+		    null, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), equalTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), equalTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnCollectionOfPatientsForPartialMatchOnGivenName() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PATIENT_PARTIAL_GIVEN_NAME));
 		when(dao.searchForPatients(isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(patients);
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
+		
+		IBundleProvider results = patientService.searchForPatients(null, stringOrListParam, null, null, null, null, null,
+		    null, null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, stringOrListParam, null,
-		    null, null, null, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnCollectionOfPatientsForPartialMatchOnFamilyName() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PATIENT_PARTIAL_FAMILY_NAME));
 		when(dao.searchForPatients(isNull(), isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(patients);
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, stringOrListParam, null, null, null, null,
+		    null, null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, stringOrListParam,
-		    null, null, null, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientNameNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME_NOT_MATCHED));
+		when(dao.searchForPatients(argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
+		
+		IBundleProvider results = patientService.searchForPatients(stringOrListParam, null, null, null, null, null, null,
+		    null, null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(stringOrListParam, null, null,
-		    null, null, null, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, is(empty()));
+		assertThat(resultList, is(empty()));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientGivenNameNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PATIENT_GIVEN_NAME_NOT_MATCHED));
+		when(dao.searchForPatients(isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(), isNull(),
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
+		
+		IBundleProvider results = patientService.searchForPatients(null, stringOrListParam, null, null, null, null, null,
+		    null, null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, stringOrListParam, null,
-		    null, null, null, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, is(empty()));
+		assertThat(resultList, is(empty()));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientFamilyNameNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PATIENT_FAMILY_NAME_NOT_MATCHED));
+		when(dao.searchForPatients(isNull(), isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(),
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, stringOrListParam, null, null, null, null,
+		    null, null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, stringOrListParam,
-		    null, null, null, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, is(empty()));
+		assertThat(resultList, is(empty()));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnCollectionOfPatientWhenPatientGenderMatched() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		TokenOrListParam tokenOrListParam = new TokenOrListParam().add(GENDER);
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), argThat(equalTo(tokenOrListParam)), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(patients);
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, tokenOrListParam, null, null,
+		    null, null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null,
-		    tokenOrListParam, null, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientGenderNotMatched() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		TokenOrListParam tokenOrListParam = new TokenOrListParam().add(WRONG_GENDER);
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), argThat(equalTo(tokenOrListParam)), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(Collections.emptyList());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null,
-		    tokenOrListParam, null, null, null, null, null, null, null, null);
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, tokenOrListParam, null, null,
+		    null, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isEmpty(), equalTo(true));
+		assertThat(resultList.isEmpty(), equalTo(true));
 	}
 	
 	@Test
@@ -283,19 +326,22 @@ public class FhirPatientServiceImplTest {
 		Date birthDate = dateFormatter.parse(DATE);
 		patient.setBirthdate(birthDate);
 		
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		
 		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(DATE).setUpperBound(DATE);
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), argThat(equalTo(dateRangeParam)),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(patients);
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, dateRangeParam, null, null,
+		    null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    dateRangeParam, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -303,17 +349,19 @@ public class FhirPatientServiceImplTest {
 		Date birthDate = dateFormatter.parse(DATE);
 		patient.setBirthdate(birthDate);
 		
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		
 		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(UNKNOWN_DATE).setUpperBound(UNKNOWN_DATE);
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), argThat(equalTo(dateRangeParam)),
-		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(Collections.emptyList());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    dateRangeParam, null, null, null, null, null, null, null);
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, dateRangeParam, null, null,
+		    null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
@@ -321,20 +369,23 @@ public class FhirPatientServiceImplTest {
 		Date deathDate = dateFormatter.parse(DATE);
 		patient.setDeathDate(deathDate);
 		
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		
 		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(DATE).setUpperBound(DATE);
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
 		    argThat(equalTo(dateRangeParam)), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(patients);
+		            .thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, dateRangeParam, null, null, null, null, null, null);
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, dateRangeParam, null,
+		    null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -342,35 +393,41 @@ public class FhirPatientServiceImplTest {
 		Date deathDate = dateFormatter.parse(DATE);
 		patient.setDeathDate(deathDate);
 		
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		
 		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(UNKNOWN_DATE).setUpperBound(UNKNOWN_DATE);
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
 		    argThat(equalTo(dateRangeParam)), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.emptyList());
+		            .thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, dateRangeParam, null,
+		    null, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, dateRangeParam, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnCollectionOfPatientWhenPatientCityMatched() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(CITY));
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(), isNull())).thenReturn(patients);
+		    argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, null, null, stringOrListParam, null, null, null, null);
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, null, null,
+		    stringOrListParam, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -378,99 +435,124 @@ public class FhirPatientServiceImplTest {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(UNKNOWN_ADDRESS));
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
 		    argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.emptyList());
+		            .thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, null, null,
+		    stringOrListParam, null, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, null, null, stringOrListParam, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnCollectionOfPatientWhenPatientStateMatched() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(STATE));
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull())).thenReturn(patients);
+		    argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, null, null, null,
+		    stringOrListParam, null, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, null, null, null, stringOrListParam, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientStateNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(UNKNOWN_ADDRESS));
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull())).thenReturn(Collections.emptyList());
+		    argThat(equalTo(stringOrListParam)), isNull(), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, null, null, null, stringOrListParam, null, null, null);
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, null, null, null,
+		    stringOrListParam, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnCollectionOfPatientWhenPatientPostalCodeMatched() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(POSTAL_CODE));
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull())).thenReturn(patients);
+		    isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, null, null, null,
+		    null, stringOrListParam, null, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, null, null, null, null, stringOrListParam, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientPostalCodeNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(UNKNOWN_ADDRESS));
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull())).thenReturn(Collections.emptyList());
+		    isNull(), argThat(equalTo(stringOrListParam)), isNull(), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, null, null, null, null, stringOrListParam, null, null);
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, null, null, null,
+		    null, stringOrListParam, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		;
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnCollectionOfPatientWhenPatientCountryMatched() {
-		Collection<Patient> patients = new ArrayList<>();
+		List<Patient> patients = new ArrayList<>();
 		patients.add(patient);
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(COUNTRY));
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), argThat(equalTo(stringOrListParam)), isNull())).thenReturn(patients);
+		    isNull(), isNull(), argThat(equalTo(stringOrListParam)), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(patients);
+		
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, null, null, null,
+		    null, null, stringOrListParam, null);
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, null, null, null, null, null, stringOrListParam, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnEmptyCollectionWhenPatientCountryNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(UNKNOWN_ADDRESS));
 		when(dao.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), argThat(equalTo(stringOrListParam)), isNull())).thenReturn(Collections.emptyList());
+		    isNull(), isNull(), argThat(equalTo(stringOrListParam)), isNull())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<org.hl7.fhir.r4.model.Patient> results = patientService.searchForPatients(null, null, null, null, null,
-		    null, null, null, null, null, null, stringOrListParam, null);
+		IBundleProvider results = patientService.searchForPatients(null, null, null, null, null, null, null, null, null,
+		    null, null, stringOrListParam, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
+	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
 	}
 }
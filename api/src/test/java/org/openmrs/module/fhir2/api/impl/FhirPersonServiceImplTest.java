@@ -16,20 +16,24 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Person;
 import org.junit.Before;
 import org.junit.Test;
@@ -39,6 +43,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.PersonAddress;
 import org.openmrs.PersonName;
 import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.module.fhir2.api.translators.PersonTranslator;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -81,6 +86,9 @@ public class FhirPersonServiceImplTest {
 	@Mock
 	private FhirPersonDao dao;
 	
+	@Mock
+	private SearchQuery<Person> searchQuery;
+	
 	@Mock
 	private PersonTranslator personTranslator;
 	
@@ -113,64 +121,74 @@ public class FhirPersonServiceImplTest {
 	public void searchForPeople_shouldReturnCollectionOfPersonForGivenNameMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(GIVEN_NAME));
 		when(dao.searchForPeople(argThat(is(stringOrListParam)), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(stringOrListParam, null, null, null, null, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(stringOrListParam, null, null, null, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), equalTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), equalTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnCollectionOfPersonForPartialMatchOnName() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(PERSON_PARTIAL_NAME));
 		when(dao.searchForPeople(argThat(is(stringOrListParam)), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(stringOrListParam, null, null, null, null, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(stringOrListParam, null, null, null, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), equalTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), equalTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnEmptyCollectionWhenPersonNameNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(NOT_FOUND_NAME));
 		when(dao.searchForPeople(argThat(is(stringOrListParam)), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(stringOrListParam, null, null, null, null, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(stringOrListParam, null, null, null, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), equalTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), equalTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnCollectionOfPersonWhenPersonGenderMatched() {
 		TokenOrListParam tokenOrListParam = new TokenOrListParam().add(GENDER);
 		when(dao.searchForPeople(isNull(), argThat(is(tokenOrListParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(null, tokenOrListParam, null, null, null, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, tokenOrListParam, null, null, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnEmptyCollectionWhenPersonGenderNotMatched() {
 		TokenOrListParam tokenOrListParam = new TokenOrListParam().add(WRONG_GENDER);
 		when(dao.searchForPeople(isNull(), argThat(is(tokenOrListParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.emptyList());
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<Person> results = personService.searchForPeople(null, tokenOrListParam, null, null, null, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, tokenOrListParam, null, null, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
@@ -181,12 +199,15 @@ public class FhirPersonServiceImplTest {
 		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(PERSON_BIRTH_DATE)
 		        .setUpperBound(PERSON_BIRTH_DATE);
 		when(dao.searchForPeople(isNull(), isNull(), argThat(is(dateRangeParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(null, null, dateRangeParam, null, null, null, null, null);
+		IBundleProvider results = personService.searchForPeople(null, null, dateRangeParam, null, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -194,111 +215,133 @@ public class FhirPersonServiceImplTest {
 		DateRangeParam dateRangeParam = new DateRangeParam().setLowerBound(NOT_FOUND_PERSON_BIRTH_DATE)
 		        .setUpperBound(NOT_FOUND_PERSON_BIRTH_DATE);
 		when(dao.searchForPeople(isNull(), isNull(), argThat(is(dateRangeParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.emptyList());
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<Person> results = personService.searchForPeople(null, null, dateRangeParam, null, null, null, null, null);
+		IBundleProvider results = personService.searchForPeople(null, null, dateRangeParam, null, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnCollectionOfPersonWhenPersonCityMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(CITY));
 		when(dao.searchForPeople(isNull(), isNull(), isNull(), argThat(is(stringOrListParam)), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(null, null, null, stringOrListParam, null, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, null, null, stringOrListParam, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnEmptyCollectionWhenPersonCityNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(NOT_ADDRESS_FIELD));
 		when(dao.searchForPeople(isNull(), isNull(), isNull(), argThat(is(stringOrListParam)), isNull(), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.emptyList());
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<Person> results = personService.searchForPeople(null, null, null, stringOrListParam, null, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, null, null, stringOrListParam, null, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnCollectionOfPersonWhenPersonStateMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(STATE));
 		when(dao.searchForPeople(isNull(), isNull(), isNull(), isNull(), argThat(is(stringOrListParam)), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(null, null, null, null, stringOrListParam, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, null, null, null, stringOrListParam, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnEmptyCollectionWhenPersonStateNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(NOT_ADDRESS_FIELD));
 		when(dao.searchForPeople(isNull(), isNull(), isNull(), isNull(), argThat(is(stringOrListParam)), isNull(), isNull(),
-		    isNull())).thenReturn(Collections.emptyList());
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<Person> results = personService.searchForPeople(null, null, null, null, stringOrListParam, null, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, null, null, null, stringOrListParam, null, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnCollectionOfPersonWhenPersonPostalCodeMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(POSTAL_CODE));
 		when(dao.searchForPeople(isNull(), isNull(), isNull(), isNull(), isNull(), argThat(is(stringOrListParam)), isNull(),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(null, null, null, null, null, stringOrListParam, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, null, null, null, null, stringOrListParam, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnEmptyCollectionWhenPersonPostalCodeNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(NOT_ADDRESS_FIELD));
 		when(dao.searchForPeople(isNull(), isNull(), isNull(), isNull(), isNull(), argThat(is(stringOrListParam)), isNull(),
-		    isNull())).thenReturn(Collections.emptyList());
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<Person> results = personService.searchForPeople(null, null, null, null, null, stringOrListParam, null,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, null, null, null, null, stringOrListParam, null, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnCollectionOfPersonWhenPersonCountryMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(COUNTRY));
 		when(dao.searchForPeople(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), argThat(is(stringOrListParam)),
-		    isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.singletonList(person));
 		
-		Collection<Person> results = personService.searchForPeople(null, null, null, null, null, null, stringOrListParam,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, null, null, null, null, null, stringOrListParam, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results.size(), greaterThanOrEqualTo(1));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnEmptyCollectionWhenPersonCountryNotMatched() {
 		StringOrListParam stringOrListParam = new StringOrListParam().add(new StringParam(NOT_ADDRESS_FIELD));
 		when(dao.searchForPeople(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), argThat(is(stringOrListParam)),
-		    isNull())).thenReturn(Collections.emptyList());
+		    isNull(), eq(false))).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(Collections.emptyList());
 		
-		Collection<Person> results = personService.searchForPeople(null, null, null, null, null, null, stringOrListParam,
-		    null);
+		IBundleProvider results = personService.searchForPeople(null, null, null, null, null, null, stringOrListParam, null,
+		    false);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results, empty());
+		assertThat(resultList, empty());
 	}
 	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
+	}
 }
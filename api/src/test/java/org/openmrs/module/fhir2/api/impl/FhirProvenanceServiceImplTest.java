@@ -0,0 +1,152 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import org.hl7.fhir.r4.model.Provenance;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.Auditable;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.module.fhir2.api.dao.FhirAllergyIntoleranceDao;
+import org.openmrs.module.fhir2.api.dao.FhirEncounterDao;
+import org.openmrs.module.fhir2.api.dao.FhirLocationDao;
+import org.openmrs.module.fhir2.api.dao.FhirObservationDao;
+import org.openmrs.module.fhir2.api.dao.FhirPatientDao;
+import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
+import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FhirProvenanceServiceImplTest {
+	
+	private static final String PATIENT_UUID = "a7e04421-525f-442f-8138-05b619d16def";
+	
+	private static final String OBS_UUID = "39fb7f47-e80a-4056-9285-bd798be13c63";
+	
+	@Mock
+	private FhirPatientDao patientDao;
+	
+	@Mock
+	private FhirPersonDao personDao;
+	
+	@Mock
+	private FhirObservationDao observationDao;
+	
+	@Mock
+	private FhirEncounterDao encounterDao;
+	
+	@Mock
+	private FhirLocationDao locationDao;
+	
+	@Mock
+	private FhirAllergyIntoleranceDao allergyIntoleranceDao;
+	
+	@Mock
+	private ProvenanceTranslator<Auditable> provenanceTranslator;
+	
+	private FhirProvenanceServiceImpl provenanceService;
+	
+	@Before
+	public void setup() {
+		provenanceService = new FhirProvenanceServiceImpl();
+		provenanceService.setPatientDao(patientDao);
+		provenanceService.setPersonDao(personDao);
+		provenanceService.setObservationDao(observationDao);
+		provenanceService.setEncounterDao(encounterDao);
+		provenanceService.setLocationDao(locationDao);
+		provenanceService.setAllergyIntoleranceDao(allergyIntoleranceDao);
+		provenanceService.setProvenanceTranslator(provenanceTranslator);
+	}
+	
+	@Test
+	public void searchForProvenance_shouldReturnCreateAndUpdateProvenanceOfTarget() {
+		Patient patient = new Patient();
+		patient.setUuid(PATIENT_UUID);
+		when(patientDao.getPatientByUuid(PATIENT_UUID)).thenReturn(patient);
+		when(provenanceTranslator.getCreateProvenance(patient)).thenReturn(new Provenance());
+		when(provenanceTranslator.getUpdateProvenance(patient)).thenReturn(new Provenance());
+		
+		List<Provenance> results = provenanceService.searchForProvenance(new ReferenceParam("Patient/" + PATIENT_UUID));
+		
+		assertThat(results.size(), equalTo(2));
+		assertThat(results.get(0).getIdElement().getIdPart(), equalTo(PATIENT_UUID + "-create"));
+		assertThat(results.get(0).getTargetFirstRep().getReference(), equalTo("Patient/" + PATIENT_UUID));
+		assertThat(results.get(1).getIdElement().getIdPart(), equalTo(PATIENT_UUID + "-update"));
+		assertThat(results.get(1).getTargetFirstRep().getReference(), equalTo("Patient/" + PATIENT_UUID));
+	}
+	
+	@Test
+	public void searchForProvenance_shouldOmitUpdateProvenanceIfTargetHasNotChanged() {
+		Obs obs = new Obs();
+		obs.setUuid(OBS_UUID);
+		when(observationDao.getObsByUuid(OBS_UUID)).thenReturn(obs);
+		when(provenanceTranslator.getCreateProvenance(obs)).thenReturn(new Provenance());
+		
+		List<Provenance> results = provenanceService.searchForProvenance(new ReferenceParam("Observation/" + OBS_UUID));
+		
+		assertThat(results.size(), equalTo(1));
+		assertThat(results.get(0).getIdElement().getIdPart(), equalTo(OBS_UUID + "-create"));
+	}
+	
+	@Test
+	public void searchForProvenance_shouldTryEachResourceTypeIfTargetHasNoType() {
+		Obs obs = new Obs();
+		obs.setUuid(OBS_UUID);
+		when(observationDao.getObsByUuid(OBS_UUID)).thenReturn(obs);
+		when(provenanceTranslator.getCreateProvenance(obs)).thenReturn(new Provenance());
+		
+		List<Provenance> results = provenanceService.searchForProvenance(new ReferenceParam(OBS_UUID));
+		
+		assertThat(results.size(), equalTo(1));
+		assertThat(results.get(0).getTargetFirstRep().getReference(), equalTo("Observation/" + OBS_UUID));
+		verify(encounterDao, never()).getEncounterByUuid(OBS_UUID);
+	}
+	
+	@Test
+	public void searchForProvenance_shouldReturnEmptyListIfTargetDoesNotExist() {
+		assertThat(provenanceService.searchForProvenance(new ReferenceParam("Patient/" + PATIENT_UUID)), empty());
+	}
+	
+	@Test
+	public void getProvenanceById_shouldReturnProvenanceOfTargetWithId() {
+		Obs obs = new Obs();
+		obs.setUuid(OBS_UUID);
+		when(observationDao.getObsByUuid(OBS_UUID)).thenReturn(obs);
+		when(provenanceTranslator.getUpdateProvenance(obs)).thenReturn(new Provenance());
+		
+		Provenance result = provenanceService.getProvenanceById(OBS_UUID + "-update");
+		
+		assertThat(result, notNullValue());
+		assertThat(result.getIdElement().getIdPart(), equalTo(OBS_UUID + "-update"));
+		assertThat(result.getTargetFirstRep().getReference(), equalTo("Observation/" + OBS_UUID));
+		verify(provenanceTranslator, never()).getCreateProvenance(obs);
+	}
+	
+	@Test
+	public void getProvenanceById_shouldReturnNullForUnknownIds() {
+		assertThat(provenanceService.getProvenanceById(OBS_UUID), nullValue());
+		assertThat(provenanceService.getProvenanceById(OBS_UUID + "-create"), nullValue());
+	}
+}
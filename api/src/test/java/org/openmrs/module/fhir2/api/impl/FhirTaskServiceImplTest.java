@@ -17,15 +17,19 @@ import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.ServiceRequest;
 import org.hl7.fhir.r4.model.Task;
@@ -36,6 +40,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.module.fhir2.FhirTask;
 import org.openmrs.module.fhir2.api.dao.FhirTaskDao;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
 import org.openmrs.module.fhir2.api.translators.TaskTranslator;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -62,6 +67,9 @@ public class FhirTaskServiceImplTest {
 	@Mock
 	FhirTaskDao dao;
 	
+	@Mock
+	SearchQuery<FhirTask> searchQuery;
+	
 	@Mock
 	TaskTranslator translator;
 	
@@ -214,7 +222,7 @@ public class FhirTaskServiceImplTest {
 	
 	@Test
 	public void searchForTasks_shouldReturnTasksByParameters() {
-		Collection<FhirTask> openmrsTasks = new ArrayList<>();
+		List<FhirTask> openmrsTasks = new ArrayList<>();
 		FhirTask openmrsTask = new FhirTask();
 		
 		openmrsTask.setUuid(TASK_UUID);
@@ -223,13 +231,20 @@ public class FhirTaskServiceImplTest {
 		Task task = new Task();
 		task.setId(TASK_UUID);
 		
-		when(dao.searchForTasks(any(), any(), any(), any())).thenReturn(openmrsTasks);
+		when(dao.searchForTasks(any(), any(), any(), any())).thenReturn(searchQuery);
+		when(searchQuery.getResults(anyInt(), anyInt())).thenReturn(openmrsTasks);
 		when(translator.toFhirResource(openmrsTask)).thenReturn(task);
 		
-		Collection<Task> results = fhirTaskService.searchForTasks(null, null, null, null);
+		IBundleProvider results = fhirTaskService.searchForTasks(null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results, not(empty()));
-		assertThat(results, hasItem(hasProperty("id", equalTo(TASK_UUID))));
+		assertThat(resultList, not(empty()));
+		assertThat(resultList, hasItem(hasProperty("id", equalTo(TASK_UUID))));
+	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
 	}
 }
@@ -0,0 +1,112 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.ConceptSource;
+import org.openmrs.module.fhir2.FhirConceptSource;
+import org.openmrs.module.fhir2.FhirTestConstants;
+import org.openmrs.module.fhir2.api.dao.FhirConceptSourceDao;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConceptSourceRegistryTest {
+	
+	@Mock
+	private FhirConceptSourceDao conceptSourceDao;
+	
+	private ConceptSourceRegistry registry;
+	
+	private FhirConceptSource loinc;
+	
+	private FhirConceptSource ciel;
+	
+	@Before
+	public void setup() {
+		registry = new ConceptSourceRegistry();
+		registry.setConceptSourceDao(conceptSourceDao);
+		
+		loinc = fhirConceptSource(1, "LOINC", FhirTestConstants.LOINC_SYSTEM_URL);
+		ciel = fhirConceptSource(2, "CIEL", FhirTestConstants.CIEL_SYSTEM_URN);
+	}
+	
+	@Test
+	public void shouldMapConceptSourceNamesToUrlsAndBack() {
+		when(conceptSourceDao.getFhirConceptSources()).thenReturn(Arrays.asList(loinc, ciel));
+		
+		assertThat(registry.getUrl("LOINC"), equalTo(Optional.of(FhirTestConstants.LOINC_SYSTEM_URL)));
+		assertThat(registry.getUrl("loinc"), equalTo(Optional.of(FhirTestConstants.LOINC_SYSTEM_URL)));
+		assertThat(registry.getConceptSourceName(FhirTestConstants.CIEL_SYSTEM_URN), equalTo(Optional.of("CIEL")));
+		assertThat(registry.getConceptSourceId(FhirTestConstants.CIEL_SYSTEM_URN), equalTo(Optional.of(2)));
+		assertThat(registry.getUrl("Unknown"), equalTo(Optional.empty()));
+		assertThat(registry.getConceptSourceName("Unknown"), equalTo(Optional.empty()));
+	}
+	
+	@Test
+	public void shouldOnlyReadConceptSourcesOnceUntilInvalidated() {
+		when(conceptSourceDao.getFhirConceptSources()).thenReturn(Collections.singletonList(loinc),
+		    Arrays.asList(loinc, ciel));
+		
+		registry.getUrl("LOINC");
+		assertThat(registry.getUrl("CIEL"), equalTo(Optional.empty()));
+		verify(conceptSourceDao, times(1)).getFhirConceptSources();
+		
+		registry.invalidate();
+		
+		assertThat(registry.getUrl("CIEL"), equalTo(Optional.of(FhirTestConstants.CIEL_SYSTEM_URN)));
+		verify(conceptSourceDao, times(2)).getFhirConceptSources();
+	}
+	
+	@Test
+	public void shouldNotTranslateRetiredConceptSources() {
+		loinc.setRetired(true);
+		ciel.getConceptSource().setRetired(true);
+		when(conceptSourceDao.getFhirConceptSources()).thenReturn(Arrays.asList(loinc, ciel));
+		
+		assertThat(registry.getUrl("LOINC"), equalTo(Optional.empty()));
+		assertThat(registry.getConceptSourceName(FhirTestConstants.LOINC_SYSTEM_URL), equalTo(Optional.empty()));
+		assertThat(registry.getUrl("CIEL"), equalTo(Optional.empty()));
+		assertThat(registry.getConceptSourceName(FhirTestConstants.CIEL_SYSTEM_URN), equalTo(Optional.of("CIEL")));
+	}
+	
+	@Test
+	public void shouldStillSearchRetiredConceptSources() {
+		loinc.setRetired(true);
+		when(conceptSourceDao.getFhirConceptSources()).thenReturn(Collections.singletonList(loinc));
+		
+		assertThat(registry.getConceptSourceId(FhirTestConstants.LOINC_SYSTEM_URL), equalTo(Optional.of(1)));
+	}
+	
+	private static FhirConceptSource fhirConceptSource(int conceptSourceId, String name, String url) {
+		ConceptSource conceptSource = new ConceptSource();
+		conceptSource.setConceptSourceId(conceptSourceId);
+		conceptSource.setName(name);
+		conceptSource.setRetired(false);
+		
+		FhirConceptSource fhirConceptSource = new FhirConceptSource();
+		fhirConceptSource.setConceptSource(conceptSource);
+		fhirConceptSource.setUrl(url);
+		fhirConceptSource.setRetired(false);
+		return fhirConceptSource;
+	}
+}
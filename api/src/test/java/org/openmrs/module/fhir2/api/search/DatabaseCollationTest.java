@@ -0,0 +1,61 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DatabaseCollationTest {
+	
+	@Mock
+	private SessionFactoryImplementor sessionFactory;
+	
+	@Mock
+	private FhirGlobalPropertyService globalPropertyService;
+	
+	private DatabaseCollation databaseCollation;
+	
+	@Before
+	public void setup() {
+		databaseCollation = new DatabaseCollation();
+		databaseCollation.setSessionFactory(sessionFactory);
+		databaseCollation.setGlobalPropertyService(globalPropertyService);
+	}
+	
+	@Test
+	public void isCaseInsensitive_shouldUseConfiguredMode() {
+		when(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_CASE_INSENSITIVE_COLLATION))
+		        .thenReturn("true", "false");
+		
+		assertThat(databaseCollation.isCaseInsensitive(), equalTo(true));
+		assertThat(databaseCollation.isCaseInsensitive(), equalTo(false));
+	}
+	
+	@Test
+	public void isCaseInsensitive_shouldAssumeCaseSensitiveWhenCollationCannotBeDetermined() {
+		when(sessionFactory.getDialect()).thenReturn(new H2Dialect());
+		when(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_CASE_INSENSITIVE_COLLATION))
+		        .thenReturn("auto");
+		
+		assertThat(databaseCollation.isCaseInsensitive(), equalTo(false));
+	}
+}
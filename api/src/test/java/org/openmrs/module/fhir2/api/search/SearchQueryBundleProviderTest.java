@@ -0,0 +1,137 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchQueryBundleProviderTest {
+	
+	private static final String PATIENT_UUID = "a7e04421-525f-442f-8138-05b619d16def";
+	
+	private static final String OTHER_PATIENT_UUID = "5946f880-b197-400b-9caa-a3c661d23041";
+	
+	@Mock
+	private SearchQuery<String> searchQuery;
+	
+	private SearchQueryBundleProvider<String, Patient> bundleProvider;
+	
+	@Before
+	public void setup() {
+		bundleProvider = new SearchQueryBundleProvider<>(searchQuery, uuid -> {
+			Patient patient = new Patient();
+			patient.setId(uuid);
+			return patient;
+		});
+	}
+	
+	@Test
+	public void getResources_shouldOnlyLoadTheRequestedPage() {
+		when(searchQuery.getResults(20, 10)).thenReturn(Arrays.asList(PATIENT_UUID, OTHER_PATIENT_UUID));
+		
+		List<IBaseResource> results = bundleProvider.getResources(20, 30);
+		
+		assertThat(results, notNullValue());
+		assertThat(results.size(), equalTo(2));
+		assertThat(results.get(0).getIdElement().getIdPart(), equalTo(PATIENT_UUID));
+		assertThat(results.get(1).getIdElement().getIdPart(), equalTo(OTHER_PATIENT_UUID));
+	}
+	
+	@Test
+	public void getResources_shouldReturnEmptyListForEmptyRange() {
+		List<IBaseResource> results = bundleProvider.getResources(10, 10);
+		
+		assertThat(results, empty());
+		verify(searchQuery, never()).getResults(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void size_shouldReturnCountOfMatchingResults() {
+		when(searchQuery.getCount()).thenReturn(25);
+		
+		assertThat(bundleProvider.size(), equalTo(25));
+		verify(searchQuery, never()).getResults(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void size_shouldOnlyRunCountQueryOnce() {
+		when(searchQuery.getCount()).thenReturn(25);
+		
+		bundleProvider.size();
+		bundleProvider.size();
+		
+		verify(searchQuery, times(1)).getCount();
+	}
+	
+	@Test
+	public void size_shouldNotRunCountQueryWhenTotalIsNotWanted() {
+		bundleProvider.setSummaryAndTotal(true, false);
+		
+		assertThat(bundleProvider.size(), nullValue());
+		assertThat(bundleProvider.isIncludeTotal(), equalTo(false));
+		verify(searchQuery, never()).getCount();
+	}
+	
+	@Test
+	public void getResources_shouldNotLoadResultsWhenOnlyCountIsWanted() {
+		bundleProvider.setSummaryAndTotal(false, true);
+		
+		assertThat(bundleProvider.getResources(0, 10), empty());
+		verify(searchQuery, never()).getResults(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void getResourceIds_shouldReturnIdsWithoutLoadingResults() {
+		when(searchQuery.getUuids(10)).thenReturn(Arrays.asList(PATIENT_UUID, OTHER_PATIENT_UUID));
+		
+		assertThat(bundleProvider.getResourceIds(10), contains(PATIENT_UUID, OTHER_PATIENT_UUID));
+		verify(searchQuery, never()).getResults(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void getResourcesByUuid_shouldLoadResultsWithGivenIdsInSingleQuery() {
+		when(searchQuery.getResultsByUuid(Arrays.asList(OTHER_PATIENT_UUID, PATIENT_UUID)))
+		        .thenReturn(Arrays.asList(OTHER_PATIENT_UUID, PATIENT_UUID));
+		
+		List<IBaseResource> results = bundleProvider.getResourcesByUuid(Arrays.asList(OTHER_PATIENT_UUID, PATIENT_UUID));
+		
+		assertThat(results.size(), equalTo(2));
+		assertThat(results.get(0).getIdElement().getIdPart(), equalTo(OTHER_PATIENT_UUID));
+		assertThat(results.get(1).getIdElement().getIdPart(), equalTo(PATIENT_UUID));
+		verify(searchQuery, never()).getResults(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void getPublished_shouldReturnTimeProviderWasCreated() {
+		assertThat(bundleProvider.getPublished(), notNullValue());
+		assertThat(bundleProvider.getPublished().getValue(), notNullValue());
+	}
+}
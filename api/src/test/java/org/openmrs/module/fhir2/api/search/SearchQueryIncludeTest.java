@@ -0,0 +1,206 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ca.uhn.fhir.model.api.Include;
+import ca.uhn.fhir.model.api.ResourceMetadataKeyEnum;
+import ca.uhn.fhir.model.valueset.BundleEntrySearchModeEnum;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Encounter;
+import org.hl7.fhir.r4.model.Location;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.Obs;
+import org.openmrs.module.fhir2.api.dao.FhirLocationDao;
+import org.openmrs.module.fhir2.api.dao.FhirObservationDao;
+import org.openmrs.module.fhir2.api.dao.FhirPatientDao;
+import org.openmrs.module.fhir2.api.translators.LocationTranslator;
+import org.openmrs.module.fhir2.api.translators.ObservationTranslator;
+import org.openmrs.module.fhir2.api.translators.PatientTranslator;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchQueryIncludeTest {
+	
+	private static final String PATIENT_UUID = "a7e04421-525f-442f-8138-05b619d16def";
+	
+	private static final String ENCOUNTER_UUID = "y403fafb-e5e4-42d0-9d11-4f52e89d123r";
+	
+	private static final String OBSERVATION_UUID = "39fb7f47-e80a-4056-9285-bd798be13c63";
+	
+	private static final String OTHER_OBSERVATION_UUID = "f8bc0122-21db-4e91-a5d3-92ae01cafe92";
+	
+	private static final String LOCATION_UUID = "c0938432-1691-11df-97a5-7038c432aabf";
+	
+	@Mock
+	private FhirPatientDao patientDao;
+	
+	@Mock
+	private FhirObservationDao observationDao;
+	
+	@Mock
+	private PatientTranslator patientTranslator;
+	
+	@Mock
+	private ObservationTranslator observationTranslator;
+	
+	@Mock
+	private FhirLocationDao locationDao;
+	
+	@Mock
+	private LocationTranslator locationTranslator;
+	
+	private SearchQueryInclude searchQueryInclude;
+	
+	private org.openmrs.Patient openmrsPatient;
+	
+	@Before
+	public void setup() {
+		searchQueryInclude = new SearchQueryInclude();
+		searchQueryInclude.setPatientDao(patientDao);
+		searchQueryInclude.setObservationDao(observationDao);
+		searchQueryInclude.setPatientTranslator(patientTranslator);
+		searchQueryInclude.setObservationTranslator(observationTranslator);
+		searchQueryInclude.setLocationDao(locationDao);
+		searchQueryInclude.setLocationTranslator(locationTranslator);
+		
+		openmrsPatient = new org.openmrs.Patient();
+		openmrsPatient.setUuid(PATIENT_UUID);
+	}
+	
+	@Test
+	public void getIncludedResources_shouldReturnEmptyListWithoutIncludes() {
+		List<IBaseResource> included = searchQueryInclude.getIncludedResources(
+		    Collections.singletonList(obs(OBSERVATION_UUID)), Collections.singletonList(observation(OBSERVATION_UUID)),
+		    null, null);
+		
+		assertThat(included, empty());
+	}
+	
+	@Test
+	public void getIncludedResources_shouldLoadReferencedPatientsInOneQuery() {
+		Patient patient = new Patient();
+		patient.setId(PATIENT_UUID);
+		when(patientDao.getPatientsByUuids(any())).thenReturn(Collections.singletonList(openmrsPatient));
+		when(patientTranslator.toFhirResource(openmrsPatient)).thenReturn(patient);
+		
+		// the translated observations carry no subject, as when _elements leaves it out
+		List<IBaseResource> included = searchQueryInclude.getIncludedResources(
+		    Arrays.asList(obs(OBSERVATION_UUID), obs(OTHER_OBSERVATION_UUID)),
+		    Arrays.asList(observation(OBSERVATION_UUID), observation(OTHER_OBSERVATION_UUID)),
+		    Collections.singleton(new Include("Observation:patient")), null);
+		
+		assertThat(included, hasSize(1));
+		assertThat(included.get(0).getIdElement().getIdPart(), equalTo(PATIENT_UUID));
+		assertThat(ResourceMetadataKeyEnum.ENTRY_SEARCH_MODE.get((Resource) included.get(0)),
+		    equalTo(BundleEntrySearchModeEnum.INCLUDE));
+		verify(patientDao).getPatientsByUuids(Collections.singleton(PATIENT_UUID));
+	}
+	
+	@Test
+	public void getIncludedResources_shouldLoadLocationsOfEncountersInPage() {
+		org.openmrs.Location openmrsLocation = new org.openmrs.Location();
+		openmrsLocation.setUuid(LOCATION_UUID);
+		org.openmrs.Encounter openmrsEncounter = encounter();
+		openmrsEncounter.setLocation(openmrsLocation);
+		Location location = new Location();
+		location.setId(LOCATION_UUID);
+		when(locationDao.getLocationsByUuids(any())).thenReturn(Collections.singletonList(openmrsLocation));
+		when(locationTranslator.toFhirResource(openmrsLocation)).thenReturn(location);
+		
+		List<IBaseResource> included = searchQueryInclude.getIncludedResources(
+		    Collections.singletonList(openmrsEncounter), Collections.singletonList(fhirEncounter()),
+		    Collections.singleton(new Include("Encounter:location")), null);
+		
+		assertThat(included, contains(location));
+		verify(locationDao).getLocationsByUuids(Collections.singleton(LOCATION_UUID));
+	}
+	
+	@Test
+	public void getIncludedResources_shouldIgnoreUnsupportedIncludes() {
+		List<IBaseResource> included = searchQueryInclude.getIncludedResources(
+		    Collections.singletonList(obs(OBSERVATION_UUID)), Collections.singletonList(observation(OBSERVATION_UUID)),
+		    Collections.singleton(new Include("Observation:performer")), null);
+		
+		assertThat(included, empty());
+		verify(patientDao, never()).getPatientsByUuids(any());
+	}
+	
+	@Test
+	public void getIncludedResources_shouldLoadObservationsForEncountersInPage() {
+		Obs obs = obs(OBSERVATION_UUID);
+		Observation observation = observation(OBSERVATION_UUID);
+		when(observationDao.getObsByEncounterUuids(any())).thenReturn(Collections.singletonList(obs));
+		when(observationTranslator.toFhirResource(obs)).thenReturn(observation);
+		
+		List<IBaseResource> included = searchQueryInclude.getIncludedResources(Collections.singletonList(encounter()),
+		    Collections.singletonList(fhirEncounter()), null, Collections.singleton(new Include("Observation:encounter")));
+		
+		assertThat(included, contains(observation));
+		verify(observationDao).getObsByEncounterUuids(Collections.singleton(ENCOUNTER_UUID));
+	}
+	
+	@Test
+	public void getIncludedResources_shouldNotIncludeResourcesAlreadyInPage() {
+		Obs obs = obs(OBSERVATION_UUID);
+		when(observationDao.getObsByEncounterUuids(any())).thenReturn(Collections.singletonList(obs));
+		when(observationTranslator.toFhirResource(obs)).thenReturn(observation(OBSERVATION_UUID));
+		
+		List<IBaseResource> included = searchQueryInclude.getIncludedResources(Collections.singletonList(encounter()),
+		    Arrays.asList(fhirEncounter(), observation(OBSERVATION_UUID)), null,
+		    Collections.singleton(new Include("Observation:encounter")));
+		
+		assertThat(included, empty());
+	}
+	
+	private Obs obs(String uuid) {
+		Obs obs = new Obs();
+		obs.setUuid(uuid);
+		obs.setPerson(openmrsPatient);
+		return obs;
+	}
+	
+	private static Observation observation(String uuid) {
+		Observation observation = new Observation();
+		observation.setId(uuid);
+		return observation;
+	}
+	
+	private static org.openmrs.Encounter encounter() {
+		org.openmrs.Encounter encounter = new org.openmrs.Encounter();
+		encounter.setUuid(ENCOUNTER_UUID);
+		return encounter;
+	}
+	
+	private static Encounter fhirEncounter() {
+		Encounter encounter = new Encounter();
+		encounter.setId(ENCOUNTER_UUID);
+		return encounter;
+	}
+}
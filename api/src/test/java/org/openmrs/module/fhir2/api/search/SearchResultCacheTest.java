@@ -0,0 +1,172 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ca.uhn.fhir.rest.api.SortOrderEnum;
+import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.param.StringOrListParam;
+import ca.uhn.fhir.rest.param.StringParam;
+import ca.uhn.fhir.rest.param.TokenAndListParam;
+import ca.uhn.fhir.rest.param.TokenOrListParam;
+import ca.uhn.fhir.rest.param.TokenParam;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.Person;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.impl.FhirGlobalPropertyServiceImpl;
+
+public class SearchResultCacheTest {
+	
+	private static final String KEY = "key";
+	
+	private static final List<String> UUIDS = Arrays.asList("a7e04421-525f-442f-8138-05b619d16def",
+	    "5946f880-b197-400b-9caa-a3c661d23041");
+	
+	private final Map<String, String> globalProperties = new HashMap<>();
+	
+	private SearchResultCache cache;
+	
+	@Before
+	public void setup() {
+		globalProperties.put(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_TTL, "60");
+		
+		cache = new SearchResultCache();
+		cache.setGlobalPropertyService(new FhirGlobalPropertyServiceImpl() {
+			
+			@Override
+			public String getGlobalProperty(String property) {
+				return globalProperties.get(property);
+			}
+		});
+	}
+	
+	@Test
+	public void get_shouldReturnCachedIds() {
+		cache.put(Obs.class, KEY, cache.getGeneration(Obs.class), UUIDS);
+		
+		assertThat(cache.get(KEY), equalTo(UUIDS));
+		assertThat(cache.getHits(), equalTo(1L));
+	}
+	
+	@Test
+	public void get_shouldReturnNullWhenDisabled() {
+		cache.put(Obs.class, KEY, cache.getGeneration(Obs.class), UUIDS);
+		globalProperties.put(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_TTL, "0");
+		
+		assertThat(cache.isEnabled(), equalTo(false));
+		assertThat(cache.get(KEY), nullValue());
+	}
+	
+	@Test
+	public void isEnabled_shouldOnlyBeEnabledOnceTimeToLiveIsConfigured() {
+		globalProperties.remove(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_TTL);
+		assertThat(cache.isEnabled(), equalTo(false));
+		
+		globalProperties.put(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_TTL, "60");
+		assertThat(cache.isEnabled(), equalTo(true));
+	}
+	
+	@Test
+	public void get_shouldReturnNullAfterTypeIsInvalidated() {
+		cache.put(Obs.class, KEY, cache.getGeneration(Obs.class), UUIDS);
+		
+		cache.invalidate(Obs.class);
+		
+		assertThat(cache.get(KEY), nullValue());
+		assertThat(cache.getMisses(), equalTo(1L));
+	}
+	
+	@Test
+	public void invalidate_shouldInvalidateSupertypesAndSubtypes() {
+		cache.put(Person.class, "person", cache.getGeneration(Person.class), UUIDS);
+		cache.put(Patient.class, "patient", cache.getGeneration(Patient.class), UUIDS);
+		cache.put(Obs.class, "obs", cache.getGeneration(Obs.class), UUIDS);
+		
+		cache.invalidate(Patient.class);
+		
+		assertThat(cache.get("person"), nullValue());
+		assertThat(cache.get("patient"), nullValue());
+		assertThat(cache.get("obs"), notNullValue());
+	}
+	
+	@Test
+	public void put_shouldNotCacheResultsInvalidatedWhileSearching() {
+		long generation = cache.getGeneration(Obs.class);
+		cache.invalidate(Obs.class);
+		
+		cache.put(Obs.class, KEY, generation, UUIDS);
+		
+		assertThat(cache.get(KEY), nullValue());
+	}
+	
+	@Test
+	public void put_shouldEvictOldestEntriesWhenFull() {
+		globalProperties.put(FhirConstants.OPENMRS_FHIR_SEARCH_CACHE_MAXIMUM_SIZE, "10");
+		
+		for (int i = 0; i < 20; i++) {
+			cache.put(Obs.class, KEY + i, cache.getGeneration(Obs.class), Collections.emptyList());
+		}
+		
+		assertThat(cache.size(), lessThanOrEqualTo(10));
+	}
+	
+	@Test
+	public void toCacheKey_shouldIgnoreOrderOfValues() {
+		TokenOrListParam gender = new TokenOrListParam().add(new TokenParam("male")).add(new TokenParam("female"));
+		TokenOrListParam reversed = new TokenOrListParam().add(new TokenParam("female")).add(new TokenParam("male"));
+		
+		assertThat(SearchResultCache.toCacheKey("search", gender),
+		    equalTo(SearchResultCache.toCacheKey("search", reversed)));
+	}
+	
+	@Test
+	public void toCacheKey_shouldDistinguishAndFromOr() {
+		TokenAndListParam and = new TokenAndListParam().addAnd(new TokenParam("a")).addAnd(new TokenParam("b"));
+		TokenAndListParam or = new TokenAndListParam()
+		        .addAnd(new TokenOrListParam().add(new TokenParam("a")).add(new TokenParam("b")));
+		
+		assertThat(SearchResultCache.toCacheKey("search", and), not(equalTo(SearchResultCache.toCacheKey("search", or))));
+	}
+	
+	@Test
+	public void toCacheKey_shouldDistinguishParameterPositionsAndModifiers() {
+		StringOrListParam name = new StringOrListParam().add(new StringParam("John"));
+		StringOrListParam exactName = new StringOrListParam().add(new StringParam("John", true));
+		
+		assertThat(SearchResultCache.toCacheKey("search", name, null),
+		    not(equalTo(SearchResultCache.toCacheKey("search", null, name))));
+		assertThat(SearchResultCache.toCacheKey("search", name),
+		    not(equalTo(SearchResultCache.toCacheKey("search", exactName))));
+	}
+	
+	@Test
+	public void toCacheKey_shouldIncludeSort() {
+		SortSpec ascending = new SortSpec("name", SortOrderEnum.ASC);
+		SortSpec descending = new SortSpec("name", SortOrderEnum.DESC);
+		
+		assertThat(SearchResultCache.toCacheKey("search", ascending),
+		    not(equalTo(SearchResultCache.toCacheKey("search", descending))));
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.ConceptMap;
+import org.openmrs.ConceptName;
+import org.openmrs.ConceptNumeric;
+import org.openmrs.ConceptReferenceTerm;
+import org.openmrs.Patient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConceptTranslationCacheInterceptorTest {
+	
+	@Mock
+	private ConceptTranslationCache conceptTranslationCache;
+	
+	private ConceptTranslationCacheInterceptor interceptor;
+	
+	@Before
+	public void setup() {
+		interceptor = new ConceptTranslationCacheInterceptor();
+		interceptor.setConceptTranslationCache(conceptTranslationCache);
+	}
+	
+	@After
+	public void tearDown() {
+		// resets the changes recorded for this thread
+		interceptor.afterTransactionCompletion(null);
+	}
+	
+	@Test
+	public void onFlushDirty_shouldClearCacheWhenReferenceTermChanges() {
+		interceptor.onFlushDirty(new ConceptReferenceTerm(), 1, null, null, null, null);
+		
+		verify(conceptTranslationCache).clear();
+	}
+	
+	@Test
+	public void onSave_shouldClearCacheWhenMappingIsAdded() {
+		interceptor.onSave(new ConceptMap(), 1, null, null, null);
+		
+		verify(conceptTranslationCache).clear();
+	}
+	
+	@Test
+	public void onDelete_shouldClearCacheWhenNameIsDeleted() {
+		interceptor.onDelete(new ConceptName(), 1, null, null, null);
+		
+		verify(conceptTranslationCache).clear();
+	}
+	
+	@Test
+	public void onFlushDirty_shouldClearCacheWhenReferenceRangeChanges() {
+		interceptor.onFlushDirty(new ConceptNumeric(), 1, null, null, null, null);
+		
+		verify(conceptTranslationCache).clear();
+	}
+	
+	@Test
+	public void afterTransactionCompletion_shouldClearCacheAgainIfAConceptChanged() {
+		interceptor.onFlushDirty(new ConceptReferenceTerm(), 1, null, null, null, null);
+		interceptor.afterTransactionCompletion(null);
+		
+		verify(conceptTranslationCache, times(2)).clear();
+	}
+	
+	@Test
+	public void shouldNotClearCacheWhenOtherEntitiesChange() {
+		interceptor.onSave(new Patient(), 1, null, null, null);
+		interceptor.onFlushDirty(new Patient(), 1, null, null, null, null);
+		interceptor.afterTransactionCompletion(null);
+		
+		verify(conceptTranslationCache, never()).clear();
+		verifyNoMoreInteractions(conceptTranslationCache);
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Quantity;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.impl.FhirGlobalPropertyServiceImpl;
+
+public class ConceptTranslationCacheTest {
+	
+	private static final String CODEABLE_CONCEPT = "CodeableConcept";
+	
+	private final Map<String, String> globalProperties = new HashMap<>();
+	
+	private ConceptTranslationCache cache;
+	
+	private AtomicInteger translations;
+	
+	private Function<Concept, CodeableConcept> translator;
+	
+	@Before
+	public void setup() {
+		cache = new ConceptTranslationCache();
+		cache.setGlobalPropertyService(new FhirGlobalPropertyServiceImpl() {
+			
+			@Override
+			public String getGlobalProperty(String property) {
+				return globalProperties.get(property);
+			}
+		});
+		translations = new AtomicInteger();
+		translator = concept -> {
+			translations.incrementAndGet();
+			CodeableConcept codeableConcept = new CodeableConcept();
+			codeableConcept.addCoding().setCode(concept.getUuid());
+			return codeableConcept;
+		};
+	}
+	
+	@Test
+	public void get_shouldOnlyTranslateEachConceptOnce() {
+		Concept concept = concept(1);
+		
+		CodeableConcept first = cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		CodeableConcept second = cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		
+		assertThat(translations.get(), equalTo(1));
+		assertThat(second.getCodingFirstRep().getCode(), equalTo(concept.getUuid()));
+		assertThat(second.equalsDeep(first), equalTo(true));
+	}
+	
+	@Test
+	public void get_shouldReturnCopiesWhichCanBeModified() {
+		Concept concept = concept(1);
+		
+		CodeableConcept first = cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		first.getCodingFirstRep().setCode("modified");
+		CodeableConcept second = cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		
+		assertThat(second, not(sameInstance(first)));
+		assertThat(second.getCodingFirstRep().getCode(), equalTo(concept.getUuid()));
+	}
+	
+	@Test
+	public void get_shouldTranslateConceptAgainOnceItIsChanged() {
+		Concept concept = concept(1);
+		cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		
+		concept.setDateChanged(new Date());
+		cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		
+		assertThat(translations.get(), equalTo(2));
+	}
+	
+	@Test
+	public void get_shouldTranslateConceptAgainOnceVersionChanges() {
+		Concept concept = concept(1);
+		
+		cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		cache.get(CODEABLE_CONCEPT, concept, 1, translator);
+		
+		assertThat(translations.get(), equalTo(2));
+	}
+	
+	@Test
+	public void get_shouldNotCacheUnsavedConcepts() {
+		Concept concept = new Concept();
+		
+		cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		
+		assertThat(translations.get(), equalTo(2));
+	}
+	
+	@Test
+	public void get_shouldNotCacheWhenDisabled() {
+		globalProperties.put(FhirConstants.OPENMRS_FHIR_CONCEPT_CACHE_MAXIMUM_SIZE, "0");
+		Concept concept = concept(1);
+		
+		cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		cache.get(CODEABLE_CONCEPT, concept, 0, translator);
+		
+		assertThat(cache.isEnabled(), equalTo(false));
+		assertThat(translations.get(), equalTo(2));
+	}
+	
+	@Test
+	public void get_shouldEvictConceptsOnceMaximumSizeIsReached() {
+		globalProperties.put(FhirConstants.OPENMRS_FHIR_CONCEPT_CACHE_MAXIMUM_SIZE, "10");
+		
+		for (int i = 1; i <= 11; i++) {
+			cache.get(CODEABLE_CONCEPT, concept(i), 0, translator);
+		}
+		cache.get(CODEABLE_CONCEPT, concept(1), 0, translator);
+		
+		assertThat(translations.get(), equalTo(12));
+	}
+	
+	@Test
+	public void getList_shouldReturnCopiesOfEachElement() {
+		Concept concept = concept(1);
+		Function<Concept, List<Observation.ObservationReferenceRangeComponent>> rangeTranslator = c -> {
+			translations.incrementAndGet();
+			return Collections.singletonList(
+			    new Observation.ObservationReferenceRangeComponent().setHigh(new Quantity().setValue(10)));
+		};
+		
+		List<Observation.ObservationReferenceRangeComponent> first = cache.getList("ReferenceRange", concept, 0,
+		    rangeTranslator);
+		first.get(0).getHigh().setValue(20);
+		List<Observation.ObservationReferenceRangeComponent> second = cache.getList("ReferenceRange", concept, 0,
+		    rangeTranslator);
+		
+		assertThat(translations.get(), equalTo(1));
+		assertThat(second, hasSize(1));
+		assertThat(second.get(0).getHigh().getValue().intValue(), equalTo(10));
+	}
+	
+	private static Concept concept(int conceptId) {
+		Concept concept = new Concept(conceptId);
+		concept.setUuid("concept-" + conceptId);
+		return concept;
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProvenanceModeTest {
+	
+	@Mock
+	private FhirGlobalPropertyService globalPropertyService;
+	
+	private ProvenanceMode provenanceMode;
+	
+	@Before
+	public void setup() {
+		provenanceMode = new ProvenanceMode();
+		provenanceMode.setGlobalPropertyService(globalPropertyService);
+	}
+	
+	@Test
+	public void isContained_shouldContainProvenanceByDefault() {
+		assertThat(provenanceMode.isContained(), equalTo(true));
+	}
+	
+	@Test
+	public void isContained_shouldFollowChangesToTheProvenanceMode() {
+		when(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_PROVENANCE_MODE))
+		        .thenReturn(ProvenanceMode.SEPARATE, ProvenanceMode.CONTAINED);
+		
+		assertThat(provenanceMode.isContained(), equalTo(false));
+		assertThat(provenanceMode.isContained(), equalTo(true));
+	}
+}
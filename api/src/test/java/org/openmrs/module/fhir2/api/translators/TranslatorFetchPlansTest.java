@@ -0,0 +1,129 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.api.translators;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hl7.fhir.r4.model.Observation;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.Obs;
+import org.springframework.context.ApplicationContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TranslatorFetchPlansTest {
+	
+	@Mock
+	private ApplicationContext applicationContext;
+	
+	private final ConditionalObsTranslator conditionalObsTranslator = new ConditionalObsTranslator();
+	
+	private TranslatorFetchPlans fetchPlans;
+	
+	@Before
+	public void setup() {
+		Map<String, Object> translators = new HashMap<>();
+		translators.put("obsTranslator", new ObsTranslator());
+		translators.put("otherObsTranslator", new OtherObsTranslator());
+		translators.put("conditionalObsTranslator", conditionalObsTranslator);
+		when(applicationContext.getBeansWithAnnotation(FetchPaths.class)).thenReturn(translators);
+		
+		fetchPlans = new TranslatorFetchPlans();
+		fetchPlans.setApplicationContext(applicationContext);
+	}
+	
+	@Test
+	public void getFetchPaths_shouldCombinePathsDeclaredForTheSameType() {
+		assertThat(fetchPlans.getFetchPaths(Obs.class.getName()),
+		    containsInAnyOrder("encounter", "person.names", "groupMembers"));
+	}
+	
+	@Test
+	public void getFetchPaths_shouldIncludeConditionalPathsTheTranslatorWillUse() {
+		conditionalObsTranslator.fetched = true;
+		
+		assertThat(fetchPlans.getFetchPaths(Obs.class.getName()),
+		    containsInAnyOrder("encounter", "person.names", "groupMembers", "concept.names"));
+	}
+	
+	@Test
+	public void getFetchPaths_shouldSkipConditionalPathsTheTranslatorWillNotUse() {
+		conditionalObsTranslator.fetched = false;
+		
+		assertThat(fetchPlans.getFetchPaths(Obs.class.getName()), not(hasItem("concept.names")));
+	}
+	
+	@Test
+	public void getFetchPaths_shouldIncludeConditionalPathsDeclaredUnconditionallyByAnotherTranslator() {
+		conditionalObsTranslator.fetched = false;
+		
+		assertThat(fetchPlans.getFetchPaths(Obs.class.getName()), hasItem("encounter"));
+	}
+	
+	@Test
+	public void getFetchPaths_shouldReturnEmptyCollectionForTypeWithoutFetchPaths() {
+		assertThat(fetchPlans.getFetchPaths("org.openmrs.Location"), empty());
+	}
+	
+	@Test
+	public void getFetchPaths_shouldOnlyLookUpTranslatorsOnce() {
+		fetchPlans.getFetchPaths(Obs.class.getName());
+		fetchPlans.getFetchPaths(Obs.class.getName());
+		
+		verify(applicationContext, times(1)).getBeansWithAnnotation(FetchPaths.class);
+	}
+	
+	@FetchPaths({ "encounter", "person.names" })
+	private static class ObsTranslator implements ToFhirTranslator<Obs, Observation> {
+		
+		@Override
+		public Observation toFhirResource(Obs data) {
+			return null;
+		}
+	}
+	
+	@FetchPaths({ "person.names", "groupMembers" })
+	private static class OtherObsTranslator implements ToFhirTranslator<Obs, Observation> {
+		
+		@Override
+		public Observation toFhirResource(Obs data) {
+			return null;
+		}
+	}
+	
+	@FetchPaths({ "encounter", "concept.names" })
+	private static class ConditionalObsTranslator implements ToFhirTranslator<Obs, Observation>, ConditionalFetchPaths {
+		
+		private boolean fetched;
+		
+		@Override
+		public Observation toFhirResource(Obs data) {
+			return null;
+		}
+		
+		@Override
+		public boolean isFetched(String path) {
+			return fetched;
+		}
+	}
+}
@@ -56,6 +56,7 @@ import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
 import org.openmrs.module.fhir2.api.translators.ConceptTranslator;
 import org.openmrs.module.fhir2.api.translators.PatientReferenceTranslator;
 import org.openmrs.module.fhir2.api.translators.PractitionerReferenceTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.openmrs.module.fhir2.api.util.FhirUtils;
 
@@ -118,6 +119,7 @@ public class AllergyIntoleranceTranslatorImplTest {
 		allergyIntoleranceTranslator.setGlobalPropertyService(globalPropertyService);
 		allergyIntoleranceTranslator.setConceptService(conceptService);
 		allergyIntoleranceTranslator.setProvenanceTranslator(provenanceTranslator);
+		allergyIntoleranceTranslator.setProvenanceMode(new ProvenanceMode());
 		allergyIntoleranceTranslator.setConceptTranslator(conceptTranslator);
 		
 		omrsAllergy = new Allergy();
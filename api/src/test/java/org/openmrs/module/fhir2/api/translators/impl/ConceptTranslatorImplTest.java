@@ -36,10 +36,9 @@ import org.openmrs.ConceptMap;
 import org.openmrs.ConceptMapType;
 import org.openmrs.ConceptReferenceTerm;
 import org.openmrs.ConceptSource;
-import org.openmrs.module.fhir2.FhirConceptSource;
 import org.openmrs.module.fhir2.FhirTestConstants;
 import org.openmrs.module.fhir2.api.FhirConceptService;
-import org.openmrs.module.fhir2.api.FhirConceptSourceService;
+import org.openmrs.module.fhir2.api.search.ConceptSourceRegistry;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ConceptTranslatorImplTest {
@@ -50,7 +49,7 @@ public class ConceptTranslatorImplTest {
 	FhirConceptService conceptService;
 	
 	@Mock
-	FhirConceptSourceService conceptSourceService;
+	ConceptSourceRegistry conceptSourceRegistry;
 	
 	@Mock
 	Concept concept;
@@ -61,7 +60,7 @@ public class ConceptTranslatorImplTest {
 	public void setup() {
 		conceptTranslator = new ConceptTranslatorImpl();
 		conceptTranslator.setConceptService(conceptService);
-		conceptTranslator.setConceptSourceService(conceptSourceService);
+		conceptTranslator.setConceptSourceRegistry(conceptSourceRegistry);
 	}
 	
 	@Test
@@ -87,12 +86,7 @@ public class ConceptTranslatorImplTest {
 		when(conceptReferenceTerm.getCode()).thenReturn("1000-1");
 		when(conceptSource.getName()).thenReturn("LOINC");
 		when(concept.getConceptMappings()).thenReturn(conceptMaps);
-		FhirConceptSource loinc = new FhirConceptSource();
-		ConceptSource loincConceptSource = new ConceptSource();
-		loincConceptSource.setName("LOINC");
-		loinc.setConceptSource(loincConceptSource);
-		loinc.setUrl(FhirTestConstants.LOINC_SYSTEM_URL);
-		when(conceptSourceService.getFhirConceptSourceByConceptSourceName("LOINC")).thenReturn(Optional.of(loinc));
+		when(conceptSourceRegistry.getUrl("LOINC")).thenReturn(Optional.of(FhirTestConstants.LOINC_SYSTEM_URL));
 		
 		CodeableConcept result = conceptTranslator.toFhirResource(concept);
 		assertThat(result, notNullValue());
@@ -113,12 +107,7 @@ public class ConceptTranslatorImplTest {
 		when(conceptReferenceTerm.getCode()).thenReturn("1650");
 		when(conceptSource.getName()).thenReturn("CIEL");
 		when(concept.getConceptMappings()).thenReturn(conceptMaps);
-		FhirConceptSource ciel = new FhirConceptSource();
-		ConceptSource cielConceptSource = new ConceptSource();
-		cielConceptSource.setName("CIEL");
-		ciel.setConceptSource(cielConceptSource);
-		ciel.setUrl(FhirTestConstants.CIEL_SYSTEM_URN);
-		when(conceptSourceService.getFhirConceptSourceByConceptSourceName("CIEL")).thenReturn(Optional.of(ciel));
+		when(conceptSourceRegistry.getUrl("CIEL")).thenReturn(Optional.of(FhirTestConstants.CIEL_SYSTEM_URN));
 		
 		CodeableConcept result = conceptTranslator.toFhirResource(concept);
 		assertThat(result, notNullValue());
@@ -138,7 +127,7 @@ public class ConceptTranslatorImplTest {
 		when(conceptReferenceTerm.getConceptSource()).thenReturn(conceptSource);
 		when(conceptSource.getName()).thenReturn("Unknown");
 		when(concept.getConceptMappings()).thenReturn(conceptMaps);
-		when(conceptSourceService.getFhirConceptSourceByConceptSourceName("Unknown")).thenReturn(Optional.empty());
+		when(conceptSourceRegistry.getUrl("Unknown")).thenReturn(Optional.empty());
 		
 		CodeableConcept result = conceptTranslator.toFhirResource(concept);
 		assertThat(result, notNullValue());
@@ -185,11 +174,8 @@ public class ConceptTranslatorImplTest {
 		concept.addConceptMapping(conceptMap);
 		when(conceptService.getConceptBySourceNameAndCode("LOINC", "1000-1")).thenReturn(Optional.of(concept));
 		
-		FhirConceptSource fhirLoincSource = new FhirConceptSource();
-		fhirLoincSource.setConceptSource(loinc);
-		fhirLoincSource.setUrl(FhirTestConstants.LOINC_SYSTEM_URL);
-		when(conceptSourceService.getFhirConceptSourceByUrl(FhirTestConstants.LOINC_SYSTEM_URL))
-		        .thenReturn(Optional.of(fhirLoincSource));
+		when(conceptSourceRegistry.getConceptSourceName(FhirTestConstants.LOINC_SYSTEM_URL))
+		        .thenReturn(Optional.of("LOINC"));
 		
 		Concept result = conceptTranslator.toOpenmrsType(codeableConcept);
 		assertThat(result, notNullValue());
@@ -225,11 +211,8 @@ public class ConceptTranslatorImplTest {
 		loincConcept.addConceptMapping(conceptMap);
 		when(conceptService.getConceptBySourceNameAndCode("LOINC", "1000-1")).thenReturn(Optional.of(loincConcept));
 		
-		FhirConceptSource fhirLoincSource = new FhirConceptSource();
-		fhirLoincSource.setConceptSource(loinc);
-		fhirLoincSource.setUrl(FhirTestConstants.LOINC_SYSTEM_URL);
-		when(conceptSourceService.getFhirConceptSourceByUrl(FhirTestConstants.LOINC_SYSTEM_URL))
-		        .thenReturn(Optional.of(fhirLoincSource));
+		when(conceptSourceRegistry.getConceptSourceName(FhirTestConstants.LOINC_SYSTEM_URL))
+		        .thenReturn(Optional.of("LOINC"));
 		
 		Concept result = conceptTranslator.toOpenmrsType(codeableConcept);
 		assertThat(result, equalTo(loincConcept));
@@ -255,11 +238,7 @@ public class ConceptTranslatorImplTest {
 		concept.addConceptMapping(conceptMap);
 		when(conceptService.getConceptBySourceNameAndCode("CIEL", "1650")).thenReturn(Optional.of(concept));
 		
-		FhirConceptSource fhirCielSource = new FhirConceptSource();
-		fhirCielSource.setConceptSource(ciel);
-		fhirCielSource.setUrl(FhirTestConstants.CIEL_SYSTEM_URN);
-		when(conceptSourceService.getFhirConceptSourceByUrl(FhirTestConstants.CIEL_SYSTEM_URN))
-		        .thenReturn(Optional.of(fhirCielSource));
+		when(conceptSourceRegistry.getConceptSourceName(FhirTestConstants.CIEL_SYSTEM_URN)).thenReturn(Optional.of("CIEL"));
 		
 		Concept result = conceptTranslator.toOpenmrsType(codeableConcept);
 		assertThat(result, notNullValue());
@@ -275,7 +254,7 @@ public class ConceptTranslatorImplTest {
 		Coding cielCoding = codeableConcept.addCoding();
 		cielCoding.setSystem("Unknown");
 		cielCoding.setCode("1650");
-		when(conceptSourceService.getFhirConceptSourceByUrl("Unknown")).thenReturn(Optional.empty());
+		when(conceptSourceRegistry.getConceptSourceName("Unknown")).thenReturn(Optional.empty());
 		
 		Concept result = conceptTranslator.toOpenmrsType(codeableConcept);
 		assertThat(result, nullValue());
@@ -48,6 +48,7 @@ import org.openmrs.module.fhir2.api.translators.EncounterLocationTranslator;
 import org.openmrs.module.fhir2.api.translators.EncounterParticipantTranslator;
 import org.openmrs.module.fhir2.api.translators.PatientIdentifierTranslator;
 import org.openmrs.module.fhir2.api.translators.PatientReferenceTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.openmrs.module.fhir2.api.util.FhirUtils;
 
@@ -114,6 +115,7 @@ public class EncounterTranslatorImplTest {
 		encounterTranslator.setParticipantTranslator(participantTranslator);
 		encounterTranslator.setEncounterLocationTranslator(encounterLocationTranslator);
 		encounterTranslator.setProvenanceTranslator(provenanceTranslator);
+		encounterTranslator.setProvenanceMode(new ProvenanceMode());
 		
 		PatientIdentifier identifier = new PatientIdentifier();
 		identifier.setIdentifier(PATIENT_IDENTIFIER);
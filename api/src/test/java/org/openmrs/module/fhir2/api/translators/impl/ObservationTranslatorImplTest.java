@@ -61,6 +61,7 @@ import org.openmrs.module.fhir2.api.translators.ObservationReferenceTranslator;
 import org.openmrs.module.fhir2.api.translators.ObservationStatusTranslator;
 import org.openmrs.module.fhir2.api.translators.ObservationValueTranslator;
 import org.openmrs.module.fhir2.api.translators.PatientReferenceTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.openmrs.module.fhir2.api.util.FhirUtils;
 
@@ -128,6 +129,7 @@ public class ObservationTranslatorImplTest {
 		observationTranslator.setInterpretationTranslator(interpretationTranslator);
 		observationTranslator.setReferenceRangeTranslator(referenceRangeTranslator);
 		observationTranslator.setProvenanceTranslator(provenanceTranslator);
+		observationTranslator.setProvenanceMode(new ProvenanceMode());
 		observationTranslator.setBasedOnReferenceTranslator(basedOnReferenceTranslator);
 		observationTranslator.setDatetimeTranslator(datetimeTranslator);
 	}
@@ -11,6 +11,7 @@ package org.openmrs.module.fhir2.api.translators.impl;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
@@ -20,6 +21,9 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
@@ -29,6 +33,7 @@ import java.util.List;
 
 import com.google.common.collect.Sets;
 import org.exparity.hamcrest.date.DateMatchers;
+import org.hibernate.collection.internal.PersistentSet;
 import org.hl7.fhir.r4.model.Address;
 import org.hl7.fhir.r4.model.BooleanType;
 import org.hl7.fhir.r4.model.ContactPoint;
@@ -49,12 +54,15 @@ import org.openmrs.PersonAddress;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonAttributeType;
 import org.openmrs.PersonName;
+import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
 import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
 import org.openmrs.module.fhir2.api.translators.GenderTranslator;
 import org.openmrs.module.fhir2.api.translators.PatientIdentifierTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonAddressTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonNameTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.openmrs.module.fhir2.api.translators.TelecomTranslator;
 import org.openmrs.module.fhir2.api.util.FhirUtils;
@@ -131,6 +139,7 @@ public class PatientTranslatorImplTest {
 		patientTranslator.setFhirPersonDao(fhirPersonDao);
 		patientTranslator.setGlobalPropertyService(globalPropertyService);
 		patientTranslator.setProvenanceTranslator(provenanceTranslator);
+		patientTranslator.setProvenanceMode(new ProvenanceMode());
 	}
 	
 	@Test
@@ -393,6 +402,33 @@ public class PatientTranslatorImplTest {
 		assertThat(contactPoints, notNullValue());
 	}
 	
+	@Test
+	public void shouldUseLoadedAttributesForPatientContactPoints() {
+		PersonAttributeType attributeType = new PersonAttributeType();
+		attributeType.setUuid(PERSON_ATTRIBUTE_TYPE_UUID);
+		PersonAttribute personAttribute = new PersonAttribute();
+		personAttribute.setValue(PERSON_ATTRIBUTE_VALUE);
+		personAttribute.setAttributeType(attributeType);
+		PersonAttribute voidedAttribute = new PersonAttribute();
+		voidedAttribute.setAttributeType(attributeType);
+		voidedAttribute.setVoided(true);
+		PersonAttribute otherAttribute = new PersonAttribute();
+		otherAttribute.setAttributeType(new PersonAttributeType());
+		
+		org.openmrs.Patient patient = new org.openmrs.Patient();
+		patient.setAttributes(new PersistentSet(null, Sets.newHashSet(personAttribute, voidedAttribute, otherAttribute)));
+		
+		ContactPoint contactPoint = new ContactPoint().setValue(PERSON_ATTRIBUTE_VALUE);
+		when(globalPropertyService.getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY))
+		        .thenReturn(PERSON_ATTRIBUTE_TYPE_UUID);
+		when(telecomTranslator.toFhirResource(personAttribute)).thenReturn(contactPoint);
+		
+		List<ContactPoint> contactPoints = patientTranslator.getPatientContactDetails(patient);
+		
+		assertThat(contactPoints, contains(contactPoint));
+		verify(fhirPersonDao, never()).getActiveAttributesByPersonAndAttributeTypeUuid(any(), any());
+	}
+	
 	@Test
 	public void shouldTranslateOpenMrsDateChangedToLastUpdatedDate() {
 		org.openmrs.Patient patient = new org.openmrs.Patient();
@@ -440,4 +476,69 @@ public class PatientTranslatorImplTest {
 		        .anyMatch(resource -> resource.getResourceType().name().equals(Provenance.class.getSimpleName())),
 		    is(true));
 	}
+	
+	@Test
+	public void shouldNotAddProvenanceResourcesWhenProvenanceIsSeparate() {
+		ProvenanceMode provenanceMode = mock(ProvenanceMode.class);
+		when(provenanceMode.isContained()).thenReturn(false);
+		patientTranslator.setProvenanceMode(provenanceMode);
+		
+		org.openmrs.Patient patient = new org.openmrs.Patient();
+		patient.setUuid(PATIENT_UUID);
+		
+		org.hl7.fhir.r4.model.Patient result = patientTranslator.toFhirResource(patient);
+		assertThat(result, notNullValue());
+		assertThat(result.getContained(), empty());
+		verify(provenanceTranslator, never()).getCreateProvenance(patient);
+		verify(provenanceTranslator, never()).getUpdateProvenance(patient);
+	}
+	
+	@Test
+	public void shouldSkipElementsNotIncludedInElementProjection() {
+		org.openmrs.Patient patient = new org.openmrs.Patient();
+		patient.setUuid(PATIENT_UUID);
+		
+		ElementProjection.set((resourceType, element) -> element.equals("name"));
+		try {
+			Patient result = patientTranslator.toFhirResource(patient);
+			assertThat(result.getId(), equalTo(PATIENT_UUID));
+			assertThat(result.getTelecom(), empty());
+			assertThat(result.getContained(), empty());
+		}
+		finally {
+			ElementProjection.clear();
+		}
+		
+		verify(fhirPersonDao, never()).getActiveAttributesByPersonAndAttributeTypeUuid(any(), any());
+		verify(provenanceTranslator, never()).getCreateProvenance(any());
+	}
+	
+	@Test
+	public void shouldFetchAttributesWhenContactDetailsAreTranslated() {
+		when(globalPropertyService.getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY))
+		        .thenReturn(PERSON_ATTRIBUTE_TYPE_UUID);
+		
+		assertThat(patientTranslator.isFetched("attributes.attributeType"), is(true));
+		assertThat(patientTranslator.isFetched("names"), is(true));
+	}
+	
+	@Test
+	public void shouldNotFetchAttributesWithoutContactAttributeType() {
+		assertThat(patientTranslator.isFetched("attributes.attributeType"), is(false));
+		assertThat(patientTranslator.isFetched("names"), is(true));
+	}
+	
+	@Test
+	public void shouldNotFetchAttributesWhenTelecomIsNotIncludedInElementProjection() {
+		ElementProjection.set((resourceType, element) -> element.equals("name"));
+		try {
+			assertThat(patientTranslator.isFetched("attributes.attributeType"), is(false));
+			assertThat(patientTranslator.isFetched("names"), is(true));
+		}
+		finally {
+			ElementProjection.clear();
+		}
+		
+		verify(globalPropertyService, never()).getGlobalProperty(FhirConstants.PERSON_ATTRIBUTE_TYPE_PROPERTY);
+	}
 }
@@ -47,6 +47,7 @@ import org.openmrs.module.fhir2.api.dao.FhirPersonDao;
 import org.openmrs.module.fhir2.api.translators.GenderTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonAddressTranslator;
 import org.openmrs.module.fhir2.api.translators.PersonNameTranslator;
+import org.openmrs.module.fhir2.api.translators.ProvenanceMode;
 import org.openmrs.module.fhir2.api.translators.ProvenanceTranslator;
 import org.openmrs.module.fhir2.api.translators.TelecomTranslator;
 import org.openmrs.module.fhir2.api.util.FhirUtils;
@@ -117,6 +118,7 @@ public class PersonTranslatorImplTest {
 		personTranslator.setFhirPersonDao(fhirPersonDao);
 		personTranslator.setGlobalPropertyService(globalPropertyService);
 		personTranslator.setProvenanceTranslator(provenanceTranslator);
+		personTranslator.setProvenanceMode(new ProvenanceMode());
 	}
 	
 	@Before
@@ -0,0 +1,282 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.providers;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import ca.uhn.fhir.rest.annotation.Operation;
+import ca.uhn.fhir.rest.annotation.OperationParam;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.server.exceptions.ForbiddenOperationException;
+import ca.uhn.fhir.rest.server.exceptions.InternalErrorException;
+import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hl7.fhir.r4.model.InstantType;
+import org.hl7.fhir.r4.model.StringType;
+import org.openmrs.api.APIAuthenticationException;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.FhirBulkExportService;
+import org.openmrs.module.fhir2.api.export.BulkExportJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implements the FHIR Bulk Data export operations. This provides the system-level {@code $export}
+ * operation and the endpoints used to check on an export and download its files, while the
+ * {@code Patient} and {@code Group} level {@code $export} operations are provided by the resource
+ * providers for those types using {@link #startExport(String, StringType, InstantType, StringType, ServletRequestDetails)}.
+ * <p/>
+ * The status of an export is polled at {@code $export-poll-status?_jobId=<id>}, which can also be
+ * sent a {@code DELETE} request to cancel the export, and the completed files are downloaded from
+ * {@code $export-download?_jobId=<id>&_file=<name>}.
+ * <p/>
+ * Starting an export requires the {@link FhirConstants#PRIVILEGE_BULK_EXPORT} privilege and only the
+ * user who started an export can check on, download or cancel it; anyone else is told it does not
+ * exist.
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class BulkExportProvider {
+	
+	public static final String OPERATION_EXPORT = "$export";
+	
+	public static final String OPERATION_EXPORT_POLL_STATUS = "$export-poll-status";
+	
+	public static final String OPERATION_EXPORT_DOWNLOAD = "$export-download";
+	
+	public static final String PARAM_OUTPUT_FORMAT = "_outputFormat";
+	
+	public static final String PARAM_SINCE = "_since";
+	
+	public static final String PARAM_TYPE = "_type";
+	
+	public static final String PARAM_JOB_ID = "_jobId";
+	
+	public static final String PARAM_FILE = "_file";
+	
+	private static final String PREFER_RESPOND_ASYNC = "respond-async";
+	
+	private static final String CONTENT_TYPE_NDJSON = "application/fhir+ndjson";
+	
+	private static final Set<String> OUTPUT_FORMATS = new LinkedHashSet<>(
+	        Arrays.asList(CONTENT_TYPE_NDJSON, "application/ndjson", "ndjson"));
+	
+	private static final String HEADER_PROGRESS = "X-Progress";
+	
+	private static final String HEADER_RETRY_AFTER = "Retry-After";
+	
+	// the number of seconds clients are asked to wait before polling an export again
+	private static final String RETRY_AFTER_SECONDS = "10";
+	
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+	
+	@Autowired
+	private FhirBulkExportService bulkExportService;
+	
+	@Operation(name = OPERATION_EXPORT, manualResponse = true, idempotent = true)
+	@SuppressWarnings("unused")
+	public void export(@OperationParam(name = PARAM_OUTPUT_FORMAT) StringType outputFormat,
+	        @OperationParam(name = PARAM_SINCE) InstantType since, @OperationParam(name = PARAM_TYPE) StringType type,
+	        ServletRequestDetails requestDetails) {
+		startExport(null, outputFormat, since, type, requestDetails);
+	}
+	
+	@Operation(name = OPERATION_EXPORT_POLL_STATUS, manualResponse = true, idempotent = true)
+	@SuppressWarnings("unused")
+	public void exportPollStatus(@OperationParam(name = PARAM_JOB_ID) StringType jobId,
+	        ServletRequestDetails requestDetails) throws IOException {
+		BulkExportJob job = jobId == null ? null : bulkExportService.getExport(jobId.getValue());
+		if (job == null || job.isCancelled()) {
+			throw new ResourceNotFoundException(
+			        "Could not find export with Id " + (jobId == null ? null : jobId.getValue()));
+		}
+		
+		HttpServletResponse response = requestDetails.getServletResponse();
+		switch (job.getStatus()) {
+			case IN_PROGRESS:
+				response.setStatus(HttpServletResponse.SC_ACCEPTED);
+				response.setHeader(HEADER_PROGRESS, job.getProgress());
+				response.setHeader(HEADER_RETRY_AFTER, RETRY_AFTER_SECONDS);
+				break;
+			case FAILED:
+				throw new InternalErrorException("Export " + job.getId() + " failed: " + job.getError());
+			default:
+				response.setStatus(HttpServletResponse.SC_OK);
+				response.setContentType(Constants.CT_JSON);
+				response.setCharacterEncoding(Constants.CHARSET_NAME_UTF8);
+				objectMapper.writeValue(response.getWriter(), toManifest(job, requestDetails.getFhirServerBase()));
+		}
+	}
+	
+	@Operation(name = OPERATION_EXPORT_DOWNLOAD, manualResponse = true, idempotent = true)
+	@SuppressWarnings("unused")
+	public void exportDownload(@OperationParam(name = PARAM_JOB_ID) StringType jobId,
+	        @OperationParam(name = PARAM_FILE) StringType fileName, ServletRequestDetails requestDetails)
+	        throws IOException {
+		File file = jobId == null || fileName == null ? null
+		        : bulkExportService.getExportFile(jobId.getValue(), fileName.getValue());
+		if (file == null || !file.isFile()) {
+			throw new ResourceNotFoundException(
+			        "Could not find export file " + (fileName == null ? null : fileName.getValue()));
+		}
+		
+		HttpServletResponse response = requestDetails.getServletResponse();
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setContentType(CONTENT_TYPE_NDJSON);
+		response.setCharacterEncoding(Constants.CHARSET_NAME_UTF8);
+		
+		// the files are stored gzipped, so they only need to be decompressed for clients which cannot accept that
+		boolean gzip = StringUtils.containsIgnoreCase(requestDetails.getHeader(Constants.HEADER_ACCEPT_ENCODING),
+		    Constants.ENCODING_GZIP);
+		if (gzip) {
+			response.setHeader(Constants.HEADER_CONTENT_ENCODING, Constants.ENCODING_GZIP);
+		}
+		
+		try (InputStream in = gzip ? new FileInputStream(file) : new GZIPInputStream(new FileInputStream(file));
+		        OutputStream out = response.getOutputStream()) {
+			IOUtils.copy(in, out);
+		}
+	}
+	
+	/**
+	 * Starts an export in response to a kick-off request, responding with the url at which the status
+	 * of the export can be polled
+	 *
+	 * @param groupUuid the uuid of the group whose members to export or null to export every patient
+	 * @param outputFormat the requested format of the exported files, which must be NDJSON
+	 * @param since if not null, only resources created or changed since this time are exported
+	 * @param type a comma-separated list of the resource types to export or null to export all types
+	 * @param requestDetails the details of the kick-off request
+	 */
+	public void startExport(String groupUuid, StringType outputFormat, InstantType since, StringType type,
+	        ServletRequestDetails requestDetails) {
+		String prefer = requestDetails.getHeader(Constants.HEADER_PREFER);
+		if (prefer == null || !prefer.contains(PREFER_RESPOND_ASYNC)) {
+			throw new InvalidRequestException("Bulk data exports must be requested with the header "
+			        + Constants.HEADER_PREFER + ": " + PREFER_RESPOND_ASYNC);
+		}
+		
+		if (outputFormat != null && !OUTPUT_FORMATS.contains(outputFormat.getValue())) {
+			throw new InvalidRequestException("Unsupported output format " + outputFormat.getValue());
+		}
+		
+		Collection<String> resourceTypes = getResourceTypes(type);
+		Date sinceDate = since == null ? null : since.getValue();
+		
+		BulkExportJob job;
+		try {
+			if (groupUuid == null) {
+				job = bulkExportService.startExport(resourceTypes, sinceDate, requestDetails.getCompleteUrl());
+			} else {
+				job = bulkExportService.startExport(groupUuid, resourceTypes, sinceDate, requestDetails.getCompleteUrl());
+			}
+		}
+		catch (APIAuthenticationException e) {
+			throw new ForbiddenOperationException(e.getMessage());
+		}
+		
+		if (job == null) {
+			throw new ResourceNotFoundException("Could not find group with Id " + groupUuid);
+		}
+		
+		HttpServletResponse response = requestDetails.getServletResponse();
+		response.setStatus(HttpServletResponse.SC_ACCEPTED);
+		response.setHeader(Constants.HEADER_CONTENT_LOCATION, requestDetails.getFhirServerBase() + "/"
+		        + OPERATION_EXPORT_POLL_STATUS + "?" + PARAM_JOB_ID + "=" + job.getId());
+	}
+	
+	/**
+	 * @param request a request to the FHIR server
+	 * @return true if the request is for the status of an export
+	 */
+	public boolean isPollStatusRequest(HttpServletRequest request) {
+		String uri = request.getRequestURI();
+		return uri != null && (uri.endsWith("/" + OPERATION_EXPORT_POLL_STATUS)
+		        || uri.endsWith("/%24" + OPERATION_EXPORT_POLL_STATUS.substring(1)));
+	}
+	
+	/**
+	 * Handles a {@code DELETE} request to the status url of an export by cancelling the export
+	 *
+	 * @param request the request
+	 * @param response the response
+	 */
+	public void cancelExport(HttpServletRequest request, HttpServletResponse response) {
+		String jobId = request.getParameter(PARAM_JOB_ID);
+		if (jobId == null || bulkExportService.cancelExport(jobId) == null) {
+			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+		} else {
+			response.setStatus(HttpServletResponse.SC_ACCEPTED);
+		}
+	}
+	
+	private Collection<String> getResourceTypes(StringType type) {
+		Set<String> exportableTypes = bulkExportService.getExportableResourceTypes();
+		if (type == null || StringUtils.isBlank(type.getValue())) {
+			return exportableTypes;
+		}
+		
+		Set<String> resourceTypes = new LinkedHashSet<>();
+		for (String resourceType : StringUtils.split(type.getValue(), ',')) {
+			resourceType = resourceType.trim();
+			if (!exportableTypes.contains(resourceType)) {
+				throw new InvalidRequestException("Resources of type " + resourceType + " cannot be exported");
+			}
+			
+			resourceTypes.add(resourceType);
+		}
+		
+		return resourceTypes;
+	}
+	
+	private Map<String, Object> toManifest(BulkExportJob job, String serverBase) {
+		List<Map<String, Object>> outputs = new ArrayList<>();
+		for (BulkExportJob.Output output : job.getOutputs()) {
+			Map<String, Object> entry = new LinkedHashMap<>();
+			entry.put("type", output.getResourceType());
+			entry.put("url", serverBase + "/" + OPERATION_EXPORT_DOWNLOAD + "?" + PARAM_JOB_ID + "=" + job.getId() + "&"
+			        + PARAM_FILE + "=" + output.getFileName());
+			entry.put("count", output.getCount());
+			outputs.add(entry);
+		}
+		
+		Map<String, Object> manifest = new LinkedHashMap<>();
+		manifest.put("transactionTime", new InstantType(job.getTransactionTime()).getValueAsString());
+		manifest.put("request", job.getRequest());
+		// the files can only be downloaded by an authenticated user
+		manifest.put("requiresAccessToken", true);
+		manifest.put("output", outputs);
+		manifest.put("error", new ArrayList<>());
+		return manifest;
+	}
+}
@@ -11,29 +11,39 @@ package org.openmrs.module.fhir2.providers;
 
 import javax.validation.constraints.NotNull;
 
+import java.util.HashSet;
 import java.util.List;
 
+import ca.uhn.fhir.model.api.Include;
 import ca.uhn.fhir.rest.annotation.History;
 import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.IncludeParam;
 import ca.uhn.fhir.rest.annotation.OptionalParam;
 import ca.uhn.fhir.rest.annotation.Read;
 import ca.uhn.fhir.rest.annotation.Search;
+import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
+import ca.uhn.fhir.rest.param.TokenParam;
 import ca.uhn.fhir.rest.server.IResourceProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import lombok.AccessLevel;
 import lombok.Setter;
 import org.hl7.fhir.instance.model.api.IBaseResource;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Encounter;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Location;
+import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.Practitioner;
 import org.hl7.fhir.r4.model.Resource;
+import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirEncounterService;
 import org.openmrs.module.fhir2.util.FhirServerUtils;
+import org.openmrs.module.fhir2.web.servlet.StreamingSearchInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -61,7 +71,7 @@ public class EncounterFhirResourceProvider implements IResourceProvider {
 	}
 	
 	@Search
-	public Bundle searchEncounter(@OptionalParam(name = Encounter.SP_DATE) DateRangeParam date,
+	public IBundleProvider searchEncounter(@OptionalParam(name = Encounter.SP_DATE) DateRangeParam date,
 	        @OptionalParam(name = Encounter.SP_LOCATION, chainWhitelist = { "", Location.SP_ADDRESS_CITY,
 	                Location.SP_ADDRESS_STATE, Location.SP_ADDRESS_COUNTRY,
 	                Location.SP_ADDRESS_POSTALCODE }, targetTypes = Location.class) ReferenceAndListParam location,
@@ -70,9 +80,16 @@ public class EncounterFhirResourceProvider implements IResourceProvider {
 	                Practitioner.SP_NAME }, targetTypes = Practitioner.class) ReferenceAndListParam participantReference,
 	        @OptionalParam(name = Encounter.SP_SUBJECT, chainWhitelist = { "", Patient.SP_IDENTIFIER, Patient.SP_GIVEN,
 	                Patient.SP_FAMILY,
-	                Patient.SP_NAME }, targetTypes = Patient.class) ReferenceAndListParam subjectReference) {
-		return FhirServerUtils.convertSearchResultsToBundle(
-		    encounterService.searchForEncounters(date, location, participantReference, subjectReference));
+	                Patient.SP_NAME }, targetTypes = Patient.class) ReferenceAndListParam subjectReference,
+	        @IncludeParam(allow = { "Encounter:" + Encounter.SP_LOCATION,
+	                "Encounter:" + Encounter.SP_PARTICIPANT }) HashSet<Include> includes,
+	        @IncludeParam(reverse = true, allow = { "Observation:" + Observation.SP_ENCOUNTER }) HashSet<Include> revIncludes,
+	        @OptionalParam(name = FhirConstants.INCLUDE_VOIDED_SEARCH_PARAM) TokenParam includeVoided,
+	        SummaryEnum summary, SearchTotalModeEnum totalMode, RequestDetails requestDetails) {
+		IBundleProvider results = encounterService.searchForEncounters(date, location, participantReference,
+		    subjectReference, includes, revIncludes, FhirServerUtils.isIncludeVoided(includeVoided));
+		return StreamingSearchInterceptor
+		        .deferIfStreaming(FhirServerUtils.applySummaryAndTotal(results, summary, totalMode), requestDetails);
 		
 	}
 	
@@ -0,0 +1,55 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.providers;
+
+import javax.validation.constraints.NotNull;
+
+import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Operation;
+import ca.uhn.fhir.rest.annotation.OperationParam;
+import ca.uhn.fhir.rest.server.IResourceProvider;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Group;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.InstantType;
+import org.hl7.fhir.r4.model.StringType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Groups are backed by cohorts. Currently the only operation supported on them is a bulk data export
+ * of their members.
+ */
+@Component
+@Qualifier("fhirResources")
+@Setter(AccessLevel.PACKAGE)
+public class GroupFhirResourceProvider implements IResourceProvider {
+	
+	@Autowired
+	private BulkExportProvider bulkExportProvider;
+	
+	@Override
+	public Class<? extends IBaseResource> getResourceType() {
+		return Group.class;
+	}
+	
+	@Operation(name = BulkExportProvider.OPERATION_EXPORT, manualResponse = true, idempotent = true)
+	@SuppressWarnings("unused")
+	public void exportGroup(@IdParam @NotNull IdType id,
+	        @OperationParam(name = BulkExportProvider.PARAM_OUTPUT_FORMAT) StringType outputFormat,
+	        @OperationParam(name = BulkExportProvider.PARAM_SINCE) InstantType since,
+	        @OperationParam(name = BulkExportProvider.PARAM_TYPE) StringType type, ServletRequestDetails requestDetails) {
+		bulkExportProvider.startExport(id.getIdPart(), outputFormat, since, type, requestDetails);
+	}
+}
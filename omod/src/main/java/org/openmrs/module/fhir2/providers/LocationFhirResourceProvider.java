@@ -19,7 +19,10 @@ import ca.uhn.fhir.rest.annotation.OptionalParam;
 import ca.uhn.fhir.rest.annotation.Read;
 import ca.uhn.fhir.rest.annotation.Search;
 import ca.uhn.fhir.rest.annotation.Sort;
+import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceOrListParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
@@ -28,7 +31,6 @@ import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import lombok.AccessLevel;
 import lombok.Setter;
 import org.hl7.fhir.instance.model.api.IBaseResource;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Location;
 import org.hl7.fhir.r4.model.Resource;
@@ -72,14 +74,16 @@ public class LocationFhirResourceProvider implements IResourceProvider {
 	}
 	
 	@Search
-	public Bundle searchLocations(@OptionalParam(name = Location.SP_NAME) StringOrListParam name,
+	public IBundleProvider searchLocations(@OptionalParam(name = Location.SP_NAME) StringOrListParam name,
 	        @OptionalParam(name = Location.SP_ADDRESS_CITY) StringOrListParam city,
 	        @OptionalParam(name = Location.SP_ADDRESS_COUNTRY) StringOrListParam country,
 	        @OptionalParam(name = Location.SP_ADDRESS_POSTALCODE) StringOrListParam postalCode,
 	        @OptionalParam(name = Location.SP_ADDRESS_STATE) StringOrListParam state,
 	        @OptionalParam(name = "_tag") TokenOrListParam tag,
-	        @OptionalParam(name = Location.SP_PARTOF) ReferenceOrListParam parent, @Sort SortSpec sort) {
-		return FhirServerUtils.convertSearchResultsToBundle(
-		    fhirLocationService.searchForLocations(name, city, country, postalCode, state, tag, parent, sort));
+	        @OptionalParam(name = Location.SP_PARTOF) ReferenceOrListParam parent, @Sort SortSpec sort,
+	        SummaryEnum summary, SearchTotalModeEnum totalMode) {
+		IBundleProvider results = fhirLocationService.searchForLocations(name, city, country, postalCode, state, tag, parent,
+		    sort);
+		return FhirServerUtils.applySummaryAndTotal(results, summary, totalMode);
 	}
 }
@@ -11,33 +11,42 @@ package org.openmrs.module.fhir2.providers;
 
 import javax.validation.constraints.NotNull;
 
+import java.util.HashSet;
 import java.util.List;
 
+import ca.uhn.fhir.model.api.Include;
 import ca.uhn.fhir.rest.annotation.History;
 import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.IncludeParam;
 import ca.uhn.fhir.rest.annotation.OptionalParam;
 import ca.uhn.fhir.rest.annotation.Read;
 import ca.uhn.fhir.rest.annotation.Search;
 import ca.uhn.fhir.rest.annotation.Sort;
+import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityAndListParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.StringAndListParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
+import ca.uhn.fhir.rest.param.TokenParam;
 import ca.uhn.fhir.rest.server.IResourceProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import lombok.AccessLevel;
 import lombok.Setter;
 import org.hl7.fhir.instance.model.api.IBaseResource;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.Resource;
+import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirObservationService;
 import org.openmrs.module.fhir2.util.FhirServerUtils;
+import org.openmrs.module.fhir2.web.servlet.StreamingSearchInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -66,7 +75,7 @@ public class ObservationFhirResourceProvider implements IResourceProvider {
 	}
 	
 	@Search
-	public Bundle searchObservations(
+	public IBundleProvider searchObservations(
 	        @OptionalParam(name = Observation.SP_ENCOUNTER) ReferenceAndListParam encounterReference,
 	        @OptionalParam(name = Observation.SP_SUBJECT, chainWhitelist = { "", Patient.SP_IDENTIFIER, Patient.SP_GIVEN,
 	                Patient.SP_FAMILY,
@@ -78,10 +87,16 @@ public class ObservationFhirResourceProvider implements IResourceProvider {
 	        @OptionalParam(name = Observation.SP_VALUE_QUANTITY) QuantityAndListParam valueQuantityParam,
 	        @OptionalParam(name = Observation.SP_VALUE_STRING) StringAndListParam valueStringParam,
 	        @OptionalParam(name = Observation.SP_DATE) DateRangeParam date,
-	        @OptionalParam(name = Observation.SP_CODE) TokenAndListParam code, @Sort SortSpec sort) {
-		return FhirServerUtils.convertSearchResultsToBundle(
-		    observationService.searchForObservations(encounterReference, patientReference, hasMemberReference, valueConcept,
-		        valueDateParam, valueQuantityParam, valueStringParam, date, code, sort));
+	        @OptionalParam(name = Observation.SP_CODE) TokenAndListParam code, @Sort SortSpec sort,
+	        @IncludeParam(allow = { "Observation:" + Observation.SP_PATIENT,
+	                "Observation:" + Observation.SP_ENCOUNTER }) HashSet<Include> includes,
+	        @OptionalParam(name = FhirConstants.INCLUDE_VOIDED_SEARCH_PARAM) TokenParam includeVoided,
+	        SummaryEnum summary, SearchTotalModeEnum totalMode, RequestDetails requestDetails) {
+		IBundleProvider results = observationService.searchForObservations(encounterReference, patientReference,
+		    hasMemberReference, valueConcept, valueDateParam, valueQuantityParam, valueStringParam, date, code, sort,
+		    includes, FhirServerUtils.isIncludeVoided(includeVoided));
+		return StreamingSearchInterceptor
+		        .deferIfStreaming(FhirServerUtils.applySummaryAndTotal(results, summary, totalMode), requestDetails);
 	}
 	
 	@History
@@ -15,23 +15,30 @@ import java.util.List;
 
 import ca.uhn.fhir.rest.annotation.History;
 import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Operation;
+import ca.uhn.fhir.rest.annotation.OperationParam;
 import ca.uhn.fhir.rest.annotation.OptionalParam;
 import ca.uhn.fhir.rest.annotation.Read;
 import ca.uhn.fhir.rest.annotation.Search;
 import ca.uhn.fhir.rest.annotation.Sort;
+import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.server.IResourceProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import ca.uhn.fhir.rest.server.servlet.ServletRequestDetails;
 import lombok.AccessLevel;
 import lombok.Setter;
 import org.hl7.fhir.instance.model.api.IBaseResource;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.InstantType;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StringType;
 import org.openmrs.module.fhir2.api.FhirPatientService;
 import org.openmrs.module.fhir2.util.FhirServerUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,6 +53,9 @@ public class PatientFhirResourceProvider implements IResourceProvider {
 	@Autowired
 	private FhirPatientService patientService;
 	
+	@Autowired
+	private BulkExportProvider bulkExportProvider;
+	
 	@Override
 	public Class<? extends IBaseResource> getResourceType() {
 		return Patient.class;
@@ -63,7 +73,7 @@ public class PatientFhirResourceProvider implements IResourceProvider {
 	
 	@Search
 	@SuppressWarnings("unused")
-	public Bundle searchPatients(@OptionalParam(name = Patient.SP_NAME) StringOrListParam name,
+	public IBundleProvider searchPatients(@OptionalParam(name = Patient.SP_NAME) StringOrListParam name,
 	        @OptionalParam(name = Patient.SP_GIVEN) StringOrListParam given,
 	        @OptionalParam(name = Patient.SP_FAMILY) StringOrListParam family,
 	        @OptionalParam(name = Patient.SP_IDENTIFIER) TokenOrListParam identifier,
@@ -74,9 +84,11 @@ public class PatientFhirResourceProvider implements IResourceProvider {
 	        @OptionalParam(name = Patient.SP_ADDRESS_CITY) StringOrListParam city,
 	        @OptionalParam(name = Patient.SP_ADDRESS_STATE) StringOrListParam state,
 	        @OptionalParam(name = Patient.SP_ADDRESS_POSTALCODE) StringOrListParam postalCode,
-	        @OptionalParam(name = Patient.SP_ADDRESS_COUNTRY) StringOrListParam country, @Sort SortSpec sort) {
-		return FhirServerUtils.convertSearchResultsToBundle(patientService.searchForPatients(name, given, family, identifier,
-		    gender, birthDate, deathDate, deceased, city, state, postalCode, country, sort));
+	        @OptionalParam(name = Patient.SP_ADDRESS_COUNTRY) StringOrListParam country, @Sort SortSpec sort,
+	        SummaryEnum summary, SearchTotalModeEnum totalMode) {
+		IBundleProvider results = patientService.searchForPatients(name, given, family, identifier, gender, birthDate,
+		    deathDate, deceased, city, state, postalCode, country, sort);
+		return FhirServerUtils.applySummaryAndTotal(results, summary, totalMode);
 	}
 	
 	@History
@@ -88,4 +100,12 @@ public class PatientFhirResourceProvider implements IResourceProvider {
 		}
 		return patient.getContained();
 	}
+	
+	@Operation(name = BulkExportProvider.OPERATION_EXPORT, manualResponse = true, idempotent = true)
+	@SuppressWarnings("unused")
+	public void exportPatients(@OperationParam(name = BulkExportProvider.PARAM_OUTPUT_FORMAT) StringType outputFormat,
+	        @OperationParam(name = BulkExportProvider.PARAM_SINCE) InstantType since,
+	        @OperationParam(name = BulkExportProvider.PARAM_TYPE) StringType type, ServletRequestDetails requestDetails) {
+		bulkExportProvider.startExport(null, outputFormat, since, type, requestDetails);
+	}
 }
@@ -19,19 +19,23 @@ import ca.uhn.fhir.rest.annotation.OptionalParam;
 import ca.uhn.fhir.rest.annotation.Read;
 import ca.uhn.fhir.rest.annotation.Search;
 import ca.uhn.fhir.rest.annotation.Sort;
+import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
+import ca.uhn.fhir.rest.param.TokenParam;
 import ca.uhn.fhir.rest.server.IResourceProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import lombok.AccessLevel;
 import lombok.Setter;
 import org.hl7.fhir.instance.model.api.IBaseResource;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Person;
 import org.hl7.fhir.r4.model.Resource;
+import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirPersonService;
 import org.openmrs.module.fhir2.util.FhirServerUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -63,15 +67,18 @@ public class PersonFhirResourceProvider implements IResourceProvider {
 	
 	@Search
 	@SuppressWarnings("unused")
-	public Bundle searchPeople(@OptionalParam(name = Person.SP_NAME) StringOrListParam name,
+	public IBundleProvider searchPeople(@OptionalParam(name = Person.SP_NAME) StringOrListParam name,
 	        @OptionalParam(name = Person.SP_GENDER) TokenOrListParam gender,
 	        @OptionalParam(name = Person.SP_BIRTHDATE) DateRangeParam birthDate,
 	        @OptionalParam(name = Person.SP_ADDRESS_CITY) StringOrListParam city,
 	        @OptionalParam(name = Person.SP_ADDRESS_STATE) StringOrListParam state,
 	        @OptionalParam(name = Person.SP_ADDRESS_POSTALCODE) StringOrListParam postalCode,
-	        @OptionalParam(name = Person.SP_ADDRESS_COUNTRY) StringOrListParam country, @Sort SortSpec sort) {
-		return FhirServerUtils.convertSearchResultsToBundle(
-		    fhirPersonService.searchForPeople(name, gender, birthDate, city, state, postalCode, country, sort));
+	        @OptionalParam(name = Person.SP_ADDRESS_COUNTRY) StringOrListParam country, @Sort SortSpec sort,
+	        @OptionalParam(name = FhirConstants.INCLUDE_VOIDED_SEARCH_PARAM) TokenParam includeVoided,
+	        SummaryEnum summary, SearchTotalModeEnum totalMode) {
+		IBundleProvider results = fhirPersonService.searchForPeople(name, gender, birthDate, city, state, postalCode,
+		    country, sort, FhirServerUtils.isIncludeVoided(includeVoided));
+		return FhirServerUtils.applySummaryAndTotal(results, summary, totalMode);
 	}
 	
 	@History
@@ -0,0 +1,65 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.providers;
+
+import javax.validation.constraints.NotNull;
+
+import java.util.List;
+
+import ca.uhn.fhir.rest.annotation.IdParam;
+import ca.uhn.fhir.rest.annotation.Read;
+import ca.uhn.fhir.rest.annotation.RequiredParam;
+import ca.uhn.fhir.rest.annotation.Search;
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import ca.uhn.fhir.rest.server.IResourceProvider;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Provenance;
+import org.openmrs.module.fhir2.api.FhirProvenanceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the provenance of resources as separate resources, which is mainly of use when the
+ * provenance is not contained in the resources themselves
+ */
+@Component
+@Qualifier("fhirResources")
+@Setter(AccessLevel.PACKAGE)
+public class ProvenanceFhirResourceProvider implements IResourceProvider {
+	
+	@Autowired
+	private FhirProvenanceService fhirProvenanceService;
+	
+	@Override
+	public Class<? extends IBaseResource> getResourceType() {
+		return Provenance.class;
+	}
+	
+	@Read
+	@SuppressWarnings("unused")
+	public Provenance getProvenanceById(@IdParam @NotNull IdType id) {
+		Provenance provenance = fhirProvenanceService.getProvenanceById(id.getIdPart());
+		if (provenance == null) {
+			throw new ResourceNotFoundException("Could not find provenance with Id " + id.getIdPart());
+		}
+		return provenance;
+	}
+	
+	@Search
+	@SuppressWarnings("unused")
+	public List<Provenance> searchProvenance(@RequiredParam(name = Provenance.SP_TARGET) ReferenceParam target) {
+		return fhirProvenanceService.searchForProvenance(target);
+	}
+}
@@ -21,7 +21,10 @@ import ca.uhn.fhir.rest.annotation.Search;
 import ca.uhn.fhir.rest.annotation.Sort;
 import ca.uhn.fhir.rest.annotation.Update;
 import ca.uhn.fhir.rest.api.MethodOutcome;
+import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.server.IResourceProvider;
@@ -29,7 +32,6 @@ import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import lombok.AccessLevel;
 import lombok.Setter;
 import org.hl7.fhir.instance.model.api.IBaseResource;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.Task;
@@ -86,10 +88,11 @@ public class TaskFhirResourceProvider implements IResourceProvider {
 	
 	@Search
 	@SuppressWarnings("unused")
-	public Bundle searchTasks(@OptionalParam(name = Task.SP_BASED_ON) ReferenceParam basedOnReference,
+	public IBundleProvider searchTasks(@OptionalParam(name = Task.SP_BASED_ON) ReferenceParam basedOnReference,
 	        @OptionalParam(name = Task.SP_OWNER) ReferenceParam ownerReference,
-	        @OptionalParam(name = Task.SP_STATUS) TokenOrListParam status, @Sort SortSpec sort) {
-		return FhirServerUtils
-		        .convertSearchResultsToBundle(service.searchForTasks(basedOnReference, ownerReference, status, sort));
+	        @OptionalParam(name = Task.SP_STATUS) TokenOrListParam status, @Sort SortSpec sort,
+	        SummaryEnum summary, SearchTotalModeEnum totalMode) {
+		IBundleProvider results = service.searchForTasks(basedOnReference, ownerReference, status, sort);
+		return FhirServerUtils.applySummaryAndTotal(results, summary, totalMode);
 	}
 }
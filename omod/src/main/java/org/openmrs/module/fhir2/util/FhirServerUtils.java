@@ -12,11 +12,17 @@ package org.openmrs.module.fhir2.util;
 import java.util.Collection;
 
 import ca.uhn.fhir.rest.api.MethodOutcome;
+import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.param.TokenParam;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.DomainResource;
 import org.hl7.fhir.r4.model.Resource;
+import org.openmrs.module.fhir2.FhirConstants;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class FhirServerUtils {
@@ -62,4 +68,45 @@ public class FhirServerUtils {
 		return bundle;
 	}
 	
+	/**
+	 * Voided objects are left out of searches unless a search is sent the
+	 * {@link FhirConstants#INCLUDE_VOIDED_SEARCH_PARAM} parameter with the value {@code true}
+	 *
+	 * @param includeVoided the value of the parameter, if any
+	 * @return true if voided objects should be included in the search
+	 */
+	public static boolean isIncludeVoided(TokenParam includeVoided) {
+		return includeVoided != null && Boolean.parseBoolean(includeVoided.getValue());
+	}
+	
+	/**
+	 * Applies the {@code _summary} and {@code _total} parameters of a search to its results.
+	 * {@code _summary=count} returns only the total, without loading any resources, and
+	 * {@code _total=none} skips calculating the total. As we have no way to estimate the total,
+	 * {@code _total=estimate} is treated the same as {@code _total=accurate}, which is also the
+	 * default.
+	 *
+	 * @param results the results of the search
+	 * @param summary the value of the {@code _summary} parameter, if any
+	 * @param totalMode the value of the {@code _total} parameter, if any
+	 * @return the search results
+	 */
+	public static IBundleProvider applySummaryAndTotal(IBundleProvider results, SummaryEnum summary,
+	        SearchTotalModeEnum totalMode) {
+		boolean includeResources = summary != SummaryEnum.COUNT;
+		boolean includeTotal = totalMode != SearchTotalModeEnum.NONE;
+		
+		if (includeResources && includeTotal) {
+			return results;
+		}
+		
+		// the paging providers and streaming only recognise a SearchQueryBundleProvider, so it is not wrapped
+		if (results instanceof SearchQueryBundleProvider) {
+			((SearchQueryBundleProvider<?, ?>) results).setSummaryAndTotal(includeResources, includeTotal);
+			return results;
+		}
+		
+		return new SummaryAndTotalBundleProvider(results, includeResources, includeTotal);
+	}
+	
 }
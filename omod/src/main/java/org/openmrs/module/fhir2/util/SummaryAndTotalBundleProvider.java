@@ -0,0 +1,73 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.util;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
+
+/**
+ * Wraps the results of a search so that only the parts of the response requested by the
+ * {@code _summary} and {@code _total} parameters are calculated, i.e. no resources are loaded for
+ * {@code _summary=count} and no count query is run for {@code _total=none}. This is only used for
+ * results which are not a {@link org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider}, which
+ * applies these parameters itself so that it can still be paged through or streamed.
+ */
+class SummaryAndTotalBundleProvider implements IBundleProvider {
+	
+	private final IBundleProvider delegate;
+	
+	private final boolean includeResources;
+	
+	private final boolean includeTotal;
+	
+	SummaryAndTotalBundleProvider(IBundleProvider delegate, boolean includeResources, boolean includeTotal) {
+		this.delegate = delegate;
+		this.includeResources = includeResources;
+		this.includeTotal = includeTotal;
+	}
+	
+	@Override
+	public IPrimitiveType<Date> getPublished() {
+		return delegate.getPublished();
+	}
+	
+	@Override
+	public List<IBaseResource> getResources(int fromIndex, int toIndex) {
+		if (!includeResources) {
+			return Collections.emptyList();
+		}
+		
+		return delegate.getResources(fromIndex, toIndex);
+	}
+	
+	@Override
+	public String getUuid() {
+		return delegate.getUuid();
+	}
+	
+	@Override
+	public Integer preferredPageSize() {
+		return delegate.preferredPageSize();
+	}
+	
+	@Override
+	public Integer size() {
+		if (!includeTotal) {
+			return null;
+		}
+		
+		return delegate.size();
+	}
+}
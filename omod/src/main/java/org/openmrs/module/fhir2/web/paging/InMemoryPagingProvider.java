@@ -0,0 +1,254 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.web.paging;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.BasePagingProvider;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * A paging provider which keeps the ids of the resources matched by a search in memory. Unlike the
+ * {@link PersistentPagingProvider}, stored searches are only available on the server which ran them.
+ * <p/>
+ * Only resource ids and the query of the search are retained, never the resources themselves, and the
+ * total memory used is bounded by an estimate of the bytes retained by each stored search. No more
+ * ids are read than could fit within that limit and a search which matches more is not stored. When
+ * storing a search would exceed the limit, the oldest searches are evicted first. Reads and writes do
+ * not take any locks. Each page is loaded by its ids in a single query.
+ * <p/>
+ * Only searches backed by a {@link SearchQueryBundleProvider} can be stored. For any other search
+ * only the first page is returned.
+ */
+@Component
+public class InMemoryPagingProvider extends BasePagingProvider {
+	
+	// rough per-search overhead: the map entry, the queue node, the search object, its id and its query
+	private static final long SEARCH_OVERHEAD_BYTES = 256;
+	
+	// rough per-id overhead: the array slot, the String object and its backing char[]
+	private static final long ID_OVERHEAD_BYTES = 64;
+	
+	// the ids of stored resources are uuids, so each one is estimated to retain at least this much
+	private static final long MINIMUM_ID_BYTES = ID_OVERHEAD_BYTES + 2L * 36;
+	
+	private final ConcurrentMap<String, StoredSearch> searches = new ConcurrentHashMap<>();
+	
+	private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+	
+	private final AtomicLong retainedBytes = new AtomicLong();
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	private final LongAdder evictions = new LongAdder();
+	
+	private volatile long maximumBytes = 50L * 1024 * 1024;
+	
+	private volatile long timeoutMillis = TimeUnit.MINUTES.toMillis(60);
+	
+	/**
+	 * Sets the maximum number of bytes the stored searches are estimated to retain
+	 *
+	 * @param maximumBytes the memory budget for stored searches
+	 */
+	public void setMaximumBytes(long maximumBytes) {
+		this.maximumBytes = maximumBytes;
+	}
+	
+	/**
+	 * Sets how long a search can be paged through before it expires
+	 *
+	 * @param timeoutMinutes the number of minutes stored searches are kept for
+	 */
+	public void setTimeout(int timeoutMinutes) {
+		this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+	}
+	
+	@Override
+	public IBundleProvider retrieveResultList(RequestDetails requestDetails, String searchId) {
+		StoredSearch search = searchId == null ? null : searches.get(searchId);
+		if (search == null) {
+			misses.increment();
+			return null;
+		}
+		
+		if (search.isExpired(System.currentTimeMillis())) {
+			remove(searchId, search);
+			misses.increment();
+			return null;
+		}
+		
+		hits.increment();
+		return new PagedSearchBundleProvider(searchId, search.getCreated(), search.getTotal(), search::getResources);
+	}
+	
+	@Override
+	public String storeResultList(RequestDetails requestDetails, IBundleProvider bundleProvider) {
+		if (!(bundleProvider instanceof SearchQueryBundleProvider)) {
+			return null;
+		}
+		
+		// older searches are evicted to make room, so a single search may use the whole budget; a search which
+		// could never fit is not stored at all, so only its first page can be returned
+		int maximumIds = (int) Math.min(Integer.MAX_VALUE - 1, (maximumBytes - SEARCH_OVERHEAD_BYTES) / MINIMUM_ID_BYTES);
+		if (maximumIds <= 0) {
+			return null;
+		}
+		
+		// one more id than can fit is read, only to find out whether the search matches too many
+		SearchQueryBundleProvider<?, ?> searchQueryBundleProvider = (SearchQueryBundleProvider<?, ?>) bundleProvider;
+		List<String> ids = searchQueryBundleProvider.getResourceIds(maximumIds + 1);
+		if (ids.size() > maximumIds) {
+			return null;
+		}
+		
+		long now = System.currentTimeMillis();
+		StoredSearch search = new StoredSearch(ids.toArray(new String[0]), searchQueryBundleProvider, now,
+		        now + timeoutMillis);
+		if (search.getEstimatedBytes() > maximumBytes) {
+			return null;
+		}
+		
+		String searchId = UUID.randomUUID().toString();
+		searches.put(searchId, search);
+		insertionOrder.add(searchId);
+		retainedBytes.addAndGet(search.getEstimatedBytes());
+		
+		evict(now);
+		return searchId;
+	}
+	
+	/**
+	 * @return the number of times a stored search was found
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	/**
+	 * @return the number of times a stored search was not found, either because it never existed, was
+	 *         evicted or has expired
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	/**
+	 * @return the number of stored searches evicted to keep within the memory budget
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * @return the estimated number of bytes currently retained by stored searches
+	 */
+	public long getRetainedBytes() {
+		return retainedBytes.get();
+	}
+	
+	private void evict(long now) {
+		// searches are queued in the order they were stored, so expired searches are always at the head
+		String searchId;
+		while ((searchId = insertionOrder.peek()) != null) {
+			StoredSearch search = searches.get(searchId);
+			if (search != null && !search.isExpired(now) && retainedBytes.get() <= maximumBytes) {
+				break;
+			}
+			
+			if (!insertionOrder.remove(searchId)) {
+				// another thread is evicting the same search
+				continue;
+			}
+			
+			if (search != null && remove(searchId, search) && !search.isExpired(now)) {
+				evictions.increment();
+			}
+		}
+	}
+	
+	private boolean remove(String searchId, StoredSearch search) {
+		if (searches.remove(searchId, search)) {
+			retainedBytes.addAndGet(-search.getEstimatedBytes());
+			return true;
+		}
+		
+		return false;
+	}
+	
+	private static class StoredSearch {
+		
+		private final String[] ids;
+		
+		private final SearchQueryBundleProvider<?, ?> bundleProvider;
+		
+		private final long created;
+		
+		private final long expires;
+		
+		private final long estimatedBytes;
+		
+		StoredSearch(String[] ids, SearchQueryBundleProvider<?, ?> bundleProvider, long created, long expires) {
+			this.ids = ids;
+			this.bundleProvider = bundleProvider;
+			this.created = created;
+			this.expires = expires;
+			
+			long bytes = SEARCH_OVERHEAD_BYTES;
+			for (String id : ids) {
+				bytes += ID_OVERHEAD_BYTES + 2L * id.length();
+			}
+			this.estimatedBytes = bytes;
+		}
+		
+		Integer getTotal() {
+			// as for the first page, no total is returned if it was not wanted, e.g. for _total=none
+			return bundleProvider.isIncludeTotal() ? ids.length : null;
+		}
+		
+		List<IBaseResource> getResources(int fromIndex, int toIndex) {
+			int from = Math.max(fromIndex, 0);
+			int to = Math.min(toIndex, ids.length);
+			if (to <= from) {
+				return Collections.emptyList();
+			}
+			
+			return bundleProvider.getResourcesByUuid(Arrays.asList(ids).subList(from, to));
+		}
+		
+		Date getCreated() {
+			return new Date(created);
+		}
+		
+		long getEstimatedBytes() {
+			return estimatedBytes;
+		}
+		
+		boolean isExpired(long now) {
+			return now >= expires;
+		}
+	}
+}
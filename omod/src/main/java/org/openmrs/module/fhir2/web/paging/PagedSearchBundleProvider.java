@@ -0,0 +1,73 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.web.paging;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import ca.uhn.fhir.model.primitive.InstantDt;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
+
+/**
+ * An {@link IBundleProvider} for a search stored by a paging provider. Each page of results is loaded
+ * when it is requested.
+ */
+class PagedSearchBundleProvider implements IBundleProvider {
+	
+	private final String searchId;
+	
+	private final IPrimitiveType<Date> published;
+	
+	private final Integer total;
+	
+	private final BiFunction<Integer, Integer, List<IBaseResource>> resources;
+	
+	/**
+	 * @param searchId the id of the search
+	 * @param published the time the search was run
+	 * @param total the total number of results or null if the total is not returned
+	 * @param resources a function which loads the resources between two indices
+	 */
+	PagedSearchBundleProvider(String searchId, Date published, Integer total,
+	        BiFunction<Integer, Integer, List<IBaseResource>> resources) {
+		this.searchId = searchId;
+		this.published = new InstantDt(published);
+		this.total = total;
+		this.resources = resources;
+	}
+	
+	@Override
+	public IPrimitiveType<Date> getPublished() {
+		return published;
+	}
+	
+	@Override
+	public List<IBaseResource> getResources(int fromIndex, int toIndex) {
+		return resources.apply(fromIndex, toIndex);
+	}
+	
+	@Override
+	public String getUuid() {
+		return searchId;
+	}
+	
+	@Override
+	public Integer preferredPageSize() {
+		return null;
+	}
+	
+	@Override
+	public Integer size() {
+		return total;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.web.paging;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import ca.uhn.fhir.model.api.Include;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.BasePagingProvider;
+import ca.uhn.fhir.rest.server.exceptions.ResourceGoneException;
+import lombok.AccessLevel;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.openmrs.module.fhir2.FhirPagedSearch;
+import org.openmrs.module.fhir2.api.FhirPagedSearchService;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * A paging provider which stores the ordered ids of the results of a search in the database, rather
+ * than holding the results in memory. This means that any server sharing the database can serve the
+ * next page of a search, that searches don't use up memory while a client pages through them and that
+ * every page comes from the same snapshot of the results. Each page is loaded by its stored ids.
+ * <p/>
+ * Only searches backed by a {@link SearchQueryBundleProvider} can be stored. For any other search
+ * only the first page is returned. The {@code _include} and {@code _revinclude} parameters of the
+ * search are stored alongside it, so that every page carries the resources it includes, as is whether
+ * the total was wanted, so that no page of a {@code _total=none} search has one.
+ *
+ * @see FhirPagedSearchService
+ */
+@Component
+@Setter(AccessLevel.PACKAGE)
+public class PersistentPagingProvider extends BasePagingProvider {
+	
+	@Autowired
+	private FhirPagedSearchService pagedSearchService;
+	
+	@Override
+	public IBundleProvider retrieveResultList(RequestDetails requestDetails, String searchId) {
+		FhirPagedSearch search = pagedSearchService.getPagedSearchByUuid(searchId);
+		if (search == null) {
+			return null;
+		}
+		
+		Integer total = search.isIncludeTotal() ? search.getTotal() : null;
+		return new PagedSearchBundleProvider(search.getUuid(), search.getDateCreated(), total,
+		        (fromIndex, toIndex) -> getResources(search, fromIndex, toIndex));
+	}
+	
+	@Override
+	public String storeResultList(RequestDetails requestDetails, IBundleProvider bundleProvider) {
+		String resourceType = requestDetails == null ? null : requestDetails.getResourceName();
+		if (resourceType == null || !(bundleProvider instanceof SearchQueryBundleProvider)) {
+			return null;
+		}
+		
+		SearchQueryBundleProvider<?, ?> searchQueryBundleProvider = (SearchQueryBundleProvider<?, ?>) bundleProvider;
+		FhirPagedSearch search = pagedSearchService.savePagedSearch(resourceType,
+		    searchQueryBundleProvider.getSearchQuery(), searchQueryBundleProvider.isIncludeTotal(),
+		    getIncludes(requestDetails, Constants.PARAM_INCLUDE), getIncludes(requestDetails, Constants.PARAM_REVINCLUDE));
+		return search == null ? null : search.getUuid();
+	}
+	
+	private static Set<Include> getIncludes(RequestDetails requestDetails, String parameterName) {
+		Map<String, String[]> parameters = requestDetails.getParameters();
+		String[] values = parameters == null ? null : parameters.get(parameterName);
+		if (values == null) {
+			return null;
+		}
+		
+		return Arrays.stream(values).filter(StringUtils::isNotBlank).map(Include::new)
+		        .collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+	
+	private List<IBaseResource> getResources(FhirPagedSearch search, int fromIndex, int toIndex) {
+		List<IBaseResource> resources = pagedSearchService.getResources(search, fromIndex, toIndex);
+		if (resources == null) {
+			// the same response HAPI gives for a search which has expired
+			throw new ResourceGoneException("Search " + search.getUuid() + " can no longer be paged through");
+		}
+		
+		return resources;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.web.servlet;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+import ca.uhn.fhir.context.BaseRuntimeChildDefinition;
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
+import org.springframework.stereotype.Component;
+
+/**
+ * Works out which elements of the returned resources the client has asked for with the
+ * {@code _elements} and {@code _summary} parameters and sets the {@link ElementProjection} for the
+ * request, so that translators can skip populating any others. HAPI still filters the response as
+ * normal; the projection only ever includes at least the elements HAPI will return. Mandatory
+ * elements are always included.
+ */
+@Component
+@Interceptor
+public class ElementProjectionInterceptor {
+	
+	private static final String PARAM_ELEMENTS_EXCLUDE = Constants.PARAM_ELEMENTS + ":exclude";
+	
+	private static final String ELEMENT_TEXT = "text";
+	
+	@Hook(Pointcut.SERVER_INCOMING_REQUEST_PRE_HANDLED)
+	public void setElementProjection(RequestDetails requestDetails) {
+		ElementProjection.set(getIncludedElements(requestDetails));
+	}
+	
+	/**
+	 * @param requestDetails the details of a request
+	 * @return a predicate which returns true for the resource type and element names which should be
+	 *         populated or null if every element should be populated
+	 */
+	static BiPredicate<String, String> getIncludedElements(RequestDetails requestDetails) {
+		FhirContext fhirContext = requestDetails.getFhirContext();
+		
+		SummaryEnum summary = getSummary(requestDetails);
+		if (summary == SummaryEnum.TRUE) {
+			return (resourceType, element) -> isChild(fhirContext, resourceType, element,
+			    child -> child.isSummary() || child.getMin() > 0);
+		} else if (summary == SummaryEnum.TEXT) {
+			return (resourceType, element) -> ELEMENT_TEXT.equals(element)
+			        || isChild(fhirContext, resourceType, element, child -> child.getMin() > 0);
+		}
+		
+		Set<String> elements = getParameterValues(requestDetails, Constants.PARAM_ELEMENTS);
+		Set<String> excludedElements = getParameterValues(requestDetails, PARAM_ELEMENTS_EXCLUDE);
+		if (elements.isEmpty() && excludedElements.isEmpty()) {
+			return null;
+		}
+		
+		return (resourceType, element) -> {
+			boolean mandatory = isChild(fhirContext, resourceType, element, child -> child.getMin() > 0);
+			if (!mandatory && matches(excludedElements, resourceType, element)) {
+				return false;
+			}
+			
+			return mandatory || elements.isEmpty() || matches(elements, resourceType, element);
+		};
+	}
+	
+	private static SummaryEnum getSummary(RequestDetails requestDetails) {
+		String[] values = requestDetails.getParameters().get(Constants.PARAM_SUMMARY);
+		if (values == null || values.length == 0) {
+			return null;
+		}
+		
+		return SummaryEnum.fromCode(values[0]);
+	}
+	
+	private static Set<String> getParameterValues(RequestDetails requestDetails, String parameter) {
+		String[] values = requestDetails.getParameters().get(parameter);
+		if (values == null) {
+			return Collections.emptySet();
+		}
+		
+		Set<String> result = new HashSet<>();
+		for (String value : values) {
+			for (String element : StringUtils.split(value, ',')) {
+				if (StringUtils.isNotBlank(element)) {
+					result.add(element.trim());
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	// elements may be named on their own or qualified with the resource type they apply to, or with *
+	private static boolean matches(Set<String> elements, String resourceType, String element) {
+		return elements.contains(element) || elements.contains(resourceType + "." + element)
+		        || elements.contains("*." + element);
+	}
+	
+	// where the element cannot be found, it is included so that it's never wrongly left out
+	private static boolean isChild(FhirContext fhirContext, String resourceType, String element,
+	        Predicate<BaseRuntimeChildDefinition> test) {
+		BaseRuntimeChildDefinition child = fhirContext.getResourceDefinition(resourceType).getChildByName(element);
+		return child == null || test.test(child);
+	}
+}
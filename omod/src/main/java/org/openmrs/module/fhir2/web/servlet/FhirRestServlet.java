@@ -9,11 +9,16 @@
  */
 package org.openmrs.module.fhir2.web.servlet;
 
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
 import java.util.Collection;
 
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.rest.api.EncodingEnum;
-import ca.uhn.fhir.rest.server.FifoMemoryPagingProvider;
+import ca.uhn.fhir.rest.server.BasePagingProvider;
 import ca.uhn.fhir.rest.server.IResourceProvider;
 import ca.uhn.fhir.rest.server.RestfulServer;
 import ca.uhn.fhir.rest.server.interceptor.LoggingInterceptor;
@@ -22,6 +27,10 @@ import lombok.Setter;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.FhirGlobalPropertyService;
+import org.openmrs.module.fhir2.api.translators.ElementProjection;
+import org.openmrs.module.fhir2.providers.BulkExportProvider;
+import org.openmrs.module.fhir2.web.paging.InMemoryPagingProvider;
+import org.openmrs.module.fhir2.web.paging.PersistentPagingProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -40,6 +49,21 @@ public class FhirRestServlet extends RestfulServer {
 	@Qualifier("hapiLoggingInterceptor")
 	private LoggingInterceptor loggingInterceptor;
 	
+	@Autowired
+	private PersistentPagingProvider persistentPagingProvider;
+	
+	@Autowired
+	private InMemoryPagingProvider inMemoryPagingProvider;
+	
+	@Autowired
+	private StreamingSearchInterceptor streamingSearchInterceptor;
+	
+	@Autowired
+	private BulkExportProvider bulkExportProvider;
+	
+	@Autowired
+	private ElementProjectionInterceptor elementProjectionInterceptor;
+	
 	@Override
 	protected void initialize() {
 		// ensure properties for this class are properly injected
@@ -52,13 +76,62 @@ public class FhirRestServlet extends RestfulServer {
 		int maximumPageSize = NumberUtils
 		        .toInt(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_MAXIMUM_PAGE_SIZE), 100);
 		
-		FifoMemoryPagingProvider pp = new FifoMemoryPagingProvider(defaultPageSize);
-		pp.setDefaultPageSize(defaultPageSize);
-		pp.setMaximumPageSize(maximumPageSize);
+		BasePagingProvider pagingProvider;
+		if ("memory".equalsIgnoreCase(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_PAGING_STORE))) {
+			int memoryLimit = NumberUtils
+			        .toInt(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_PAGING_MEMORY_LIMIT), 50);
+			int timeout = NumberUtils
+			        .toInt(globalPropertyService.getGlobalProperty(FhirConstants.OPENMRS_FHIR_PAGING_TIMEOUT), 60);
+			
+			inMemoryPagingProvider.setMaximumBytes(memoryLimit * 1024L * 1024L);
+			inMemoryPagingProvider.setTimeout(timeout);
+			pagingProvider = inMemoryPagingProvider;
+		} else {
+			pagingProvider = persistentPagingProvider;
+		}
+		
+		pagingProvider.setDefaultPageSize(defaultPageSize);
+		pagingProvider.setMaximumPageSize(maximumPageSize);
+		
+		setPagingProvider(pagingProvider);
+		
+		// the system-level bulk data operations aren't tied to any resource type
+		if (bulkExportProvider != null) {
+			setPlainProviders(bulkExportProvider);
+		}
 		
-		setPagingProvider(pp);
 		setDefaultResponseEncoding(EncodingEnum.JSON);
 		registerInterceptor(loggingInterceptor);
+		registerInterceptor(streamingSearchInterceptor);
+		registerInterceptor(elementProjectionInterceptor);
+	}
+	
+	/**
+	 * The {@link ElementProjection} set while handling a request is only cleared here, once the response
+	 * has been completely written, as streamed results are translated while the response is written
+	 */
+	@Override
+	protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		try {
+			super.service(request, response);
+		}
+		finally {
+			ElementProjection.clear();
+		}
+	}
+	
+	/**
+	 * Bulk data exports are cancelled by a {@code DELETE} request to their status url, which is not
+	 * something HAPI allows an operation to handle
+	 */
+	@Override
+	protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		if (bulkExportProvider != null && bulkExportProvider.isPollStatusRequest(request)) {
+			bulkExportProvider.cancelExport(request, response);
+			return;
+		}
+		
+		super.doDelete(request, response);
 	}
 	
 	@Override
@@ -0,0 +1,265 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.web.servlet;
+
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.interceptor.api.Hook;
+import ca.uhn.fhir.interceptor.api.Interceptor;
+import ca.uhn.fhir.interceptor.api.Pointcut;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.EncodingEnum;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.RestfulServerUtils;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
+import org.hl7.fhir.instance.model.api.IBaseBundle;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the results of a search directly to the response, one entry at a time, for clients which
+ * ask for this with a {@code Prefer: streaming} header. Normally HAPI builds the entire bundle for a
+ * page of results in memory before encoding it, which limits how many results can be returned at
+ * once. Streamed searches instead return every matching result in a single bundle, only holding a
+ * small batch of results in memory at a time. Streamed bundles have no total and are not paged.
+ * <p/>
+ * The response is only committed once the first batch of results has been translated, so a search
+ * which fails straight away gets an error response as normal. A search which fails after that ends
+ * its bundle with an OperationOutcome entry instead.
+ * <p/>
+ * Only JSON responses can be streamed; other formats are returned as normal.
+ *
+ * @see #deferIfStreaming(IBundleProvider, RequestDetails)
+ */
+@Component
+@Interceptor
+public class StreamingSearchInterceptor {
+	
+	/**
+	 * The preference clients add to the {@code Prefer} header of a search to have its results streamed
+	 */
+	public static final String PREFER_STREAMING = "streaming";
+	
+	private static final Logger log = LoggerFactory.getLogger(StreamingSearchInterceptor.class);
+	
+	private static final String STREAMED_RESULTS = StreamingSearchInterceptor.class.getName() + ".results";
+	
+	private static final int BATCH_SIZE = 100;
+	
+	/**
+	 * Called by a search to hand its results over to be streamed if the client has asked for this. The
+	 * results are then written by this interceptor in place of the response HAPI would have written.
+	 *
+	 * @param results the results of the search
+	 * @param requestDetails the details of the search request
+	 * @return the results to return from the search, which are empty if they will be streamed instead
+	 */
+	public static IBundleProvider deferIfStreaming(IBundleProvider results, RequestDetails requestDetails) {
+		if (requestDetails == null || !(results instanceof SearchQueryBundleProvider)
+		        || !isStreamingRequested(requestDetails)) {
+			return results;
+		}
+		
+		requestDetails.getUserData().put(STREAMED_RESULTS, results);
+		return new SimpleBundleProvider(Collections.emptyList());
+	}
+	
+	@Hook(Pointcut.SERVER_OUTGOING_RESPONSE)
+	public boolean streamSearchResults(RequestDetails requestDetails, HttpServletResponse response) throws IOException {
+		Object results = requestDetails.getUserData().get(STREAMED_RESULTS);
+		if (!(results instanceof SearchQueryBundleProvider)) {
+			return true;
+		}
+		
+		writeBundle(requestDetails, (SearchQueryBundleProvider<?, ?>) results, response);
+		
+		// the response has been written, so HAPI should not write one as well
+		return false;
+	}
+	
+	private static boolean isStreamingRequested(RequestDetails requestDetails) {
+		List<String> preferHeaders = requestDetails.getHeaders(Constants.HEADER_PREFER);
+		if (preferHeaders == null || preferHeaders.stream().flatMap(header -> Arrays.stream(header.split("[,;]")))
+		        .map(String::trim).noneMatch(PREFER_STREAMING::equalsIgnoreCase)) {
+			return false;
+		}
+		
+		// a streamed bundle has no total, so there is nothing to stream when only the count is asked for
+		if (RestfulServerUtils.determineSummaryMode(requestDetails).contains(SummaryEnum.COUNT)) {
+			return false;
+		}
+		
+		return RestfulServerUtils.determineResponseEncodingWithDefault(requestDetails).getEncoding() == EncodingEnum.JSON;
+	}
+	
+	private static void writeBundle(RequestDetails requestDetails, SearchQueryBundleProvider<?, ?> results,
+	        HttpServletResponse response) throws IOException {
+		FhirContext fhirContext = requestDetails.getFhirContext();
+		
+		Bundle bundle = new Bundle();
+		bundle.setId(UUID.randomUUID().toString());
+		bundle.getMeta().setLastUpdated(results.getPublished().getValue());
+		bundle.setType(Bundle.BundleType.SEARCHSET);
+		bundle.addLink().setRelation(IBaseBundle.LINK_SELF).setUrl(requestDetails.getCompleteUrl());
+		
+		BundleWriter bundleWriter = new BundleWriter(requestDetails, response, fhirContext.newJsonParser(), bundle);
+		try {
+			results.forEachResource(BATCH_SIZE, bundleWriter::accept);
+		}
+		catch (UncheckedIOException e) {
+			// the client has gone away, so there is nothing more to write
+			throw e.getCause();
+		}
+		catch (RuntimeException e) {
+			if (!bundleWriter.isCommitted()) {
+				// nothing has been written yet, so HAPI can still return the error as normal
+				throw e;
+			}
+			
+			log.error("Streaming the results of {} failed after the response was committed",
+			    requestDetails.getCompleteUrl(), e);
+			bundleWriter.writeOutcome();
+		}
+		
+		bundleWriter.close();
+	}
+	
+	/**
+	 * Writes the entries of a streamed bundle. The first batch of resources is held back until it has
+	 * been translated, so that a search which fails straight away still gets an error response. Once
+	 * the response is committed any failure can only be reported as an OperationOutcome entry.
+	 */
+	private static class BundleWriter {
+		
+		private final RequestDetails requestDetails;
+		
+		private final HttpServletResponse response;
+		
+		private final IParser envelopeParser;
+		
+		private final IParser resourceParser;
+		
+		private final Bundle bundle;
+		
+		private final List<IBaseResource> firstBatch = new ArrayList<>(BATCH_SIZE);
+		
+		private Writer writer;
+		
+		private boolean hasEntries;
+		
+		BundleWriter(RequestDetails requestDetails, HttpServletResponse response, IParser envelopeParser, Bundle bundle) {
+			this.requestDetails = requestDetails;
+			this.response = response;
+			this.envelopeParser = envelopeParser;
+			this.bundle = bundle;
+			
+			// applies _elements, _summary and _pretty the same way HAPI does for the resources in a bundle
+			FhirContext fhirContext = requestDetails.getFhirContext();
+			resourceParser = RestfulServerUtils.getNewParser(fhirContext, fhirContext.getVersion().getVersion(),
+			    requestDetails);
+			// each resource is encoded on its own rather than as part of the bundle
+			resourceParser.setEncodeElementsAppliesToChildResourcesOnly(false);
+		}
+		
+		boolean isCommitted() {
+			return writer != null;
+		}
+		
+		void accept(IBaseResource resource) {
+			try {
+				if (writer != null) {
+					writeEntry(resource);
+				} else {
+					firstBatch.add(resource);
+					if (firstBatch.size() >= BATCH_SIZE) {
+						commit();
+					}
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		void writeOutcome() throws IOException {
+			OperationOutcome outcome = new OperationOutcome();
+			outcome.addIssue().setSeverity(OperationOutcome.IssueSeverity.FATAL)
+			        .setCode(OperationOutcome.IssueType.EXCEPTION)
+			        .setDiagnostics("The search failed before all of its results could be returned");
+			
+			writer.write(hasEntries ? ",{\"resource\":" : "{\"resource\":");
+			writer.write(envelopeParser.encodeResourceToString(outcome));
+			writer.write(",\"search\":{\"mode\":\"outcome\"}}");
+			hasEntries = true;
+		}
+		
+		void close() throws IOException {
+			if (writer == null) {
+				commit();
+			}
+			
+			writer.write("]}");
+			writer.flush();
+		}
+		
+		private void commit() throws IOException {
+			String envelope = envelopeParser.encodeResourceToString(bundle);
+			
+			response.setStatus(HttpServletResponse.SC_OK);
+			response.setContentType(Constants.CT_FHIR_JSON_NEW);
+			response.setCharacterEncoding(Constants.CHARSET_NAME_UTF8);
+			
+			writer = response.getWriter();
+			
+			// the entries are written into the encoded bundle in place of its closing brace
+			writer.write(envelope, 0, envelope.length() - 1);
+			writer.write(",\"entry\":[");
+			
+			for (IBaseResource resource : firstBatch) {
+				writeEntry(resource);
+			}
+			
+			firstBatch.clear();
+		}
+		
+		private void writeEntry(IBaseResource resource) throws IOException {
+			String resourceType = requestDetails.getFhirContext().getResourceDefinition(resource).getName();
+			// each resource is encoded before anything is written, so a failure never leaves half an entry
+			String encoded = resourceParser.encodeResourceToString(resource);
+			
+			writer.write(hasEntries ? ",{\"fullUrl\":\"" : "{\"fullUrl\":\"");
+			// the full URL is built from the server base and a uuid, so never needs escaping
+			writer.write(
+			    resource.getIdElement().withServerBase(requestDetails.getFhirServerBase(), resourceType).getValue());
+			writer.write("\",\"resource\":");
+			writer.write(encoded);
+			writer.write(",\"search\":{\"mode\":\"match\"}}");
+			hasEntries = true;
+		}
+	}
+}
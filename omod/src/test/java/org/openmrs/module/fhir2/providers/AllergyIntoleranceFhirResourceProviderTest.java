@@ -24,15 +24,17 @@ import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 import java.util.Collections;
 import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.ReferenceOrListParam;
 import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.AllergyIntolerance;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Patient;
 import org.hl7.fhir.r4.model.Provenance;
@@ -133,12 +135,13 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		    new ReferenceOrListParam().add(new ReferenceParam().setValue("M4001-1").setChain(Patient.SP_IDENTIFIER)));
 		
 		when(service.searchForAllergies(argThat(is(patient)), isNull(), isNull(), isNull(), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(patient, null, null, null, null, null);
+		IBundleProvider results = resourceProvider.searchForAllergies(patient, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -147,12 +150,13 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		patient.addValue(new ReferenceOrListParam().add(new ReferenceParam().setValue("John").setChain(Patient.SP_GIVEN)));
 		
 		when(service.searchForAllergies(argThat(is(patient)), isNull(), isNull(), isNull(), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(patient, null, null, null, null, null);
+		IBundleProvider results = resourceProvider.searchForAllergies(patient, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -161,12 +165,13 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		patient.addValue(new ReferenceOrListParam().add(new ReferenceParam().setValue("John").setChain(Patient.SP_FAMILY)));
 		
 		when(service.searchForAllergies(argThat(is(patient)), isNull(), isNull(), isNull(), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(patient, null, null, null, null, null);
+		IBundleProvider results = resourceProvider.searchForAllergies(patient, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -176,12 +181,13 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		    new ReferenceOrListParam().add(new ReferenceParam().setValue("John Doe").setChain(Patient.SP_NAME)));
 		
 		when(service.searchForAllergies(argThat(is(patient)), isNull(), isNull(), isNull(), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(patient, null, null, null, null, null);
+		IBundleProvider results = resourceProvider.searchForAllergies(patient, null, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -190,12 +196,13 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		category.addOr(new TokenParam().setValue("food"));
 		
 		when(service.searchForAllergies(isNull(), argThat(is(category)), isNull(), isNull(), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(null, category, null, null, null, null);
+		IBundleProvider results = resourceProvider.searchForAllergies(null, category, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -204,13 +211,15 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		allergen.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODED_ALLERGEN_UUID)));
 		
 		when(service.searchForAllergies(isNull(), isNull(), argThat(is(allergen)), isNull(), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(null, null, allergen, null, null, null);
+		IBundleProvider results = resourceProvider.searchForAllergies(null, null, allergen, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -219,12 +228,13 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		severity.addOr(new TokenParam().setValue(SEVERITY_CONCEPT_UUID));
 		
 		when(service.searchForAllergies(isNull(), isNull(), isNull(), argThat(is(severity)), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(null, null, null, severity, null, null);
+		IBundleProvider results = resourceProvider.searchForAllergies(null, null, null, severity, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -233,12 +243,14 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		manifestation.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODED_REACTION_UUID)));
 		
 		when(service.searchForAllergies(isNull(), isNull(), isNull(), isNull(), argThat(is(manifestation)), isNull()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(null, null, null, null, manifestation, null);
+		IBundleProvider results = resourceProvider.searchForAllergies(null, null, null, null, manifestation, null, null,
+		    null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -247,11 +259,16 @@ public class AllergyIntoleranceFhirResourceProviderTest extends BaseFhirProvenan
 		status.addOr(new TokenParam().setValue("active"));
 		
 		when(service.searchForAllergies(isNull(), isNull(), isNull(), isNull(), isNull(), argThat(is(status))))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
-		Bundle results = resourceProvider.searchForAllergies(null, null, null, null, null, status);
+		IBundleProvider results = resourceProvider.searchForAllergies(null, null, null, null, null, status, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("AllergyIntolerance"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
+	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
 	}
 }
@@ -37,6 +37,7 @@ import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.hl7.fhir.r4.model.AllergyIntolerance;
@@ -378,7 +379,7 @@ public class AllergyIntoleranceFhirResourceProviderWebTest extends BaseFhirResou
 		AllergyIntolerance allergy = new AllergyIntolerance();
 		allergy.setId(ALLERGY_UUID);
 		when(allergyService.searchForAllergies(any(), any(), any(), any(), any(), any()))
-		        .thenReturn(Collections.singletonList(allergyIntolerance));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(allergyIntolerance)));
 		
 		MockHttpServletResponse response = get(uri).accept(FhirMediaTypes.JSON).go();
 		
@@ -0,0 +1,274 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.providers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.commons.io.IOUtils;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.api.APIAuthenticationException;
+import org.openmrs.module.fhir2.api.FhirBulkExportService;
+import org.openmrs.module.fhir2.api.FhirPatientService;
+import org.openmrs.module.fhir2.api.export.BulkExportJob;
+import org.openmrs.module.fhir2.web.servlet.BaseFhirResourceProviderTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkExportProviderWebTest extends BaseFhirResourceProviderTest<PatientFhirResourceProvider, Patient> {
+	
+	private static final String JOB_ID = "a3f5d1c2-7b8e-4f6a-9c0d-1e2f3a4b5c6d";
+	
+	private static final String UNKNOWN_JOB_ID = "0e9d8c7b-6a5f-4e3d-2c1b-0a9f8e7d6c5b";
+	
+	private static final String USER_UUID = "1010d442-e134-11de-babe-001e378eb67e";
+	
+	private static final String REQUEST_URL = "http://localhost:8080/fhir2Servlet/$export";
+	
+	private static final String FILE_NAME = "Observation.ndjson.gz";
+	
+	private static final String NDJSON = "{\"resourceType\":\"Observation\",\"id\":\"1\"}\n"
+	        + "{\"resourceType\":\"Observation\",\"id\":\"2\"}\n";
+	
+	private static final String PREFER_RESPOND_ASYNC = "respond-async";
+	
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	@Getter(AccessLevel.PUBLIC)
+	private PatientFhirResourceProvider resourceProvider;
+	
+	@Getter(AccessLevel.PUBLIC)
+	private BulkExportProvider bulkExportProvider;
+	
+	@Mock
+	private FhirPatientService patientService;
+	
+	@Mock
+	private FhirBulkExportService bulkExportService;
+	
+	private BulkExportJob job;
+	
+	@Before
+	public void setup() throws Exception {
+		bulkExportProvider = new BulkExportProvider();
+		bulkExportProvider.setBulkExportService(bulkExportService);
+		
+		resourceProvider = new PatientFhirResourceProvider();
+		resourceProvider.setPatientService(patientService);
+		resourceProvider.setBulkExportProvider(bulkExportProvider);
+		
+		job = new BulkExportJob(JOB_ID, REQUEST_URL, USER_UUID, null, Collections.singletonList("Observation"), null,
+		        temporaryFolder.getRoot());
+		
+		super.setup();
+	}
+	
+	@Test
+	public void shouldKickOffSystemExportWithPollStatusLocation() throws Exception {
+		when(bulkExportService.getExportableResourceTypes()).thenReturn(Collections.singleton("Observation"));
+		when(bulkExportService.startExport(anyCollection(), isNull(), any())).thenReturn(job);
+		
+		MockHttpServletResponse response = get("/$export").header("Prefer", PREFER_RESPOND_ASYNC).go();
+		
+		assertThat(response, statusEquals(HttpStatus.ACCEPTED));
+		assertThat(response.getHeader("Content-Location"),
+		    endsWith("/" + BulkExportProvider.OPERATION_EXPORT_POLL_STATUS + "?_jobId=" + JOB_ID));
+	}
+	
+	@Test
+	public void shouldKickOffPatientExportWithPollStatusLocation() throws Exception {
+		when(bulkExportService.getExportableResourceTypes()).thenReturn(Collections.singleton("Observation"));
+		when(bulkExportService.startExport(anyCollection(), isNull(), any())).thenReturn(job);
+		
+		MockHttpServletResponse response = get("/Patient/$export").header("Prefer", PREFER_RESPOND_ASYNC).go();
+		
+		assertThat(response, statusEquals(HttpStatus.ACCEPTED));
+		assertThat(response.getHeader("Content-Location"),
+		    endsWith("/" + BulkExportProvider.OPERATION_EXPORT_POLL_STATUS + "?_jobId=" + JOB_ID));
+	}
+	
+	@Test
+	public void shouldReturn403WhenUserCannotStartExports() throws Exception {
+		when(bulkExportService.getExportableResourceTypes()).thenReturn(Collections.singleton("Observation"));
+		when(bulkExportService.startExport(anyCollection(), isNull(), any()))
+		        .thenThrow(new APIAuthenticationException("Privilege required: Export FHIR Bulk Data"));
+		
+		MockHttpServletResponse response = get("/$export").header("Prefer", PREFER_RESPOND_ASYNC)
+		        .accept(FhirMediaTypes.JSON).go();
+		
+		assertThat(response, statusEquals(HttpStatus.FORBIDDEN));
+		assertThat(response.getHeader("Content-Location"), nullValue());
+	}
+	
+	@Test
+	public void shouldRejectKickOffWithoutRespondAsync() throws Exception {
+		MockHttpServletResponse response = get("/$export").accept(FhirMediaTypes.JSON).go();
+		
+		assertThat(response, isBadRequest());
+		verify(bulkExportService, never()).startExport(anyCollection(), any(), any());
+	}
+	
+	@Test
+	public void shouldReturnProgressWhileExportIsRunning() throws Exception {
+		when(bulkExportService.getExport(JOB_ID)).thenReturn(job);
+		
+		MockHttpServletResponse response = get("/$export-poll-status?_jobId=" + JOB_ID).go();
+		
+		assertThat(response, statusEquals(HttpStatus.ACCEPTED));
+		assertThat(response.getHeader("X-Progress"), equalTo(job.getProgress()));
+		assertThat(response.getHeader("Retry-After"), equalTo("10"));
+	}
+	
+	@Test
+	public void shouldReturnManifestWhenExportIsComplete() throws Exception {
+		BulkExportJob completedJob = mock(BulkExportJob.class);
+		when(completedJob.getId()).thenReturn(JOB_ID);
+		when(completedJob.getStatus()).thenReturn(BulkExportJob.Status.COMPLETED);
+		when(completedJob.getRequest()).thenReturn(REQUEST_URL);
+		when(completedJob.getTransactionTime()).thenReturn(new Date());
+		when(completedJob.getOutputs())
+		        .thenReturn(Collections.singletonList(new BulkExportJob.Output("Observation", FILE_NAME, 2)));
+		when(bulkExportService.getExport(JOB_ID)).thenReturn(completedJob);
+		
+		MockHttpServletResponse response = get("/$export-poll-status?_jobId=" + JOB_ID).go();
+		
+		assertThat(response, statusEquals(HttpStatus.OK));
+		
+		JsonNode manifest = objectMapper.readTree(response.getContentAsString());
+		assertThat(manifest.get("request").asText(), equalTo(REQUEST_URL));
+		assertThat(manifest.get("requiresAccessToken").asBoolean(), is(true));
+		assertThat(manifest.get("output").size(), equalTo(1));
+		
+		JsonNode output = manifest.get("output").get(0);
+		assertThat(output.get("type").asText(), equalTo("Observation"));
+		assertThat(output.get("count").asLong(), equalTo(2L));
+		assertThat(output.get("url").asText(), endsWith(
+		    "/" + BulkExportProvider.OPERATION_EXPORT_DOWNLOAD + "?_jobId=" + JOB_ID + "&_file=" + FILE_NAME));
+	}
+	
+	@Test
+	public void shouldReturnOperationOutcomeWhenExportFailed() throws Exception {
+		job.fail("Disk full");
+		when(bulkExportService.getExport(JOB_ID)).thenReturn(job);
+		
+		MockHttpServletResponse response = get("/$export-poll-status?_jobId=" + JOB_ID).accept(FhirMediaTypes.JSON)
+		        .go();
+		
+		assertThat(response, statusEquals(HttpStatus.INTERNAL_SERVER_ERROR));
+		
+		OperationOutcome outcome = FhirContext.forR4().newJsonParser().parseResource(OperationOutcome.class,
+		    response.getContentAsString());
+		assertThat(outcome.getIssue(), hasSize(1));
+		assertThat(outcome.getIssueFirstRep().getDiagnostics(), containsString("Disk full"));
+	}
+	
+	@Test
+	public void shouldReturn404ForUnknownExport() throws Exception {
+		MockHttpServletResponse response = get("/$export-poll-status?_jobId=" + UNKNOWN_JOB_ID)
+		        .accept(FhirMediaTypes.JSON).go();
+		
+		assertThat(response, isNotFound());
+	}
+	
+	@Test
+	public void shouldDownloadExportFileGzippedWhenClientAcceptsGzip() throws Exception {
+		when(bulkExportService.getExportFile(JOB_ID, FILE_NAME)).thenReturn(writeExportFile());
+		
+		MockHttpServletResponse response = get("/$export-download?_jobId=" + JOB_ID + "&_file=" + FILE_NAME)
+		        .header("Accept-Encoding", "gzip").go();
+		
+		assertThat(response, statusEquals(HttpStatus.OK));
+		assertThat(response.getHeader("Content-Encoding"), equalTo("gzip"));
+		
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+			assertThat(IOUtils.toString(in, StandardCharsets.UTF_8), equalTo(NDJSON));
+		}
+	}
+	
+	@Test
+	public void shouldDownloadExportFileDecompressedWhenClientDoesNotAcceptGzip() throws Exception {
+		when(bulkExportService.getExportFile(JOB_ID, FILE_NAME)).thenReturn(writeExportFile());
+		
+		MockHttpServletResponse response = get("/$export-download?_jobId=" + JOB_ID + "&_file=" + FILE_NAME).go();
+		
+		assertThat(response, statusEquals(HttpStatus.OK));
+		assertThat(response.getHeader("Content-Encoding"), nullValue());
+		assertThat(response.getContentType(), containsString("application/fhir+ndjson"));
+		assertThat(response.getContentAsString(), equalTo(NDJSON));
+	}
+	
+	@Test
+	public void shouldCancelExportOnDeleteToPollStatus() throws Exception {
+		when(bulkExportService.cancelExport(JOB_ID)).thenReturn(job);
+		
+		MockHttpServletResponse response = delete("/$export-poll-status?_jobId=" + JOB_ID).go();
+		
+		assertThat(response, statusEquals(HttpStatus.ACCEPTED));
+		verify(bulkExportService).cancelExport(JOB_ID);
+	}
+	
+	@Test
+	public void shouldReturn404WhenCancellingUnknownExport() throws Exception {
+		MockHttpServletResponse response = delete("/$export-poll-status?_jobId=" + UNKNOWN_JOB_ID).go();
+		
+		assertThat(response, isNotFound());
+	}
+	
+	private File writeExportFile() throws Exception {
+		File file = temporaryFolder.newFile(FILE_NAME);
+		try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)),
+		        StandardCharsets.UTF_8)) {
+			writer.write(NDJSON);
+		}
+		
+		return file;
+	}
+}
@@ -23,6 +23,7 @@ import java.util.List;
 
 import ca.uhn.fhir.rest.api.MethodOutcome;
 import ca.uhn.fhir.rest.api.SortSpec;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityParam;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
@@ -31,9 +32,10 @@ import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import org.hamcrest.Matchers;
-import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Condition;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Patient;
@@ -146,12 +148,17 @@ public class ConditionFhirResourceProviderTest extends BaseFhirProvenanceResourc
 		        .setUpperBound("upper record date");
 		SortSpec sort = new SortSpec("sort param");
 		when(conditionService.searchConditions(patientReference, subjectReference, codeList, clinicalList, onsetDate,
-		    onsetAge, recordDate, sort)).thenReturn(Arrays.asList(condition));
+		    onsetAge, recordDate, sort)).thenReturn(new SimpleBundleProvider(Arrays.asList(condition)));
 		
-		Bundle result = resourceProvider.searchConditions(patientReference, subjectReference, codeList, clinicalList,
-		    onsetDate, onsetAge, recordDate, sort);
+		IBundleProvider result = resourceProvider.searchConditions(patientReference, subjectReference, codeList,
+		    clinicalList, onsetDate, onsetAge, recordDate, sort, null, null);
+		List<IBaseResource> resultList = get(result);
 		assertThat(result, notNullValue());
-		assertThat(result.getTotal(), is(1));
-		assertThat(result.getEntry().get(0).getResource(), equalTo(condition));
+		assertThat(resultList.size(), is(1));
+		assertThat(resultList.get(0), equalTo(condition));
+	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
 	}
 }
@@ -17,17 +17,20 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.ReferenceAndListParam;
 import ca.uhn.fhir.rest.param.ReferenceOrListParam;
 import ca.uhn.fhir.rest.param.ReferenceParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import org.hamcrest.Matchers;
-import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Encounter;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Patient;
@@ -101,17 +104,20 @@ public class EncounterFhirResourceProviderTest extends BaseFhirProvenanceResourc
 	public void searchEncounters_shouldReturnMatchingEncounters() {
 		List<Encounter> encounters = new ArrayList<>();
 		encounters.add(encounter);
-		when(encounterService.searchForEncounters(any(), any(), any(), any())).thenReturn(encounters);
+		when(encounterService.searchForEncounters(any(), any(), any(), any(), any(), any(), anyBoolean()))
+		        .thenReturn(new SimpleBundleProvider(encounters));
 		
 		ReferenceAndListParam subjectreference = new ReferenceAndListParam();
 		subjectreference.addValue(new ReferenceOrListParam().add(new ReferenceParam().setChain(Patient.SP_NAME)));
 		
-		Bundle results = resourceProvider.searchEncounter(null, null, null, subjectreference);
+		IBundleProvider results = resourceProvider.searchEncounter(null, null, null, subjectreference, null, null, null,
+		    null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.getTotal(), equalTo(1));
-		assertThat(results.getEntry(), notNullValue());
-		assertThat(results.getEntry().get(0).getResource().fhirType(), equalTo("Encounter"));
-		assertThat(results.getEntry().get(0).getResource().getId(), equalTo(ENCOUNTER_UUID));
+		assertThat(resultList.size(), equalTo(1));
+		assertThat(resultList, notNullValue());
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Encounter"));
+		assertThat(resultList.get(0).getIdElement().getIdPart(), equalTo(ENCOUNTER_UUID));
 	}
 	
 	@Test
@@ -134,4 +140,8 @@ public class EncounterFhirResourceProviderTest extends BaseFhirProvenanceResourc
 		assertThat(resourceProvider.getEncounterHistoryById(idType).isEmpty(), is(true));
 		assertThat(resourceProvider.getEncounterHistoryById(idType).size(), Matchers.equalTo(0));
 	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
+	}
 }
@@ -26,14 +26,16 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import org.hamcrest.Matchers;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Address;
-import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Location;
@@ -128,65 +130,81 @@ public class LocationFhirResourceProviderTest extends BaseFhirProvenanceResource
 	public void findLocationsByName_shouldReturnMatchingBundleOfLocations() {
 		StringOrListParam nameParam = new StringOrListParam().add(new StringParam(LOCATION_NAME));
 		when(locationService.searchForLocations(argThat(Matchers.is(nameParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull())).thenReturn(Collections.singletonList(location));
+		    isNull(), isNull(), isNull())).thenReturn(new SimpleBundleProvider(Collections.singletonList(location)));
 		
-		Bundle results = resourceProvider.searchLocations(nameParam, null, null, null, null, null, null, null);
+		IBundleProvider results = resourceProvider.searchLocations(nameParam, null, null, null, null, null, null, null, null,
+		    null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Location"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void findLocationsByCity_shouldReturnMatchingBundleOfLocations() {
 		StringOrListParam cityParam = new StringOrListParam().add(new StringParam(CITY));
 		when(locationService.searchForLocations(isNull(), argThat(Matchers.is(cityParam)), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull())).thenReturn(Collections.singletonList(location));
+		    isNull(), isNull(), isNull())).thenReturn(new SimpleBundleProvider(Collections.singletonList(location)));
+		
+		IBundleProvider results = resourceProvider.searchLocations(null, cityParam, null, null, null, null, null, null, null,
+		    null);
 		
-		Bundle results = resourceProvider.searchLocations(null, cityParam, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, Matchers.notNullValue());
-		assertThat(results.isResource(), Matchers.is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), Matchers.equalTo("Location"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void findLocationsByCountry_shouldReturnMatchingBundleOfLocations() {
 		StringOrListParam countryParam = new StringOrListParam().add(new StringParam(COUNTRY));
 		when(locationService.searchForLocations(isNull(), isNull(), argThat(Matchers.is(countryParam)), isNull(), isNull(),
-		    isNull(), isNull(), isNull())).thenReturn(Collections.singletonList(location));
+		    isNull(), isNull(), isNull())).thenReturn(new SimpleBundleProvider(Collections.singletonList(location)));
+		
+		IBundleProvider results = resourceProvider.searchLocations(null, null, countryParam, null, null, null, null, null,
+		    null, null);
 		
-		Bundle results = resourceProvider.searchLocations(null, null, countryParam, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, Matchers.notNullValue());
-		assertThat(results.isResource(), Matchers.is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), Matchers.equalTo("Location"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void findLocationsByState_shouldReturnMatchingBundleOfLocations() {
 		StringOrListParam stateParam = new StringOrListParam().add(new StringParam(STATE));
 		when(locationService.searchForLocations(isNull(), isNull(), isNull(), isNull(), argThat(Matchers.is(stateParam)),
-		    isNull(), isNull(), isNull())).thenReturn(Collections.singletonList(location));
+		    isNull(), isNull(), isNull())).thenReturn(new SimpleBundleProvider(Collections.singletonList(location)));
 		
-		Bundle results = resourceProvider.searchLocations(null, null, null, null, stateParam, null, null, null);
+		IBundleProvider results = resourceProvider.searchLocations(null, null, null, null, stateParam, null, null, null,
+		    null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, Matchers.notNullValue());
-		assertThat(results.isResource(), Matchers.is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), Matchers.equalTo("Location"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void findLocationsByPostalCode_shouldReturnMatchingBundleOfLocations() {
 		StringOrListParam postalCodeParam = new StringOrListParam().add(new StringParam(POSTAL_CODE));
 		when(locationService.searchForLocations(isNull(), isNull(), isNull(), argThat(Matchers.is(postalCodeParam)),
-		    isNull(), isNull(), isNull(), isNull())).thenReturn(Collections.singletonList(location));
+		    isNull(), isNull(), isNull(), isNull()))
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(location)));
+		
+		IBundleProvider results = resourceProvider.searchLocations(null, null, null, postalCodeParam, null, null, null, null,
+		    null, null);
 		
-		Bundle results = resourceProvider.searchLocations(null, null, null, postalCodeParam, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, Matchers.notNullValue());
-		assertThat(results.isResource(), Matchers.is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), Matchers.equalTo("Location"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -194,13 +212,16 @@ public class LocationFhirResourceProviderTest extends BaseFhirProvenanceResource
 		TokenOrListParam tag = new TokenOrListParam()
 		        .add(new TokenParam(FhirConstants.OPENMRS_FHIR_EXT_LOCATION_TAG, LOGIN_LOCATION_TAG_NAME));
 		when(locationService.searchForLocations(isNull(), isNull(), isNull(), isNull(), isNull(), argThat(Matchers.is(tag)),
-		    isNull(), isNull())).thenReturn(Collections.singletonList(location));
+		    isNull(), isNull())).thenReturn(new SimpleBundleProvider(Collections.singletonList(location)));
 		
-		Bundle results = resourceProvider.searchLocations(null, null, null, null, null, tag, null, null);
+		IBundleProvider results = resourceProvider.searchLocations(null, null, null, null, null, tag, null, null, null,
+		    null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Location"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -208,18 +229,21 @@ public class LocationFhirResourceProviderTest extends BaseFhirProvenanceResource
 		List<Location> locations = new ArrayList<>();
 		locations.add(location);
 		when(locationService.searchForLocations(any(), any(), any(), any(), any(), any(), any(), any()))
-		        .thenReturn(locations);
+		        .thenReturn(new SimpleBundleProvider(locations));
 		
 		StringOrListParam location = new StringOrListParam().add(new StringParam(LOCATION_NAME));
 		
-		Bundle resultLocations = resourceProvider.searchLocations(location, null, null, null, null, null, null, null);
+		IBundleProvider resultLocations = resourceProvider.searchLocations(location, null, null, null, null, null, null,
+		    null, null, null);
+		
+		List<IBaseResource> resultList = get(resultLocations);
 		
 		assertThat(resultLocations, notNullValue());
-		assertThat(resultLocations.isResource(), is(true));
-		assertThat(resultLocations.getTotal(), equalTo(1));
-		assertThat(resultLocations.getEntry(), notNullValue());
-		assertThat(resultLocations.getEntry().get(0).getResource().fhirType(), equalTo("Location"));
-		assertThat(resultLocations.getEntry().get(0).getResource().getId(), equalTo(LOCATION_UUID));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Location"));
+		assertThat(resultList.size(), equalTo(1));
+		assertThat(resultList, notNullValue());
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Location"));
+		assertThat(resultList.get(0).getIdElement().getIdPart(), equalTo(LOCATION_UUID));
 	}
 	
 	@Test
@@ -254,4 +278,8 @@ public class LocationFhirResourceProviderTest extends BaseFhirProvenanceResource
 		assertThat(resourceProvider.getLocationHistoryById(idType).isEmpty(), Matchers.is(true));
 		assertThat(resourceProvider.getLocationHistoryById(idType).size(), Matchers.equalTo(0));
 	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
+	}
 }
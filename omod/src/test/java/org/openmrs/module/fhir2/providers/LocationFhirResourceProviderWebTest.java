@@ -31,6 +31,7 @@ import java.util.Date;
 import ca.uhn.fhir.rest.param.ReferenceOrListParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.hamcrest.CoreMatchers;
@@ -369,7 +370,7 @@ public class LocationFhirResourceProviderWebTest extends BaseFhirResourceProvide
 		Location location = new Location();
 		location.setId(LOCATION_UUID);
 		when(locationService.searchForLocations(any(), any(), any(), any(), any(), any(), any(), any()))
-		        .thenReturn(Collections.singleton(location));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(location)));
 		
 		MockHttpServletResponse response = get(uri).accept(FhirMediaTypes.JSON).go();
 		
@@ -20,18 +20,22 @@ import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
 import java.util.Collections;
+import java.util.List;
 
 import ca.uhn.fhir.rest.api.MethodOutcome;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.InvalidRequestException;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import org.hamcrest.CoreMatchers;
-import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Medication;
+import org.hl7.fhir.r4.model.Resource;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -96,12 +100,13 @@ public class MedicationFhirResourceProviderTest {
 		code.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODE)));
 		
 		when(fhirMedicationService.searchForMedications(argThat(is(code)), isNull(), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(medication));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(medication)));
 		
-		Bundle results = resourceProvider.searchForMedication(code, null, null);
+		IBundleProvider results = resourceProvider.searchForMedication(code, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Medication"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -110,12 +115,13 @@ public class MedicationFhirResourceProviderTest {
 		dosageFormCode.addAnd(new TokenOrListParam().addOr(new TokenParam().setValue(CODE)));
 		
 		when(fhirMedicationService.searchForMedications(isNull(), argThat(is(dosageFormCode)), isNull(), isNull()))
-		        .thenReturn(Collections.singletonList(medication));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(medication)));
 		
-		Bundle results = resourceProvider.searchForMedication(null, dosageFormCode, null);
+		IBundleProvider results = resourceProvider.searchForMedication(null, dosageFormCode, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Medication"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -124,12 +130,13 @@ public class MedicationFhirResourceProviderTest {
 		status.addOr(new TokenParam().setValue("active"));
 		
 		when(fhirMedicationService.searchForMedications(isNull(), isNull(), isNull(), argThat(is(status))))
-		        .thenReturn(Collections.singletonList(medication));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(medication)));
 		
-		Bundle results = resourceProvider.searchForMedication(null, null, status);
+		IBundleProvider results = resourceProvider.searchForMedication(null, null, status, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Medication"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -173,4 +180,8 @@ public class MedicationFhirResourceProviderTest {
 		
 		resourceProvider.updateMedication(new IdType().setValue(WRONG_MEDICATION_UUID), wrongMedication);
 	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
+	}
 }
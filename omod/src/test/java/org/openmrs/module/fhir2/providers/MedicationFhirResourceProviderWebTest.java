@@ -29,6 +29,7 @@ import java.util.List;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.MethodNotAllowedException;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -154,7 +155,7 @@ public class MedicationFhirResourceProviderWebTest extends BaseFhirResourceProvi
 	
 	private void verifyUri(String uri) throws Exception {
 		when(fhirMedicationService.searchForMedications(any(), any(), any(), any()))
-		        .thenReturn(Collections.singletonList(medication));
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(medication)));
 		
 		MockHttpServletResponse response = get(uri).accept(FhirMediaTypes.JSON).go();
 		
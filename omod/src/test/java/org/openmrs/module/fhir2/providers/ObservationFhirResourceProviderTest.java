@@ -16,18 +16,21 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.hamcrest.Matchers;
-import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Observation;
 import org.hl7.fhir.r4.model.Provenance;
@@ -100,19 +103,22 @@ public class ObservationFhirResourceProviderTest extends BaseFhirProvenanceResou
 	public void searchObservations_shouldReturnMatchingObservations() {
 		List<Observation> obs = new ArrayList<>();
 		obs.add(observation);
-		when(observationService.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-		        .thenReturn(obs);
+		when(observationService.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+		    any(), anyBoolean()))
+		        .thenReturn(new SimpleBundleProvider(obs));
 		TokenAndListParam code = new TokenAndListParam();
 		TokenParam codingToken = new TokenParam();
 		codingToken.setValue("1000");
 		code.addAnd(codingToken);
 		
-		Bundle results = resourceProvider.searchObservations(null, null, null, null, null, null, null, null, code, null);
+		IBundleProvider results = resourceProvider.searchObservations(null, null, null, null, null, null, null, null, code,
+		    null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		assertThat(results, notNullValue());
-		assertThat(results.getTotal(), equalTo(1));
-		assertThat(results.getEntry(), notNullValue());
-		assertThat(results.getEntry().get(0).getResource().fhirType(), equalTo("Observation"));
-		assertThat(results.getEntry().get(0).getResource().getId(), equalTo(OBSERVATION_UUID));
+		assertThat(resultList.size(), equalTo(1));
+		assertThat(resultList, notNullValue());
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Observation"));
+		assertThat(resultList.get(0).getIdElement().getIdPart(), equalTo(OBSERVATION_UUID));
 	}
 	
 	@Test
@@ -147,4 +153,8 @@ public class ObservationFhirResourceProviderTest extends BaseFhirProvenanceResou
 		assertThat(resourceProvider.getObservationHistoryById(idType).isEmpty(), is(true));
 		assertThat(resourceProvider.getObservationHistoryById(idType).size(), Matchers.equalTo(0));
 	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
+	}
 }
@@ -11,12 +11,23 @@ package org.openmrs.module.fhir2.providers;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,7 +36,9 @@ import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.QuantityAndListParam;
@@ -35,11 +48,13 @@ import ca.uhn.fhir.rest.param.ReferenceParam;
 import ca.uhn.fhir.rest.param.StringAndListParam;
 import ca.uhn.fhir.rest.param.TokenAndListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.apache.commons.lang.time.DateUtils;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.OperationOutcome;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -48,7 +63,11 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.module.fhir2.api.FhirObservationService;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 import org.openmrs.module.fhir2.web.servlet.BaseFhirResourceProviderTest;
+import org.openmrs.module.fhir2.web.servlet.StreamingSearchInterceptor;
+import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -62,6 +81,10 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 	
 	private static final String MEMBER_UUID = "d9bc6c12-6adc-4ca6-8bde-441ec1a1c344";
 	
+	private static final String MEMBER_OBS_UUID = "4efa62d2-6b8b-4803-a8fa-3f32ee54db4f";
+	
+	private static final int STREAMING_BATCH_SIZE = 100;
+	
 	private static final String CIEL_URN = "urn:oid:2.16.840.1.113883.3.7201";
 	
 	private static final String URL_ENCODED_CIEL_URN;
@@ -143,7 +166,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject=" + PATIENT_UUID);
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -157,7 +180,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject:Patient=" + PATIENT_UUID);
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -172,7 +195,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.identifier=M4001-1");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -187,7 +210,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.identifier=M4001-1,ABS098,YT56RE,IU23O");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -206,7 +229,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		    "/Observation?subject.identifier=M4001-1&subject.identifier=ABS098&subject.identifier=YT56RE&subject.identifier=IU23O");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -222,7 +245,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.name=Hannibal Lector");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -237,7 +260,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.given=Hannibal");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -252,7 +275,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.given=Hannibal,Smith");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -268,7 +291,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.given=Hannibal&subject.given=Smith");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -284,7 +307,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.family=Lector");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -299,7 +322,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.family=Lector,Rick,Tom");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -315,7 +338,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?subject.family=Lector&subject.family=Rick&subject.family=Tom");
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -331,7 +354,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?encounter=c4aa5682-90cf-48e8-87c9-a6066ffd3a3f");
 		
 		verify(observationService).searchForObservations(encounterCaptor.capture(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = encounterCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -345,7 +368,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?encounter=c4aa5682-90cf-48e8-87c9-a6066ffd3a3f,c4aa5682-90cf-48e8-87c9-auyt23ffd3a3f");
 		
 		verify(observationService).searchForObservations(encounterCaptor.capture(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = encounterCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -361,7 +384,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		    "/Observation?encounter=c4aa5682-90cf-48e8-87c9-a6066ffd3a3f&encounter=c4aa5682-90cf-48e8-87c9-auyt23ffd3a3f");
 		
 		verify(observationService).searchForObservations(encounterCaptor.capture(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = encounterCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -376,7 +399,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?code=5098");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), codeCaptor.capture(), isNull());
+		    isNull(), isNull(), codeCaptor.capture(), isNull(), any(), eq(false));
 		assertThat(codeCaptor.getValue(), notNullValue());
 		assertThat(codeCaptor.getValue().getValuesAsQueryTokens(), notNullValue());
 		assertThat(codeCaptor.getValue().getValuesAsQueryTokens().size(), equalTo(1));
@@ -393,7 +416,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?value-concept=5098");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), valueCodeCaptor.capture(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		assertThat(valueCodeCaptor.getValue(), notNullValue());
 		assertThat(valueCodeCaptor.getValue().getValuesAsQueryTokens(), notNullValue());
 		assertThat(valueCodeCaptor.getValue().getValuesAsQueryTokens().size(), equalTo(1));
@@ -410,7 +433,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?code=" + URL_ENCODED_CIEL_URN + "|5098");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), codeCaptor.capture(), isNull());
+		    isNull(), isNull(), codeCaptor.capture(), isNull(), any(), eq(false));
 		assertThat(codeCaptor.getValue(), notNullValue());
 		assertThat(codeCaptor.getValue().getValuesAsQueryTokens(), notNullValue());
 		assertThat(codeCaptor.getValue().getValuesAsQueryTokens().size(), equalTo(1));
@@ -427,7 +450,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?code=" + URL_ENCODED_CIEL_URN + "|5098," + URL_ENCODED_CIEL_URN + "|5001");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), codeCaptor.capture(), isNull());
+		    isNull(), isNull(), codeCaptor.capture(), isNull(), any(), eq(false));
 		assertThat(codeCaptor.getValue(), notNullValue());
 		assertThat(codeCaptor.getValue().getValuesAsQueryTokens(), notNullValue());
 		assertThat(codeCaptor.getValue().getValuesAsQueryTokens().size(), equalTo(1));
@@ -446,7 +469,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?value-concept=" + URL_ENCODED_CIEL_URN + "|5098," + URL_ENCODED_CIEL_URN + "|5001");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), valueCodeCaptor.capture(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		assertThat(valueCodeCaptor.getValue(), notNullValue());
 		assertThat(valueCodeCaptor.getValue().getValuesAsQueryTokens(), notNullValue());
 		assertThat(valueCodeCaptor.getValue().getValuesAsQueryTokens().size(), equalTo(1));
@@ -465,7 +488,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?code=" + URL_ENCODED_CIEL_URN + "|5098&subject:Patient=" + PATIENT_UUID);
 		
 		verify(observationService).searchForObservations(isNull(), patientCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), codeCaptor.capture(), isNull());
+		    isNull(), isNull(), isNull(), codeCaptor.capture(), isNull(), any(), eq(false));
 		
 		List<ReferenceOrListParam> orListParams = patientCaptor.getValue().getValuesAsQueryTokens();
 		ReferenceParam referenceParam = orListParams.get(0).getValuesAsQueryTokens().get(0);
@@ -492,7 +515,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?code=" + URL_ENCODED_CIEL_URN + "|5098&has-member=" + MEMBER_UUID);
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), memberCaptor.capture(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), codeCaptor.capture(), isNull());
+		    isNull(), isNull(), isNull(), codeCaptor.capture(), isNull(), any(), eq(false));
 		
 		// verify member parameter
 		assertThat(memberCaptor.getValue(), notNullValue());
@@ -515,7 +538,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?has-member.code=5098");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), memberCaptor.capture(), isNull(), isNull(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		assertThat(memberCaptor.getValue(), notNullValue());
 		assertThat(memberCaptor.getValue().getChain(), equalTo(Observation.SP_CODE));
@@ -527,7 +550,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?value-date=ge1975-02-02");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), isNull(), valueDateCaptor.capture(),
-		    isNull(), isNull(), isNull(), isNull(), isNull());
+		    isNull(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		Calendar calendar = Calendar.getInstance();
 		calendar.set(1975, 1, 2);
@@ -542,7 +565,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?value-quantity=134.0");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), isNull(), isNull(),
-		    valueQuantityCaptor.capture(), isNull(), isNull(), isNull(), isNull());
+		    valueQuantityCaptor.capture(), isNull(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		assertThat(valueQuantityCaptor.getValue(), notNullValue());
 		assertThat(valueQuantityCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
@@ -555,7 +578,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?value-string=AFH56");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    stringAndListCaptor.capture(), isNull(), isNull(), isNull());
+		    stringAndListCaptor.capture(), isNull(), isNull(), isNull(), any(), eq(false));
 		
 		assertThat(stringAndListCaptor.getValue(), notNullValue());
 		assertThat(stringAndListCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
@@ -568,7 +591,7 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		verifyUri("/Observation?date=ge1975-02-02");
 		
 		verify(observationService).searchForObservations(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), dateCaptor.capture(), isNull(), isNull());
+		    isNull(), dateCaptor.capture(), isNull(), isNull(), any(), eq(false));
 		
 		Calendar calendar = Calendar.getInstance();
 		calendar.set(1975, 1, 2);
@@ -578,11 +601,122 @@ public class ObservationFhirResourceProviderWebTest extends BaseFhirResourceProv
 		assertThat(dateCaptor.getValue().getUpperBound(), nullValue());
 	}
 	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldStreamObservationsWhenRequested() throws Exception {
+		SearchQuery<String> searchQuery = mock(SearchQuery.class);
+		doAnswer(invocation -> {
+			Consumer<String> action = invocation.getArgument(1);
+			action.accept(OBS_UUID);
+			action.accept(MEMBER_OBS_UUID);
+			return null;
+		}).when(searchQuery).forEach(anyInt(), any());
+		when(observationService.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+		    any(), anyBoolean()))
+		        .thenReturn(new SearchQueryBundleProvider<>(searchQuery, uuid -> {
+			        Observation observation = new Observation();
+			        observation.setId(uuid);
+			        return observation;
+		        }));
+		
+		MockHttpServletResponse response = get("/Observation?subject=" + PATIENT_UUID).accept(FhirMediaTypes.JSON)
+		        .header("Prefer", StreamingSearchInterceptor.PREFER_STREAMING).go();
+		
+		assertThat(response, isOk());
+		
+		Bundle results = readBundleResponse(response);
+		assertThat(results.getType(), equalTo(Bundle.BundleType.SEARCHSET));
+		assertThat(results.getEntry(), hasSize(2));
+		assertThat(results.getEntry().get(0).getResource().getIdElement().getIdPart(), equalTo(OBS_UUID));
+		assertThat(results.getEntry().get(1).getResource().getIdElement().getIdPart(), equalTo(MEMBER_OBS_UUID));
+		assertThat(results.getEntry().get(0).getFullUrl(), endsWith("/Observation/" + OBS_UUID));
+		verify(searchQuery, never()).getResults(anyInt(), anyInt());
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldReturnErrorWhenStreamedSearchFailsBeforeAnyResultsAreWritten() throws Exception {
+		SearchQuery<String> searchQuery = mock(SearchQuery.class);
+		doThrow(new IllegalStateException("Search failed")).when(searchQuery).forEach(anyInt(), any());
+		when(observationService.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+		    any(), anyBoolean())).thenReturn(new SearchQueryBundleProvider<>(searchQuery, this::newObservation));
+		
+		MockHttpServletResponse response = get("/Observation?subject=" + PATIENT_UUID).accept(FhirMediaTypes.JSON)
+		        .header("Prefer", StreamingSearchInterceptor.PREFER_STREAMING).go();
+		
+		assertThat(response, statusEquals(HttpStatus.INTERNAL_SERVER_ERROR));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldEndStreamedBundleWithOperationOutcomeWhenSearchFailsAfterResultsAreWritten() throws Exception {
+		SearchQuery<String> searchQuery = mock(SearchQuery.class);
+		doAnswer(invocation -> {
+			Consumer<String> action = invocation.getArgument(1);
+			for (int i = 0; i < STREAMING_BATCH_SIZE; i++) {
+				action.accept(OBS_UUID);
+			}
+			
+			throw new IllegalStateException("Search failed");
+		}).when(searchQuery).forEach(anyInt(), any());
+		when(observationService.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+		    any(), anyBoolean())).thenReturn(new SearchQueryBundleProvider<>(searchQuery, this::newObservation));
+		
+		MockHttpServletResponse response = get("/Observation?subject=" + PATIENT_UUID).accept(FhirMediaTypes.JSON)
+		        .header("Prefer", StreamingSearchInterceptor.PREFER_STREAMING).go();
+		
+		assertThat(response, isOk());
+		
+		Bundle results = readBundleResponse(response);
+		assertThat(results.getEntry(), hasSize(STREAMING_BATCH_SIZE + 1));
+		
+		Bundle.BundleEntryComponent outcome = results.getEntry().get(STREAMING_BATCH_SIZE);
+		assertThat(outcome.getResource(), instanceOf(OperationOutcome.class));
+		assertThat(outcome.getSearch().getMode(), equalTo(Bundle.SearchEntryMode.OUTCOME));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldApplyElementsToStreamedObservations() throws Exception {
+		SearchQuery<String> searchQuery = mock(SearchQuery.class);
+		doAnswer(invocation -> {
+			Consumer<String> action = invocation.getArgument(1);
+			action.accept(OBS_UUID);
+			return null;
+		}).when(searchQuery).forEach(anyInt(), any());
+		when(observationService.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+		    any(), anyBoolean())).thenReturn(new SearchQueryBundleProvider<>(searchQuery, uuid -> {
+			    Observation observation = newObservation(uuid);
+			    observation.getCode().setText("Weight");
+			    observation.setIssued(new Date());
+			    return observation;
+		    }));
+		
+		MockHttpServletResponse response = get("/Observation?subject=" + PATIENT_UUID + "&_elements=code")
+		        .accept(FhirMediaTypes.JSON).header("Prefer", StreamingSearchInterceptor.PREFER_STREAMING).go();
+		
+		assertThat(response, isOk());
+		
+		Bundle results = readBundleResponse(response);
+		assertThat(results.getEntry(), hasSize(1));
+		
+		Observation observation = (Observation) results.getEntry().get(0).getResource();
+		assertThat(observation.getCode().getText(), equalTo("Weight"));
+		assertThat(observation.hasIssued(), is(false));
+	}
+	
+	private Observation newObservation(String uuid) {
+		Observation observation = new Observation();
+		observation.setId(uuid);
+		return observation;
+	}
+	
 	private void verifyUri(String uri) throws Exception {
 		Observation observation = new Observation();
 		observation.setId(OBS_UUID);
-		when(observationService.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-		        .thenReturn(Collections.singletonList(observation));
+		when(observationService.searchForObservations(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+		    any(), anyBoolean()))
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(observation)));
 		
 		MockHttpServletResponse response = get(uri).accept(FhirMediaTypes.JSON).go();
 		
@@ -13,11 +13,14 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 
@@ -25,12 +28,16 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
+import ca.uhn.fhir.rest.api.SearchTotalModeEnum;
+import ca.uhn.fhir.rest.api.SummaryEnum;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
-import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Enumerations;
 import org.hl7.fhir.r4.model.HumanName;
 import org.hl7.fhir.r4.model.IdType;
@@ -43,6 +50,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.openmrs.module.fhir2.api.FhirPatientService;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
 import org.openmrs.module.fhir2.web.servlet.BaseFhirProvenanceResourceTest;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -77,6 +86,9 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 	@Mock
 	private FhirPatientService patientService;
 	
+	@Mock
+	private SearchQuery<String> searchQuery;
+	
 	private PatientFhirResourceProvider resourceProvider;
 	
 	private Patient patient;
@@ -134,14 +146,65 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		StringOrListParam nameParam = new StringOrListParam().add(new StringParam(NAME));
 		when(patientService.searchForPatients(argThat(is(nameParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
 		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(nameParam, null, null, null, null, null, null, null, null,
+		    null, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
+		
+		assertThat(results, notNullValue());
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
+	}
+	
+	@Test
+	public void searchPatients_shouldOnlyReturnTotalForSummaryCount() {
+		StringOrListParam nameParam = new StringOrListParam().add(new StringParam(NAME));
+		when(patientService.searchForPatients(argThat(is(nameParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(nameParam, null, null, null, null, null, null, null, null,
+		    null, null, null, null, SummaryEnum.COUNT, null);
+		
+		assertThat(results, notNullValue());
+		assertThat(results.size(), equalTo(1));
+		assertThat(get(results), empty());
+	}
+	
+	@Test
+	public void searchPatients_shouldNotReturnTotalForTotalModeNone() {
+		StringOrListParam nameParam = new StringOrListParam().add(new StringParam(NAME));
+		when(patientService.searchForPatients(argThat(is(nameParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(nameParam, null, null, null, null, null, null, null, null,
+		    null, null, null, null, null, SearchTotalModeEnum.NONE);
 		
-		Bundle results = resourceProvider.searchPatients(nameParam, null, null, null, null, null, null, null, null, null,
-		    null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(results.size(), nullValue());
+		assertThat(resultList.size(), equalTo(1));
+		assertThat(resultList.get(0).getIdElement().getIdPart(), equalTo(PATIENT_UUID));
+	}
+	
+	@Test
+	public void searchPatients_shouldKeepSearchQueryResultsPageableForTotalModeNone() {
+		StringOrListParam nameParam = new StringOrListParam().add(new StringParam(NAME));
+		when(patientService.searchForPatients(argThat(is(nameParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
+		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
+		            .thenReturn(new SearchQueryBundleProvider<>(searchQuery, uuid -> patient));
+		
+		IBundleProvider results = resourceProvider.searchPatients(nameParam, null, null, null, null, null, null, null, null,
+		    null, null, null, null, null, SearchTotalModeEnum.NONE);
+		
+		// the paging providers only store a SearchQueryBundleProvider, so it must not be wrapped
+		assertThat(results, instanceOf(SearchQueryBundleProvider.class));
+		assertThat(results.size(), nullValue());
+		verify(searchQuery, never()).getCount();
 	}
 	
 	@Test
@@ -149,14 +212,16 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		StringOrListParam givenNameParam = new StringOrListParam().add(new StringParam(NAME));
 		when(patientService.searchForPatients(isNull(), argThat(is(givenNameParam)), isNull(), isNull(), isNull(), isNull(),
 		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(null, givenNameParam, null, null, null, null, null, null,
+		    null, null, null, null, null, null, null);
 		
-		Bundle results = resourceProvider.searchPatients(null, givenNameParam, null, null, null, null, null, null, null,
-		    null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -164,14 +229,16 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		StringOrListParam familyNameParam = new StringOrListParam().add(new StringParam(FAMILY_NAME));
 		when(patientService.searchForPatients(isNull(), isNull(), argThat(is(familyNameParam)), isNull(), isNull(), isNull(),
 		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
 		
-		Bundle results = resourceProvider.searchPatients(null, null, familyNameParam, null, null, null, null, null, null,
-		    null, null, null, null);
+		IBundleProvider results = resourceProvider.searchPatients(null, null, familyNameParam, null, null, null, null, null,
+		    null, null, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -179,14 +246,16 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		TokenOrListParam identifierParam = new TokenOrListParam().add(IDENTIFIER);
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), argThat(is(identifierParam)), isNull(), isNull(),
 		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, identifierParam, null, null, null, null,
+		    null, null, null, null, null, null, null);
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, identifierParam, null, null, null, null, null,
-		    null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -194,14 +263,16 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		TokenOrListParam genderParam = new TokenOrListParam().add(GENDER);
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), isNull(), argThat(is(genderParam)), isNull(),
 		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, null, genderParam, null, null, null, null, null,
-		    null, null, null);
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, null, genderParam, null, null, null,
+		    null, null, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -209,14 +280,16 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		DateRangeParam birthDateParam = new DateRangeParam().setLowerBound(BIRTH_DATE).setUpperBound(BIRTH_DATE);
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), argThat(is(birthDateParam)),
 		    isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, null, null, birthDateParam, null, null,
+		    null, null, null, null, null, null, null);
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, null, null, birthDateParam, null, null, null,
-		    null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -224,14 +297,16 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		DateRangeParam deathDateParam = new DateRangeParam().setLowerBound(DEATH_DATE).setUpperBound(DEATH_DATE);
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
 		    argThat(is(deathDateParam)), isNull(), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, null, null, null, deathDateParam, null,
+		    null, null, null, null, null, null, null);
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, null, null, null, deathDateParam, null, null,
-		    null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -239,42 +314,50 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		TokenOrListParam deceasedParam = new TokenOrListParam().add("true");
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
 		    argThat(is(deceasedParam)), isNull(), isNull(), isNull(), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, null, null, null, null, deceasedParam, null, null,
-		    null, null, null);
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, null, null, null, null, deceasedParam,
+		    null, null, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnMatchingBundleOfPatientsByCity() {
 		StringOrListParam cityParam = new StringOrListParam().add(new StringParam(CITY));
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    argThat(is(cityParam)), isNull(), isNull(), isNull(), isNull())).thenReturn(Collections.singletonList(patient));
+		    argThat(is(cityParam)), isNull(), isNull(), isNull(), isNull()))
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, null, null, null, null, null, cityParam,
+		    null, null, null, null, null, null);
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, null, null, null, null, null, cityParam, null,
-		    null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPatients_shouldReturnMatchingBundleOfPatientsByState() {
 		StringOrListParam stateParam = new StringOrListParam().add(new StringParam(STATE));
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), argThat(is(stateParam)), isNull(), isNull(), isNull())).thenReturn(Collections.singletonList(patient));
+		    isNull(), argThat(is(stateParam)), isNull(), isNull(), isNull()))
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, null, null, null, null, null, null, stateParam,
-		    null, null, null);
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, null, null, null, null, null, null,
+		    stateParam, null, null, null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -282,14 +365,16 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		StringOrListParam postalCodeParam = new StringOrListParam().add(new StringParam(POSTAL_CODE));
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
 		    isNull(), isNull(), argThat(is(postalCodeParam)), isNull(), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, null, null, null, null, null, null, null,
+		    postalCodeParam, null, null, null, null);
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, null, null, null, null, null, null, null,
-		    postalCodeParam, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -297,14 +382,16 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		StringOrListParam countryParam = new StringOrListParam().add(new StringParam(COUNTRY));
 		when(patientService.searchForPatients(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
 		    isNull(), isNull(), isNull(), argThat(is(countryParam)), isNull()))
-		            .thenReturn(Collections.singletonList(patient));
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(patient)));
+		
+		IBundleProvider results = resourceProvider.searchPatients(null, null, null, null, null, null, null, null, null, null,
+		    null, countryParam, null, null, null);
 		
-		Bundle results = resourceProvider.searchPatients(null, null, null, null, null, null, null, null, null, null, null,
-		    countryParam, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Patient"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -338,4 +425,8 @@ public class PatientFhirResourceProviderTest extends BaseFhirProvenanceResourceT
 		assertThat(resourceProvider.getPatientResourceHistory(idType).isEmpty(), is(true));
 		assertThat(resourceProvider.getPatientResourceHistory(idType).size(), equalTo(0));
 	}
+	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
+	}
 }
@@ -17,6 +17,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.mockito.hamcrest.MockitoHamcrest.argThat;
@@ -24,12 +25,14 @@ import static org.mockito.hamcrest.MockitoHamcrest.argThat;
 import java.util.Collections;
 import java.util.List;
 
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.StringParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
-import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.hl7.fhir.r4.model.Enumerations;
 import org.hl7.fhir.r4.model.HumanName;
 import org.hl7.fhir.r4.model.IdType;
@@ -124,91 +127,114 @@ public class PersonFhirResourceProviderTest extends BaseFhirProvenanceResourceTe
 	public void searchPeople_shouldReturnMatchingBundleOfPeopleByName() {
 		StringOrListParam nameParam = new StringOrListParam().add(new StringParam(GIVEN_NAME));
 		when(fhirPersonService.searchForPeople(argThat(is(nameParam)), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), isNull(), eq(false))).thenReturn(new SimpleBundleProvider(Collections.singletonList(person)));
 		
-		Bundle results = resourceProvider.searchPeople(nameParam, null, null, null, null, null, null, null);
+		IBundleProvider results = resourceProvider.searchPeople(nameParam, null, null, null, null, null, null, null, null,
+		    null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Person"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnMatchingBundleOfPeopleByGender() {
 		TokenOrListParam genderParam = new TokenOrListParam().add(GENDER);
 		when(fhirPersonService.searchForPeople(isNull(), argThat(is(genderParam)), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), isNull(), eq(false))).thenReturn(new SimpleBundleProvider(Collections.singletonList(person)));
+		
+		IBundleProvider results = resourceProvider.searchPeople(null, genderParam, null, null, null, null, null, null, null,
+		    null, null);
 		
-		Bundle results = resourceProvider.searchPeople(null, genderParam, null, null, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Person"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnMatchingBundleOfPeopleByBirthDate() {
 		DateRangeParam birthDateParam = new DateRangeParam().setLowerBound(BIRTH_DATE).setUpperBound(BIRTH_DATE);
 		when(fhirPersonService.searchForPeople(isNull(), isNull(), argThat(is(birthDateParam)), isNull(), isNull(), isNull(),
-		    isNull(), isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), isNull(), eq(false))).thenReturn(new SimpleBundleProvider(Collections.singletonList(person)));
 		
-		Bundle results = resourceProvider.searchPeople(null, null, birthDateParam, null, null, null, null, null);
+		IBundleProvider results = resourceProvider.searchPeople(null, null, birthDateParam, null, null, null, null, null,
+		    null, null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Person"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnMatchingBundleOfPeopleByCity() {
 		StringOrListParam cityParam = new StringOrListParam().add(new StringParam(CITY));
 		when(fhirPersonService.searchForPeople(isNull(), isNull(), isNull(), argThat(is(cityParam)), isNull(), isNull(),
-		    isNull(), isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), isNull(), eq(false))).thenReturn(new SimpleBundleProvider(Collections.singletonList(person)));
+		
+		IBundleProvider results = resourceProvider.searchPeople(null, null, null, cityParam, null, null, null, null, null,
+		    null, null);
 		
-		Bundle results = resourceProvider.searchPeople(null, null, null, cityParam, null, null, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Person"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnMatchingBundleOfPeopleByState() {
 		StringOrListParam stateParam = new StringOrListParam().add(new StringParam(STATE));
 		when(fhirPersonService.searchForPeople(isNull(), isNull(), isNull(), isNull(), argThat(is(stateParam)), isNull(),
-		    isNull(), isNull())).thenReturn(Collections.singletonList(person));
+		    isNull(), isNull(), eq(false))).thenReturn(new SimpleBundleProvider(Collections.singletonList(person)));
 		
-		Bundle results = resourceProvider.searchPeople(null, null, null, null, stateParam, null, null, null);
+		IBundleProvider results = resourceProvider.searchPeople(null, null, null, null, stateParam, null, null, null, null,
+		    null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Person"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnMatchingBundleOfPeopleByPostalCode() {
 		StringOrListParam postalCodeParam = new StringOrListParam().add(new StringParam(POSTAL_CODE));
 		when(fhirPersonService.searchForPeople(isNull(), isNull(), isNull(), isNull(), isNull(),
-		    argThat(is(postalCodeParam)), isNull(), isNull())).thenReturn(Collections.singletonList(person));
+		    argThat(is(postalCodeParam)), isNull(), isNull(), eq(false)))
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(person)));
+		
+		IBundleProvider results = resourceProvider.searchPeople(null, null, null, null, null, postalCodeParam, null, null,
+		    null, null, null);
 		
-		Bundle results = resourceProvider.searchPeople(null, null, null, null, null, postalCodeParam, null, null);
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Person"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
 	public void searchForPeople_shouldReturnMatchingBundleOfPeopleByCountry() {
 		StringOrListParam countryParam = new StringOrListParam().add(new StringParam(COUNTRY));
 		when(fhirPersonService.searchForPeople(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    argThat(is(countryParam)), isNull())).thenReturn(Collections.singletonList(person));
+		    argThat(is(countryParam)), isNull(), eq(false)))
+		            .thenReturn(new SimpleBundleProvider(Collections.singletonList(person)));
 		
-		Bundle results = resourceProvider.searchPeople(null, null, null, null, null, null, countryParam, null);
+		IBundleProvider results = resourceProvider.searchPeople(null, null, null, null, null, null, countryParam, null, null,
+		    null, null);
+		
+		List<IBaseResource> resultList = get(results);
 		
 		assertThat(results, notNullValue());
-		assertThat(results.isResource(), is(true));
-		assertThat(results.getEntry().size(), greaterThanOrEqualTo(1));
+		assertThat(((Resource) resultList.get(0)).fhirType(), equalTo("Person"));
+		assertThat(resultList.size(), greaterThanOrEqualTo(1));
 	}
 	
 	@Test
@@ -243,4 +269,7 @@ public class PersonFhirResourceProviderTest extends BaseFhirProvenanceResourceTe
 		assertThat(resourceProvider.getPersonHistoryById(idType).size(), equalTo(0));
 	}
 	
+	private List<IBaseResource> get(IBundleProvider results) {
+		return results.getResources(0, 10);
+	}
 }
@@ -17,6 +17,8 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -32,6 +34,7 @@ import java.util.Date;
 import ca.uhn.fhir.rest.param.DateRangeParam;
 import ca.uhn.fhir.rest.param.StringOrListParam;
 import ca.uhn.fhir.rest.param.TokenOrListParam;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
 import lombok.AccessLevel;
 import lombok.Getter;
 import org.apache.commons.lang3.time.DateUtils;
@@ -125,19 +128,29 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri(String.format("/Person/?name=%s", PERSON_NAME));
 		
 		verify(personService).searchForPeople(stringOrListCaptor.capture(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		
 		assertThat(stringOrListCaptor.getValue(), notNullValue());
 		assertThat(stringOrListCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
 		assertThat(stringOrListCaptor.getValue().getValuesAsQueryTokens().get(0).getValue(), equalTo(PERSON_NAME));
 	}
 	
+	@Test
+	public void shouldIncludeVoidedPeopleWhenAsked() throws Exception {
+		verifyUri(String.format("/Person/?name=%s&includeVoided=true", PERSON_NAME));
+		
+		verify(personService).searchForPeople(stringOrListCaptor.capture(), isNull(), isNull(), isNull(), isNull(), isNull(),
+		    isNull(), isNull(), eq(true));
+		
+		assertThat(stringOrListCaptor.getValue(), notNullValue());
+	}
+	
 	@Test
 	public void shouldGetPersonByGender() throws Exception {
 		verifyUri(String.format("/Person/?gender=%s", PERSON_GENDER));
 		
 		verify(personService).searchForPeople(isNull(), tokenOrListCaptor.capture(), isNull(), isNull(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		
 		assertThat(tokenOrListCaptor.getValue(), notNullValue());
 		assertThat(tokenOrListCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
@@ -149,7 +162,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri("/Person/?birthdate=eq1975-02-02");
 		
 		verify(personService).searchForPeople(isNull(), isNull(), dateRangeCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		assertThat(dateRangeCaptor.getValue(), notNullValue());
 		
 		Calendar calendar = Calendar.getInstance();
@@ -166,7 +179,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri("/Person/?birthdate=ge1975-02-02");
 		
 		verify(personService).searchForPeople(isNull(), isNull(), dateRangeCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		assertThat(dateRangeCaptor.getValue(), notNullValue());
 		
 		Calendar calendar = Calendar.getInstance();
@@ -182,7 +195,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri("/Person/?birthdate=gt1975-02-02");
 		
 		verify(personService).searchForPeople(isNull(), isNull(), dateRangeCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		assertThat(dateRangeCaptor.getValue(), notNullValue());
 		
 		Calendar calendar = Calendar.getInstance();
@@ -198,7 +211,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri("/Person/?birthdate=le1975-02-02");
 		
 		verify(personService).searchForPeople(isNull(), isNull(), dateRangeCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		assertThat(dateRangeCaptor.getValue(), notNullValue());
 		
 		Calendar calendar = Calendar.getInstance();
@@ -214,7 +227,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri("/Person/?birthdate=lt1975-02-02");
 		
 		verify(personService).searchForPeople(isNull(), isNull(), dateRangeCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		assertThat(dateRangeCaptor.getValue(), notNullValue());
 		
 		Calendar calendar = Calendar.getInstance();
@@ -230,7 +243,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri("/Person/?birthdate=ge1975-02-02&birthdate=le1980-02-02");
 		
 		verify(personService).searchForPeople(isNull(), isNull(), dateRangeCaptor.capture(), isNull(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		
 		Calendar lowerBound = Calendar.getInstance();
 		lowerBound.set(1975, 1, 2);
@@ -249,7 +262,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri(String.format("/Person/?address-city=%s", ADDRESS_FIELD));
 		
 		verify(personService).searchForPeople(isNull(), isNull(), isNull(), stringOrListCaptor.capture(), isNull(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		
 		assertThat(stringOrListCaptor.getValue(), notNullValue());
 		assertThat(stringOrListCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
@@ -261,7 +274,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri(String.format("/Person/?address-state=%s", ADDRESS_FIELD));
 		
 		verify(personService).searchForPeople(isNull(), isNull(), isNull(), isNull(), stringOrListCaptor.capture(), isNull(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		
 		assertThat(stringOrListCaptor.getValue(), notNullValue());
 		assertThat(stringOrListCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
@@ -273,7 +286,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri(String.format("/Person/?address-postalcode=%s", POSTAL_CODE));
 		
 		verify(personService).searchForPeople(isNull(), isNull(), isNull(), isNull(), isNull(), stringOrListCaptor.capture(),
-		    isNull(), isNull());
+		    isNull(), isNull(), eq(false));
 		
 		assertThat(stringOrListCaptor.getValue(), notNullValue());
 		assertThat(stringOrListCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
@@ -285,7 +298,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri(String.format("/Person/?address-country=%s", ADDRESS_FIELD));
 		
 		verify(personService).searchForPeople(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(),
-		    stringOrListCaptor.capture(), isNull());
+		    stringOrListCaptor.capture(), isNull(), eq(false));
 		
 		assertThat(stringOrListCaptor.getValue(), notNullValue());
 		assertThat(stringOrListCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
@@ -297,7 +310,7 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 		verifyUri(String.format("/Person/?name=%s&gender=%s&birthdate=eq1975-02-02", PERSON_NAME, PERSON_GENDER));
 		
 		verify(personService).searchForPeople(stringOrListCaptor.capture(), tokenOrListCaptor.capture(),
-		    dateRangeCaptor.capture(), isNull(), isNull(), isNull(), isNull(), isNull());
+		    dateRangeCaptor.capture(), isNull(), isNull(), isNull(), isNull(), isNull(), eq(false));
 		
 		assertThat(stringOrListCaptor.getValue(), notNullValue());
 		assertThat(stringOrListCaptor.getValue().getValuesAsQueryTokens(), not(empty()));
@@ -321,8 +334,8 @@ public class PersonFhirResourceProviderWebTest extends BaseFhirResourceProviderT
 	private void verifyUri(String uri) throws Exception {
 		Person person = new Person();
 		person.setId(PERSON_UUID);
-		when(personService.searchForPeople(any(), any(), any(), any(), any(), any(), any(), any()))
-		        .thenReturn(Collections.singletonList(person));
+		when(personService.searchForPeople(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean()))
+		        .thenReturn(new SimpleBundleProvider(Collections.singletonList(person)));
 		
 		MockHttpServletResponse response = get(uri).accept(FhirMediaTypes.JSON).go();
 		
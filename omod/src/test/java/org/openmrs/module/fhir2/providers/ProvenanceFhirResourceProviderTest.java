@@ -0,0 +1,79 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.providers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import ca.uhn.fhir.rest.param.ReferenceParam;
+import ca.uhn.fhir.rest.server.exceptions.ResourceNotFoundException;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Provenance;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.module.fhir2.api.FhirProvenanceService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProvenanceFhirResourceProviderTest {
+	
+	private static final String PATIENT_UUID = "a7e04421-525f-442f-8138-05b619d16def";
+	
+	@Mock
+	private FhirProvenanceService fhirProvenanceService;
+	
+	private ProvenanceFhirResourceProvider resourceProvider;
+	
+	@Before
+	public void setup() {
+		resourceProvider = new ProvenanceFhirResourceProvider();
+		resourceProvider.setFhirProvenanceService(fhirProvenanceService);
+	}
+	
+	@Test
+	public void getResourceType_shouldReturnResourceType() {
+		assertThat(resourceProvider.getResourceType(), equalTo(Provenance.class));
+	}
+	
+	@Test
+	public void searchProvenance_shouldReturnProvenanceOfTarget() {
+		ReferenceParam target = new ReferenceParam("Patient/" + PATIENT_UUID);
+		Provenance provenance = new Provenance();
+		provenance.setId(PATIENT_UUID + "-create");
+		when(fhirProvenanceService.searchForProvenance(target)).thenReturn(Collections.singletonList(provenance));
+		
+		List<Provenance> results = resourceProvider.searchProvenance(target);
+		
+		assertThat(results.size(), equalTo(1));
+		assertThat(results.get(0).getIdElement().getIdPart(), equalTo(PATIENT_UUID + "-create"));
+	}
+	
+	@Test
+	public void getProvenanceById_shouldReturnProvenance() {
+		Provenance provenance = new Provenance();
+		provenance.setId(PATIENT_UUID + "-update");
+		when(fhirProvenanceService.getProvenanceById(PATIENT_UUID + "-update")).thenReturn(provenance);
+		
+		Provenance result = resourceProvider.getProvenanceById(new IdType(PATIENT_UUID + "-update"));
+		
+		assertThat(result.getIdElement().getIdPart(), equalTo(PATIENT_UUID + "-update"));
+	}
+	
+	@Test(expected = ResourceNotFoundException.class)
+	public void getProvenanceById_shouldThrowResourceNotFoundExceptionForUnknownId() {
+		resourceProvider.getProvenanceById(new IdType(PATIENT_UUID + "-update"));
+	}
+}
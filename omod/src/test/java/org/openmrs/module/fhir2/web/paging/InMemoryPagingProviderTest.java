@@ -0,0 +1,177 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.web.paging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InMemoryPagingProviderTest {
+	
+	private static final String PATIENT_UUID = "a7e04421-525f-442f-8138-05b619d16def";
+	
+	private static final String OTHER_PATIENT_UUID = "5946f880-b197-400b-9caa-a3c661d23041";
+	
+	@Mock
+	private SearchQuery<String> searchQuery;
+	
+	@Mock
+	private RequestDetails requestDetails;
+	
+	private InMemoryPagingProvider pagingProvider;
+	
+	@Before
+	public void setup() {
+		pagingProvider = new InMemoryPagingProvider();
+	}
+	
+	@Test
+	public void storeResultList_shouldStoreIdsWithoutLoadingResults() {
+		String searchId = storeSearch();
+		
+		assertThat(searchId, notNullValue());
+		assertThat(pagingProvider.getRetainedBytes(), greaterThan(0L));
+		verify(searchQuery, never()).getResults(anyInt(), anyInt());
+	}
+	
+	@Test
+	public void retrieveResultList_shouldLoadRequestedPageOfResources() {
+		when(searchQuery.getResultsByUuid(Collections.singletonList(OTHER_PATIENT_UUID)))
+		        .thenReturn(Collections.singletonList(OTHER_PATIENT_UUID));
+		String searchId = storeSearch();
+		
+		IBundleProvider results = pagingProvider.retrieveResultList(requestDetails, searchId);
+		
+		assertThat(results, notNullValue());
+		assertThat(results.size(), equalTo(2));
+		assertThat(results.getUuid(), equalTo(searchId));
+		
+		List<IBaseResource> resources = results.getResources(1, 2);
+		
+		assertThat(resources, hasSize(1));
+		assertThat(resources.get(0).getIdElement().getIdPart(), equalTo(OTHER_PATIENT_UUID));
+		assertThat(pagingProvider.getHits(), equalTo(1L));
+		assertThat(pagingProvider.getMisses(), equalTo(0L));
+	}
+	
+	@Test
+	public void retrieveResultList_shouldNotReturnTotalWhenTotalIsNotWanted() {
+		when(searchQuery.getUuids(anyInt())).thenReturn(Arrays.asList(PATIENT_UUID, OTHER_PATIENT_UUID));
+		SearchQueryBundleProvider<String, Patient> bundleProvider = new SearchQueryBundleProvider<>(searchQuery,
+		        this::newPatient);
+		bundleProvider.setSummaryAndTotal(true, false);
+		
+		String searchId = pagingProvider.storeResultList(requestDetails, bundleProvider);
+		
+		assertThat(searchId, notNullValue());
+		assertThat(pagingProvider.retrieveResultList(requestDetails, searchId).size(), nullValue());
+		verify(searchQuery, never()).getCount();
+	}
+	
+	@Test
+	public void retrieveResultList_shouldReturnNullAndCountMissForUnknownSearch() {
+		assertThat(pagingProvider.retrieveResultList(requestDetails, "unknown"), nullValue());
+		assertThat(pagingProvider.getMisses(), equalTo(1L));
+	}
+	
+	@Test
+	public void retrieveResultList_shouldReturnNullForExpiredSearch() {
+		pagingProvider.setTimeout(0);
+		String searchId = storeSearch();
+		
+		assertThat(pagingProvider.retrieveResultList(requestDetails, searchId), nullValue());
+		assertThat(pagingProvider.getMisses(), equalTo(1L));
+		assertThat(pagingProvider.getRetainedBytes(), equalTo(0L));
+	}
+	
+	@Test
+	public void storeResultList_shouldEvictOldestSearchesWhenOverMemoryLimit() {
+		String firstSearchId = storeSearch();
+		long searchBytes = pagingProvider.getRetainedBytes();
+		pagingProvider.setMaximumBytes(searchBytes * 2);
+		
+		String secondSearchId = storeSearch();
+		String thirdSearchId = storeSearch();
+		
+		assertThat(pagingProvider.getEvictions(), equalTo(1L));
+		assertThat(pagingProvider.getRetainedBytes(), lessThanOrEqualTo(searchBytes * 2));
+		assertThat(pagingProvider.retrieveResultList(requestDetails, firstSearchId), nullValue());
+		assertThat(pagingProvider.retrieveResultList(requestDetails, secondSearchId), notNullValue());
+		assertThat(pagingProvider.retrieveResultList(requestDetails, thirdSearchId), notNullValue());
+	}
+	
+	@Test
+	public void storeResultList_shouldNotStoreSearchLargerThanMemoryLimit() {
+		pagingProvider.setMaximumBytes(1);
+		
+		assertThat(pagingProvider.storeResultList(requestDetails, newBundleProvider()), nullValue());
+		assertThat(pagingProvider.getRetainedBytes(), equalTo(0L));
+		verify(searchQuery, never()).getUuids(anyInt());
+	}
+	
+	@Test
+	public void storeResultList_shouldOnlyReadAsManyIdsAsFitInMemoryLimit() {
+		// room for a single id
+		pagingProvider.setMaximumBytes(256 + 64 + 2 * 36);
+		when(searchQuery.getUuids(2)).thenReturn(Arrays.asList(PATIENT_UUID, OTHER_PATIENT_UUID));
+		
+		assertThat(pagingProvider.storeResultList(requestDetails, newBundleProvider()), nullValue());
+		assertThat(pagingProvider.getRetainedBytes(), equalTo(0L));
+		verify(searchQuery, never()).getUuids();
+	}
+	
+	@Test
+	public void storeResultList_shouldNotStoreOtherBundleProviders() {
+		assertThat(pagingProvider.storeResultList(requestDetails,
+		    new SimpleBundleProvider(Collections.singletonList(newPatient(PATIENT_UUID)))), nullValue());
+		assertThat(pagingProvider.getRetainedBytes(), equalTo(0L));
+	}
+	
+	private String storeSearch() {
+		when(searchQuery.getUuids(anyInt())).thenReturn(Arrays.asList(PATIENT_UUID, OTHER_PATIENT_UUID));
+		return pagingProvider.storeResultList(requestDetails, newBundleProvider());
+	}
+	
+	private IBundleProvider newBundleProvider() {
+		return new SearchQueryBundleProvider<>(searchQuery, this::newPatient);
+	}
+	
+	private Patient newPatient(String uuid) {
+		Patient patient = new Patient();
+		patient.setId(uuid);
+		return patient;
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.web.paging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import ca.uhn.fhir.model.api.Include;
+import ca.uhn.fhir.rest.api.Constants;
+import ca.uhn.fhir.rest.api.server.IBundleProvider;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import ca.uhn.fhir.rest.server.SimpleBundleProvider;
+import ca.uhn.fhir.rest.server.exceptions.ResourceGoneException;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Patient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.module.fhir2.FhirPagedSearch;
+import org.openmrs.module.fhir2.api.FhirPagedSearchService;
+import org.openmrs.module.fhir2.api.search.SearchQuery;
+import org.openmrs.module.fhir2.api.search.SearchQueryBundleProvider;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PersistentPagingProviderTest {
+	
+	private static final String SEARCH_UUID = "2c1fba79-2a4e-4e4d-9fe1-20c5a45ec6b1";
+	
+	private static final String PATIENT_UUID = "a7e04421-525f-442f-8138-05b619d16def";
+	
+	@Mock
+	private FhirPagedSearchService pagedSearchService;
+	
+	@Mock
+	private SearchQuery<String> searchQuery;
+	
+	@Mock
+	private RequestDetails requestDetails;
+	
+	private PersistentPagingProvider pagingProvider;
+	
+	private FhirPagedSearch search;
+	
+	@Before
+	public void setup() {
+		pagingProvider = new PersistentPagingProvider();
+		pagingProvider.setPagedSearchService(pagedSearchService);
+		
+		search = new FhirPagedSearch();
+		search.setUuid(SEARCH_UUID);
+		search.setResourceType("Patient");
+		search.setTotal(2);
+		search.setDateCreated(new Date());
+	}
+	
+	@Test
+	public void storeResultList_shouldStoreSearchWithoutLoadingOrCountingResults() {
+		when(requestDetails.getResourceName()).thenReturn("Patient");
+		when(pagedSearchService.savePagedSearch("Patient", searchQuery, true, null, null)).thenReturn(search);
+		
+		String searchId = pagingProvider.storeResultList(requestDetails,
+		    new SearchQueryBundleProvider<>(searchQuery, this::newPatient));
+		
+		assertThat(searchId, equalTo(SEARCH_UUID));
+		verify(searchQuery, never()).getResults(anyInt(), anyInt());
+		verify(searchQuery, never()).getCount();
+	}
+	
+	@Test
+	public void storeResultList_shouldStoreSearchWhichDoesNotWantTotal() {
+		SearchQueryBundleProvider<String, Patient> bundleProvider = new SearchQueryBundleProvider<>(searchQuery,
+		        this::newPatient);
+		bundleProvider.setSummaryAndTotal(true, false);
+		when(requestDetails.getResourceName()).thenReturn("Patient");
+		when(pagedSearchService.savePagedSearch("Patient", searchQuery, false, null, null)).thenReturn(search);
+		
+		assertThat(pagingProvider.storeResultList(requestDetails, bundleProvider), equalTo(SEARCH_UUID));
+		verify(searchQuery, never()).getCount();
+	}
+	
+	@Test
+	public void storeResultList_shouldStoreIncludesWithSearch() {
+		Map<String, String[]> parameters = new HashMap<>();
+		parameters.put(Constants.PARAM_INCLUDE, new String[] { "Observation:patient", "Observation:encounter" });
+		parameters.put(Constants.PARAM_REVINCLUDE, new String[] { "Observation:encounter" });
+		
+		when(requestDetails.getResourceName()).thenReturn("Observation");
+		when(requestDetails.getParameters()).thenReturn(parameters);
+		when(pagedSearchService.savePagedSearch("Observation", searchQuery, true,
+		    new HashSet<>(Arrays.asList(new Include("Observation:patient"), new Include("Observation:encounter"))),
+		    Collections.singleton(new Include("Observation:encounter")))).thenReturn(search);
+		
+		assertThat(pagingProvider.storeResultList(requestDetails,
+		    new SearchQueryBundleProvider<>(searchQuery, this::newPatient)), equalTo(SEARCH_UUID));
+	}
+	
+	@Test
+	public void storeResultList_shouldNotStoreSearchWhenQueryCannotBeStored() {
+		when(requestDetails.getResourceName()).thenReturn("Patient");
+		
+		assertThat(pagingProvider.storeResultList(requestDetails,
+		    new SearchQueryBundleProvider<>(searchQuery, this::newPatient)), nullValue());
+	}
+	
+	@Test
+	public void storeResultList_shouldNotStoreOtherBundleProviders() {
+		when(requestDetails.getResourceName()).thenReturn("Patient");
+		
+		String searchId = pagingProvider.storeResultList(requestDetails,
+		    new SimpleBundleProvider(Collections.singletonList(newPatient(PATIENT_UUID))));
+		
+		assertThat(searchId, nullValue());
+		verify(pagedSearchService, never()).savePagedSearch(anyString(), any(), anyBoolean(), any(), any());
+	}
+	
+	@Test
+	public void retrieveResultList_shouldReturnNullForUnknownSearch() {
+		assertThat(pagingProvider.retrieveResultList(requestDetails, SEARCH_UUID), nullValue());
+	}
+	
+	@Test
+	public void retrieveResultList_shouldLoadRequestedPageOfResources() {
+		when(pagedSearchService.getPagedSearchByUuid(SEARCH_UUID)).thenReturn(search);
+		when(pagedSearchService.getResources(search, 1, 2))
+		        .thenReturn(Collections.singletonList(newPatient(PATIENT_UUID)));
+		
+		IBundleProvider results = pagingProvider.retrieveResultList(requestDetails, SEARCH_UUID);
+		
+		assertThat(results, notNullValue());
+		assertThat(results.size(), equalTo(2));
+		assertThat(results.getUuid(), equalTo(SEARCH_UUID));
+		
+		List<IBaseResource> resources = results.getResources(1, 2);
+		
+		assertThat(resources, hasSize(1));
+		assertThat(resources.get(0).getIdElement().getIdPart(), equalTo(PATIENT_UUID));
+	}
+	
+	@Test
+	public void retrieveResultList_shouldNotReturnTotalWhenTotalIsNotWanted() {
+		search.setIncludeTotal(false);
+		when(pagedSearchService.getPagedSearchByUuid(SEARCH_UUID)).thenReturn(search);
+		
+		assertThat(pagingProvider.retrieveResultList(requestDetails, SEARCH_UUID).size(), nullValue());
+	}
+	
+	@Test(expected = ResourceGoneException.class)
+	public void retrieveResultList_shouldThrowWhenSearchCanNoLongerBeRun() {
+		when(pagedSearchService.getPagedSearchByUuid(SEARCH_UUID)).thenReturn(search);
+		
+		pagingProvider.retrieveResultList(requestDetails, SEARCH_UUID).getResources(0, 2);
+	}
+	
+	private Patient newPatient(String uuid) {
+		Patient patient = new Patient();
+		patient.setId(uuid);
+		return patient;
+	}
+}
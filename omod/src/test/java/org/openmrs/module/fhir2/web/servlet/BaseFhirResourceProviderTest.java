@@ -40,6 +40,8 @@ import org.junit.BeforeClass;
 import org.openmrs.api.APIException;
 import org.openmrs.module.fhir2.FhirConstants;
 import org.openmrs.module.fhir2.api.impl.FhirGlobalPropertyServiceImpl;
+import org.openmrs.module.fhir2.providers.BulkExportProvider;
+import org.openmrs.module.fhir2.web.paging.PersistentPagingProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -47,6 +49,7 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockServletConfig;
 import org.springframework.mock.web.MockServletContext;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.UriComponentsBuilder;
 
 public abstract class BaseFhirResourceProviderTest<T extends IResourceProvider, U extends IBaseResource> {
 	
@@ -118,7 +121,11 @@ public abstract class BaseFhirResourceProviderTest<T extends IResourceProvider,
 				return null;
 			}
 		});
+		servlet.setPersistentPagingProvider(new PersistentPagingProvider());
+		servlet.setStreamingSearchInterceptor(new StreamingSearchInterceptor());
+		servlet.setElementProjectionInterceptor(new ElementProjectionInterceptor());
 		servlet.setResourceProviders(getResourceProvider());
+		servlet.setBulkExportProvider(getBulkExportProvider());
 		servlet.init(servletConfig);
 	}
 	
@@ -134,6 +141,10 @@ public abstract class BaseFhirResourceProviderTest<T extends IResourceProvider,
 		return new FhirRequestBuilder(RequestTypeEnum.PUT, "http://localhost:8080/" + SERVLET_NAME + uri);
 	}
 	
+	public FhirRequestBuilder delete(@NotNull String uri) throws MalformedURLException {
+		return new FhirRequestBuilder(RequestTypeEnum.DELETE, "http://localhost:8080/" + SERVLET_NAME + uri);
+	}
+	
 	public U readResponse(MockHttpServletResponse response) throws UnsupportedEncodingException {
 		return (U) parser.parseResource(response.getContentAsString());
 	}
@@ -144,6 +155,10 @@ public abstract class BaseFhirResourceProviderTest<T extends IResourceProvider,
 	
 	public abstract T getResourceProvider();
 	
+	public BulkExportProvider getBulkExportProvider() {
+		return null;
+	}
+	
 	public static class FhirMediaTypes {
 		
 		public static final MediaType JSON;
@@ -229,6 +244,9 @@ public abstract class BaseFhirResourceProviderTest<T extends IResourceProvider,
 			URL url = new URL(uri);
 			request.setRequestURI(url.getPath());
 			request.setQueryString(url.getQuery());
+			// a servlet container makes the query parameters available as request parameters as well
+			UriComponentsBuilder.fromUriString(uri).build().getQueryParams()
+			        .forEach((name, values) -> request.addParameter(name, values.toArray(new String[0])));
 		}
 		
 		public FhirRequestBuilder accept(@NotNull MediaType mediaType) {
@@ -236,6 +254,11 @@ public abstract class BaseFhirResourceProviderTest<T extends IResourceProvider,
 			return this;
 		}
 		
+		public FhirRequestBuilder header(@NotNull String name, @NotNull String value) {
+			request.addHeader(name, value);
+			return this;
+		}
+		
 		public FhirRequestBuilder jsonContent(@NotNull String json) {
 			request.addHeader(CONTENT_TYPE, FhirMediaTypes.JSON.toString());
 			request.setContent(json.getBytes());
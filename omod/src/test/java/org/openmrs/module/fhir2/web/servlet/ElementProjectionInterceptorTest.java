@@ -0,0 +1,76 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.fhir2.web.servlet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.api.server.RequestDetails;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.openmrs.module.fhir2.FhirConstants;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ElementProjectionInterceptorTest {
+	
+	private static final FhirContext fhirContext = FhirContext.forR4();
+	
+	@Mock
+	private RequestDetails requestDetails;
+	
+	private Map<String, String[]> parameters;
+	
+	@Before
+	public void setup() {
+		parameters = new HashMap<>();
+		when(requestDetails.getParameters()).thenReturn(parameters);
+	}
+	
+	@Test
+	public void getIncludedElements_shouldIncludeEveryElementWithoutElementsOrSummary() {
+		assertThat(ElementProjectionInterceptor.getIncludedElements(requestDetails), nullValue());
+	}
+	
+	@Test
+	public void getIncludedElements_shouldIncludeRequestedAndMandatoryElements() {
+		when(requestDetails.getFhirContext()).thenReturn(fhirContext);
+		parameters.put("_elements", new String[] { "subject,Observation.encounter" });
+		
+		BiPredicate<String, String> included = ElementProjectionInterceptor.getIncludedElements(requestDetails);
+		
+		assertThat(included.test(FhirConstants.OBSERVATION, "subject"), equalTo(true));
+		assertThat(included.test(FhirConstants.OBSERVATION, "encounter"), equalTo(true));
+		assertThat(included.test(FhirConstants.OBSERVATION, "code"), equalTo(true));
+		assertThat(included.test(FhirConstants.OBSERVATION, "contained"), equalTo(false));
+		assertThat(included.test(FhirConstants.OBSERVATION, "basedOn"), equalTo(false));
+		assertThat(included.test(FhirConstants.ENCOUNTER, "location"), equalTo(false));
+	}
+	
+	@Test
+	public void getIncludedElements_shouldOnlyIncludeSummaryElementsForSummary() {
+		when(requestDetails.getFhirContext()).thenReturn(fhirContext);
+		parameters.put("_summary", new String[] { "true" });
+		
+		BiPredicate<String, String> included = ElementProjectionInterceptor.getIncludedElements(requestDetails);
+		
+		assertThat(included.test(FhirConstants.PATIENT, "name"), equalTo(true));
+		assertThat(included.test(FhirConstants.PATIENT, "contained"), equalTo(false));
+	}
+}